@@ -0,0 +1,73 @@
+package org.nzbhydra.indexers;
+
+import com.google.common.io.Resources;
+import org.nzbhydra.mapping.newznab.Xml;
+import org.nzbhydra.web.WebConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.oxm.Unmarshaller;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares reading recorded search responses with 100 items with the unmarshaller (from the response string, as it was done before) and
+ * with the streaming parser. Run with
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test -Dexec.args="-classpath %classpath org.nzbhydra.indexers.NewznabParserBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NewznabParserBenchmark {
+
+    @Param({"nzbsOrgResponse.xml", "drunkenSlugResponse.xml", "nzbIndexResponse.xml"})
+    public String response;
+
+    private byte[] responseBytes;
+    private String responseString;
+    private Unmarshaller unmarshaller = new WebConfiguration().marshaller();
+    private NewznabStaxParser staxParser = new NewznabStaxParser();
+
+    @Setup
+    public void setUp() throws IOException {
+        responseBytes = Resources.toByteArray(Resources.getResource("org/nzbhydra/mapping/" + response));
+        responseString = new String(responseBytes, StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Xml unmarshaller() throws IOException {
+        return (Xml) unmarshaller.unmarshal(new StreamSource(new StringReader(responseString)));
+    }
+
+    @Benchmark
+    public Xml staxParser() throws XMLStreamException {
+        return staxParser.parse(new ByteArrayInputStream(responseBytes));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(NewznabParserBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
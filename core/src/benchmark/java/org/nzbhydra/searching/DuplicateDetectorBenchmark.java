@@ -0,0 +1,78 @@
+package org.nzbhydra.searching;
+
+import ch.qos.logback.classic.Level;
+import org.nzbhydra.config.BaseConfig;
+import org.nzbhydra.config.ConfigProvider;
+import org.nzbhydra.config.SearchingConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the duplicate detection before and after indexing the results by size and age. Run with
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test -Dexec.args="-classpath %classpath org.nzbhydra.searching.DuplicateDetectorBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DuplicateDetectorBenchmark {
+
+    @Param({"10000", "50000", "100000"})
+    public int numberOfResults;
+
+    private List<SearchResultItem> searchResultItems;
+    private DuplicateDetector duplicateDetector = new DuplicateDetector();
+    private LegacyDuplicateDetector legacyDuplicateDetector = new LegacyDuplicateDetector();
+
+    @Setup
+    public void setUp() {
+        //Debug logging of every comparison would be measured instead of the comparisons
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("org.nzbhydra")).setLevel(Level.INFO);
+        BaseConfig baseConfig = new BaseConfig();
+        baseConfig.setSearching(new SearchingConfig());
+        ConfigProvider configProvider = new ConfigProvider() {
+            @Override
+            public BaseConfig getBaseConfig() {
+                return baseConfig;
+            }
+        };
+        duplicateDetector.configProvider = configProvider;
+        legacyDuplicateDetector.configProvider = configProvider;
+        searchResultItems = SyntheticSearchResults.create(numberOfResults, 1);
+    }
+
+    @Benchmark
+    public DuplicateDetectionResult legacy() {
+        return legacyDuplicateDetector.detectDuplicates(searchResultItems);
+    }
+
+    @Benchmark
+    public DuplicateDetectionResult indexed() {
+        return duplicateDetector.detectDuplicates(searchResultItems);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(DuplicateDetectorBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
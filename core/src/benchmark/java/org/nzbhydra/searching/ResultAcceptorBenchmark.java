@@ -0,0 +1,139 @@
+package org.nzbhydra.searching;
+
+import ch.qos.logback.classic.Level;
+import org.nzbhydra.config.BaseConfig;
+import org.nzbhydra.config.Category;
+import org.nzbhydra.config.ConfigProvider;
+import org.nzbhydra.config.IndexerConfig;
+import org.nzbhydra.config.SearchSourceRestriction;
+import org.nzbhydra.config.SearchingConfig;
+import org.nzbhydra.indexers.IndexerEntity;
+import org.nzbhydra.indexers.Newznab;
+import org.nzbhydra.searching.ResultAcceptor.AcceptorResult;
+import org.nzbhydra.searching.searchrequests.SearchRequest;
+import org.nzbhydra.searching.searchrequests.SearchRequest.SearchSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures accepting 10.000 results with global and category restrictions consisting of regexes and lists of forbidden and required
+ * words, posters and groups of different lengths. Run with
+ * <pre>
+ * mvn -Pbenchmark test-compile exec:exec -Dexec.executable=java -Dexec.classpathScope=test -Dexec.args="-classpath %classpath org.nzbhydra.searching.ResultAcceptorBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ResultAcceptorBenchmark {
+
+    private static final List<String> COMMON_FORBIDDEN_WORDS = Arrays.asList("german", "french", "dubbed", "hdcam", "hdts", "cam", "ts", "3d", "web-dl.dual", "x265.hevc");
+    private static final List<String> TITLE_PARTS = Arrays.asList("Show.Title", "Another Show", "Movie.Title.2017", "Some.Documentary");
+    private static final List<String> QUALITY_PARTS = Arrays.asList("720p.WEB-DL.x264", "1080p.BluRay.x264", "2160p.WEB.x265.HEVC", "HDTV.XviD", "HDCAM.x264", "German.DL.1080p");
+
+    @Param({"10", "100", "1000"})
+    public int numberOfWords;
+
+    private ResultAcceptor resultAcceptor = new ResultAcceptor();
+    private List<SearchResultItem> searchResultItems;
+    private SearchRequest searchRequest;
+    private IndexerConfig indexerConfig;
+
+    @Setup
+    public void setUp() {
+        //Debug logging of every rejection would be measured instead of the checks
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("org.nzbhydra")).setLevel(Level.WARN);
+        Random random = new Random(1);
+
+        SearchingConfig searchingConfig = new SearchingConfig();
+        searchingConfig.setApplyRestrictions(SearchSourceRestriction.BOTH);
+        searchingConfig.setRequiredRegex("(720p|1080p|2160p)");
+        searchingConfig.setForbiddenRegex("\\b(sample|trailer)\\b");
+        searchingConfig.setForbiddenWords(createWords("forbidden", random));
+        searchingConfig.setForbiddenPosters(createWords("spammer@spam", random));
+        searchingConfig.setForbiddenGroups(createWords("alt.binaries.spam", random));
+        BaseConfig baseConfig = new BaseConfig();
+        baseConfig.setSearching(searchingConfig);
+        ConfigProvider configProvider = new ConfigProvider() {
+            @Override
+            public BaseConfig getBaseConfig() {
+                return baseConfig;
+            }
+        };
+        resultAcceptor.configProvider = configProvider;
+
+        Category category = new Category("TV");
+        category.setApplyRestrictionsType(SearchSourceRestriction.BOTH);
+        category.setIgnoreResultsFrom(SearchSourceRestriction.NONE);
+        category.setForbiddenWords(createWords("categoryforbidden", random));
+        category.setRequiredWords(Arrays.asList("x264"));
+        category.setForbiddenRegex("\\bdubbed\\b");
+
+        indexerConfig = new IndexerConfig();
+        indexerConfig.setName("indexer");
+        indexerConfig.setHost("http://127.0.0.1");
+        Newznab indexer = new Newznab();
+        indexer.initialize(indexerConfig, new IndexerEntity());
+
+        searchRequest = new SearchRequest(SearchSource.INTERNAL, SearchType.SEARCH, 0, 100);
+        searchRequest.setCategory(category);
+
+        Instant now = Instant.now();
+        searchResultItems = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            SearchResultItem item = new SearchResultItem();
+            item.setTitle(TITLE_PARTS.get(random.nextInt(TITLE_PARTS.size())) + ".S0" + random.nextInt(10) + "E" + random.nextInt(24) + "." + QUALITY_PARTS.get(random.nextInt(QUALITY_PARTS.size())) + "-GRP" + random.nextInt(100));
+            item.setIndexerGuid("guid" + i);
+            item.setLink("http://127.0.0.1/getnzb/" + i);
+            item.setPubDate(now.minus(random.nextInt(1000), ChronoUnit.DAYS));
+            item.setSize(100_000_000L + (long) (random.nextDouble() * 10_000_000_000L));
+            item.setPoster("poster" + random.nextInt(1000) + "@example.com");
+            item.setGroup("alt.binaries.group" + random.nextInt(1000));
+            item.setCategory(category);
+            item.setIndexer(indexer);
+            searchResultItems.add(item);
+        }
+    }
+
+    private List<String> createWords(String prefix, Random random) {
+        List<String> words = new ArrayList<>(COMMON_FORBIDDEN_WORDS.subList(0, Math.min(numberOfWords, COMMON_FORBIDDEN_WORDS.size())));
+        while (words.size() < numberOfWords) {
+            words.add(prefix + random.nextInt(100_000));
+        }
+        return words;
+    }
+
+    @Benchmark
+    public AcceptorResult acceptResults() {
+        return resultAcceptor.acceptResults(searchResultItems, searchRequest, indexerConfig);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ResultAcceptorBenchmark.class.getSimpleName()).build()).run();
+    }
+
+}
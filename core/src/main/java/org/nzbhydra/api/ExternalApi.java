@@ -31,6 +31,10 @@ import org.nzbhydra.mapping.newznab.caps.CapsSearching;
 import org.nzbhydra.mapping.newznab.caps.CapsServer;
 import org.nzbhydra.mediainfo.InfoProvider.IdType;
 import org.nzbhydra.searching.CategoryProvider;
+import org.nzbhydra.searching.SearchCache;
+import org.nzbhydra.searching.SearchCache.Region;
+import org.nzbhydra.searching.SearchLimitReachedException;
+import org.nzbhydra.searching.SearchRequestExecutor;
 import org.nzbhydra.searching.SearchResult;
 import org.nzbhydra.searching.SearchResultItem;
 import org.nzbhydra.searching.SearchResultItem.DownloadType;
@@ -50,20 +54,19 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Map.Entry;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Random;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -71,8 +74,8 @@ import java.util.stream.Stream;
 @RestController
 public class ExternalApi {
 
-    private static final int MAX_CACHE_SIZE = 5;
-    private static final int MAX_CACHE_AGE_HOURS = 24;
+    private static final Duration MAX_CACHE_AGE = Duration.ofHours(24);
+    private static final long ASYNC_REQUEST_TIMEOUT = TimeUnit.MINUTES.toMillis(5);
 
     private static final Logger logger = LoggerFactory.getLogger(ExternalApi.class);
 
@@ -89,14 +92,20 @@ public class ExternalApi {
     protected ConfigProvider configProvider;
     @Autowired
     private CategoryProvider categoryProvider;
+    @Autowired
+    protected SearchCache searchCache;
+    @Autowired
+    protected SearchRequestExecutor searchRequestExecutor;
     protected Clock clock = Clock.systemUTC();
     private Random random = new Random();
 
-    private ConcurrentMap<Integer, CacheEntryValue> cache = new ConcurrentHashMap<>();
-
 
+    /**
+     * Handles searches in the search request executor so that no servlet thread is blocked while searching. Everything else (and searches
+     * answered from the cache) is handled right away.
+     */
     @RequestMapping(value = {"/api", "/rss", "/torznab/api"}, produces = MediaType.APPLICATION_RSS_XML_VALUE, consumes = MediaType.ALL_VALUE)
-    public ResponseEntity<? extends Object> api(NewznabParameters params) throws Exception {
+    public DeferredResult<ResponseEntity<?>> api(NewznabParameters params) throws Exception {
         logger.info("Received external {}API call: {}", (isTorznabCall() ? "torznab " : ""), params);
 
         if (!noApiKeyNeeded && !Objects.equals(params.getApikey(), configProvider.getBaseConfig().getMain().getApiKey())) {
@@ -104,7 +113,32 @@ public class ExternalApi {
             throw new WrongApiKeyException("Wrong api key");
         }
 
-        if (Stream.of(ActionAttribute.SEARCH, ActionAttribute.BOOK, ActionAttribute.TVSEARCH, ActionAttribute.MOVIE).anyMatch(x -> x == params.getT())) {
+        DeferredResult<ResponseEntity<?>> deferredResult = new DeferredResult<>(ASYNC_REQUEST_TIMEOUT, new ResponseEntity<Object>(new RssError("900", "Request did not complete in time"), HttpStatus.OK));
+        if (!isSearch(params)) {
+            deferredResult.setResult(handleApiRequest(params));
+            return deferredResult;
+        }
+        if (params.getCachetime() != null) {
+            Optional<RssRoot> cachedSearchResult = getCachedSearchResult(params);
+            if (cachedSearchResult.isPresent()) {
+                deferredResult.setResult(new ResponseEntity<>(cachedSearchResult.get(), HttpStatus.OK));
+                return deferredResult;
+            }
+        }
+
+        searchRequestExecutor.submit(SessionStorage.withCurrentSessionData(() -> {
+            try {
+                deferredResult.setResult(handleApiRequest(params));
+            } catch (Exception e) {
+                deferredResult.setErrorResult(e);
+            }
+            return null;
+        }));
+        return deferredResult;
+    }
+
+    protected ResponseEntity<?> handleApiRequest(NewznabParameters params) throws Exception {
+        if (isSearch(params)) {
             if (params.getCachetime() != null) {
                 return handleCachingSearch(params);
             }
@@ -125,36 +159,36 @@ public class ExternalApi {
         return new ResponseEntity<Object>(error, HttpStatus.OK);
     }
 
+    private boolean isSearch(NewznabParameters params) {
+        return Stream.of(ActionAttribute.SEARCH, ActionAttribute.BOOK, ActionAttribute.TVSEARCH, ActionAttribute.MOVIE).anyMatch(x -> x == params.getT());
+    }
 
     protected ResponseEntity<?> handleCachingSearch(NewznabParameters params) {
-        //Remove old entries
-        cache.entrySet().removeIf(x -> x.getValue().getLastUpdate().isBefore(clock.instant().minus(MAX_CACHE_AGE_HOURS, ChronoUnit.HOURS)));
-
-        CacheEntryValue cacheEntryValue;
-        if (cache.containsKey(params.cacheKey())) {
-            cacheEntryValue = cache.get(params.cacheKey());
-            if (cacheEntryValue.getLastUpdate().isAfter(clock.instant().minus(params.getCachetime(), ChronoUnit.MINUTES))) {
-                Instant nextUpdate = cacheEntryValue.getLastUpdate().plus(params.getCachetime(), ChronoUnit.MINUTES);
-                logger.info("Returning cached search result. Next update of search will be done at {}", nextUpdate);
-                return new ResponseEntity<>(cacheEntryValue.getSearchResult(), HttpStatus.OK);
-            } else {
-                logger.info("Updating search because cache time is exceeded");
-            }
-        }
-        //Remove oldest entry when max size is reached
-        if (cache.size() == MAX_CACHE_SIZE) {
-            Optional<Entry<Integer, CacheEntryValue>> keyToEvict = cache.entrySet().stream().sorted(Comparator.comparing(o -> o.getValue().getLastUpdate())).findFirst();
-            //Should always be the case anyway
-            logger.info("Removing oldest entry from cache because its limit of {} is reached", MAX_CACHE_SIZE);
-            keyToEvict.ifPresent(newznabParametersCacheEntryValueEntry -> cache.remove(newznabParametersCacheEntryValueEntry.getKey()));
+        Optional<RssRoot> cachedSearchResult = getCachedSearchResult(params);
+        if (cachedSearchResult.isPresent()) {
+            return new ResponseEntity<>(cachedSearchResult.get(), HttpStatus.OK);
         }
 
         RssRoot searchResult = search(params);
         logger.info("Putting search result into cache");
-        cache.put(params.cacheKey(), new CacheEntryValue(params, clock.instant(), searchResult));
+        searchCache.put(Region.API_SEARCHES, params.cacheKey(), new CacheEntryValue(params, clock.instant(), searchResult), SearchCache.estimateSize(searchResult), MAX_CACHE_AGE);
         return new ResponseEntity<>(searchResult, HttpStatus.OK);
     }
 
+    private Optional<RssRoot> getCachedSearchResult(NewznabParameters params) {
+        Optional<CacheEntryValue> cacheEntryValue = searchCache.get(Region.API_SEARCHES, params.cacheKey(), CacheEntryValue.class);
+        if (cacheEntryValue.isPresent()) {
+            if (cacheEntryValue.get().getLastUpdate().isAfter(clock.instant().minus(params.getCachetime(), ChronoUnit.MINUTES))) {
+                Instant nextUpdate = cacheEntryValue.get().getLastUpdate().plus(params.getCachetime(), ChronoUnit.MINUTES);
+                logger.info("Returning cached search result. Next update of search will be done at {}", nextUpdate);
+                return Optional.of(cacheEntryValue.get().getSearchResult());
+            } else {
+                logger.info("Updating search because cache time is exceeded");
+            }
+        }
+        return Optional.empty();
+    }
+
     protected ResponseEntity<?> getCaps() {
         CapsRoot capsRoot = new CapsRoot();
         capsRoot.setRetention(new CapsRetention(3000));
@@ -221,6 +255,12 @@ public class ExternalApi {
         return error;
     }
 
+    @ExceptionHandler(value = SearchLimitReachedException.class)
+    public Xml handler(SearchLimitReachedException e) {
+        //Newznab code for "Request limit reached" so that clients try again later
+        return new RssError("500", e.getMessage());
+    }
+
     @ExceptionHandler(value = Exception.class)
     public ResponseEntity handleUnexpectedError(Exception e) {
         logger.error("Unexpected error while handling API request", e);
@@ -304,6 +344,7 @@ public class ExternalApi {
         searchRequest.setTitle(params.getTitle());
         searchRequest.setSeason(params.getSeason());
         searchRequest.setEpisode(params.getEp());
+        searchRequest.setDeadline(configProvider.getBaseConfig().getSearching().getApiSearchDeadline().orElse(null));
         if (params.getCat() != null) {
             searchRequest.getInternalData().setNewznabCategories(params.getCat());
         }
@@ -7,7 +7,6 @@ import lombok.Data;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,6 +15,7 @@ import java.util.Optional;
 @Data
 public class SearchingConfig extends ValidatingConfig {
 
+    private Integer apiSearchDeadline;
     @JsonFormat(shape = Shape.STRING)
     private SearchSourceRestriction applyRestrictions = SearchSourceRestriction.BOTH;
 
@@ -30,15 +30,20 @@ public class SearchingConfig extends ValidatingConfig {
     private SearchSourceRestriction idFallbackToQueryGeneration = SearchSourceRestriction.NONE;
     private boolean ignorePassworded = false;
     private boolean ignoreTemporarilyDisabled = false;
+    private int indexerCallThreads = 50;
+    private Integer indexerResponseCacheTime;
     private int keepSearchResultsForDays = 14;
     private String language = "en";
     private boolean loadAllCachedOnInternal;
     private Integer maxAge;
+    private int maxConcurrentCallsPerIndexer = 5;
+    private int maxConcurrentSearches = 20;
     @JsonFormat(shape = Shape.STRING)
     private NzbAccessType nzbAccessType = NzbAccessType.REDIRECT;
     private List<String> removeTrailing = new ArrayList<>();
     private String requiredRegex;
     private List<String> requiredWords = new ArrayList<>();
+    private int searchCacheSizeMb = 32;
     private boolean showQuickFilterButtons = true;
     private Integer timeout = 30;
     private String userAgent = "NZBHydra2";
@@ -54,6 +59,14 @@ public class SearchingConfig extends ValidatingConfig {
         return Optional.ofNullable(maxAge);
     }
 
+    public Optional<Integer> getIndexerResponseCacheTime() {
+        return Optional.ofNullable(indexerResponseCacheTime);
+    }
+
+    public Optional<Integer> getApiSearchDeadline() {
+        return Optional.ofNullable(apiSearchDeadline);
+    }
+
     public Optional<String> getForbiddenRegex() {
         return Optional.ofNullable(Strings.emptyToNull(forbiddenRegex));
     }
@@ -75,8 +88,31 @@ public class SearchingConfig extends ValidatingConfig {
     @Override
     public ConfigValidationResult validateConfig(BaseConfig oldConfig) {
         List<String> errors = new ArrayList<>();
+        List<String> warnings = new ArrayList<>();
         checkRegex(errors, requiredRegex, "The required regex in \"Searching\" is invalid");
         checkRegex(errors, forbiddenRegex, "The forbidden in \"Searching\" is invalid");
-        return new ConfigValidationResult(errors.isEmpty(), false, errors, Collections.emptyList());
+        if (indexerCallThreads < 0) {
+            errors.add("The number of threads for indexer calls must be at least 1 or 0 for no limit");
+        }
+        if (maxConcurrentCallsPerIndexer < 1) {
+            errors.add("The number of concurrent calls per indexer must be at least 1");
+        }
+        if (maxConcurrentSearches < 0) {
+            errors.add("The number of concurrent searches must be at least 1 or 0 for no limit");
+        }
+        if (indexerResponseCacheTime != null && indexerResponseCacheTime < 1) {
+            errors.add("The time for which indexer responses are cached must be at least 1 minute");
+        }
+        if (searchCacheSizeMb < 1) {
+            errors.add("The size of the search cache must be at least 1MB");
+        }
+        if (apiSearchDeadline != null) {
+            if (apiSearchDeadline < 1) {
+                errors.add("The search deadline for API searches must be at least 1 second");
+            } else if (timeout != null && apiSearchDeadline >= timeout) {
+                warnings.add("The search deadline for API searches is not shorter than the timeout when accessing indexers and will have no effect");
+            }
+        }
+        return new ConfigValidationResult(errors.isEmpty(), false, errors, warnings);
     }
 };
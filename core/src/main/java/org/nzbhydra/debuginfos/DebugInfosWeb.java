@@ -2,8 +2,12 @@ package org.nzbhydra.debuginfos;
 
 import org.nzbhydra.GenericResponse;
 import org.nzbhydra.NzbHydra;
+import org.nzbhydra.indexers.IndexerCallExecutor;
+import org.nzbhydra.indexers.IndexerCallExecutor.ExecutorStatistics;
 import org.nzbhydra.logging.LogContentProvider;
 import org.nzbhydra.logging.LogContentProvider.JsonLogResponse;
+import org.nzbhydra.searching.SearchCache;
+import org.nzbhydra.searching.SearchCache.SearchCacheStatistics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -28,6 +32,10 @@ public class DebugInfosWeb {
     private LogContentProvider logContentProvider;
     @Autowired
     private org.nzbhydra.debuginfos.DebugInfosProvider debugInfos;
+    @Autowired
+    private IndexerCallExecutor indexerCallExecutor;
+    @Autowired
+    private SearchCache searchCache;
 
     private static final Logger logger = LoggerFactory.getLogger(DebugInfosWeb.class);
 
@@ -74,6 +82,18 @@ public class DebugInfosWeb {
         }
     }
 
+    @Secured({"ROLE_ADMIN"})
+    @RequestMapping(value = "/internalapi/debuginfos/indexercalls", method = RequestMethod.GET)
+    public ExecutorStatistics getIndexerCallStatistics() {
+        return indexerCallExecutor.getStatistics();
+    }
+
+    @Secured({"ROLE_ADMIN"})
+    @RequestMapping(value = "/internalapi/debuginfos/searchcache", method = RequestMethod.GET)
+    public SearchCacheStatistics getSearchCacheStatistics() {
+        return searchCache.getStatistics();
+    }
+
     @Secured({"ROLE_ADMIN"})
     @RequestMapping(value = "/internalapi/debuginfos/executesqlquery", method = RequestMethod.POST)
     public GenericResponse executeSqlQuery(@RequestBody String sql) throws IOException {
@@ -1,5 +1,8 @@
 package org.nzbhydra.historystats;
 
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import org.nzbhydra.historystats.stats.HistoryRequestData;
@@ -27,11 +30,23 @@ import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Component
 public class History {
 
+    //Generated columns which contain the lower case values of the columns most commonly filtered and sorted by
+    private static final Map<String, Set<String>> LOWER_CASE_COLUMNS = ImmutableMap.of(
+            "SEARCH", ImmutableSet.of("QUERY", "USERNAME", "IP"),
+            "INDEXERNZBDOWNLOAD", ImmutableSet.of("USERNAME", "IP")
+    );
+    //Columns contained in H2's full text index. Free text filters for them only check the entries which contain words matching the filter's words
+    private static final Map<String, Set<String>> FULL_TEXT_COLUMNS = ImmutableMap.of(
+            "SEARCH", ImmutableSet.of("QUERY", "TITLE")
+    );
+    private static final Pattern WORD_PATTERN = Pattern.compile("[\\p{L}\\p{N}]+");
+
     @PersistenceContext
     private EntityManager entityManager;
     @Autowired
@@ -40,6 +55,14 @@ public class History {
     private IndexerSearchRepository indexerSearchRepository;
 
     public <T> Page<T> getHistory(HistoryRequestData requestData, String tableName, Class<T> resultClass) {
+        return getHistory(requestData, tableName, "", resultClass);
+    }
+
+    /**
+     * @param tableName Table containing the history entries
+     * @param joins     Joins for additional columns, may be empty
+     */
+    public <T> Page<T> getHistory(HistoryRequestData requestData, String tableName, String joins, Class<T> resultClass) {
         Map<String, Object> parameters = new HashMap<>();
 
         List<String> wheres = new ArrayList<>();
@@ -50,10 +73,18 @@ public class History {
             Object filterType = columnAndFilterDefinition.getValue().getFilterType();
             String columnName = columnAndFilterDefinition.getKey();
             if (filterType.equals("freetext")) {
-                wheres.add(String.format("LOWER(%s) LIKE :%s", columnName, columnName));
+                if (isFullTextColumn(tableName, columnName)) {
+                    List<String> wordPatterns = getIndexedWordPatterns(filterValue.toString());
+                    for (int i = 0; i < wordPatterns.size(); i++) {
+                        //The index's rows contain keys like "ID"=5
+                        wheres.add(String.format("%1$s.ID IN (SELECT CAST(SUBSTRING(R.KEY, 6) AS BIGINT) FROM FT.WORDS W JOIN FT.MAP M ON M.WORDID = W.ID JOIN FT.ROWS R ON R.ID = M.ROWID JOIN FT.INDEXES I ON I.ID = R.INDEXID WHERE I.TABLE = '%1$s' AND W.NAME LIKE :%2$sWord%3$d)", tableName, columnName, i));
+                        parameters.put(columnName + "Word" + i, wordPatterns.get(i));
+                    }
+                }
+                wheres.add(String.format("%s LIKE :%s", lowerCase(tableName, columnName), columnName));
                 parameters.put(columnName, "%" + filterValue.toString().toLowerCase() + "%");
             } else if (filterType.equals("text")) {
-                wheres.add(String.format("LOWER(%s) = :%s", columnName, columnName));
+                wheres.add(String.format("%s = :%s", lowerCase(tableName, columnName), columnName));
                 parameters.put(columnName, filterValue.toString().toLowerCase());
             } else if (filterType.equals("checkboxes")) {
                 wheres.add(String.format("%s IN :%s", columnName, columnName));
@@ -73,19 +104,42 @@ public class History {
                 }
             }
         }
+        //The count doesn't depend on the page
+        List<String> countWheres = new ArrayList<>(wheres);
+
         SortModel sortModel = requestData.getSortModel();
-        boolean useNullsLast = true;
-        boolean useLower = true;
+        boolean sortedByTime = sortModel != null && "time".equalsIgnoreCase(sortModel.getColumn());
+        boolean ascending = sortModel != null && sortModel.getSortMode() == 1;
         if (sortModel != null) {
             String column = sortModel.getColumn();
-            if ("time".equalsIgnoreCase(column)) {
-                useNullsLast = false;
-                useLower = false;
+            if (sortedByTime) {
+                sort = String.format(" order by %s.TIME %s, %s.ID %s ", tableName, ascending ? "ASC" : "DESC", tableName, ascending ? "ASC" : "DESC");
+            } else {
+                sort = String.format(" order by %s %s nulls last ", lowerCase(tableName, column), ascending ? "ASC" : "DESC");
             }
-            if (useLower) {
-                column = "lower(" + column + ")";
+        }
+
+        String paging = String.format(" LIMIT %d OFFSET %d", requestData.getLimit(), (requestData.getPage() - 1) * requestData.getLimit());
+        //When going to the next or previous page seek to the entry after or before the shown ones instead of skipping all previous
+        //entries. Jumping to any other page and sorting by other columns still uses the offset
+        boolean seekBackward = requestData.getLastId() == null && requestData.getFirstId() != null;
+        Integer seekId = seekBackward ? requestData.getFirstId() : requestData.getLastId();
+        boolean seeking = false;
+        if (sortedByTime && seekId != null) {
+            List seekTime = entityManager.createNativeQuery("SELECT TIME FROM " + tableName + " WHERE ID = :seekId").setParameter("seekId", seekId).getResultList();
+            if (!seekTime.isEmpty() && seekTime.get(0) != null) {
+                seeking = true;
+                String comparator = ascending != seekBackward ? ">" : "<";
+                wheres.add(String.format("(%1$s.TIME %2$s :seekTime OR (%1$s.TIME = :seekTime AND %1$s.ID %2$s :seekId))", tableName, comparator));
+                parameters.put("seekTime", seekTime.get(0));
+                parameters.put("seekId", seekId);
+                paging = String.format(" LIMIT %d", requestData.getLimit());
+                if (seekBackward) {
+                    //Load the entries before the first one in reverse order, they're reversed again below
+                    String direction = ascending ? "DESC" : "ASC";
+                    sort = String.format(" order by %s.TIME %s, %s.ID %s ", tableName, direction, tableName, direction);
+                }
             }
-            sort = String.format(" order by %s %s %s ", column, sortModel.getSortMode() == 1 ? "ASC" : "DESC", useNullsLast ? "nulls last" : "");
         }
 
         String whereConditions = "";
@@ -93,24 +147,64 @@ public class History {
             whereConditions = " WHERE " + wheres.stream().collect(Collectors.joining(" AND "));
         }
 
-        String paging = String.format(" LIMIT %d OFFSET %d", requestData.getLimit(), (requestData.getPage() - 1) * requestData.getLimit());
-
-
-        String selectQuerySql = "SELECT * FROM " + tableName + whereConditions + sort + paging;
-        String countQuerySql = "SELECT COUNT(*) FROM " + tableName + whereConditions;
-
+        String selectQuerySql = "SELECT * FROM " + tableName + " " + joins + whereConditions + sort + paging;
         Query selectQuery = entityManager.createNativeQuery(selectQuerySql, resultClass);
-        Query countQuery = entityManager.createNativeQuery(countQuerySql);
         for (Entry<String, Object> entry : parameters.entrySet()) {
             selectQuery.setParameter(entry.getKey(), entry.getValue());
-            countQuery.setParameter(entry.getKey(), entry.getValue());
         }
 
         List resultList = selectQuery.getResultList();
+        if (seeking && seekBackward) {
+            resultList = Lists.reverse(resultList);
+        }
         Pageable pageable = new PageRequest(requestData.getPage() - 1, requestData.getLimit());
 
-        BigInteger count = (BigInteger) countQuery.getSingleResult();
-        return new PageImpl<>(resultList, pageable, count.longValue());
+        long count;
+        if (requestData.isApproximateCount() && countWheres.isEmpty()) {
+            count = ((Number) entityManager.createNativeQuery("SELECT ROW_COUNT_ESTIMATE FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_NAME = :tableName").setParameter("tableName", tableName).getSingleResult()).longValue();
+        } else {
+            String countWhereConditions = countWheres.isEmpty() ? "" : " WHERE " + countWheres.stream().collect(Collectors.joining(" AND "));
+            Query countQuery = entityManager.createNativeQuery("SELECT COUNT(*) FROM " + tableName + " " + joins + countWhereConditions);
+            for (Entry<String, Object> entry : parameters.entrySet()) {
+                if (!entry.getKey().equals("seekTime") && !entry.getKey().equals("seekId")) {
+                    countQuery.setParameter(entry.getKey(), entry.getValue());
+                }
+            }
+            count = ((BigInteger) countQuery.getSingleResult()).longValue();
+        }
+        return new PageImpl<>(resultList, pageable, count);
+    }
+
+    /**
+     * Returns the lower case version of the column, using the indexed lower case column if the table has one.
+     */
+    private String lowerCase(String tableName, String column) {
+        Set<String> lowerCaseColumns = LOWER_CASE_COLUMNS.get(tableName);
+        if (lowerCaseColumns != null && lowerCaseColumns.contains(column.toUpperCase())) {
+            return tableName + "." + column.toUpperCase() + "_LOWER";
+        }
+        return "lower(" + column + ")";
+    }
+
+    /**
+     * Returns patterns for the index's (upper case) words which the entries matching the filter must contain. The first word of a free
+     * text filter may be the end of a longer word and the last word may be the start of one (e.g. "avat" of "Avatar"). Only the words
+     * with whitespace on both sides must match completely.
+     */
+    private List<String> getIndexedWordPatterns(String filterValue) {
+        String[] tokens = filterValue.split("\\s", -1);
+        List<String> wordPatterns = new ArrayList<>();
+        for (int i = 0; i < tokens.length; i++) {
+            if (WORD_PATTERN.matcher(tokens[i]).matches()) {
+                wordPatterns.add((i == 0 ? "%" : "") + tokens[i].toUpperCase() + (i == tokens.length - 1 ? "%" : ""));
+            }
+        }
+        return wordPatterns;
+    }
+
+    private boolean isFullTextColumn(String tableName, String column) {
+        Set<String> fullTextColumns = FULL_TEXT_COLUMNS.get(tableName);
+        return fullTextColumns != null && fullTextColumns.contains(column.toUpperCase());
     }
 
     public List<SearchEntity> getHistoryForSearching() {
@@ -1,7 +1,9 @@
 package org.nzbhydra.historystats;
 
 import com.google.common.base.Stopwatch;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.nzbhydra.config.SearchModuleType;
+import org.nzbhydra.historystats.StatsRollups.RolledUpDays;
 import org.nzbhydra.historystats.stats.AverageResponseTime;
 import org.nzbhydra.historystats.stats.CountPerDayOfWeek;
 import org.nzbhydra.historystats.stats.CountPerHourOfDay;
@@ -23,7 +25,9 @@ import org.nzbhydra.searching.SearchModuleProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.RestController;
 
 import javax.persistence.EntityManager;
@@ -45,6 +49,8 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @RestController
@@ -52,15 +58,25 @@ public class Stats {
 
     private static final Logger logger = LoggerFactory.getLogger(Stats.class);
     private static final int TIMEOUT = 120;
+    private static final int THREADS = 4;
+    //Depend on the status of downloads which is updated after the download
+    private static final Set<String> UNCACHEABLE_STATS = Collections.singleton("successfulDownloadsPerIndexer");
+    //Not limited to the requested time window
+    private static final Set<String> NOT_TIME_BOUND_STATS = Collections.singleton("downloadsPerAgeStats");
 
     @Autowired
     private SearchModuleProvider searchModuleProvider;
     @Autowired
     private IndexerRepository indexerRepository;
+    @Autowired
+    private StatsRollups statsRollups;
+    @Autowired
+    private StatsCache statsCache;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
     @PersistenceContext
     private EntityManager entityManager;
 
-    @Transactional(readOnly = true)
     public StatsResponse getAllStats(StatsRequest statsRequest) throws InterruptedException {
         logger.debug("Request for stats between {} and {}", statsRequest.getAfter(), statsRequest.getBefore());
         Stopwatch stopwatch = Stopwatch.createStarted();
@@ -69,99 +85,69 @@ public class Stats {
         statsResponse.setAfter(statsRequest.getAfter());
         statsResponse.setBefore(statsRequest.getBefore());
 
-        ExecutorService executor = Executors.newFixedThreadPool(1); //Multithreading doesn't improve performance but it allows us to stop calculation when the time is over
-
-        List<Future> futures = new ArrayList<>();
-
+        StatsCalculator calculator = new StatsCalculator(statsRequest, statsResponse);
 
         if (statsRequest.isAvgResponseTimes()) {
-            futures.add(executor.submit(() -> statsResponse.setAvgResponseTimes(averageResponseTimes(statsRequest))));
+            calculator.submit("avgResponseTimes", () -> averageResponseTimes(statsRequest), statsResponse::setAvgResponseTimes);
         }
         if (statsRequest.isIndexerApiAccessStats()) {
-            futures.add(executor.submit(() -> statsResponse.setIndexerApiAccessStats(indexerApiAccesses(statsRequest))));
+            calculator.submit("indexerApiAccessStats", () -> indexerApiAccesses(statsRequest), statsResponse::setIndexerApiAccessStats);
         }
         if (statsRequest.isAvgIndexerSearchResultsShares()) {
             statsResponse.setAvgIndexerSearchResultsShares(Collections.emptyList());
-            //futures.add(executor.submit(() -> statsResponse.setAvgIndexerSearchResultsShares(indexerSearchShares(statsRequest))));
+            //calculator.submit("avgIndexerSearchResultsShares", () -> indexerSearchShares(statsRequest), statsResponse::setAvgIndexerSearchResultsShares);
         }
 
         if (statsRequest.isSearchesPerDayOfWeek()) {
-            futures.add(executor.submit(() -> statsResponse.setSearchesPerDayOfWeek(countPerDayOfWeek("SEARCH", statsRequest))));
+            calculator.submit("searchesPerDayOfWeek", () -> countPerDayOfWeek("SEARCH", statsRequest), statsResponse::setSearchesPerDayOfWeek);
         }
         if (statsRequest.isDownloadsPerDayOfWeek()) {
-            futures.add(executor.submit(() -> statsResponse.setDownloadsPerDayOfWeek(countPerDayOfWeek("INDEXERNZBDOWNLOAD", statsRequest))));
+            calculator.submit("downloadsPerDayOfWeek", () -> countPerDayOfWeek("INDEXERNZBDOWNLOAD", statsRequest), statsResponse::setDownloadsPerDayOfWeek);
         }
 
         if (statsRequest.isSearchesPerHourOfDay()) {
-            futures.add(executor.submit(() -> statsResponse.setSearchesPerHourOfDay(countPerHourOfDay("SEARCH", statsRequest))));
+            calculator.submit("searchesPerHourOfDay", () -> countPerHourOfDay("SEARCH", statsRequest), statsResponse::setSearchesPerHourOfDay);
         }
         if (statsRequest.isDownloadsPerHourOfDay()) {
-            futures.add(executor.submit(() -> statsResponse.setDownloadsPerHourOfDay(countPerHourOfDay("INDEXERNZBDOWNLOAD", statsRequest))));
+            calculator.submit("downloadsPerHourOfDay", () -> countPerHourOfDay("INDEXERNZBDOWNLOAD", statsRequest), statsResponse::setDownloadsPerHourOfDay);
         }
 
         if (statsRequest.isIndexerDownloadShares()) {
-            futures.add(executor.submit(() -> statsResponse.setIndexerDownloadShares(indexerDownloadShares(statsRequest))));
+            calculator.submit("indexerDownloadShares", () -> indexerDownloadShares(statsRequest), statsResponse::setIndexerDownloadShares);
         }
 
 
         if (statsRequest.isDownloadsPerAgeStats()) {
-            futures.add(executor.submit(() -> statsResponse.setDownloadsPerAgeStats(downloadsPerAgeStats())));
+            calculator.submit("downloadsPerAgeStats", this::downloadsPerAgeStats, statsResponse::setDownloadsPerAgeStats);
         }
 
         if (statsRequest.isSuccessfulDownloadsPerIndexer()) {
-            futures.add(executor.submit(() -> statsResponse.setSuccessfulDownloadsPerIndexer(successfulDownloadsPerIndexer(statsRequest))));
+            calculator.submit("successfulDownloadsPerIndexer", () -> successfulDownloadsPerIndexer(statsRequest), statsResponse::setSuccessfulDownloadsPerIndexer);
         }
 
         if (statsRequest.isUserAgentSearchShares()) {
-            futures.add(executor.submit(() -> statsResponse.setUserAgentSearchShares(userAgentSearchShares(statsRequest))));
+            calculator.submit("userAgentSearchShares", () -> userAgentSearchShares(statsRequest), statsResponse::setUserAgentSearchShares);
         }
 
         if (statsRequest.isUserAgentDownloadShares()) {
-            futures.add(executor.submit(() -> statsResponse.setUserAgentDownloadShares(userAgentDownloadShares(statsRequest))));
+            calculator.submit("userAgentDownloadShares", () -> userAgentDownloadShares(statsRequest), statsResponse::setUserAgentDownloadShares);
         }
 
 
         if (statsRequest.isSearchSharesPerUser()) {
-            BigInteger countSearchesWithData = (BigInteger) entityManager.createNativeQuery("SELECT count(*) FROM SEARCH t WHERE t.USERNAME IS NOT NULL").getSingleResult();
-            if (countSearchesWithData.intValue() > 0) {
-                futures.add(executor.submit(() -> statsResponse.setSearchSharesPerUser(downloadsOrSearchesPerUserOrIp(statsRequest, "SEARCH", "USERNAME"))));
-            }
+            calculator.submit("searchSharesPerUser", () -> hasValues("SEARCH", "USERNAME") ? downloadsOrSearchesPerUserOrIp(statsRequest, "SEARCH", "USERNAME") : null, statsResponse::setSearchSharesPerUser);
         }
         if (statsRequest.isDownloadSharesPerUser()) {
-            BigInteger countDownloadsWithData = (BigInteger) entityManager.createNativeQuery("SELECT count(*) FROM INDEXERNZBDOWNLOAD t WHERE t.USERNAME IS NOT NULL").getSingleResult();
-            if (countDownloadsWithData.intValue() > 0) {
-                futures.add(executor.submit(() -> statsResponse.setDownloadSharesPerUser(downloadsOrSearchesPerUserOrIp(statsRequest, "INDEXERNZBDOWNLOAD", "USERNAME"))));
-            }
+            calculator.submit("downloadSharesPerUser", () -> hasValues("INDEXERNZBDOWNLOAD", "USERNAME") ? downloadsOrSearchesPerUserOrIp(statsRequest, "INDEXERNZBDOWNLOAD", "USERNAME") : null, statsResponse::setDownloadSharesPerUser);
         }
         if (statsRequest.isSearchSharesPerIp()) {
-            BigInteger countSearchesWithData = (BigInteger) entityManager.createNativeQuery("SELECT count(*) FROM SEARCH t WHERE t.IP IS NOT NULL").getSingleResult();
-            if (countSearchesWithData.intValue() > 0) {
-                futures.add(executor.submit(() -> statsResponse.setSearchSharesPerIp(downloadsOrSearchesPerUserOrIp(statsRequest, "SEARCH", "IP"))));
-            }
+            calculator.submit("searchSharesPerIp", () -> hasValues("SEARCH", "IP") ? downloadsOrSearchesPerUserOrIp(statsRequest, "SEARCH", "IP") : null, statsResponse::setSearchSharesPerIp);
         }
         if (statsRequest.isDownloadSharesPerIp()) {
-            BigInteger countDownloadsWithData = (BigInteger) entityManager.createNativeQuery("SELECT count(*) FROM INDEXERNZBDOWNLOAD t WHERE t.IP IS NOT NULL").getSingleResult();
-            if (countDownloadsWithData.intValue() > 0) {
-                futures.add(executor.submit(() -> statsResponse.setDownloadSharesPerIp(downloadsOrSearchesPerUserOrIp(statsRequest, "INDEXERNZBDOWNLOAD", "IP"))));
-            }
+            calculator.submit("downloadSharesPerIp", () -> hasValues("INDEXERNZBDOWNLOAD", "IP") ? downloadsOrSearchesPerUserOrIp(statsRequest, "INDEXERNZBDOWNLOAD", "IP") : null, statsResponse::setDownloadSharesPerIp);
         }
 
-
-        executor.shutdown();
-        boolean wasCompleted = executor.awaitTermination(TIMEOUT, TimeUnit.SECONDS);
-        if (!wasCompleted) {
-            executor.shutdownNow();
-            logger.error("Aborted stats generation because it took longer than {} seconds. Please restart", TIMEOUT);
-        } else {
-            for (Future future : futures) {
-                try {
-                    future.get();
-                } catch (ExecutionException e) {
-                    logger.error("Error during calculation of stats", e.getCause());
-                }
-            }
-
-        }
+        calculator.awaitCompletion();
 
         statsResponse.setNumberOfConfiguredIndexers(searchModuleProvider.getIndexers().size());
         statsResponse.setNumberOfEnabledIndexers(searchModuleProvider.getEnabledIndexers().size());
@@ -170,6 +156,11 @@ public class Stats {
         return statsResponse;
     }
 
+    private boolean hasValues(String table, String column) {
+        BigInteger countWithData = (BigInteger) entityManager.createNativeQuery("SELECT count(*) FROM " + table + " t WHERE t." + column + " IS NOT NULL").getSingleResult();
+        return countWithData.intValue() > 0;
+    }
+
 
     List<IndexerDownloadShare> indexerDownloadShares(final StatsRequest statsRequest) {
         Stopwatch stopwatch = Stopwatch.createStarted();
@@ -181,36 +172,39 @@ public class Stats {
 
         List<IndexerDownloadShare> indexerDownloadShares = new ArrayList<>();
 
+        RolledUpDays rolledUpDays = statsRollups.getRolledUpDays(statsRequest);
         String sqlQueryByIndexer =
                 "SELECT\n" +
                         "  indexer.name,\n" +
-                        "  count(*) AS total,\n" +
-                        "  countall.countall\n" +
+                        "  sum(ENTRY_COUNT) AS total\n" +
                         "FROM\n" +
-                        "  indexernzbdownload dl LEFT JOIN SEARCHRESULT ON dl.SEARCH_RESULT_ID = SEARCHRESULT.ID\n" +
-                        "  LEFT JOIN indexer ON SEARCHRESULT.INDEXER_ID = INDEXER.ID\n" +
-                        "  ,\n" +
-                        "  (SELECT count(*) AS countall\n" +
+                        "  (SELECT INDEXER_ID, ENTRY_COUNT\n" +
+                        "   FROM INDEXERNZBDOWNLOAD_HOURLY\n" +
+                        rolledUpDays.whereForRollups() +
+                        "   UNION ALL\n" +
+                        "   SELECT SEARCHRESULT.INDEXER_ID, count(*)\n" +
                         "   FROM\n" +
                         "     indexernzbdownload dl LEFT JOIN SEARCHRESULT ON dl.SEARCH_RESULT_ID = SEARCHRESULT.ID\n" +
-                        buildWhereFromStatsRequest(false, statsRequest) +
-                        ")\n" +
-                        "  countall\n" +
-                        buildWhereFromStatsRequest(false, statsRequest) +
+                        buildWhereFromStatsRequest(false, statsRequest, rolledUpDays) +
+                        "   GROUP BY SEARCHRESULT.INDEXER_ID) downloads\n" +
+                        "  LEFT JOIN indexer ON downloads.INDEXER_ID = INDEXER.ID\n" +
                         "GROUP BY\n" +
                         "  INDEXER.NAME";
 
         Query query = entityManager.createNativeQuery(sqlQueryByIndexer);
         Set<String> indexerNamesToInclude = searchModuleProvider.getIndexers().stream().filter(x -> x.getConfig().isEnabled() || statsRequest.isIncludeDisabled()).map(Indexer::getName).collect(Collectors.toSet());
         List resultList = query.getResultList();
+        long countAll = 0;
+        for (Object result : resultList) {
+            countAll += ((Number) ((Object[]) result)[1]).longValue();
+        }
         for (Object result : resultList) {
             Object[] resultSet = (Object[]) result;
             String indexerName = (String) resultSet[0];
             if (!indexerNamesToInclude.contains(indexerName)) {
                 continue;
             }
-            long total = ((BigInteger) resultSet[1]).longValue();
-            long countAll = ((BigInteger) resultSet[2]).longValue();
+            long total = ((Number) resultSet[1]).longValue();
             float share = total > 0 ? (100F / ((float) countAll / total)) : 0F;
             indexerDownloadShares.add(new IndexerDownloadShare(indexerName, total, share));
         }
@@ -222,30 +216,48 @@ public class Stats {
         Stopwatch stopwatch = Stopwatch.createStarted();
         logger.debug("Calculating average response times for indexers");
         List<AverageResponseTime> averageResponseTimes = new ArrayList<>();
+        RolledUpDays rolledUpDays = statsRollups.getRolledUpDays(statsRequest);
         String sql = "SELECT\n" +
                 "  NAME,\n" +
-                "  avg(RESPONSE_TIME) AS avg\n" +
-                "FROM INDEXERAPIACCESS\n" +
-                "  LEFT JOIN indexer i ON INDEXERAPIACCESS.INDEXER_ID = i.ID\n" +
-                buildWhereFromStatsRequest(false, statsRequest) +
-                "GROUP BY INDEXER_ID\n" +
-                "ORDER BY avg ASC";
+                "  sum(RESPONSE_TIME_SUM),\n" +
+                "  sum(RESPONSE_TIME_COUNT)\n" +
+                "FROM (\n" +
+                "  SELECT INDEXER_ID, RESPONSE_TIME_SUM, RESPONSE_TIME_COUNT\n" +
+                "  FROM INDEXERAPIACCESS_DAILY\n" +
+                rolledUpDays.whereForRollups() +
+                "  UNION ALL\n" +
+                "  SELECT INDEXER_ID, sum(RESPONSE_TIME), count(RESPONSE_TIME)\n" +
+                "  FROM INDEXERAPIACCESS\n" +
+                buildWhereFromStatsRequest(false, statsRequest, rolledUpDays) +
+                "  GROUP BY INDEXER_ID) accesses\n" +
+                "  LEFT JOIN indexer i ON accesses.INDEXER_ID = i.ID\n" +
+                "GROUP BY INDEXER_ID, NAME";
 
         Query query = entityManager.createNativeQuery(sql);
         List resultList = query.getResultList();
         Set<String> indexerNamesToInclude = searchModuleProvider.getIndexers().stream().filter(x -> x.getConfig().isEnabled() || statsRequest.isIncludeDisabled()).map(Indexer::getName).collect(Collectors.toSet());
-        OptionalDouble overallAverage = resultList.stream().filter(x -> ((Object[]) x)[1] != null).mapToLong(x -> ((BigInteger) ((Object[]) x)[1]).longValue()).average();
-
+        Map<String, Long> averagesPerIndexer = new HashMap<>();
+        List<Long> allAverages = new ArrayList<>();
         for (Object result : resultList) {
             Object[] resultSet = (Object[]) result;
-            String indexerName = (String) resultSet[0];
+            if (resultSet[1] == null || ((Number) resultSet[2]).longValue() == 0) {
+                continue;
+            }
+            long averageResponseTime = ((Number) resultSet[1]).longValue() / ((Number) resultSet[2]).longValue();
+            allAverages.add(averageResponseTime);
+            if (resultSet[0] != null) {
+                averagesPerIndexer.put((String) resultSet[0], averageResponseTime);
+            }
+        }
+        OptionalDouble overallAverage = allAverages.stream().mapToLong(Long::longValue).average();
 
-            if (resultSet[0] == null || resultSet[1] == null || !indexerNamesToInclude.contains(indexerName)) {
+        for (Entry<String, Long> entry : averagesPerIndexer.entrySet()) {
+            if (!indexerNamesToInclude.contains(entry.getKey())) {
                 continue;
             }
-            Long averageResponseTime = ((BigInteger) resultSet[1]).longValue();
-            averageResponseTimes.add(new AverageResponseTime(indexerName, averageResponseTime, averageResponseTime - overallAverage.orElse(0D)));
+            averageResponseTimes.add(new AverageResponseTime(entry.getKey(), entry.getValue(), entry.getValue() - overallAverage.orElse(0D)));
         }
+        averageResponseTimes.sort(Comparator.comparingDouble(AverageResponseTime::getAvgResponseTime));
         logger.debug(LoggingMarkers.PERFORMANCE, "Calculated average response times for indexers. Took {}ms", stopwatch.elapsed(TimeUnit.MILLISECONDS));
         return averageResponseTimes;
     }
@@ -358,15 +370,25 @@ public class Stats {
         logger.debug("Calculating indexer API stats");
         Set<Integer> indexerIdsToInclude = searchModuleProvider.getIndexers().stream().filter(x -> x.getConfig().isEnabled() || statsRequest.isIncludeDisabled()).map(x -> x.getIndexerEntity().getId()).filter(id -> indexerRepository.findOne(id) != null).collect(Collectors.toSet());
 
+        RolledUpDays rolledUpDays = statsRollups.getRolledUpDays(statsRequest);
         String averageIndexerAccessesPerDay = "SELECT\n" +
                 "  indexer_id,\n" +
-                "  avg(count)\n" +
+                "  avg(cast(count AS FLOAT))\n" +
                 "FROM (\n" +
                 "  (SELECT\n" +
                 "     INDEXER_ID,\n" +
-                "     cast(count(INDEXER_ID) AS FLOAT) AS count" +
+                "     sum(ACCESS_COUNT) AS count\n" +
+                "   FROM INDEXERAPIACCESS_DAILY\n" +
+                rolledUpDays.whereForRollups() +
+                "   AND INDEXER_ID IS NOT NULL\n" +
+                "   GROUP BY INDEXER_ID,\n" +
+                "     DAY_DATE)\n" +
+                "  UNION ALL\n" +
+                "  (SELECT\n" +
+                "     INDEXER_ID,\n" +
+                "     count(INDEXER_ID) AS count" +
                 "   FROM INDEXERAPIACCESS\n" +
-                buildWhereFromStatsRequest(false, statsRequest) +
+                buildWhereFromStatsRequest(false, statsRequest, rolledUpDays) +
                 "   GROUP BY INDEXER_ID,\n" +
                 "     truncate(time)))\n" +
                 "GROUP BY INDEXER_ID";
@@ -389,13 +411,28 @@ public class Stats {
         stopwatch.start();
 
         String countByResultSql = "SELECT\n" +
+                "  INDEXER_ID,\n" +
+                "  RESULT,\n" +
+                "  sum(count)\n" +
+                "FROM (\n" +
+                "  (SELECT\n" +
+                "     INDEXER_ID,\n" +
+                "     RESULT,\n" +
+                "     ACCESS_COUNT AS count\n" +
+                "   FROM INDEXERAPIACCESS_DAILY\n" +
+                rolledUpDays.whereForRollups() +
+                "   AND RESULT IS NOT NULL)\n" +
+                "  UNION ALL\n" +
+                "  (SELECT\n" +
                 "     INDEXER_ID,\n" +
                 "     RESULT,\n" +
                 "     count(result) AS count\n" +
                 "   FROM INDEXERAPIACCESS\n" +
-                buildWhereFromStatsRequest(false, statsRequest) +
-                "   GROUP BY INDEXER_ID, RESULT\n" +
-                "   ORDER BY INDEXER_ID, RESULT";
+                buildWhereFromStatsRequest(false, statsRequest, rolledUpDays) +
+                "   AND RESULT IS NOT NULL\n" +
+                "   GROUP BY INDEXER_ID, RESULT))\n" +
+                "GROUP BY INDEXER_ID, RESULT\n" +
+                "ORDER BY INDEXER_ID, RESULT";
 
         Map<Integer, Integer> successCountMap = new HashMap<>();
         Map<Integer, Integer> connectionErrorCountMap = new HashMap<>();
@@ -410,7 +447,7 @@ public class Stats {
                 continue;
             }
             String result = (String) array[1];
-            int count = ((BigInteger) array[2]).intValue();
+            int count = ((Number) array[2]).intValue();
             if (result.equals(IndexerAccessResult.SUCCESSFUL.name())) {
                 successCountMap.put(indexerId, count);
             } else if (result.equals(IndexerAccessResult.CONNECTION_ERROR.name())) {
@@ -454,12 +491,18 @@ public class Stats {
     List<CountPerDayOfWeek> countPerDayOfWeek(final String table, final StatsRequest statsRequest) {
         Stopwatch stopwatch = Stopwatch.createStarted();
         logger.debug("Calculating count for day of week for table {}", table);
+        RolledUpDays rolledUpDays = statsRollups.getRolledUpDays(statsRequest);
         String sql = "SELECT \n" +
-                "  DAYOFWEEK(time) AS dayofweek, \n" +
-                "  count(*)        AS counter \n" +
-                "FROM " + table + " \n" +
-                buildWhereFromStatsRequest(false, statsRequest) +
-                "GROUP BY DAYOFWEEK(time)";
+                "  DAYOFWEEK(DAY_DATE) AS dayofweek, \n" +
+                "  sum(ENTRY_COUNT)    AS counter \n" +
+                "FROM ( \n" +
+                "  SELECT DAY_DATE, ENTRY_COUNT FROM " + table + "_HOURLY \n" +
+                rolledUpDays.whereForRollups() +
+                "  UNION ALL \n" +
+                "  SELECT CAST(time AS DATE), count(*) FROM " + table + " \n" +
+                buildWhereFromStatsRequest(false, statsRequest, rolledUpDays) +
+                "  GROUP BY CAST(time AS DATE)) \n" +
+                "GROUP BY DAYOFWEEK(DAY_DATE)";
 
         List<CountPerDayOfWeek> dayOfWeekCounts = new ArrayList<>();
         for (int i = 0; i < 7; i++) {
@@ -477,7 +520,7 @@ public class Stats {
 
             //want      6   0   1   2   3   4   5
             //          S   M   T   W   T   F   S
-            BigInteger counter = (BigInteger) resultSet[1];
+            Number counter = (Number) resultSet[1];
             int indexInList = (index + 5) % 7;
             dayOfWeekCounts.get(indexInList).setCount(counter.intValue());
         }
@@ -489,12 +532,18 @@ public class Stats {
     List<CountPerHourOfDay> countPerHourOfDay(final String table, final StatsRequest statsRequest) {
         Stopwatch stopwatch = Stopwatch.createStarted();
         logger.debug("Calculating count for hour of day for table {}", table);
+        RolledUpDays rolledUpDays = statsRollups.getRolledUpDays(statsRequest);
         String sql = "SELECT \n" +
-                "  HOUR(time) AS hourofday, \n" +
-                "  count(*)        AS counter \n" +
-                "FROM " + table + " \n" +
-                buildWhereFromStatsRequest(false, statsRequest) +
-                "GROUP BY HOUR(time)";
+                "  HOUR_OF_DAY      AS hourofday, \n" +
+                "  sum(ENTRY_COUNT) AS counter \n" +
+                "FROM ( \n" +
+                "  SELECT HOUR_OF_DAY, ENTRY_COUNT FROM " + table + "_HOURLY \n" +
+                rolledUpDays.whereForRollups() +
+                "  UNION ALL \n" +
+                "  SELECT HOUR(time), count(*) FROM " + table + " \n" +
+                buildWhereFromStatsRequest(false, statsRequest, rolledUpDays) +
+                "  GROUP BY HOUR(time)) \n" +
+                "GROUP BY HOUR_OF_DAY";
 
         List<CountPerHourOfDay> hourOfDayCounts = new ArrayList<>();
         for (int i = 0; i < 24; i++) {
@@ -505,7 +554,7 @@ public class Stats {
         for (Object o : resultList) {
             Object[] o2 = (Object[]) o;
             Integer index = (Integer) o2[0];
-            BigInteger counter = (BigInteger) o2[1];
+            Number counter = (Number) o2[1];
             hourOfDayCounts.get(index).setCount(counter.intValue());
         }
 
@@ -743,6 +792,56 @@ public class Stats {
     }
 
 
+    /**
+     * Runs the calculations of one stats request in parallel. Every calculation uses its own read-only transaction and with that its own
+     * database connection. Results are taken from the cache if possible.
+     */
+    private class StatsCalculator {
+        private final ExecutorService executor = Executors.newFixedThreadPool(THREADS, new ThreadFactoryBuilder().setNameFormat("stats-%d").setDaemon(true).build());
+        private final List<Future> futures = new ArrayList<>();
+        private final TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        private final StatsRequest statsRequest;
+        private final StatsResponse statsResponse;
+        private final List<Long> dataWatermark = statsCache.getDataWatermark();
+
+        StatsCalculator(StatsRequest statsRequest, StatsResponse statsResponse) {
+            this.statsRequest = statsRequest;
+            this.statsResponse = statsResponse;
+            transactionTemplate.setReadOnly(true);
+        }
+
+        <T> void submit(String name, Supplier<T> calculation, Consumer<T> resultConsumer) {
+            futures.add(executor.submit(() -> {
+                Stopwatch stopwatch = Stopwatch.createStarted();
+                T result = transactionTemplate.execute(status -> {
+                    if (UNCACHEABLE_STATS.contains(name)) {
+                        return calculation.get();
+                    }
+                    return statsCache.get(name, statsRequest, !NOT_TIME_BOUND_STATS.contains(name), dataWatermark, calculation);
+                });
+                resultConsumer.accept(result);
+                statsResponse.getCalculationTimes().put(name, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+            }));
+        }
+
+        void awaitCompletion() throws InterruptedException {
+            executor.shutdown();
+            boolean wasCompleted = executor.awaitTermination(TIMEOUT, TimeUnit.SECONDS);
+            if (!wasCompleted) {
+                executor.shutdownNow();
+                logger.error("Aborted stats generation because it took longer than {} seconds. Please restart", TIMEOUT);
+            } else {
+                for (Future future : futures) {
+                    try {
+                        future.get();
+                    } catch (ExecutionException e) {
+                        logger.error("Error during calculation of stats", e.getCause());
+                    }
+                }
+            }
+        }
+    }
+
     private String buildWhereFromStatsRequest(boolean useAnd, StatsRequest statsRequest) {
         if (statsRequest.getAfter() == null && statsRequest.getBefore() == null) {
             return " ";
@@ -753,5 +852,12 @@ public class Stats {
                 (statsRequest.getBefore() != null ? " TIME < DATEADD('SECOND', " + statsRequest.getBefore().getEpochSecond() + ", DATE '1970-01-01') " : "");
     }
 
+    /**
+     * Like {@link #buildWhereFromStatsRequest(boolean, StatsRequest)} but excludes the times which are read from the rollups.
+     */
+    private String buildWhereFromStatsRequest(boolean useAnd, StatsRequest statsRequest, RolledUpDays rolledUpDays) {
+        return (useAnd ? " AND " : " WHERE ") + "TRUE" + buildWhereFromStatsRequest(true, statsRequest) + rolledUpDays.andForOriginalTables();
+    }
+
 
 }
@@ -0,0 +1,108 @@
+package org.nzbhydra.historystats;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.nzbhydra.config.ConfigChangedEvent;
+import org.nzbhydra.historystats.stats.StatsRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Caches calculated stats per stat and requested time window. Stats for a window which is over are kept until the config changes because
+ * no data is added to it anymore. Stats for a window which reaches into the present are only used until another API access, search or
+ * download is recorded.
+ */
+@Component
+public class StatsCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatsCache.class);
+
+    private static final int MAX_ENTRIES = 500;
+    //The stats compare the requested times with the local times in the database, so wait until the window is over in every time zone
+    private static final int HOURS_UNTIL_WINDOW_CLOSED = 24;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    Clock clock = Clock.systemUTC();
+
+    private final Cache<CacheKey, CachedStat> cache = CacheBuilder.newBuilder().maximumSize(MAX_ENTRIES).build();
+
+    /**
+     * @return The highest IDs of API accesses, downloads and searches. When any of them changes new data was recorded.
+     */
+    public List<Long> getDataWatermark() {
+        Object[] result = (Object[]) entityManager.createNativeQuery("SELECT " +
+                "(SELECT max(ID) FROM INDEXERAPIACCESS), " +
+                "(SELECT max(ID) FROM INDEXERNZBDOWNLOAD), " +
+                "(SELECT max(ID) FROM SEARCH)").getSingleResult();
+        return Arrays.stream(result).map(x -> x == null ? null : ((Number) x).longValue()).collect(Collectors.toList());
+    }
+
+    /**
+     * Returns the cached value of the stat or calculates and caches it.
+     *
+     * @param statName      Name of the stat
+     * @param statsRequest  Request for which the stat is calculated
+     * @param timeBound     If false the stat is not limited to the requested time window and always updated when new data was recorded
+     * @param dataWatermark The current {@link #getDataWatermark()}
+     * @param calculation   Calculates the stat
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String statName, StatsRequest statsRequest, boolean timeBound, List<Long> dataWatermark, Supplier<T> calculation) {
+        CacheKey cacheKey = new CacheKey(statName, statsRequest.getAfter(), statsRequest.getBefore(), statsRequest.isIncludeDisabled());
+        CachedStat cachedStat = cache.getIfPresent(cacheKey);
+        if (cachedStat != null && (cachedStat.getDataWatermark() == null || cachedStat.getDataWatermark().equals(dataWatermark))) {
+            logger.debug("Using cached stat {}", statName);
+            return (T) cachedStat.getValue();
+        }
+        T value = calculation.get();
+        boolean windowClosed = timeBound && statsRequest.getBefore() != null && statsRequest.getBefore().isBefore(Instant.now(clock).minus(HOURS_UNTIL_WINDOW_CLOSED, ChronoUnit.HOURS));
+        cache.put(cacheKey, new CachedStat(value, windowClosed ? null : dataWatermark));
+        return value;
+    }
+
+    @EventListener
+    public void handleNewConfig(ConfigChangedEvent configChangedEvent) {
+        //Stats only include enabled indexers
+        invalidateAll();
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class CacheKey {
+        private String statName;
+        private Instant after;
+        private Instant before;
+        private boolean includeDisabled;
+    }
+
+    @Data
+    @AllArgsConstructor
+    private static class CachedStat {
+        private Object value;
+        /**
+         * Null if the value is never outdated
+         */
+        private List<Long> dataWatermark;
+    }
+
+}
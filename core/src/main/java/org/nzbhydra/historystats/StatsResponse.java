@@ -14,6 +14,8 @@ import org.nzbhydra.historystats.stats.UserAgentShare;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 @Data
 public class StatsResponse {
@@ -48,4 +50,9 @@ public class StatsResponse {
     private int numberOfConfiguredIndexers;
     private int numberOfEnabledIndexers;
 
+    /**
+     * Milliseconds it took to calculate each of the stats
+     */
+    private Map<String, Long> calculationTimes = new ConcurrentSkipListMap<>();
+
 }
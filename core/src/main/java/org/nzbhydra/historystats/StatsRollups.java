@@ -0,0 +1,162 @@
+package org.nzbhydra.historystats;
+
+import com.google.common.base.Stopwatch;
+import org.nzbhydra.historystats.stats.StatsRequest;
+import org.nzbhydra.logging.LoggingMarkers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.sql.Date;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps daily (and for searches and downloads hourly) sums of API accesses, searches and downloads so that the stats don't have to scan the
+ * whole history every time. Days are only rolled up when they're over, after that the rollups are never changed. The stats read complete days
+ * from the rollups and the rest (the current day and partial days at the start and end of the requested period) from the original tables.
+ */
+@Component
+public class StatsRollups {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatsRollups.class);
+
+    private static final long MINUTE = 1000 * 60;
+    private static final long HOUR = MINUTE * 60;
+    //Entities are saved in the background so a day is only rolled up a while after it's over
+    private static final int MINUTES_TO_SETTLE = 10;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    Clock clock = Clock.systemDefaultZone();
+
+    @Scheduled(initialDelay = MINUTE, fixedRate = HOUR)
+    @Transactional
+    public void rollUp() {
+        LocalDate rolledUpUntil = getRolledUpUntil();
+        LocalDate newRolledUpUntil = LocalDateTime.now(clock).minusMinutes(MINUTES_TO_SETTLE).toLocalDate();
+        if (rolledUpUntil != null && !newRolledUpUntil.isAfter(rolledUpUntil)) {
+            return;
+        }
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        logger.debug("Rolling up stats until {}", newRolledUpUntil);
+        String timeRange = " TIME < " + toTimestamp(newRolledUpUntil) + (rolledUpUntil != null ? " AND TIME >= " + toTimestamp(rolledUpUntil) : "") + " ";
+
+        entityManager.createNativeQuery("INSERT INTO INDEXERAPIACCESS_DAILY (DAY_DATE, INDEXER_ID, RESULT, ACCESS_COUNT, RESPONSE_TIME_SUM, RESPONSE_TIME_COUNT)\n" +
+                "SELECT CAST(TIME AS DATE), INDEXER_ID, RESULT, count(*), sum(RESPONSE_TIME), count(RESPONSE_TIME)\n" +
+                "FROM INDEXERAPIACCESS\n" +
+                "WHERE " + timeRange +
+                "GROUP BY CAST(TIME AS DATE), INDEXER_ID, RESULT").executeUpdate();
+
+        entityManager.createNativeQuery("INSERT INTO SEARCH_HOURLY (DAY_DATE, HOUR_OF_DAY, ENTRY_COUNT)\n" +
+                "SELECT CAST(TIME AS DATE), HOUR(TIME), count(*)\n" +
+                "FROM SEARCH\n" +
+                "WHERE " + timeRange +
+                "GROUP BY CAST(TIME AS DATE), HOUR(TIME)").executeUpdate();
+
+        entityManager.createNativeQuery("INSERT INTO INDEXERNZBDOWNLOAD_HOURLY (DAY_DATE, HOUR_OF_DAY, INDEXER_ID, ENTRY_COUNT)\n" +
+                "SELECT CAST(TIME AS DATE), HOUR(TIME), SEARCHRESULT.INDEXER_ID, count(*)\n" +
+                "FROM INDEXERNZBDOWNLOAD\n" +
+                "  LEFT JOIN SEARCHRESULT ON INDEXERNZBDOWNLOAD.SEARCH_RESULT_ID = SEARCHRESULT.ID\n" +
+                "WHERE " + timeRange +
+                "GROUP BY CAST(TIME AS DATE), HOUR(TIME), SEARCHRESULT.INDEXER_ID").executeUpdate();
+
+        entityManager.createNativeQuery("DELETE FROM STATSROLLUP").executeUpdate();
+        entityManager.createNativeQuery("INSERT INTO STATSROLLUP (ROLLED_UP_UNTIL) VALUES (" + toDate(newRolledUpUntil) + ")").executeUpdate();
+        logger.debug(LoggingMarkers.PERFORMANCE, "Rolled up stats until {}. Took {}ms", newRolledUpUntil, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Deletes all rollups, e.g. when the history was replaced. They're rebuilt with the next run.
+     */
+    @Transactional
+    public void reset() {
+        logger.info("Deleting stats rollups");
+        entityManager.createNativeQuery("DELETE FROM INDEXERAPIACCESS_DAILY").executeUpdate();
+        entityManager.createNativeQuery("DELETE FROM SEARCH_HOURLY").executeUpdate();
+        entityManager.createNativeQuery("DELETE FROM INDEXERNZBDOWNLOAD_HOURLY").executeUpdate();
+        entityManager.createNativeQuery("DELETE FROM STATSROLLUP").executeUpdate();
+    }
+
+    /**
+     * @return The first day which is not rolled up yet or null if nothing is rolled up
+     */
+    LocalDate getRolledUpUntil() {
+        Date rolledUpUntil = (Date) entityManager.createNativeQuery("SELECT max(ROLLED_UP_UNTIL) FROM STATSROLLUP").getSingleResult();
+        return rolledUpUntil == null ? null : rolledUpUntil.toLocalDate();
+    }
+
+    RolledUpDays getRolledUpDays(StatsRequest statsRequest) {
+        LocalDate rolledUpUntil = getRolledUpUntil();
+        if (rolledUpUntil == null) {
+            return new RolledUpDays(null, null);
+        }
+        //The requested times are compared with the database like in Stats.buildWhereFromStatsRequest(), so the days must be calculated in the same way
+        LocalDate from = statsRequest.getAfter() == null ? null : LocalDateTime.ofEpochSecond(statsRequest.getAfter().getEpochSecond(), 0, ZoneOffset.UTC).toLocalDate().plusDays(1);
+        LocalDate to = rolledUpUntil;
+        if (statsRequest.getBefore() != null) {
+            LocalDate beforeDay = LocalDateTime.ofEpochSecond(statsRequest.getBefore().getEpochSecond(), 0, ZoneOffset.UTC).toLocalDate();
+            if (beforeDay.isBefore(to)) {
+                to = beforeDay;
+            }
+        }
+        if (from != null && !from.isBefore(to)) {
+            return new RolledUpDays(null, null);
+        }
+        return new RolledUpDays(from, to);
+    }
+
+    private static String toDate(LocalDate date) {
+        return "DATE '" + date + "'";
+    }
+
+    private static String toTimestamp(LocalDate date) {
+        return "TIMESTAMP '" + date + " 00:00:00'";
+    }
+
+    /**
+     * The complete days of a stats request which can be read from the rollups.
+     */
+    static class RolledUpDays {
+        private final LocalDate from;
+        private final LocalDate to;
+
+        /**
+         * @param from First day (inclusive) or null if all days before <tt>to</tt> are included
+         * @param to   Last day (exclusive) or null if no days are rolled up
+         */
+        RolledUpDays(LocalDate from, LocalDate to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        /**
+         * @return The condition for the rollup tables
+         */
+        String whereForRollups() {
+            if (to == null) {
+                return " WHERE FALSE ";
+            }
+            return " WHERE DAY_DATE < " + toDate(to) + (from != null ? " AND DAY_DATE >= " + toDate(from) : "") + " ";
+        }
+
+        /**
+         * @return The condition for the original tables which excludes times already contained in the rollups
+         */
+        String andForOriginalTables() {
+            if (to == null) {
+                return " ";
+            }
+            return from != null ? " AND (TIME < " + toTimestamp(from) + " OR TIME >= " + toTimestamp(to) + ") " : " AND TIME >= " + toTimestamp(to) + " ";
+        }
+    }
+
+}
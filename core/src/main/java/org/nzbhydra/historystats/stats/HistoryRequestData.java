@@ -14,6 +14,18 @@ public class HistoryRequestData {
     private int limit = 100;
     private FilterModel filterModel = new FilterModel();
     private SortModel sortModel;
+    /**
+     * ID of the last entry of the previous page. If set and the history is sorted by time the page starts after that entry
+     */
+    private Integer lastId;
+    /**
+     * ID of the first entry of the next page. If set instead of {@link #lastId} and the history is sorted by time the page ends before that entry
+     */
+    private Integer firstId;
+    /**
+     * If true an estimate is returned as total count if nothing is filtered
+     */
+    private boolean approximateCount;
 
     public HistoryRequestData() {
     }
@@ -7,6 +7,7 @@ import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.config.IndexerConfig;
 import org.nzbhydra.indexers.exceptions.IndexerAccessException;
 import org.nzbhydra.indexers.exceptions.IndexerAuthException;
+import org.nzbhydra.indexers.exceptions.IndexerBusyException;
 import org.nzbhydra.indexers.exceptions.IndexerErrorCodeException;
 import org.nzbhydra.indexers.exceptions.IndexerParsingException;
 import org.nzbhydra.indexers.exceptions.IndexerSearchAbortedException;
@@ -29,6 +30,7 @@ import org.nzbhydra.searching.SearchResultIdCalculator;
 import org.nzbhydra.searching.SearchResultItem;
 import org.nzbhydra.searching.SearchResultRepository;
 import org.nzbhydra.searching.SearchType;
+import org.nzbhydra.searching.WriteBehindPersister;
 import org.nzbhydra.searching.searchrequests.InternalData.FallbackState;
 import org.nzbhydra.searching.searchrequests.SearchRequest;
 import org.slf4j.Logger;
@@ -47,6 +49,7 @@ import java.time.format.DateTimeParseException;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map.Entry;
@@ -84,6 +87,10 @@ public abstract class Indexer<T> {
     @Autowired
     protected IndexerApiAccessEntityShortRepository indexerApiAccessShortRepository;
     @Autowired
+    protected WriteBehindPersister writeBehindPersister;
+    @Autowired
+    protected IndexerAccessTimes indexerAccessTimes;
+    @Autowired
     protected IndexerWebAccess indexerWebAccess;
     @Autowired
     protected ResultAcceptor resultAcceptor;
@@ -92,6 +99,8 @@ public abstract class Indexer<T> {
     @Autowired
     protected InfoProvider infoProvider;
     @Autowired
+    protected IndexerResponseCache indexerResponseCache;
+    @Autowired
     private ApplicationEventPublisher eventPublisher;
 
 
@@ -145,21 +154,30 @@ public abstract class Indexer<T> {
         return indexerSearchResult;
     }
 
+    @SuppressWarnings("unchecked")
     protected IndexerSearchResult searchInternal(SearchRequest searchRequest, int offset, Integer limit) throws IndexerSearchAbortedException, IndexerAccessException {
         UriComponentsBuilder builder = buildSearchUrl(searchRequest, offset, limit);
         URI url = builder.build().toUri();
 
         T response;
         Stopwatch stopwatch = Stopwatch.createStarted();
-        info("Calling {}", url);
-
-        response = getAndStoreResultToDatabase(url, IndexerApiAccessType.SEARCH);
+        Optional<Object> cachedResponse = indexerResponseCache.get(url, config);
+        if (cachedResponse.isPresent()) {
+            info("Using cached response for {}", url);
+            response = (T) cachedResponse.get();
+        } else {
+            info("Calling {}", url);
+            response = getAndStoreResultToDatabase(url, IndexerApiAccessType.SEARCH);
+        }
         long responseTime = stopwatch.elapsed(TimeUnit.MILLISECONDS);
 
         stopwatch.reset();
         stopwatch.start();
         IndexerSearchResult indexerSearchResult = new IndexerSearchResult(this, true);
         List<SearchResultItem> searchResultItems = getSearchResultItems(response);
+        if (!cachedResponse.isPresent()) {
+            indexerResponseCache.put(url, config, response);
+        }
         info("Successfully executed search call in {}ms with {} results", responseTime, searchResultItems.size());
         AcceptorResult acceptorResult = resultAcceptor.acceptResults(searchResultItems, searchRequest, config);
         searchResultItems = acceptorResult.getAcceptedResults();
@@ -209,31 +227,33 @@ public abstract class Indexer<T> {
     @Transactional
     protected List<SearchResultItem> persistSearchResults(List<SearchResultItem> searchResultItems) {
         Stopwatch stopwatch = Stopwatch.createStarted();
-        synchronized (indexer) { //Locking per indexer prevents multiple threads trying to save the same "new" results to the database
-            ArrayList<SearchResultEntity> searchResultEntities = new ArrayList<>();
-            Set<Long> alreadySavedIds = searchResultRepository.findAllIdsByIdIn(searchResultItems.stream().map(SearchResultIdCalculator::calculateSearchResultId).collect(Collectors.toList()));
-            for (SearchResultItem item : searchResultItems) {
-                long guid = SearchResultIdCalculator.calculateSearchResultId(item);
-                if (!alreadySavedIds.contains(guid)) {
-                    SearchResultEntity searchResultEntity = new SearchResultEntity();
-
-                    //Set all entity relevant data
-                    searchResultEntity.setIndexer(indexer);
-                    searchResultEntity.setTitle(item.getTitle());
-                    searchResultEntity.setLink(item.getLink());
-                    searchResultEntity.setDetails(item.getDetails());
-                    searchResultEntity.setIndexerGuid(item.getIndexerGuid());
-                    searchResultEntity.setFirstFound(Instant.now());
-                    searchResultEntity.setDownloadType(item.getDownloadType());
-                    searchResultEntity.setPubDate(item.getPubDate());
-                    searchResultEntities.add(searchResultEntity);
-                }
-                //LATER Unify guid and searchResultId which are the same
-                item.setGuid(guid);
-                item.setSearchResultId(guid);
+        //No locking needed: the IDs are calculated from the results and merging results which were saved by another thread in the meantime doesn't hurt
+        List<SearchResultEntity> searchResultEntities = new ArrayList<>();
+        Set<Long> alreadySavedIds = new HashSet<>(searchResultRepository.findAllIdsByIdIn(searchResultItems.stream().map(SearchResultIdCalculator::calculateSearchResultId).collect(Collectors.toList())));
+        for (SearchResultItem item : searchResultItems) {
+            long guid = SearchResultIdCalculator.calculateSearchResultId(item);
+            if (!alreadySavedIds.contains(guid)) {
+                SearchResultEntity searchResultEntity = new SearchResultEntity();
+
+                //Set all entity relevant data
+                searchResultEntity.setId(guid);
+                searchResultEntity.setIndexer(indexer);
+                searchResultEntity.setTitle(item.getTitle());
+                searchResultEntity.setLink(item.getLink());
+                searchResultEntity.setDetails(item.getDetails());
+                searchResultEntity.setIndexerGuid(item.getIndexerGuid());
+                searchResultEntity.setFirstFound(Instant.now());
+                searchResultEntity.setDownloadType(item.getDownloadType());
+                searchResultEntity.setPubDate(item.getPubDate());
+                searchResultEntities.add(searchResultEntity);
+                //Prevents saving the same result twice if it's contained twice in the response
+                alreadySavedIds.add(guid);
             }
-            searchResultRepository.save(searchResultEntities);
+            //LATER Unify guid and searchResultId which are the same
+            item.setGuid(guid);
+            item.setSearchResultId(guid);
         }
+        searchResultRepository.mergeAll(searchResultEntities);
 
         getLogger().debug(LoggingMarkers.PERFORMANCE, "Handling of {} search results took {}ms", searchResultItems.size(), stopwatch.elapsed(TimeUnit.MILLISECONDS));
         return searchResultItems;
@@ -244,16 +264,18 @@ public abstract class Indexer<T> {
         status.setLevel(0);
         status.setDisabledPermanently(false);
         status.setDisabledUntil(null);
-        indexerRepository.save(indexer);
+        writeBehindPersister.save(indexerRepository, indexer);
 
         IndexerApiAccessEntity apiAccess = new IndexerApiAccessEntity(indexer);
         apiAccess.setAccessType(accessType);
         apiAccess.setResponseTime(responseTime);
         apiAccess.setResult(IndexerAccessResult.SUCCESSFUL);
         apiAccess.setTime(Instant.now());
-        indexerApiAccessRepository.save(apiAccess);
+        writeBehindPersister.save(indexerApiAccessRepository, apiAccess);
 
-        indexerApiAccessShortRepository.save(new IndexerApiAccessEntityShort(indexer, true));
+        IndexerApiAccessEntityShort shortApiAccess = new IndexerApiAccessEntityShort(indexer, true);
+        indexerAccessTimes.recordApiHit(indexer, shortApiAccess.getTime());
+        writeBehindPersister.save(indexerApiAccessShortRepository, shortApiAccess);
     }
 
     protected void handleFailure(String reason, Boolean disablePermanently, IndexerApiAccessType accessType, Long responseTime, IndexerAccessResult accessResult) {
@@ -267,7 +289,7 @@ public abstract class Indexer<T> {
         long minutesToAdd = DISABLE_PERIODS.get(Math.min(DISABLE_PERIODS.size() - 1, status.getLevel() + 1));
         status.setDisabledUntil(Instant.now().plus(minutesToAdd, ChronoUnit.MINUTES));
         status.setReason(reason);
-        indexerRepository.save(indexer);
+        writeBehindPersister.save(indexerRepository, indexer);
         if (disablePermanently) {
             getLogger().warn("{} will be permanently disabled until reenabled by the user", indexer.getName());
         } else {
@@ -279,15 +301,22 @@ public abstract class Indexer<T> {
         apiAccess.setResponseTime(responseTime);
         apiAccess.setResult(accessResult);
         apiAccess.setTime(Instant.now());
-        indexerApiAccessRepository.save(apiAccess);
+        writeBehindPersister.save(indexerApiAccessRepository, apiAccess);
 
-        indexerApiAccessShortRepository.save(new IndexerApiAccessEntityShort(indexer, false));
+        IndexerApiAccessEntityShort shortApiAccess = new IndexerApiAccessEntityShort(indexer, false);
+        indexerAccessTimes.recordApiHit(indexer, shortApiAccess.getTime());
+        writeBehindPersister.save(indexerApiAccessShortRepository, shortApiAccess);
     }
 
     protected void handleIndexerAccessException(IndexerAccessException e, IndexerApiAccessType accessType) {
         boolean disablePermanently = false;
         IndexerAccessResult apiAccessResult;
         String message = e.getMessage();
+        if (e instanceof IndexerBusyException) {
+            //Hydra made too many calls, so the indexer isn't disabled
+            getLogger().warn(message);
+            return;
+        }
         if (e instanceof IndexerAuthException) {
             error("Indexer refused authentication");
             disablePermanently = true;
@@ -0,0 +1,244 @@
+package org.nzbhydra.indexers;
+
+import org.nzbhydra.downloading.NzbDownloadEntity;
+import org.nzbhydra.downloading.NzbDownloadRepository;
+import org.nzbhydra.downloading.NzbHandler.NzbDownloadEvent;
+import org.nzbhydra.searching.WriteBehindPersister;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the times of the latest API hits and downloads of every indexer in memory so that hit and download limits can be checked without
+ * querying the database for every search.
+ * <p>
+ * The times of an indexer are loaded from the database when they're first needed and whenever a limit larger than the number of kept
+ * times is checked. After that every access is recorded here as well as in the database. Accesses recorded while the times are loaded are
+ * merged into the loaded times afterwards. Every indexer has its own lock and the database is queried without holding it.
+ */
+@Component
+public class IndexerAccessTimes {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexerAccessTimes.class);
+
+    //Hits are queued to be saved right after they're recorded. Keep them a while before the times are loaded so that a load which flushed the queue just before doesn't miss them
+    private static final long KEEP_UNLOADED_TIMES_MILLIS = 60 * 1000;
+
+    @Autowired
+    protected NzbDownloadRepository nzbDownloadRepository;
+    @Autowired
+    protected WriteBehindPersister writeBehindPersister;
+    @PersistenceContext
+    protected EntityManager entityManager;
+
+    private final Map<Integer, IndexerTimes> apiHitsByIndexerId = new ConcurrentHashMap<>();
+    private final Map<Integer, IndexerTimes> downloadsByIndexerId = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the time of the n-th latest API hit (the earliest of the last n hits) if at least n hits were made.
+     */
+    public Optional<Instant> getTimeOfNthLatestApiHit(IndexerEntity indexer, int n) {
+        return getTimeOfNthLatest(apiHitsByIndexerId.computeIfAbsent(indexer.getId(), x -> new IndexerTimes()), n, () -> loadApiHits(indexer, n));
+    }
+
+    /**
+     * Returns the time of the n-th latest download (the earliest of the last n downloads) if at least n downloads were made.
+     */
+    public Optional<Instant> getTimeOfNthLatestDownload(IndexerEntity indexer, int n) {
+        return getTimeOfNthLatest(downloadsByIndexerId.computeIfAbsent(indexer.getId(), x -> new IndexerTimes()), n, () -> loadDownloads(indexer, n));
+    }
+
+    /**
+     * Must be called before the API access is queued to be saved to the database.
+     */
+    public void recordApiHit(IndexerEntity indexer, Instant time) {
+        apiHitsByIndexerId.computeIfAbsent(indexer.getId(), x -> new IndexerTimes()).record(time);
+    }
+
+    @EventListener
+    public void onNzbDownloadEvent(NzbDownloadEvent downloadEvent) {
+        NzbDownloadEntity downloadEntity = downloadEvent.getDownloadEntity();
+        if (downloadEntity.getSearchResult() == null || downloadEntity.getSearchResult().getIndexer() == null) {
+            return;
+        }
+        downloadsByIndexerId.computeIfAbsent(downloadEntity.getSearchResult().getIndexer().getId(), x -> new IndexerTimes()).record(downloadEntity.getTime());
+    }
+
+    private Optional<Instant> getTimeOfNthLatest(IndexerTimes indexerTimes, int n, Supplier<List<Instant>> loader) {
+        synchronized (indexerTimes) {
+            if (indexerTimes.accessTimes != null && indexerTimes.accessTimes.capacity >= n) {
+                return indexerTimes.accessTimes.getNthLatest(n);
+            }
+            indexerTimes.runningLoads++;
+        }
+        List<Instant> loadedTimes;
+        try {
+            loadedTimes = loader.get();
+        } catch (RuntimeException e) {
+            synchronized (indexerTimes) {
+                indexerTimes.runningLoads--;
+            }
+            throw e;
+        }
+        synchronized (indexerTimes) {
+            indexerTimes.runningLoads--;
+            AccessTimes accessTimes = new AccessTimes(n, loadedTimes);
+            //The loaded times may not contain accesses which were recorded in the meantime or queued after the queue was flushed
+            if (indexerTimes.accessTimes != null) {
+                accessTimes.merge(indexerTimes.accessTimes.getAll());
+            }
+            accessTimes.merge(indexerTimes.recordedTimes);
+            if (indexerTimes.accessTimes == null || indexerTimes.accessTimes.capacity <= n) {
+                indexerTimes.accessTimes = accessTimes;
+            }
+            if (indexerTimes.runningLoads == 0) {
+                indexerTimes.recordedTimes.clear();
+            }
+            return accessTimes.getNthLatest(n);
+        }
+    }
+
+    private List<Instant> loadApiHits(IndexerEntity indexer, int n) {
+        try {
+            //API hits are saved in the background. Make sure all hits recorded before the times were loaded are in the database
+            writeBehindPersister.flush();
+        } catch (InterruptedException e) {
+            logger.warn("Interrupted while waiting for API accesses to be saved. Hit limit check may not be exact");
+            Thread.currentThread().interrupt();
+        }
+        Query query = entityManager.createNativeQuery("SELECT x.TIME FROM INDEXERAPIACCESS_SHORT x WHERE x.INDEXER_ID = (:indexerId) ORDER BY TIME DESC LIMIT (:hitLimit)");
+        query.setParameter("indexerId", indexer.getId());
+        query.setParameter("hitLimit", n);
+        List<?> resultList = query.getResultList();
+        logger.debug("Loaded times of {} API hits for indexer {}", resultList.size(), indexer.getName());
+        return resultList.stream().map(x -> ((Timestamp) x).toInstant()).collect(Collectors.toList());
+    }
+
+    private List<Instant> loadDownloads(IndexerEntity indexer, int n) {
+        List<NzbDownloadEntity> downloads = nzbDownloadRepository.findBySearchResultIndexerOrderByTimeDesc(indexer, new PageRequest(0, n)).getContent();
+        logger.debug("Loaded times of {} downloads for indexer {}", downloads.size(), indexer.getName());
+        return downloads.stream().map(NzbDownloadEntity::getTime).collect(Collectors.toList());
+    }
+
+    /**
+     * The access times of one indexer. Used as its lock.
+     */
+    private static class IndexerTimes {
+        /**
+         * Null until loaded
+         */
+        private AccessTimes accessTimes;
+        /**
+         * Accesses recorded while the times are loaded or not loaded yet
+         */
+        private final List<Instant> recordedTimes = new ArrayList<>();
+        private int runningLoads = 0;
+
+        synchronized void record(Instant time) {
+            if (accessTimes != null) {
+                accessTimes.add(time);
+            }
+            if (runningLoads > 0) {
+                recordedTimes.add(time);
+            } else if (accessTimes == null) {
+                Instant keepAfter = time.minusMillis(KEEP_UNLOADED_TIMES_MILLIS);
+                recordedTimes.removeIf(x -> x.isBefore(keepAfter));
+                recordedTimes.add(time);
+            }
+        }
+    }
+
+    /**
+     * Ring buffer holding the latest access times in ascending order. Only the latest {@link #capacity} times are kept.
+     */
+    static class AccessTimes {
+        private final int capacity;
+        private final long[] epochMillis;
+        private int start = 0;
+        private int size = 0;
+
+        AccessTimes(int capacity, List<Instant> initialTimes) {
+            this.capacity = Math.max(1, capacity);
+            epochMillis = new long[this.capacity];
+            initialTimes.forEach(this::add);
+        }
+
+        void add(Instant time) {
+            long millis = time.toEpochMilli();
+            //Accesses are usually recorded in order so the position is found at the end. Several accesses may have the same time
+            int position = size;
+            while (position > 0 && get(position - 1) > millis) {
+                position--;
+            }
+            if (size == capacity) {
+                if (position == 0) {
+                    //Older than all kept times
+                    return;
+                }
+                start = (start + 1) % capacity;
+                size--;
+                position--;
+            }
+            for (int i = size; i > position; i--) {
+                set(i, get(i - 1));
+            }
+            set(position, millis);
+            size++;
+        }
+
+        /**
+         * Adds the given times unless they're already contained, i.e. a time is contained as often as in the kept or the given times,
+         * whichever is more.
+         */
+        void merge(Collection<Instant> times) {
+            Map<Long, Long> knownCountsByMillis = getAll().stream().collect(Collectors.groupingBy(Instant::toEpochMilli, Collectors.counting()));
+            Map<Long, Long> countsByMillis = times.stream().collect(Collectors.groupingBy(Instant::toEpochMilli, Collectors.counting()));
+            for (Map.Entry<Long, Long> millisAndCount : countsByMillis.entrySet()) {
+                for (long i = knownCountsByMillis.getOrDefault(millisAndCount.getKey(), 0L); i < millisAndCount.getValue(); i++) {
+                    add(Instant.ofEpochMilli(millisAndCount.getKey()));
+                }
+            }
+        }
+
+        List<Instant> getAll() {
+            List<Instant> times = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                times.add(Instant.ofEpochMilli(get(i)));
+            }
+            return times;
+        }
+
+        Optional<Instant> getNthLatest(int n) {
+            if (n < 1 || n > size) {
+                return Optional.empty();
+            }
+            return Optional.of(Instant.ofEpochMilli(get(size - n)));
+        }
+
+        private long get(int index) {
+            return epochMillis[(start + index) % capacity];
+        }
+
+        private void set(int index, long value) {
+            epochMillis[(start + index) % capacity] = value;
+        }
+    }
+
+}
@@ -0,0 +1,230 @@
+package org.nzbhydra.indexers;
+
+import com.google.common.base.Strings;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.nzbhydra.config.ConfigChangedEvent;
+import org.nzbhydra.config.ConfigProvider;
+import org.nzbhydra.config.SearchingConfig;
+import org.nzbhydra.logging.MdcThreadPoolExecutor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Long-living executor through which all calls to indexers are made. Replaces the thread pools which were created for every search
+ * (and every web call) before.
+ * <p>
+ * A task is handed to an idle thread or a new one is created. When the maximum number of threads is reached the task waits in a bounded
+ * queue. When that is full too the task is rejected, so that the calls of a search are never executed one after the other in the
+ * submitting thread. Web calls to an indexer are additionally limited by a per-indexer number of permits. They are executed in the calling
+ * thread (usually a task running in this pool) so that a search doesn't need a second thread waiting for its web call.
+ * <p>
+ * If the number of threads is set to 0 the pool grows as needed so that any number of indexers and API clients can be served without
+ * sizing it. Idle threads are discarded after a minute.
+ */
+@Component
+public class IndexerCallExecutor implements InitializingBean, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexerCallExecutor.class);
+
+    static final int DEFAULT_THREADS = 50;
+    static final int DEFAULT_CALLS_PER_INDEXER = 5;
+    static final int QUEUE_CAPACITY = 500;
+
+    @Autowired
+    private ConfigProvider configProvider;
+
+    private final MdcThreadPoolExecutor executor;
+    private final Map<String, IndexerPermits> permitsByIndexer = new ConcurrentHashMap<>();
+    private final HandOffQueue queue = new HandOffQueue();
+    private final AtomicLong queuedCount = new AtomicLong();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private volatile int maxConcurrentCallsPerIndexer = DEFAULT_CALLS_PER_INDEXER;
+
+    public IndexerCallExecutor() {
+        //No core threads so that a new thread is only created when no idle one takes the task
+        executor = MdcThreadPoolExecutor.newWithInheritedMdc(0, DEFAULT_THREADS, 60L, TimeUnit.SECONDS, queue);
+        executor.setThreadFactory(new ThreadFactoryBuilder().setNameFormat("indexer-call-%d").setDaemon(true).build());
+        executor.setRejectedExecutionHandler((runnable, pool) -> {
+            if (pool.isShutdown()) {
+                throw new RejectedExecutionException("Indexer call executor was shut down");
+            }
+            if (!queue.enqueue(runnable)) {
+                rejectedCount.incrementAndGet();
+                throw new RejectedExecutionException("All threads for indexer calls are busy and " + QUEUE_CAPACITY + " calls are waiting");
+            }
+            queuedCount.incrementAndGet();
+        });
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        configure(configProvider.getBaseConfig().getSearching());
+    }
+
+    @EventListener
+    public void handleNewConfig(ConfigChangedEvent configChangedEvent) {
+        configure(configChangedEvent.getNewConfig().getSearching());
+    }
+
+    protected void configure(SearchingConfig searchingConfig) {
+        boolean unbounded = searchingConfig.getIndexerCallThreads() == 0;
+        int threads = unbounded ? Integer.MAX_VALUE : Math.max(1, searchingConfig.getIndexerCallThreads());
+        executor.setMaximumPoolSize(threads);
+        int callsPerIndexer = Math.max(1, searchingConfig.getMaxConcurrentCallsPerIndexer());
+        if (callsPerIndexer != maxConcurrentCallsPerIndexer) {
+            //Calls currently running will release their permits into the old instances
+            permitsByIndexer.clear();
+            maxConcurrentCallsPerIndexer = callsPerIndexer;
+        }
+        logger.debug("Using {} threads for indexer calls with at most {} concurrent calls per indexer", unbounded ? "as many" : threads, callsPerIndexer);
+    }
+
+    /**
+     * Executes all given tasks and waits for them to complete. See {@link java.util.concurrent.ExecutorService#invokeAll(Collection)}.
+     */
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks) throws InterruptedException {
+        return executor.invokeAll(tasks);
+    }
+
+    /**
+     * Executes all given tasks and waits for them to complete or the timeout to expire. Tasks not completed by then are cancelled. See
+     * {@link java.util.concurrent.ExecutorService#invokeAll(Collection, long, TimeUnit)}.
+     */
+    public <T> List<Future<T>> invokeAll(Collection<? extends Callable<T>> tasks, long timeout, TimeUnit unit) throws InterruptedException {
+        return executor.invokeAll(tasks, timeout, unit);
+    }
+
+    /**
+     * @throws RejectedExecutionException If all threads are busy and the queue is full
+     */
+    public <T> Future<T> submit(Callable<T> task) {
+        return executor.submit(task);
+    }
+
+    /**
+     * Submits a task which accesses the given indexer. The task will only be executed when fewer than the configured number of calls to
+     * that indexer are running. Waiting for a permit can be interrupted by cancelling the returned future.
+     *
+     * @throws RejectedExecutionException If all threads are busy and the queue is full
+     */
+    public <T> Future<T> submit(String indexerName, int permitTimeoutSeconds, Callable<T> task) {
+        return executor.submit(() -> call(indexerName, permitTimeoutSeconds, task));
+    }
+
+    /**
+     * Executes a task which accesses the given indexer in the calling thread. Waits until fewer than the configured number of calls to that
+     * indexer are running.
+     *
+     * @throws TimeoutException If no other call to the indexer finished in the given time
+     */
+    public <T> T call(String indexerName, int permitTimeoutSeconds, Callable<T> task) throws Exception {
+        IndexerPermits permits = permitsByIndexer.computeIfAbsent(Strings.nullToEmpty(indexerName), x -> new IndexerPermits(maxConcurrentCallsPerIndexer));
+        permits.waiting.incrementAndGet();
+        try {
+            if (!permits.semaphore.tryAcquire(permitTimeoutSeconds, TimeUnit.SECONDS)) {
+                permits.timedOut.incrementAndGet();
+                throw new TimeoutException("Waited " + permitTimeoutSeconds + " seconds for one of the " + maxConcurrentCallsPerIndexer + " running calls to indexer " + indexerName + " to finish");
+            }
+        } finally {
+            permits.waiting.decrementAndGet();
+        }
+        try {
+            return task.call();
+        } finally {
+            permits.semaphore.release();
+            permits.completed.incrementAndGet();
+        }
+    }
+
+    public ExecutorStatistics getStatistics() {
+        Map<String, IndexerCallStatistics> indexerStatistics = new TreeMap<>();
+        for (Entry<String, IndexerPermits> entry : permitsByIndexer.entrySet()) {
+            IndexerPermits permits = entry.getValue();
+            indexerStatistics.put(entry.getKey(), new IndexerCallStatistics(maxConcurrentCallsPerIndexer - permits.semaphore.availablePermits(), permits.waiting.get(), permits.completed.get(), permits.timedOut.get()));
+        }
+        return new ExecutorStatistics(executor.getMaximumPoolSize(), executor.getPoolSize(), executor.getActiveCount(), executor.getLargestPoolSize(), executor.getCompletedTaskCount(), queue.size(), queuedCount.get(), rejectedCount.get(), indexerStatistics);
+    }
+
+    @Override
+    public void destroy() {
+        logger.debug("Shutting down indexer call executor");
+        executor.shutdownNow();
+    }
+
+    private static class IndexerPermits {
+        private final Semaphore semaphore;
+        private final AtomicInteger waiting = new AtomicInteger();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong timedOut = new AtomicLong();
+
+        IndexerPermits(int permits) {
+            semaphore = new Semaphore(permits, true);
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class ExecutorStatistics {
+        private int maxThreads;
+        private int poolSize;
+        private int activeThreads;
+        private int largestPoolSize;
+        private long completedTasks;
+        private int waitingTasks;
+        private long queuedTasks;
+        private long rejectedTasks;
+        private Map<String, IndexerCallStatistics> indexers;
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class IndexerCallStatistics {
+        private int running;
+        private int waiting;
+        private long completed;
+        private long timedOut;
+    }
+
+    /**
+     * Only accepts a task from the executor if an idle thread takes it right away. Otherwise the executor creates a new thread or, when the
+     * maximum is reached, calls the rejection handler which puts the task into the queue if it's not full.
+     */
+    private static class HandOffQueue extends LinkedTransferQueue<Runnable> {
+
+        @Override
+        public boolean offer(Runnable runnable) {
+            return tryTransfer(runnable);
+        }
+
+        synchronized boolean enqueue(Runnable runnable) {
+            if (size() >= QUEUE_CAPACITY) {
+                return false;
+            }
+            return super.offer(runnable);
+        }
+    }
+
+}
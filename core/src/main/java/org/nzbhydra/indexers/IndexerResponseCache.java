@@ -0,0 +1,160 @@
+package org.nzbhydra.indexers;
+
+import com.google.common.hash.Hashing;
+import com.google.common.io.ByteStreams;
+import org.nzbhydra.config.ConfigProvider;
+import org.nzbhydra.config.IndexerConfig;
+import org.nzbhydra.indexers.IndexerResponseCacheEntity.ResponseType;
+import org.nzbhydra.mapping.newznab.RssRoot;
+import org.nzbhydra.searching.WriteBehindPersister;
+import org.nzbhydra.web.WebConfiguration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.oxm.Marshaller;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import javax.xml.transform.stream.StreamResult;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps search responses of indexers in the database for the configured time so that repeated searches (e.g. RSS polls after a restart)
+ * don't have to call the indexers again. Responses are identified by the indexer and the search URL without the API key. Disabled unless
+ * a cache time is configured.
+ */
+@Component
+public class IndexerResponseCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(IndexerResponseCache.class);
+
+    private static final long HOUR = 1000 * 60 * 60;
+
+    @Autowired
+    protected ConfigProvider configProvider;
+    @Autowired
+    protected IndexerResponseCacheRepository repository;
+    @Autowired
+    protected WriteBehindPersister writeBehindPersister;
+    @Autowired
+    protected IndexerWebAccess indexerWebAccess;
+    protected Marshaller marshaller = new WebConfiguration().marshaller();
+    protected Clock clock = Clock.systemUTC();
+
+    /**
+     * Returns the cached response for the search URL if one was saved within the configured cache time.
+     */
+    public Optional<Object> get(URI uri, IndexerConfig indexerConfig) {
+        Optional<Integer> cacheTime = configProvider.getBaseConfig().getSearching().getIndexerResponseCacheTime();
+        if (!cacheTime.isPresent()) {
+            return Optional.empty();
+        }
+        IndexerResponseCacheEntity entity = repository.findOne(getCacheKey(uri, indexerConfig));
+        if (entity == null || entity.getTime().isBefore(clock.instant().minus(cacheTime.get(), ChronoUnit.MINUTES))) {
+            return Optional.empty();
+        }
+        try {
+            byte[] response = decompress(entity.getResponse());
+            if (entity.getResponseType() == ResponseType.XML) {
+                return Optional.of(indexerWebAccess.parseSearchResponse(response, indexerConfig));
+            }
+            return Optional.of(new String(response, StandardCharsets.UTF_8));
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Unable to read cached response of indexer {}: {}", indexerConfig.getName(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Saves the response in the background if the cache is enabled. Only successful responses should be put and they must not be changed
+     * afterwards because they're serialized later.
+     */
+    public void put(URI uri, IndexerConfig indexerConfig, Object response) {
+        if (!configProvider.getBaseConfig().getSearching().getIndexerResponseCacheTime().isPresent() || !(response instanceof RssRoot || response instanceof String)) {
+            return;
+        }
+        String cacheKey = getCacheKey(uri, indexerConfig);
+        Instant time = clock.instant();
+        writeBehindPersister.saveLazily(repository, () -> createEntity(cacheKey, indexerConfig.getName(), response, time));
+    }
+
+    private IndexerResponseCacheEntity createEntity(String cacheKey, String indexerName, Object response, Instant time) {
+        ResponseType responseType;
+        byte[] bytes;
+        try {
+            if (response instanceof RssRoot) {
+                ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+                marshaller.marshal(response, new StreamResult(outputStream));
+                bytes = outputStream.toByteArray();
+                responseType = ResponseType.XML;
+            } else {
+                bytes = ((String) response).getBytes(StandardCharsets.UTF_8);
+                responseType = ResponseType.STRING;
+            }
+            bytes = compress(bytes);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Unable to cache response of indexer {}: {}", indexerName, e.getMessage());
+            return null;
+        }
+        return new IndexerResponseCacheEntity(cacheKey, indexerName, responseType, bytes, time);
+    }
+
+    @Scheduled(initialDelay = HOUR, fixedRate = HOUR)
+    @Transactional
+    public void deleteExpiredResponses() {
+        //Delete everything if the cache was disabled
+        int cacheTime = configProvider.getBaseConfig().getSearching().getIndexerResponseCacheTime().orElse(0);
+        int deletedResponses = repository.deleteByTimeBefore(clock.instant().minus(cacheTime, ChronoUnit.MINUTES));
+        if (deletedResponses > 0) {
+            logger.debug("Deleted {} expired indexer responses from cache", deletedResponses);
+        }
+    }
+
+    /**
+     * Identifies the response by indexer and URL. The API key is removed and the query parameters are sorted so that neither a changed API
+     * key nor the order of the parameters make a difference.
+     */
+    static String getCacheKey(URI uri, IndexerConfig indexerConfig) {
+        UriComponentsBuilder builder = UriComponentsBuilder.fromUri(uri).replaceQuery(null);
+        Map<String, List<String>> sortedParameters = new TreeMap<>(UriComponentsBuilder.fromUri(uri).build().getQueryParams());
+        for (Map.Entry<String, List<String>> parameter : sortedParameters.entrySet()) {
+            if (!parameter.getKey().equalsIgnoreCase("apikey")) {
+                builder.queryParam(parameter.getKey(), parameter.getValue().toArray());
+            }
+        }
+        String normalizedUrl = indexerConfig.getName() + "|" + builder.build().toString();
+        return Hashing.sha256().hashString(normalizedUrl, StandardCharsets.UTF_8).toString();
+    }
+
+    private static byte[] compress(byte[] bytes) throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try (OutputStream gzipStream = new GZIPOutputStream(outputStream)) {
+            gzipStream.write(bytes);
+        }
+        return outputStream.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] bytes) throws IOException {
+        try (InputStream gzipStream = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return ByteStreams.toByteArray(gzipStream);
+        }
+    }
+
+}
@@ -0,0 +1,46 @@
+package org.nzbhydra.indexers;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Convert;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+import java.time.Instant;
+
+
+/**
+ * A compressed search response of an indexer, kept in the database so that it can be used after a restart.
+ */
+@Data
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "indexerresponsecache")
+public class IndexerResponseCacheEntity {
+
+    public enum ResponseType {
+        XML,
+        STRING
+    }
+
+    @Id
+    private String cacheKey;
+
+    private String indexerName;
+
+    @Enumerated(EnumType.STRING)
+    private ResponseType responseType;
+
+    @Lob
+    private byte[] response;
+
+    @Convert(converter = com.github.marschall.threeten.jpa.InstantConverter.class)
+    private Instant time;
+
+}
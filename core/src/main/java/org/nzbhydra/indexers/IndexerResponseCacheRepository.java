@@ -0,0 +1,17 @@
+package org.nzbhydra.indexers;
+
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+
+public interface IndexerResponseCacheRepository extends JpaRepository<IndexerResponseCacheEntity, String> {
+
+    @Modifying
+    @Query("delete from IndexerResponseCacheEntity e where e.time < :before")
+    int deleteByTimeBefore(@Param("before") Instant before);
+
+}
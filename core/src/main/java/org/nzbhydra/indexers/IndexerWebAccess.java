@@ -1,29 +1,32 @@
 package org.nzbhydra.indexers;
 
 import com.google.common.io.BaseEncoding;
+import okhttp3.ResponseBody;
 import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.config.IndexerConfig;
 import org.nzbhydra.indexers.exceptions.IndexerAccessException;
+import org.nzbhydra.indexers.exceptions.IndexerBusyException;
 import org.nzbhydra.indexers.exceptions.IndexerUnreachableException;
+import org.nzbhydra.mapping.newznab.RssRoot;
+import org.nzbhydra.mapping.newznab.Xml;
 import org.nzbhydra.okhttp.WebAccess;
 import org.nzbhydra.web.WebConfiguration;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.oxm.Unmarshaller;
 import org.springframework.stereotype.Component;
 
+import javax.xml.stream.XMLStreamException;
 import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.StringReader;
 import java.net.SocketTimeoutException;
 import java.net.URI;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
-import java.util.concurrent.RejectedExecutionException;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
 @Component
@@ -35,7 +38,12 @@ public class IndexerWebAccess {
     protected ConfigProvider configProvider;
     @Autowired
     protected WebAccess webAccess;
+    @Autowired
+    protected IndexerCallExecutor indexerCallExecutor;
     protected Unmarshaller unmarshaller = new WebConfiguration().marshaller();
+    protected NewznabStaxParser staxParser = new NewznabStaxParser();
+    @Value("${nzbhydra.useStaxParser:true}")
+    protected boolean useStaxParser = true;
 
 
     @SuppressWarnings("unchecked")
@@ -54,31 +62,43 @@ public class IndexerWebAccess {
             headers.put("Authorization", "Basic " + BaseEncoding.base64().encode((indexerConfig.getUsername().get() + ":" + indexerConfig.getPassword().get()).getBytes()));
         }
 
-        Future<T> future;
         try {
-            future = Executors.newSingleThreadExecutor().submit(() -> {
+            return indexerCallExecutor.call(indexerConfig.getName(), timeout, () -> {
+                if (responseType == Xml.class || responseType == RssRoot.class) {
+                    byte[] response = webAccess.callUrl(uri.toString(), headers, timeout, ResponseBody::bytes);
+                    return (T) parseSearchResponse(response, indexerConfig);
+                }
                 String response = webAccess.callUrl(uri.toString(), headers, timeout);
                 if (responseType == String.class) {
                     return (T) response;
                 }
                 return (T) unmarshaller.unmarshal(new StreamSource(new StringReader(response)));
             });
-        } catch (RejectedExecutionException e) {
-            logger.error("Unexpected execution exception while executing call for indexer {}. This will hopefully be fixed soon", indexerConfig.getName());
-            throw new RuntimeException("Unexpected error in hydra code. Sorry...");
-        }
-        try {
-            return future.get(timeout, TimeUnit.SECONDS);
-        } catch (ExecutionException e) {
-            if (e.getCause() instanceof SocketTimeoutException) {
-                throw new IndexerUnreachableException("Connection with indexer timed out with a time out of " + timeout + " seconds: " + e.getCause().getMessage());
-            }
-            throw new IndexerUnreachableException("Error while communicating with indexer " + indexerConfig.getName() + ". Server returned: " + e.getMessage(), e.getCause());
         } catch (TimeoutException e) {
-            throw new IndexerAccessException("Indexer did not complete request within " + timeout + " seconds");
+            throw new IndexerBusyException(e.getMessage());
+        } catch (SocketTimeoutException e) {
+            throw new IndexerUnreachableException("Connection with indexer timed out with a time out of " + timeout + " seconds: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IndexerAccessException("Interrupted while waiting for call to indexer " + indexerConfig.getName());
         } catch (Exception e) {
-            throw new RuntimeException("Unexpected error while accessing indexer", e);
+            throw new IndexerUnreachableException("Error while communicating with indexer " + indexerConfig.getName() + ". Server returned: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Search responses are read with the streaming parser which is a lot faster than the unmarshaller. Should it not be able to read a
+     * response the unmarshaller is used.
+     */
+    protected Xml parseSearchResponse(byte[] response, IndexerConfig indexerConfig) throws IOException {
+        if (useStaxParser) {
+            try {
+                return staxParser.parse(new ByteArrayInputStream(response));
+            } catch (XMLStreamException e) {
+                logger.debug("Unable to parse response from indexer {} with streaming parser, will use unmarshaller: {}", indexerConfig.getName(), e.getMessage());
+            }
         }
+        return (Xml) unmarshaller.unmarshal(new StreamSource(new ByteArrayInputStream(response)));
     }
 
 
@@ -11,7 +11,6 @@ import org.nzbhydra.config.IndexerConfig;
 import org.nzbhydra.config.SearchModuleType;
 import org.nzbhydra.indexers.Indexer.BackendType;
 import org.nzbhydra.indexers.exceptions.IndexerAccessException;
-import org.nzbhydra.logging.MdcThreadPoolExecutor;
 import org.nzbhydra.mapping.newznab.ActionAttribute;
 import org.nzbhydra.mapping.newznab.RssError;
 import org.nzbhydra.mapping.newznab.RssRoot;
@@ -30,16 +29,16 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
+import java.util.Queue;
 import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 @Component
@@ -54,6 +53,8 @@ public class NewznabChecker {
     @Autowired
     protected IndexerWebAccess indexerWebAccess;
     @Autowired
+    protected IndexerCallExecutor indexerCallExecutor;
+    @Autowired
     private ApplicationEventPublisher eventPublisher;
 
 
@@ -102,42 +103,45 @@ public class NewznabChecker {
                 new CheckCapsRequest(indexerConfig, "movie", "imdbid", "0848228", Arrays.asList("Avengers", "Vengadores"))
         );
 
-        boolean allChecked = true;
+        boolean allChecked;
         boolean configComplete = true;
         Integer timeout = indexerConfig.getTimeout().orElse(configProvider.getBaseConfig().getSearching().getTimeout()) + 1;
-        List<Callable<SingleCheckCapsResponse>> callables = new ArrayList<>();
-        for (int i = 0; i < requests.size(); i++) {
-            CheckCapsRequest request = requests.get(i);
+        //Only as many tasks as connections are used. Each of them takes the next request from the queue until all are done
+        Queue<CheckCapsRequest> pendingRequests = new ConcurrentLinkedQueue<>(requests);
+        Set<SingleCheckCapsResponse> responses = ConcurrentHashMap.newKeySet();
+        int connections = Math.min(MAX_CONNECTIONS, requests.size());
+        List<Callable<Void>> callables = new ArrayList<>();
+        for (int i = 0; i < connections; i++) {
             callables.add(() -> {
-                Thread.sleep(PAUSE_BETWEEN_CALLS); //Give indexer some time to breathe
-                return singleCheckCaps(request, indexerConfig);
+                CheckCapsRequest request;
+                while ((request = pendingRequests.poll()) != null) {
+                    Thread.sleep(PAUSE_BETWEEN_CALLS); //Give indexer some time to breathe
+                    try {
+                        responses.add(singleCheckCaps(request, indexerConfig));
+                    } catch (IndexerAccessException e) {
+                        logger.error("Error while communicating with indexer", e);
+                    } catch (RuntimeException e) {
+                        logger.error("Unexpected error while checking caps", e);
+                    }
+                }
+                return null;
             });
         }
 
-        Set<SingleCheckCapsResponse> responses = new HashSet<>();
         Set<IdType> supportedIds;
         String backend = null;
         try {
-            logger.info("Will check capabilities of indexer {} using {} concurrent connections", indexerConfig.getName(), MAX_CONNECTIONS);
-            ExecutorService executor = MdcThreadPoolExecutor.newWithInheritedMdc(MAX_CONNECTIONS);
-            List<Future<SingleCheckCapsResponse>> futures = executor.invokeAll(callables);
-            for (Future<SingleCheckCapsResponse> future : futures) {
-                try {
-                    SingleCheckCapsResponse response = future.get(timeout, TimeUnit.SECONDS);
-                    if (response.getBackend() != null) {
-                        backend = response.getBackend();
-                    }
-                    responses.add(response);
-                } catch (ExecutionException e) {
-                    if (e.getCause() instanceof IndexerAccessException) {
-                        logger.error("Error while communicating with indexer", e);
-                    } else {
-                        logger.error("Unexpected error while checking caps", e);
-                    }
-                    allChecked = false;
-                } catch (TimeoutException e) {
-                    logger.error("Indexer {] failed to answer in {} seconds", indexerConfig.getName(), timeout);
-                    allChecked = false;
+            logger.info("Will check capabilities of indexer {} using {} concurrent connections", indexerConfig.getName(), connections);
+            //Every connection makes its share of the calls one after the other
+            long totalTimeout = (long) ((requests.size() + connections - 1) / connections) * (TimeUnit.SECONDS.toMillis(timeout) + PAUSE_BETWEEN_CALLS);
+            List<Future<Void>> futures = indexerCallExecutor.invokeAll(callables, totalTimeout, TimeUnit.MILLISECONDS);
+            if (futures.stream().anyMatch(Future::isCancelled)) {
+                logger.error("Indexer {} failed to answer all caps checks in {}ms", indexerConfig.getName(), totalTimeout);
+            }
+            allChecked = responses.size() == requests.size();
+            for (SingleCheckCapsResponse response : responses) {
+                if (response.getBackend() != null) {
+                    backend = response.getBackend();
                 }
             }
             supportedIds = responses.stream().filter(SingleCheckCapsResponse::isSupported).map(x -> Newznab.paramValueToIdMap.get(x.getKey())).collect(Collectors.toSet());
@@ -148,7 +152,7 @@ public class NewznabChecker {
             }
             indexerConfig.setSupportedSearchIds(new ArrayList<>(supportedIds));
 
-        } catch (InterruptedException e) {
+        } catch (InterruptedException | RejectedExecutionException e) {
             logger.error("Unexpected error while checking caps", e);
             allChecked = false;
         }
@@ -0,0 +1,315 @@
+package org.nzbhydra.indexers;
+
+import org.nzbhydra.mapping.newznab.Enclosure;
+import org.nzbhydra.mapping.newznab.JaxbPubdateAdapter;
+import org.nzbhydra.mapping.newznab.NewznabAttribute;
+import org.nzbhydra.mapping.newznab.NewznabResponse;
+import org.nzbhydra.mapping.newznab.RssChannel;
+import org.nzbhydra.mapping.newznab.RssError;
+import org.nzbhydra.mapping.newznab.RssGuid;
+import org.nzbhydra.mapping.newznab.RssItem;
+import org.nzbhydra.mapping.newznab.RssRoot;
+import org.nzbhydra.mapping.newznab.Xml;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.InputStream;
+
+/**
+ * Reads newznab and torznab search responses into the same objects the JAXB unmarshaller creates, but in one pass over the stream
+ * and without reflection. Only the elements and attributes mapped by {@link RssRoot} and {@link RssError} are read, everything else is
+ * skipped. Like the unmarshaller it's lenient with values that can't be converted: they are left empty instead of failing the
+ * whole response.
+ */
+public class NewznabStaxParser {
+
+    private static final Logger logger = LoggerFactory.getLogger(NewznabStaxParser.class);
+
+    static final String NEWZNAB_NAMESPACE = "http://www.newznab.com/DTD/2010/feeds/attributes/";
+    static final String TORZNAB_NAMESPACE = "http://torznab.com/schemas/2015/feed";
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private final JaxbPubdateAdapter pubdateAdapter = new JaxbPubdateAdapter();
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * Returns either an {@link RssRoot} or an {@link RssError}.
+     *
+     * @throws XMLStreamException if the response is not well-formed or has an unexpected root element
+     */
+    public Xml parse(InputStream inputStream) throws XMLStreamException {
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(inputStream);
+        try {
+            if (!nextStartElement(reader)) {
+                throw new XMLStreamException("Response contains no XML element");
+            }
+            if (isUnqualified(reader, "rss")) {
+                return readRss(reader);
+            }
+            if (isUnqualified(reader, "error")) {
+                return readError(reader);
+            }
+            throw new XMLStreamException("Unexpected root element " + reader.getLocalName(), reader.getLocation());
+        } finally {
+            reader.close();
+        }
+    }
+
+    private RssRoot readRss(XMLStreamReader reader) throws XMLStreamException {
+        RssRoot rssRoot = new RssRoot();
+        String version = reader.getAttributeValue(null, "version");
+        if (version != null) {
+            rssRoot.setVersion(version);
+        }
+        while (nextStartElement(reader)) {
+            if (isUnqualified(reader, "channel")) {
+                rssRoot.setRssChannel(readChannel(reader));
+            } else if (isUnqualified(reader, "error")) {
+                rssRoot.setError(readError(reader));
+            } else {
+                skipElement(reader);
+            }
+        }
+        return rssRoot;
+    }
+
+    private RssChannel readChannel(XMLStreamReader reader) throws XMLStreamException {
+        RssChannel channel = new RssChannel();
+        while (nextStartElement(reader)) {
+            String namespace = reader.getNamespaceURI();
+            String name = reader.getLocalName();
+            if (NEWZNAB_NAMESPACE.equals(namespace)) {
+                if (name.equals("response")) {
+                    channel.setNewznabResponse(new NewznabResponse(parseInteger(reader.getAttributeValue(null, "offset")), parseInteger(reader.getAttributeValue(null, "total"))));
+                }
+                skipElement(reader);
+            } else if (isUnqualified(namespace)) {
+                switch (name) {
+                    case "item":
+                        channel.getItems().add(readItem(reader));
+                        break;
+                    case "title":
+                        channel.setTitle(readText(reader));
+                        break;
+                    case "description":
+                        channel.setDescription(readText(reader));
+                        break;
+                    case "link":
+                        channel.setLink(readText(reader));
+                        break;
+                    case "language":
+                        channel.setLanguage(readText(reader));
+                        break;
+                    case "webMaster":
+                        channel.setWebMaster(readText(reader));
+                        break;
+                    case "generator":
+                        channel.setGenerator(readText(reader));
+                        break;
+                    default:
+                        skipElement(reader);
+                }
+            } else {
+                skipElement(reader);
+            }
+        }
+        return channel;
+    }
+
+    private RssItem readItem(XMLStreamReader reader) throws XMLStreamException {
+        RssItem item = new RssItem();
+        while (nextStartElement(reader)) {
+            String namespace = reader.getNamespaceURI();
+            String name = reader.getLocalName();
+            if (NEWZNAB_NAMESPACE.equals(namespace) || TORZNAB_NAMESPACE.equals(namespace)) {
+                if (name.equals("attr")) {
+                    NewznabAttribute attribute = new NewznabAttribute(reader.getAttributeValue(null, "name"), reader.getAttributeValue(null, "value"));
+                    if (NEWZNAB_NAMESPACE.equals(namespace)) {
+                        item.getNewznabAttributes().add(attribute);
+                    } else {
+                        item.getTorznabAttributes().add(attribute);
+                    }
+                }
+                skipElement(reader);
+            } else if (isUnqualified(namespace)) {
+                switch (name) {
+                    case "title":
+                        item.setTitle(readText(reader));
+                        break;
+                    case "link":
+                        item.setLink(readText(reader));
+                        break;
+                    case "pubDate":
+                        String pubDate = readText(reader);
+                        try {
+                            item.setPubDate(pubdateAdapter.unmarshal(pubDate));
+                        } catch (RuntimeException e) {
+                            logger.debug("Unable to parse pubDate {}", pubDate);
+                            item.setPubDate(null);
+                        }
+                        break;
+                    case "guid":
+                        RssGuid guid = new RssGuid();
+                        guid.setPermaLink(parseBoolean(reader.getAttributeValue(null, "isPermaLink")));
+                        guid.setGuid(readText(reader));
+                        item.setRssGuid(guid);
+                        break;
+                    case "description":
+                        item.setDescription(readText(reader));
+                        break;
+                    case "comments":
+                        item.setComments(readText(reader));
+                        break;
+                    case "category":
+                        item.setCategory(readText(reader));
+                        break;
+                    case "grabs":
+                        item.setGrabs(parseInteger(readText(reader)));
+                        break;
+                    case "enclosure":
+                        Enclosure enclosure = new Enclosure();
+                        enclosure.setUrl(reader.getAttributeValue(null, "url"));
+                        enclosure.setLength(parseLong(reader.getAttributeValue(null, "length")));
+                        enclosure.setType(reader.getAttributeValue(null, "type"));
+                        item.setEnclosure(enclosure);
+                        skipElement(reader);
+                        break;
+                    default:
+                        skipElement(reader);
+                }
+            } else {
+                skipElement(reader);
+            }
+        }
+        return item;
+    }
+
+    private RssError readError(XMLStreamReader reader) throws XMLStreamException {
+        RssError error = new RssError(reader.getAttributeValue(null, "code"), reader.getAttributeValue(null, "description"));
+        skipElement(reader);
+        return error;
+    }
+
+    /**
+     * Moves to the next child element of the current element. Returns false when the current element's end is reached.
+     */
+    private boolean nextStartElement(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            }
+            if (event == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the text content of the current element (without the text of nested elements) and moves to its end.
+     */
+    private String readText(XMLStreamReader reader) throws XMLStreamException {
+        StringBuilder text = null;
+        String singleText = null;
+        while (true) {
+            int event = reader.next();
+            switch (event) {
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                case XMLStreamConstants.ENTITY_REFERENCE:
+                    if (singleText == null) {
+                        singleText = reader.getText();
+                    } else {
+                        if (text == null) {
+                            text = new StringBuilder(singleText);
+                        }
+                        text.append(reader.getText());
+                    }
+                    break;
+                case XMLStreamConstants.START_ELEMENT:
+                    skipElement(reader);
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    if (text != null) {
+                        return text.toString();
+                    }
+                    return singleText == null ? "" : singleText;
+                case XMLStreamConstants.END_DOCUMENT:
+                    throw new XMLStreamException("Unexpected end of document", reader.getLocation());
+                default:
+                    //Comments and processing instructions
+            }
+        }
+    }
+
+    /**
+     * Moves to the end of the current element.
+     */
+    private void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            } else if (event == XMLStreamConstants.END_DOCUMENT) {
+                throw new XMLStreamException("Unexpected end of document", reader.getLocation());
+            }
+        }
+    }
+
+    private static boolean isUnqualified(XMLStreamReader reader, String localName) {
+        return isUnqualified(reader.getNamespaceURI()) && localName.equals(reader.getLocalName());
+    }
+
+    private static boolean isUnqualified(String namespace) {
+        return namespace == null || namespace.isEmpty();
+    }
+
+    private static Integer parseInteger(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Long parseLong(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static boolean parseBoolean(String value) {
+        if (value == null) {
+            return false;
+        }
+        String trimmed = value.trim();
+        return trimmed.equals("true") || trimmed.equals("1");
+    }
+
+}
@@ -22,6 +22,8 @@ import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 @Getter
 @Setter
@@ -41,8 +43,10 @@ public class Torznab extends Newznab {
 
         searchResultItem.setGrabs(item.getGrabs());
         searchResultItem.setIndexerGuid(item.getRssGuid().getGuid());
+        //Collect all attributes first, every change of the compact attribute map copies it
+        Map<String, String> attributes = new LinkedHashMap<>(searchResultItem.getAttributes());
         for (NewznabAttribute attribute : item.getTorznabAttributes()) {
-            searchResultItem.getAttributes().put(attribute.getName(), attribute.getValue());
+            attributes.put(attribute.getName(), attribute.getValue());
             if (attribute.getName().equals("grabs")) {
                 searchResultItem.setGrabs(Integer.valueOf(attribute.getValue()));
             } else if (attribute.getName().equals("guid")) {
@@ -53,6 +57,7 @@ public class Torznab extends Newznab {
                 searchResultItem.setPeers(Integer.valueOf(attribute.getValue()));
             }
         }
+        searchResultItem.setAttributes(attributes);
         searchResultItem.setHasNfo(HasNfo.NO);
         searchResultItem.setDownloadType(DownloadType.TORRENT);
         searchResultItem.setGuid(SearchResultIdCalculator.calculateSearchResultId(searchResultItem));
@@ -0,0 +1,11 @@
+package org.nzbhydra.indexers.exceptions;
+
+/**
+ * Thrown when a call to an indexer was not made because too many other calls to it were running. Not the indexer's fault.
+ */
+public class IndexerBusyException extends IndexerAccessException {
+
+    public IndexerBusyException(String message) {
+        super(message);
+    }
+}
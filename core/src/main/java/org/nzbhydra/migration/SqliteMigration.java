@@ -9,6 +9,8 @@ import org.nzbhydra.config.NzbAccessType;
 import org.nzbhydra.downloading.NzbDownloadEntity;
 import org.nzbhydra.downloading.NzbDownloadRepository;
 import org.nzbhydra.downloading.NzbDownloadStatus;
+import org.nzbhydra.historystats.StatsCache;
+import org.nzbhydra.historystats.StatsRollups;
 import org.nzbhydra.indexers.IndexerAccessResult;
 import org.nzbhydra.indexers.IndexerApiAccessEntity;
 import org.nzbhydra.indexers.IndexerApiAccessType;
@@ -81,6 +83,10 @@ public class SqliteMigration {
     private EntityManager entityManager;
     @Autowired
     private ApplicationEventPublisher eventPublisher;
+    @Autowired
+    private StatsRollups statsRollups;
+    @Autowired
+    private StatsCache statsCache;
     private Random random = new Random();
 
     protected ObjectMapper objectMapper = new ObjectMapper();
@@ -105,6 +111,10 @@ public class SqliteMigration {
             } finally {
                 entityManager.createNativeQuery("SET REFERENTIAL_INTEGRITY TRUE").executeUpdate();
             }
+            //Truncating doesn't update the full text index
+            entityManager.createNativeQuery("CALL FT_REINDEX()").getResultList();
+            statsRollups.reset();
+            statsCache.invalidateAll();
             migrate();
 
         }
@@ -37,7 +37,7 @@ public class WebHooks {
         if (!Strings.isNullOrEmpty(searchHook)) {
             if (searchEvent.getSearchRequest().getSource() == SearchSource.INTERNAL) {
                 try {
-                    OkHttpClient client = requestFactory.getOkHttpClientBuilder(URI.create(searchHook)).build();
+                    OkHttpClient client = requestFactory.getOkHttpClient(URI.create(searchHook));
                     String content = objectMapper.writeValueAsString(searchEvent.getSearchRequest());
                     Response response = client.newCall(new Builder().url(searchHook).method("PUT", RequestBody.create(MediaType.parse(org.springframework.http.MediaType.APPLICATION_JSON_VALUE), content)).build()).execute();
                     response.close();
@@ -57,7 +57,7 @@ public class WebHooks {
         if (!Strings.isNullOrEmpty(downloadHook)) {
             if (downloadEvent.getDownloadEntity().getAccessSource() == SearchSource.INTERNAL) {
                 try {
-                    OkHttpClient client = requestFactory.getOkHttpClientBuilder(URI.create(downloadHook)).build();
+                    OkHttpClient client = requestFactory.getOkHttpClient(URI.create(downloadHook));
                     String content = objectMapper.writeValueAsString(downloadEvent.getDownloadEntity());
                     Response response = client.newCall(new Builder().url(downloadHook).method("PUT", RequestBody.create(MediaType.parse(org.springframework.http.MediaType.APPLICATION_JSON_VALUE), content)).build()).execute();
                     response.close();
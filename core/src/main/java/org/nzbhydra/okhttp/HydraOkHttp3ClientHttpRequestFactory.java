@@ -16,6 +16,8 @@
 
 package org.nzbhydra.okhttp;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.net.InetAddresses;
 import joptsimple.internal.Strings;
 import okhttp3.ConnectionPool;
@@ -26,6 +28,7 @@ import okhttp3.Request;
 import okhttp3.RequestBody;
 import okhttp3.Response;
 import okhttp3.Route;
+import org.nzbhydra.config.ConfigChangedEvent;
 import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.config.MainConfig;
 import org.nzbhydra.config.ProxyType;
@@ -36,6 +39,7 @@ import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.client.AsyncClientHttpRequest;
@@ -75,6 +79,7 @@ import java.security.cert.X509Certificate;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -85,7 +90,13 @@ public class HydraOkHttp3ClientHttpRequestFactory
         implements ClientHttpRequestFactory, AsyncClientHttpRequestFactory, DisposableBean {
 
     @Value("${nzbhydra.connectionTimeout:10}")
-    private int timeout;
+    protected int timeout;
+
+    /**
+     * OkHttp's default connect and write timeout
+     */
+    public static final int OKHTTP_DEFAULT_TIMEOUT_SECONDS = 10;
+    private static final int MAX_CACHED_CLIENTS = 100;
 
     private static final Logger logger = LoggerFactory.getLogger(HydraOkHttp3ClientHttpRequestFactory.class);
     private static Pattern HOST_PATTERN = Pattern.compile("(\\w+\\.)?(\\S+\\.\\S+)", Pattern.CASE_INSENSITIVE);
@@ -94,6 +105,8 @@ public class HydraOkHttp3ClientHttpRequestFactory
     @Autowired
     private ConfigProvider configProvider;
     private final ConnectionPool connectionPool = new ConnectionPool(10, 5, TimeUnit.MINUTES);
+    //Clients of hosts which aren't called anymore (e.g. removed indexers or changed webhooks) are evicted
+    private final Cache<ClientCacheKey, OkHttpClient> clientCache = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_CLIENTS).expireAfterAccess(1, TimeUnit.HOURS).build();
 
 
     /**
@@ -138,12 +151,55 @@ public class HydraOkHttp3ClientHttpRequestFactory
 
     @Override
     public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
-        return new OkHttp3ClientHttpRequest(getOkHttpClientBuilder(uri).build(), uri, httpMethod);
+        return new OkHttp3ClientHttpRequest(getOkHttpClient(uri), uri, httpMethod);
     }
 
     @Override
     public AsyncClientHttpRequest createAsyncRequest(URI uri, HttpMethod httpMethod) {
-        return new OkHttp3AsyncClientHttpRequest(getOkHttpClientBuilder(uri).build(), uri, httpMethod);
+        return new OkHttp3AsyncClientHttpRequest(getOkHttpClient(uri), uri, httpMethod);
+    }
+
+    /**
+     * See {@link #getOkHttpClient(URI, int, int, int)}. Uses the default connection timeout for reading and OkHttp's defaults for
+     * connecting and writing, like {@link #getOkHttpClientBuilder(URI)}.
+     */
+    public OkHttpClient getOkHttpClient(URI requestUri) {
+        return getOkHttpClient(requestUri, timeout, OKHTTP_DEFAULT_TIMEOUT_SECONDS, OKHTTP_DEFAULT_TIMEOUT_SECONDS);
+    }
+
+    /**
+     * See {@link #getOkHttpClient(URI, int, int, int)}. Uses the given timeout for connecting, reading and writing.
+     */
+    public OkHttpClient getOkHttpClient(URI requestUri, int timeoutSeconds) {
+        return getOkHttpClient(requestUri, timeoutSeconds, timeoutSeconds, timeoutSeconds);
+    }
+
+    /**
+     * Returns a client for calls to the host of the given URI which uses the given timeouts (in seconds). Clients are reused until the
+     * config is changed or they weren't used for an hour so that connections and TLS sessions to a host can be reused across calls. Use
+     * {@link #getOkHttpClientBuilder(URI)} if the client needs to be customized in another way.
+     */
+    public OkHttpClient getOkHttpClient(URI requestUri, int readTimeoutSeconds, int connectTimeoutSeconds, int writeTimeoutSeconds) {
+        MainConfig main = configProvider.getBaseConfig().getMain();
+        ClientCacheKey key = new ClientCacheKey(requestUri.getHost(), main.getProxyType(), main.isVerifySsl(), readTimeoutSeconds, connectTimeoutSeconds, writeTimeoutSeconds);
+        try {
+            return clientCache.get(key, () -> {
+                logger.debug("Creating HTTP client for host {} with timeouts {}s (read), {}s (connect) and {}s (write)", requestUri.getHost(), readTimeoutSeconds, connectTimeoutSeconds, writeTimeoutSeconds);
+                return getOkHttpClientBuilder(requestUri)
+                        .readTimeout(readTimeoutSeconds, TimeUnit.SECONDS)
+                        .connectTimeout(connectTimeoutSeconds, TimeUnit.SECONDS)
+                        .writeTimeout(writeTimeoutSeconds, TimeUnit.SECONDS)
+                        .build();
+            });
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Unable to create HTTP client", e.getCause());
+        }
+    }
+
+    @EventListener
+    public void handleNewConfig(ConfigChangedEvent configChangedEvent) {
+        //Proxy and SSL settings may have changed
+        clientCache.invalidateAll();
     }
 
 
@@ -415,4 +471,14 @@ public class HydraOkHttp3ClientHttpRequestFactory
         }
     }
 
+    @lombok.Value
+    private static class ClientCacheKey {
+        private String host;
+        private ProxyType proxyType;
+        private boolean verifySsl;
+        private int readTimeoutSeconds;
+        private int connectTimeoutSeconds;
+        private int writeTimeoutSeconds;
+    }
+
 }
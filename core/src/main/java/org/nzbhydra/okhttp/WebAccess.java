@@ -3,10 +3,13 @@ package org.nzbhydra.okhttp;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Strings;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import okhttp3.Call;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Request.Builder;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,17 +19,29 @@ import org.springframework.stereotype.Component;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.SocketTimeoutException;
 import java.nio.file.Files;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @SuppressWarnings("ConstantConditions")
 @Component
 public class WebAccess {
 
     private static final Logger logger = LoggerFactory.getLogger(WebAccess.class);
+    /**
+     * Cancels calls which take longer than their timeout. The timeouts of OkHttp only apply to single connect and read operations.
+     */
+    private static final ScheduledThreadPoolExecutor callTimeouts = new ScheduledThreadPoolExecutor(1, new ThreadFactoryBuilder().setNameFormat("web-call-timeout").setDaemon(true).build());
+
+    static {
+        callTimeouts.setRemoveOnCancelPolicy(true);
+    }
 
     @Autowired
     private HydraOkHttp3ClientHttpRequestFactory requestFactory;
@@ -45,6 +60,14 @@ public class WebAccess {
     }
 
     public String callUrl(String url, Map<String, String> headers, int timeout) throws IOException {
+        return callUrl(url, headers, timeout, ResponseBody::string);
+    }
+
+    /**
+     * Calls the URL and lets the given reader consume the body of a successful response before the connection is released. The call is
+     * cancelled with a {@link SocketTimeoutException} if it doesn't complete within the timeout.
+     */
+    public <T> T callUrl(String url, Map<String, String> headers, int timeout, ResponseBodyReader<T> bodyReader) throws IOException {
         Builder builder = new Builder().url(url);
         for (Entry<String, String> entry : headers.entrySet()) {
             builder.addHeader(entry.getKey(), entry.getValue());
@@ -58,16 +81,29 @@ public class WebAccess {
 
         Request request = builder.build();
 
-        OkHttpClient client = requestFactory.getOkHttpClientBuilder(request.url().uri()).readTimeout(timeout, TimeUnit.SECONDS).connectTimeout(timeout, TimeUnit.SECONDS).writeTimeout(timeout, TimeUnit.SECONDS).build();
-        try (Response response = client.newCall(request).execute()) {
+        OkHttpClient client = requestFactory.getOkHttpClient(request.url().uri(), timeout);
+        Call call = client.newCall(request);
+        AtomicBoolean timedOut = new AtomicBoolean();
+        ScheduledFuture<?> timeoutTask = callTimeouts.schedule(() -> {
+            timedOut.set(true);
+            call.cancel();
+        }, timeout, TimeUnit.SECONDS);
+        try (Response response = call.execute()) {
             if (!response.isSuccessful()) {
                 String error = String.format("URL call to %s returned %d:%s", url, response.code(), response.message());
                 logger.error(error);
                 throw new IOException(error);
             }
-            String body = response.body().string();
-            response.body().close();
-            return body;
+            try (ResponseBody body = response.body()) {
+                return bodyReader.read(body);
+            }
+        } catch (IOException e) {
+            if (timedOut.get()) {
+                throw new SocketTimeoutException("Call did not complete within " + timeout + " seconds");
+            }
+            throw e;
+        } finally {
+            timeoutTask.cancel(false);
         }
     }
 
@@ -83,7 +119,7 @@ public class WebAccess {
 
     public void downloadToFile(String url, File file) throws IOException {
         Request request = new Request.Builder().url(url).build();
-        try (Response response = requestFactory.getOkHttpClientBuilder(request.url().uri()).build().newCall(request).execute()) {
+        try (Response response = requestFactory.getOkHttpClient(request.url().uri()).newCall(request).execute()) {
             if (!response.isSuccessful()) {
                 String error = String.format("URL call to %s returned %d:%s", url, response.code(), response.message());
                 logger.error(error);
@@ -94,6 +130,11 @@ public class WebAccess {
         }
     }
 
+    @FunctionalInterface
+    public interface ResponseBodyReader<T> {
+        T read(ResponseBody body) throws IOException;
+    }
+
     public class WebAccessResponse {
         String response;
 
@@ -0,0 +1,144 @@
+package org.nzbhydra.searching;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Queue;
+
+/**
+ * Finds any of a fixed set of strings in a text with one pass over the text, independent of the number of strings (Aho-Corasick).
+ * Matching is case sensitive. Instances are immutable after construction and may be used by many threads.
+ */
+class AhoCorasickMatcher {
+
+    private static final char[] NO_KEYS = new char[0];
+    private static final int[] NO_CHILDREN = new int[0];
+
+    //Per node: the sorted characters of its outgoing edges and the nodes they lead to
+    private char[][] keys;
+    private int[][] children;
+    private int[] failure;
+    //Per node: the pattern ending at this node or at one of the nodes reachable via failure links, null if none
+    private String[] output;
+    private int size;
+    private final boolean empty;
+
+    AhoCorasickMatcher(Collection<String> patterns) {
+        keys = new char[16][];
+        children = new int[16][];
+        output = new String[16];
+        size = 1;
+        keys[0] = NO_KEYS;
+        children[0] = NO_CHILDREN;
+        for (String pattern : patterns) {
+            addPattern(pattern);
+        }
+        empty = patterns.isEmpty();
+        buildFailureLinks();
+    }
+
+    boolean isEmpty() {
+        return empty;
+    }
+
+    /**
+     * Returns one of the patterns contained in the text or null if none is contained.
+     */
+    String findAny(String text) {
+        if (empty) {
+            return null;
+        }
+        if (output[0] != null) {
+            return output[0];
+        }
+        int node = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            int next = child(node, c);
+            while (next < 0 && node != 0) {
+                node = failure[node];
+                next = child(node, c);
+            }
+            node = next < 0 ? 0 : next;
+            if (output[node] != null) {
+                return output[node];
+            }
+        }
+        return null;
+    }
+
+    private void addPattern(String pattern) {
+        int node = 0;
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            int next = child(node, c);
+            if (next < 0) {
+                next = newNode();
+                addChild(node, c, next);
+            }
+            node = next;
+        }
+        if (output[node] == null) {
+            output[node] = pattern;
+        }
+    }
+
+    private void buildFailureLinks() {
+        failure = new int[size];
+        Queue<Integer> queue = new ArrayDeque<>();
+        for (int child : children[0]) {
+            failure[child] = 0;
+            queue.add(child);
+        }
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int i = 0; i < keys[node].length; i++) {
+                char c = keys[node][i];
+                int child = children[node][i];
+                int fallback = failure[node];
+                int target = child(fallback, c);
+                while (target < 0 && fallback != 0) {
+                    fallback = failure[fallback];
+                    target = child(fallback, c);
+                }
+                failure[child] = target < 0 || target == child ? 0 : target;
+                if (output[child] == null) {
+                    //A pattern ending at the failure node is also a suffix of the text matched so far
+                    output[child] = output[failure[child]];
+                }
+                queue.add(child);
+            }
+        }
+    }
+
+    private int child(int node, char c) {
+        int index = Arrays.binarySearch(keys[node], c);
+        return index < 0 ? -1 : children[node][index];
+    }
+
+    private int newNode() {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            children = Arrays.copyOf(children, size * 2);
+            output = Arrays.copyOf(output, size * 2);
+        }
+        keys[size] = NO_KEYS;
+        children[size] = NO_CHILDREN;
+        return size++;
+    }
+
+    private void addChild(int node, char c, int child) {
+        int insertAt = -(Arrays.binarySearch(keys[node], c) + 1);
+        char[] newKeys = new char[keys[node].length + 1];
+        int[] newChildren = new int[children[node].length + 1];
+        System.arraycopy(keys[node], 0, newKeys, 0, insertAt);
+        System.arraycopy(children[node], 0, newChildren, 0, insertAt);
+        newKeys[insertAt] = c;
+        newChildren[insertAt] = child;
+        System.arraycopy(keys[node], insertAt, newKeys, insertAt + 1, keys[node].length - insertAt);
+        System.arraycopy(children[node], insertAt, newChildren, insertAt + 1, children[node].length - insertAt);
+        keys[node] = newKeys;
+        children[node] = newChildren;
+    }
+
+}
@@ -0,0 +1,75 @@
+package org.nzbhydra.searching;
+
+import org.nzbhydra.config.ConfigChangedEvent;
+import org.nzbhydra.config.ConfigProvider;
+import org.nzbhydra.config.SearchingConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * Limits the number of searches executed at the same time. A search is rejected right away when the limit is reached so that clients get an
+ * error instead of waiting for a server which can't keep up.
+ */
+@Component
+public class ConcurrentSearchLimiter implements InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConcurrentSearchLimiter.class);
+
+    @Autowired
+    private ConfigProvider configProvider;
+
+    private volatile Semaphore semaphore;
+    private volatile int maxConcurrentSearches;
+
+    @Override
+    public void afterPropertiesSet() {
+        configure(configProvider.getBaseConfig().getSearching());
+    }
+
+    @EventListener
+    public void handleNewConfig(ConfigChangedEvent configChangedEvent) {
+        configure(configChangedEvent.getNewConfig().getSearching());
+    }
+
+    protected void configure(SearchingConfig searchingConfig) {
+        int newMaxConcurrentSearches = searchingConfig.getMaxConcurrentSearches();
+        if (newMaxConcurrentSearches == maxConcurrentSearches && (semaphore != null || newMaxConcurrentSearches == 0)) {
+            return;
+        }
+        //Searches currently running will release their permits into the old instance
+        semaphore = newMaxConcurrentSearches == 0 ? null : new Semaphore(newMaxConcurrentSearches, true);
+        maxConcurrentSearches = newMaxConcurrentSearches;
+        logger.debug("Allowing {} concurrent searches", newMaxConcurrentSearches == 0 ? "any number of" : newMaxConcurrentSearches);
+    }
+
+    /**
+     * Returns a permit if fewer than the allowed number of searches are running. Never waits.
+     *
+     * @return A permit which must be closed when the search is finished
+     * @throws SearchLimitReachedException If too many searches are running
+     */
+    public Permit tryAcquire() throws SearchLimitReachedException {
+        Semaphore currentSemaphore = semaphore;
+        if (currentSemaphore == null) {
+            return () -> {
+            };
+        }
+        if (!currentSemaphore.tryAcquire()) {
+            logger.warn("Rejecting search because {} searches are already running", maxConcurrentSearches);
+            throw new SearchLimitReachedException("Too many searches are running. Please try again later");
+        }
+        return currentSemaphore::release;
+    }
+
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+}
@@ -4,6 +4,8 @@ import com.google.common.base.Stopwatch;
 import com.google.common.collect.HashMultiset;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Multiset;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
 import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.indexers.Indexer;
 import org.nzbhydra.logging.LoggingMarkers;
@@ -15,87 +17,74 @@ import org.springframework.stereotype.Component;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
-import static com.google.common.collect.Lists.newArrayList;
-
 @Component
 public class DuplicateDetector {
 
     private static final Logger logger = LoggerFactory.getLogger(DuplicateDetector.class);
 
+    private static final Pattern TITLE_SEPARATOR_PATTERN = Pattern.compile("[ .\\-_]");
+
     @Autowired
     protected ConfigProvider configProvider;
 
     public DuplicateDetectionResult detectDuplicates(List<SearchResultItem> results) {
+        return detectDuplicates(new DuplicateGroupIndex(), results);
+    }
+
+    /**
+     * Adds the new results to the duplicate groups already in the index. Only the new results are compared with the known ones, the
+     * groups and duplicate identifiers of known results are not changed.
+     *
+     * @return the duplicate groups of all results in the index
+     */
+    public DuplicateDetectionResult detectDuplicates(DuplicateGroupIndex duplicateGroupIndex, List<SearchResultItem> newResults) {
         Stopwatch stopwatch = Stopwatch.createStarted();
-        Map<String, List<SearchResultItem>> groupedByTitle = results.stream().collect(Collectors.groupingBy(x -> x.getTitle().replaceFirst("[ .\\-_]", "")));
+        Map<String, List<SearchResultItem>> groupedByTitle = newResults.stream().collect(Collectors.groupingBy(x -> TITLE_SEPARATOR_PATTERN.matcher(x.getTitle()).replaceFirst("")));
         Multiset<Indexer> countUniqueResultsPerIndexer = HashMultiset.create();
         List<LinkedHashSet<SearchResultItem>> duplicateGroups = new ArrayList<>();
+        float duplicateAgeThreshold = configProvider.getBaseConfig().getSearching().getDuplicateAgeThreshold();
+        float duplicateSizeThreshold = configProvider.getBaseConfig().getSearching().getDuplicateSizeThresholdInPercent();
 
-        //In each list of searchResults with the same title we want to find the duplicates
         int countDetectedDuplicates = 0;
-        for (List<SearchResultItem> titleGroup : groupedByTitle.values()) {
-            titleGroup = titleGroup.stream().sorted(Comparator.comparing(SearchResultItem::getPubDate).reversed()).collect(Collectors.toList());
-            //So we start with a bucket with the first (later we have a list of buckets where all searchResults in a bucket are duplicates)
-            List<LinkedHashSet<SearchResultItem>> listOfBuckets = new ArrayList<>();
-            listOfBuckets.add(new LinkedHashSet<>(newArrayList(titleGroup.get(0))));
-            //And iterate over every other item in the list
-            for (int i = 1; i < titleGroup.size(); i++) {
-                SearchResultItem searchResultItem = titleGroup.get(i);
-                boolean foundBucket = false;
-                //Iterate over already existing buckets
-                for (LinkedHashSet<SearchResultItem> bucket : listOfBuckets) {
-                    if (bucket.stream().map(SearchResultItem::getIndexer).collect(Collectors.toList()).contains(searchResultItem.getIndexer())) {
-                        continue;
-                    }
-                    //And all searchResults in those buckets
-                    for (SearchResultItem other : bucket) {
-                        //Now we can check if the two searchResults are duplicates
-                        boolean same = testForSameness(searchResultItem, other);
-                        if (same) {
-                            //If they are the same we found a bucket for the result. We add it and continue
-                            foundBucket = true;
-                            bucket.add(searchResultItem);
-                            countDetectedDuplicates++;
-                            break;
-                        }
+        synchronized (duplicateGroupIndex) {
+            //In each list of searchResults with the same title we want to find the duplicates
+            for (Entry<String, List<SearchResultItem>> titleGroup : groupedByTitle.entrySet()) {
+                //The buckets contain searchResults which are all duplicates of each other
+                Buckets buckets = duplicateGroupIndex.bucketsByTitle.computeIfAbsent(titleGroup.getKey(), x -> new Buckets(duplicateGroupIndex, duplicateAgeThreshold, duplicateSizeThreshold));
+                List<SearchResultItem> sortedTitleGroup = titleGroup.getValue().stream().sorted(Comparator.comparing(SearchResultItem::getPubDate).reversed()).collect(Collectors.toList());
+                for (SearchResultItem searchResultItem : sortedTitleGroup) {
+                    if (buckets.add(searchResultItem)) {
+                        countDetectedDuplicates++;
                     }
-                    //If we already found a bucket for the result we can go on with the next
-                    if (foundBucket) {
-                        break;
-                    }
-                }
-                //If we didn't find a bucket for the result we start a new one
-                if (!foundBucket) {
-                    listOfBuckets.add(new LinkedHashSet<>(newArrayList(searchResultItem)));
                 }
             }
-            LinkedHashSet<SearchResultItem> lastBucket = Iterables.getLast(listOfBuckets);
-            if (lastBucket.size() == 1) {
-                countUniqueResultsPerIndexer.add(lastBucket.iterator().next().getIndexer());
-            }
-            duplicateGroups.addAll(listOfBuckets);
-        }
-        int duplicateIdentifier = 0;
-        for (LinkedHashSet<SearchResultItem> group : duplicateGroups) {
-            for (SearchResultItem x : group) {
-                x.setDuplicateIdentifier(duplicateIdentifier);
+            for (Buckets buckets : duplicateGroupIndex.bucketsByTitle.values()) {
+                LinkedHashSet<SearchResultItem> lastBucket = Iterables.getLast(buckets.buckets);
+                if (lastBucket.size() == 1) {
+                    countUniqueResultsPerIndexer.add(lastBucket.iterator().next().getIndexer());
+                }
+                duplicateGroups.addAll(buckets.buckets);
             }
-            duplicateIdentifier++;
         }
 
-        logger.debug(LoggingMarkers.PERFORMANCE, "Duplicate detection for {} search results took {}ms. Found {} duplicates", results.size(), stopwatch.elapsed(TimeUnit.MILLISECONDS), countDetectedDuplicates);
+        logger.debug(LoggingMarkers.PERFORMANCE, "Duplicate detection for {} new search results took {}ms. Found {} duplicates", newResults.size(), stopwatch.elapsed(TimeUnit.MILLISECONDS), countDetectedDuplicates);
 
         return new DuplicateDetectionResult(duplicateGroups, countUniqueResultsPerIndexer);
     }
 
-    private boolean testForSameness(SearchResultItem result1, SearchResultItem result2) {
+    private boolean testForSameness(SearchResultItem result1, SearchResultItem result2, float duplicateAgeThreshold, float duplicateSizeThreshold) {
         logger.debug(LoggingMarkers.DUPLICATES, "Comparing {} and {}", result1, result2);
         if (result1.getIndexer().equals(result2.getIndexer())) {
             logger.debug(LoggingMarkers.DUPLICATES, "Same indexer");
@@ -107,9 +96,6 @@ public class DuplicateDetector {
         boolean posterKnown = result1.getPoster().isPresent() && result2.getPoster().isPresent();
         boolean samePoster = posterKnown && Objects.equals(result1.getPoster().get(), result2.getPoster().get());
 
-        float duplicateAgeThreshold = configProvider.getBaseConfig().getSearching().getDuplicateAgeThreshold();
-        float duplicateSizeThreshold = configProvider.getBaseConfig().getSearching().getDuplicateSizeThresholdInPercent();
-
         if (groupKnown && !sameGroup) {
             logger.debug(LoggingMarkers.DUPLICATES, "Not the same group: {} and {}", result1.getGroup().orElse(null), result2.getGroup().orElse(null));
             return false;
@@ -152,4 +138,122 @@ public class DuplicateDetector {
     }
 
 
+    /**
+     * The duplicate groups of one title group. A result is added to the first bucket which doesn't contain a result from the same indexer
+     * and contains a result considered the same.
+     * <p>
+     * To avoid comparing every result with every other the bucket members are indexed by bands of their size (on a logarithmic scale) and
+     * age. The bands are as wide as the largest (doubled) thresholds so that duplicates can only be found in the same or neighbouring bands.
+     */
+    class Buckets {
+
+        private static final long NON_POSITIVE_SIZE_BAND = Long.MIN_VALUE;
+
+        private final DuplicateGroupIndex duplicateGroupIndex;
+        private final float duplicateAgeThreshold;
+        private final float duplicateSizeThreshold;
+        private final long ageBandWidthSeconds;
+        private final double sizeBandWidth;
+
+        private final List<LinkedHashSet<SearchResultItem>> buckets = new ArrayList<>();
+        private final List<Set<Indexer>> bucketIndexers = new ArrayList<>();
+        private final List<Integer> bucketDuplicateIdentifiers = new ArrayList<>();
+        private final Map<Band, List<BucketMember>> membersByBand = new HashMap<>();
+
+        Buckets(DuplicateGroupIndex duplicateGroupIndex, float duplicateAgeThreshold, float duplicateSizeThreshold) {
+            this.duplicateGroupIndex = duplicateGroupIndex;
+            this.duplicateAgeThreshold = duplicateAgeThreshold;
+            this.duplicateSizeThreshold = duplicateSizeThreshold;
+            //Ages are compared in full hours
+            ageBandWidthSeconds = ((long) Math.floor(Math.max(0, duplicateAgeThreshold * 2)) + 1) * 60 * 60;
+            //Two sizes are within the (doubled) threshold only if the ratio between them is below (1 + r) / (1 - r)
+            double r = duplicateSizeThreshold * 2 / 200D;
+            //Make the bands a bit wider to be safe from rounding errors
+            sizeBandWidth = r < 1 ? Math.log((1 + r) / (1 - r)) * 1.0001 : Double.POSITIVE_INFINITY;
+        }
+
+        /**
+         * @return true if the search result was added to an existing bucket
+         */
+        boolean add(SearchResultItem searchResultItem) {
+            Band band = getBand(searchResultItem);
+            int foundBucket = band == null ? -1 : findBucket(searchResultItem, band);
+            boolean isDuplicate = foundBucket > -1;
+            if (!isDuplicate) {
+                foundBucket = buckets.size();
+                buckets.add(new LinkedHashSet<>());
+                bucketIndexers.add(new HashSet<>());
+                bucketDuplicateIdentifiers.add(duplicateGroupIndex.nextDuplicateIdentifier++);
+            }
+            buckets.get(foundBucket).add(searchResultItem);
+            duplicateGroupIndex.setDuplicateIdentifier(searchResultItem, bucketDuplicateIdentifiers.get(foundBucket));
+            bucketIndexers.get(foundBucket).add(searchResultItem.getIndexer());
+            if (band != null) {
+                membersByBand.computeIfAbsent(band, x -> new ArrayList<>()).add(new BucketMember(searchResultItem, foundBucket));
+            }
+            return isDuplicate;
+        }
+
+        private int findBucket(SearchResultItem searchResultItem, Band band) {
+            int foundBucket = -1;
+            long[] sizeBands = band.sizeBand == NON_POSITIVE_SIZE_BAND ? new long[]{band.sizeBand} : new long[]{band.sizeBand - 1, band.sizeBand, band.sizeBand + 1};
+            for (long sizeBand : sizeBands) {
+                for (long ageBand = band.ageBand - 1; ageBand <= band.ageBand + 1; ageBand++) {
+                    List<BucketMember> members = membersByBand.get(new Band(sizeBand, ageBand));
+                    if (members == null) {
+                        continue;
+                    }
+                    for (BucketMember member : members) {
+                        //We want the first matching bucket, so only earlier buckets are of interest
+                        if ((foundBucket > -1 && member.bucket >= foundBucket) || bucketIndexers.get(member.bucket).contains(searchResultItem.getIndexer())) {
+                            continue;
+                        }
+                        if (testForSameness(searchResultItem, member.searchResultItem, duplicateAgeThreshold, duplicateSizeThreshold)) {
+                            foundBucket = member.bucket;
+                        }
+                    }
+                }
+            }
+            return foundBucket;
+        }
+
+        /**
+         * @return the band of the search result or null if it can't be the same as any other
+         */
+        private Band getBand(SearchResultItem searchResultItem) {
+            Instant date = searchResultItem.getUsenetDate().orElse(searchResultItem.getPubDate());
+            Long size = searchResultItem.getSize();
+            if (date == null || size == null) {
+                return null;
+            }
+            long sizeBand;
+            if (Double.isInfinite(sizeBandWidth)) {
+                sizeBand = 0;
+            } else if (size <= 0) {
+                //Can only be the same as other results without a positive size
+                sizeBand = NON_POSITIVE_SIZE_BAND;
+            } else {
+                sizeBand = (long) Math.floor(Math.log(size) / sizeBandWidth);
+            }
+            return new Band(sizeBand, Math.floorDiv(date.getEpochSecond(), ageBandWidthSeconds));
+        }
+    }
+
+    private static class BucketMember {
+        private final SearchResultItem searchResultItem;
+        private final int bucket;
+
+        BucketMember(SearchResultItem searchResultItem, int bucket) {
+            this.searchResultItem = searchResultItem;
+            this.bucket = bucket;
+        }
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static class Band {
+        private final long sizeBand;
+        private final long ageBand;
+    }
+
 }
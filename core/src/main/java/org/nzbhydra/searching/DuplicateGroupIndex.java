@@ -0,0 +1,46 @@
+package org.nzbhydra.searching;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Holds the duplicate groups found for the results of a search so that results loaded later (e.g. when more results are requested) can be
+ * added without comparing all results again. Duplicate identifiers of results in the index never change.
+ */
+public class DuplicateGroupIndex {
+
+    final Map<String, DuplicateDetector.Buckets> bucketsByTitle = new LinkedHashMap<>();
+    int nextDuplicateIdentifier = 0;
+
+    private final boolean setDuplicateIdentifiersOnResults;
+    private final Map<Long, Integer> duplicateIdentifiersBySearchResultId = new HashMap<>();
+
+    public DuplicateGroupIndex() {
+        this(true);
+    }
+
+    /**
+     * @param setDuplicateIdentifiersOnResults If false the duplicate identifiers are only kept in the index and the results are not changed,
+     *                                         e.g. because they're shared with the search which keeps its own index
+     */
+    public DuplicateGroupIndex(boolean setDuplicateIdentifiersOnResults) {
+        this.setDuplicateIdentifiersOnResults = setDuplicateIdentifiersOnResults;
+    }
+
+    void setDuplicateIdentifier(SearchResultItem searchResultItem, int duplicateIdentifier) {
+        if (setDuplicateIdentifiersOnResults) {
+            searchResultItem.setDuplicateIdentifier(duplicateIdentifier);
+        } else {
+            duplicateIdentifiersBySearchResultId.put(searchResultItem.getSearchResultId(), duplicateIdentifier);
+        }
+    }
+
+    /**
+     * @return The duplicate identifier of a result contained in the index
+     */
+    public Integer getDuplicateIdentifier(SearchResultItem searchResultItem) {
+        return setDuplicateIdentifiersOnResults ? searchResultItem.getDuplicateIdentifier() : duplicateIdentifiersBySearchResultId.get(searchResultItem.getSearchResultId());
+    }
+
+}
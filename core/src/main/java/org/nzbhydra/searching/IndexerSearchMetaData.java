@@ -15,6 +15,7 @@ public class IndexerSearchMetaData {
     private int numberOfFoundResults;
     private int offset;
     private long responseTime;
+    private boolean timedOut;
     private boolean totalResultsKnown;
     private boolean wasSuccessful;
 
@@ -23,6 +23,7 @@ public class IndexerSearchResult {
     private int limit;
     private boolean totalResultsKnown;
     private boolean hasMoreResults;
+    private boolean timedOut;
     private long responseTime;
     private Instant time;
 
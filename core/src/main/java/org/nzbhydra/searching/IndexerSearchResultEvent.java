@@ -0,0 +1,14 @@
+package org.nzbhydra.searching;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.nzbhydra.searching.searchrequests.SearchRequest;
+
+@Data
+@AllArgsConstructor
+public class IndexerSearchResultEvent {
+
+    private SearchRequest searchRequest;
+    private IndexerSearchResult indexerSearchResult;
+
+}
@@ -57,25 +57,30 @@ public class InternalSearchResultProcessor {
     private List<IndexerSearchMetaData> createIndexerSearchMetaDatas(org.nzbhydra.searching.SearchResult searchResult) {
         List<IndexerSearchMetaData> indexerSearchMetaDatas = new ArrayList<>();
         for (IndexerSearchResult indexerSearchResult : searchResult.getIndexerSearchResults()) {
-            IndexerSearchMetaData indexerSearchMetaData = new IndexerSearchMetaData();
-            indexerSearchMetaData.setDidSearch(true); //LATER
-            indexerSearchMetaData.setErrorMessage(indexerSearchResult.getErrorMessage());
-            indexerSearchMetaData.setHasMoreResults(indexerSearchResult.isHasMoreResults());
-            indexerSearchMetaData.setIndexerName(indexerSearchResult.getIndexer().getName());
-            indexerSearchMetaData.setLimit(indexerSearchResult.getLimit());
-            indexerSearchMetaData.setNumberOfAvailableResults(indexerSearchResult.getTotalResults());
-            indexerSearchMetaData.setNumberOfFoundResults(indexerSearchResult.getSearchResultItems().size());
-            indexerSearchMetaData.setOffset(indexerSearchResult.getOffset());
-            indexerSearchMetaData.setResponseTime(indexerSearchResult.getResponseTime());
-            indexerSearchMetaData.setTotalResultsKnown(indexerSearchResult.isTotalResultsKnown());
-            indexerSearchMetaData.setWasSuccessful(indexerSearchResult.isWasSuccessful());
-            indexerSearchMetaDatas.add(indexerSearchMetaData);
+            indexerSearchMetaDatas.add(createIndexerSearchMetaData(indexerSearchResult));
         }
         indexerSearchMetaDatas.sort(Comparator.comparing(IndexerSearchMetaData::getIndexerName));
         return indexerSearchMetaDatas;
     }
 
-    private List<SearchResultWebTO> transformSearchResults(List<SearchResultItem> searchResultItems) {
+    protected IndexerSearchMetaData createIndexerSearchMetaData(IndexerSearchResult indexerSearchResult) {
+        IndexerSearchMetaData indexerSearchMetaData = new IndexerSearchMetaData();
+        indexerSearchMetaData.setDidSearch(true); //LATER
+        indexerSearchMetaData.setErrorMessage(indexerSearchResult.getErrorMessage());
+        indexerSearchMetaData.setHasMoreResults(indexerSearchResult.isHasMoreResults());
+        indexerSearchMetaData.setIndexerName(indexerSearchResult.getIndexer().getName());
+        indexerSearchMetaData.setLimit(indexerSearchResult.getLimit());
+        indexerSearchMetaData.setNumberOfAvailableResults(indexerSearchResult.getTotalResults());
+        indexerSearchMetaData.setNumberOfFoundResults(indexerSearchResult.getSearchResultItems().size());
+        indexerSearchMetaData.setOffset(indexerSearchResult.getOffset());
+        indexerSearchMetaData.setResponseTime(indexerSearchResult.getResponseTime());
+        indexerSearchMetaData.setTimedOut(indexerSearchResult.isTimedOut());
+        indexerSearchMetaData.setTotalResultsKnown(indexerSearchResult.isTotalResultsKnown());
+        indexerSearchMetaData.setWasSuccessful(indexerSearchResult.isWasSuccessful());
+        return indexerSearchMetaData;
+    }
+
+    protected List<SearchResultWebTO> transformSearchResults(List<SearchResultItem> searchResultItems) {
         List<SearchResultWebTO> transformedSearchResults = new ArrayList<>();
 
         for (SearchResultItem item : searchResultItems) {
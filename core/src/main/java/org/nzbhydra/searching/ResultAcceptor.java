@@ -1,47 +1,121 @@
 package org.nzbhydra.searching;
 
-import com.google.common.base.Strings;
 import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Lists;
 import com.google.common.collect.Multiset;
 import com.google.common.collect.Multiset.Entry;
 import lombok.AllArgsConstructor;
 import lombok.Data;
-import org.nzbhydra.config.BaseConfig;
+import org.nzbhydra.config.ConfigChangedEvent;
 import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.config.IndexerConfig;
 import org.nzbhydra.config.SearchSourceRestriction;
 import org.nzbhydra.logging.LoggingMarkers;
+import org.nzbhydra.searching.ResultAcceptorRules.Restrictions;
+import org.nzbhydra.searching.ResultAcceptorRules.Title;
+import org.nzbhydra.searching.ResultAcceptorRules.WordRules;
 import org.nzbhydra.searching.searchrequests.SearchRequest;
 import org.nzbhydra.searching.searchrequests.SearchRequest.SearchSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.regex.Matcher;
+import java.util.function.Function;
 import java.util.regex.Pattern;
+import java.util.stream.Collectors;
 
 @Component
 public class ResultAcceptor {
 
     private static final Logger logger = LoggerFactory.getLogger(ResultAcceptor.class);
 
-    private static final Pattern TITLE_PATTERN = Pattern.compile("(\\w[\\w']*\\w|\\w)");
-
-    private Map<String, List<String>> titleWordCache = new HashMap<>();
-
     @Autowired
-    private ConfigProvider configProvider;
+    protected ConfigProvider configProvider;
+    @Value("${nzbhydra.parallelAcceptanceThreshold:5000}")
+    protected int parallelAcceptanceThreshold = 5000;
+    private volatile ResultAcceptorRules rules;
+
+    @EventListener
+    public void handleNewConfig(ConfigChangedEvent configChangedEvent) {
+        rules = new ResultAcceptorRules(configChangedEvent.getNewConfig());
+    }
+
+    protected ResultAcceptorRules getRules() {
+        ResultAcceptorRules currentRules = rules;
+        if (currentRules == null) {
+            currentRules = new ResultAcceptorRules(configProvider.getBaseConfig());
+            rules = currentRules;
+        }
+        return currentRules;
+    }
 
     public AcceptorResult acceptResults(List<SearchResultItem> items, SearchRequest searchRequest, IndexerConfig indexerConfig) {
-        BaseConfig baseConfig = configProvider.getBaseConfig();
-        titleWordCache = new HashMap<>();
+        ResultAcceptorRules rules = getRules();
+        WordRules queryForbiddenWords = new WordRules(searchRequest.getInternalData().getForbiddenWords());
+        WordRules queryRequiredWords = new WordRules(searchRequest.getInternalData().getRequiredWords());
+        boolean applyGlobalRestrictions = rules.getApplyRestrictions() == SearchSourceRestriction.BOTH || Objects.equals(searchRequest.getSource().name(), rules.getApplyRestrictions().name());
+        Function<List<SearchResultItem>, AcceptorResult> acceptor = chunk -> acceptResults(chunk, searchRequest, indexerConfig, rules, queryForbiddenWords, queryRequiredWords, applyGlobalRestrictions);
+
+        AcceptorResult acceptorResult;
+        if (items.size() >= parallelAcceptanceThreshold && Runtime.getRuntime().availableProcessors() > 1) {
+            acceptorResult = acceptResultsInParallel(items, acceptor);
+        } else {
+            acceptorResult = acceptor.apply(items);
+        }
+
+        List<SearchResultItem> acceptedResults = acceptorResult.getAcceptedResults();
+        if (acceptedResults.size() < items.size()) {
+            logger.debug("Rejected {} out of {} search results from indexer {}", items.size() - acceptedResults.size(), items.size(), indexerConfig.getName());
+            for (Entry<String> entry : acceptorResult.getReasonsForRejection().entrySet()) {
+                logger.info("Rejected {} search results from {} for the following reason: {}", entry.getCount(), indexerConfig.getName(), entry.getElement());
+            }
+        }
+        return acceptorResult;
+    }
+
+    /**
+     * Splits the results into one chunk per core and accepts the chunks in the common fork join pool. The accepted results keep their order.
+     */
+    private AcceptorResult acceptResultsInParallel(List<SearchResultItem> items, Function<List<SearchResultItem>, AcceptorResult> acceptor) {
+        int chunkSize = (items.size() + Runtime.getRuntime().availableProcessors() - 1) / Runtime.getRuntime().availableProcessors();
+        Map<String, String> mdcContext = MDC.getCopyOfContextMap();
+        List<AcceptorResult> chunkResults = Lists.partition(items, chunkSize).parallelStream().map(chunk -> {
+            Map<String, String> previousContext = MDC.getCopyOfContextMap();
+            if (mdcContext != null) {
+                MDC.setContextMap(mdcContext);
+            }
+            try {
+                return acceptor.apply(chunk);
+            } finally {
+                if (previousContext == null) {
+                    MDC.clear();
+                } else {
+                    MDC.setContextMap(previousContext);
+                }
+            }
+        }).collect(Collectors.toList());
+
+        List<SearchResultItem> acceptedResults = new ArrayList<>();
+        Multiset<String> reasonsForRejection = HashMultiset.create();
+        for (AcceptorResult chunkResult : chunkResults) {
+            acceptedResults.addAll(chunkResult.getAcceptedResults());
+            reasonsForRejection.addAll(chunkResult.getReasonsForRejection());
+        }
+        return new AcceptorResult(acceptedResults, reasonsForRejection);
+    }
+
+    /**
+     * Only uses state local to the call so it may be called by many threads at once.
+     */
+    private AcceptorResult acceptResults(List<SearchResultItem> items, SearchRequest searchRequest, IndexerConfig indexerConfig, ResultAcceptorRules rules, WordRules queryForbiddenWords, WordRules queryRequiredWords, boolean applyGlobalRestrictions) {
         List<SearchResultItem> acceptedResults = new ArrayList<>();
         Multiset<String> reasonsForRejection = HashMultiset.create();
         for (SearchResultItem item : items) {
@@ -52,10 +126,10 @@ public class ResultAcceptor {
             if (!checkForPassword(reasonsForRejection, item)) {
                 continue;
             }
-            if (!checkForForbiddenGroup(reasonsForRejection, item)) {
+            if (!checkForForbiddenGroup(reasonsForRejection, rules, item)) {
                 continue;
             }
-            if (!checkForForbiddenPoster(reasonsForRejection, item)) {
+            if (!checkForForbiddenPoster(reasonsForRejection, rules, item)) {
                 continue;
             }
             if (!checkForSize(searchRequest, reasonsForRejection, item)) {
@@ -71,55 +145,38 @@ public class ResultAcceptor {
                 continue;
             }
 
+            Title title = new Title(item.getTitle());
             //Forbidden words from query
-            if (!checkForForbiddenWords(indexerConfig, reasonsForRejection, searchRequest.getInternalData().getForbiddenWords(), item)) {
+            if (!checkForForbiddenWords(indexerConfig, reasonsForRejection, queryForbiddenWords, title)) {
                 continue;
             }
 
-            if (!checkRequiredWords(reasonsForRejection, searchRequest.getInternalData().getRequiredWords(), item)) {
+            if (!checkRequiredWords(reasonsForRejection, queryRequiredWords, title)) {
                 continue;
             }
 
             //Globally configured
-            boolean applyWordAndRegexRestrictions = baseConfig.getSearching().getApplyRestrictions() == SearchSourceRestriction.BOTH || Objects.equals(searchRequest.getSource().name(), baseConfig.getSearching().getApplyRestrictions().name());
-            if (applyWordAndRegexRestrictions) {
-                if (!checkRegexes(item, reasonsForRejection, baseConfig.getSearching().getRequiredRegex().orElse(null), baseConfig.getSearching().getForbiddenRegex().orElse(null))) {
-                    continue;
-                }
-                if (!checkRequiredWords(reasonsForRejection, baseConfig.getSearching().getRequiredWords(), item)) {
-                    continue;
-                }
-                if (!checkForForbiddenWords(indexerConfig, reasonsForRejection, baseConfig.getSearching().getForbiddenWords(), item)) {
-                    continue;
-                }
+            if (applyGlobalRestrictions && !checkRestrictions(indexerConfig, reasonsForRejection, rules.getGlobalRestrictions(), title)) {
+                continue;
             }
 
             //Per category
-            applyWordAndRegexRestrictions = item.getCategory().getApplyRestrictionsType() == SearchSourceRestriction.BOTH || Objects.equals(searchRequest.getSource().name(), item.getCategory().getApplyRestrictionsType().name());
-            if (applyWordAndRegexRestrictions) {
-                if (!checkRegexes(item, reasonsForRejection, item.getCategory().getRequiredRegex().orElse(null), item.getCategory().getForbiddenRegex().orElse(null))) {
-                    continue;
-                }
-                if (!checkRequiredWords(reasonsForRejection, item.getCategory().getRequiredWords(), item)) {
-                    continue;
-                }
-                if (!checkForForbiddenWords(indexerConfig, reasonsForRejection, item.getCategory().getForbiddenWords(), item)) {
-                    continue;
-                }
+            boolean applyCategoryRestrictions = item.getCategory().getApplyRestrictionsType() == SearchSourceRestriction.BOTH || Objects.equals(searchRequest.getSource().name(), item.getCategory().getApplyRestrictionsType().name());
+            if (applyCategoryRestrictions && !checkRestrictions(indexerConfig, reasonsForRejection, rules.getCategoryRestrictions(item.getCategory()), title)) {
+                continue;
             }
 
             acceptedResults.add(item);
         }
-        if (acceptedResults.size() < items.size()) {
-            logger.debug("Rejected {} out of {} search results from indexer {}", items.size() - acceptedResults.size(), items.size(), indexerConfig.getName());
-            for (Entry<String> entry : reasonsForRejection.entrySet()) {
-                logger.info("Rejected {} search results from {} for the following reason: {}", entry.getCount(), indexerConfig.getName(), entry.getElement());
-            }
-        }
-
         return new AcceptorResult(acceptedResults, reasonsForRejection);
     }
 
+    private boolean checkRestrictions(IndexerConfig indexerConfig, Multiset<String> reasonsForRejection, Restrictions restrictions, Title title) {
+        return checkRegexes(title, reasonsForRejection, restrictions.getRequiredRegex(), restrictions.getForbiddenRegex())
+                && checkRequiredWords(reasonsForRejection, restrictions.getRequiredWords(), title)
+                && checkForForbiddenWords(indexerConfig, reasonsForRejection, restrictions.getForbiddenWords(), title);
+    }
+
     protected boolean checkForNeededAttributesSuccessfullyMapped(Multiset<String> reasonsForRejection, SearchResultItem item) {
         boolean accepted = true;
         if (item.getTitle() == null) {
@@ -205,9 +262,9 @@ public class ResultAcceptor {
         return true;
     }
 
-    protected boolean checkForForbiddenGroup(Multiset<String> reasonsForRejection, SearchResultItem item) {
+    protected boolean checkForForbiddenGroup(Multiset<String> reasonsForRejection, ResultAcceptorRules rules, SearchResultItem item) {
         if (item.getGroup().isPresent()) {
-            if (configProvider.getBaseConfig().getSearching().getForbiddenGroups().stream().anyMatch(x -> item.getGroup().isPresent() && item.getGroup().get().contains(x))) {
+            if (rules.getForbiddenGroups().findAny(item.getGroup().get()) != null) {
                 logger.debug(LoggingMarkers.RESULT_ACCEPTOR, "Found forbidden group {}", item.getGroup().get());
                 reasonsForRejection.add("In forbidden group");
                 return false;
@@ -216,9 +273,9 @@ public class ResultAcceptor {
         return true;
     }
 
-    protected boolean checkForForbiddenPoster(Multiset<String> reasonsForRejection, SearchResultItem item) {
+    protected boolean checkForForbiddenPoster(Multiset<String> reasonsForRejection, ResultAcceptorRules rules, SearchResultItem item) {
         if (item.getPoster().isPresent()) {
-            if (configProvider.getBaseConfig().getSearching().getForbiddenPosters().stream().anyMatch(x -> item.getPoster().isPresent() && item.getPoster().get().contains(x))) {
+            if (rules.getForbiddenPosters().findAny(item.getPoster().get()) != null) {
                 logger.debug(LoggingMarkers.RESULT_ACCEPTOR, "Found forbidden poster {}", item.getPoster().get());
                 reasonsForRejection.add("In forbidden poster");
                 return false;
@@ -227,14 +284,14 @@ public class ResultAcceptor {
         return true;
     }
 
-    protected boolean checkRegexes(SearchResultItem item, Multiset<String> reasonsForRejection, String requiredRegex, String forbiddenRegex) {
-        if (!Strings.isNullOrEmpty(requiredRegex) && !Pattern.compile(requiredRegex).matcher(item.getTitle().toLowerCase()).find()) {
-            logger.debug(LoggingMarkers.RESULT_ACCEPTOR, "Did not find required regex in {}", item.getTitle());
+    protected boolean checkRegexes(Title title, Multiset<String> reasonsForRejection, Pattern requiredRegex, Pattern forbiddenRegex) {
+        if (requiredRegex != null && !requiredRegex.matcher(title.getLowerCaseTitle()).find()) {
+            logger.debug(LoggingMarkers.RESULT_ACCEPTOR, "Did not find required regex in {}", title.getTitle());
             reasonsForRejection.add("Required regex doesn't match");
             return false;
         }
-        if (!Strings.isNullOrEmpty(forbiddenRegex) && Pattern.compile(forbiddenRegex).matcher(item.getTitle().toLowerCase()).find()) {
-            logger.debug(LoggingMarkers.RESULT_ACCEPTOR, "Found forbidden regex in {}", item.getTitle());
+        if (forbiddenRegex != null && forbiddenRegex.matcher(title.getLowerCaseTitle()).find()) {
+            logger.debug(LoggingMarkers.RESULT_ACCEPTOR, "Found forbidden regex in {}", title.getTitle());
             reasonsForRejection.add("Forbidden regex matches");
             return false;
         }
@@ -242,62 +299,29 @@ public class ResultAcceptor {
         return true;
     }
 
-    protected boolean checkRequiredWords(Multiset<String> reasonsForRejection, List<String> requiredWords, SearchResultItem item) {
-        if (!requiredWords.isEmpty()) {
-            List<String> titleWords = getTitleWords(item);
-            boolean allPresent = true;
-            for (String requiredWord : requiredWords) {
-                if (requiredWord.contains(".") || requiredWord.contains("-")) {
-                    if (!item.getTitle().toLowerCase().contains(requiredWord.toLowerCase())) {
-                        logger.debug(LoggingMarkers.RESULT_ACCEPTOR, "Did not found required word {} in the title {}", requiredWord, item.getTitle());
-                        allPresent = false;
-                        break;
-                    }
-                } else {
-                    if (!titleWords.contains(requiredWord.toLowerCase())) { //Words must match
-                        logger.debug(LoggingMarkers.RESULT_ACCEPTOR, "Did not found required word {} in the title {}", requiredWord, item.getTitle());
-                        allPresent = false;
-                        break;
-                    }
-                }
-            }
-            if (!allPresent) {
-                reasonsForRejection.add("No required word found");
-                return false;
-            }
+    protected boolean checkRequiredWords(Multiset<String> reasonsForRejection, WordRules requiredWords, Title title) {
+        if (requiredWords.isEmpty()) {
+            return true;
+        }
+        String missingWord = requiredWords.findMissing(title);
+        if (missingWord != null) {
+            logger.debug(LoggingMarkers.RESULT_ACCEPTOR, "Did not found required word {} in the title {}", missingWord, title.getTitle());
+            reasonsForRejection.add("No required word found");
+            return false;
         }
         return true;
     }
 
-    private List<String> getTitleWords(SearchResultItem item) {
-        return titleWordCache.computeIfAbsent(item.getTitle(), s -> {
-            List<String> titleWords = new ArrayList<>();
-            Matcher matcher = TITLE_PATTERN.matcher(item.getTitle().toLowerCase());
-            while (matcher.find()) {
-                titleWords.add(matcher.group().toLowerCase());
-            }
-            return titleWords;
-        });
-
-    }
-
-    protected boolean checkForForbiddenWords(IndexerConfig indexerConfig, Multiset<String> reasonsForRejection, List<String> forbiddenWords, SearchResultItem item) {
-        for (String forbiddenWord : forbiddenWords) {
-            if (forbiddenWord.contains("-") || forbiddenWord.contains(".") || indexerConfig.getHost().toLowerCase().contains("nzbgeek")) {
-                if (item.getTitle().toLowerCase().contains(forbiddenWord.toLowerCase())) {
-                    reasonsForRejection.add("Forbidden word");
-                    logger.debug(LoggingMarkers.RESULT_ACCEPTOR, "Found forbidden word {} in title {]", forbiddenWord, item.getTitle());
-                    return false;
-                }
-            } else {
-                List<String> titleWords = getTitleWords(item);
-                Optional<String> found = titleWords.stream().filter(x -> x.toLowerCase().equals(forbiddenWord.toLowerCase())).findFirst(); //Title word must match excluded word to reject result, not just be contained
-                if (found.isPresent()) {
-                    logger.debug(LoggingMarkers.RESULT_ACCEPTOR, "Found forbidden word in title word {}", found.get());
-                    reasonsForRejection.add("Forbidden word");
-                    return false;
-                }
-            }
+    protected boolean checkForForbiddenWords(IndexerConfig indexerConfig, Multiset<String> reasonsForRejection, WordRules forbiddenWords, Title title) {
+        if (forbiddenWords.isEmpty()) {
+            return true;
+        }
+        //Title word must match excluded word to reject result, not just be contained
+        String foundWord = forbiddenWords.findAny(title, indexerConfig.getHost().toLowerCase().contains("nzbgeek"));
+        if (foundWord != null) {
+            logger.debug(LoggingMarkers.RESULT_ACCEPTOR, "Found forbidden word {} in title {}", foundWord, title.getTitle());
+            reasonsForRejection.add("Forbidden word");
+            return false;
         }
         return true;
     }
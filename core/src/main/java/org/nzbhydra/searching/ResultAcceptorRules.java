@@ -0,0 +1,198 @@
+package org.nzbhydra.searching;
+
+import org.nzbhydra.config.BaseConfig;
+import org.nzbhydra.config.Category;
+import org.nzbhydra.config.SearchSourceRestriction;
+import org.nzbhydra.config.SearchingConfig;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The restrictions from the config compiled into a form that can be applied to many results quickly: regexes are compiled, words are
+ * lowercased and sorted by the way they're matched. Instances are immutable (the category restrictions are compiled when first needed)
+ * and are replaced when the config changes.
+ */
+class ResultAcceptorRules {
+
+    private static final Pattern TITLE_PATTERN = Pattern.compile("(\\w[\\w']*\\w|\\w)");
+
+    private final AhoCorasickMatcher forbiddenGroups;
+    private final AhoCorasickMatcher forbiddenPosters;
+    private final SearchSourceRestriction applyRestrictions;
+    private final Restrictions globalRestrictions;
+    private final Map<Category, Restrictions> categoryRestrictions = new ConcurrentHashMap<>();
+
+    ResultAcceptorRules(BaseConfig baseConfig) {
+        SearchingConfig searchingConfig = baseConfig.getSearching();
+        forbiddenGroups = new AhoCorasickMatcher(searchingConfig.getForbiddenGroups());
+        forbiddenPosters = new AhoCorasickMatcher(searchingConfig.getForbiddenPosters());
+        applyRestrictions = searchingConfig.getApplyRestrictions();
+        globalRestrictions = new Restrictions(searchingConfig.getRequiredRegex().orElse(null), searchingConfig.getForbiddenRegex().orElse(null), searchingConfig.getRequiredWords(), searchingConfig.getForbiddenWords());
+    }
+
+    AhoCorasickMatcher getForbiddenGroups() {
+        return forbiddenGroups;
+    }
+
+    AhoCorasickMatcher getForbiddenPosters() {
+        return forbiddenPosters;
+    }
+
+    SearchSourceRestriction getApplyRestrictions() {
+        return applyRestrictions;
+    }
+
+    Restrictions getGlobalRestrictions() {
+        return globalRestrictions;
+    }
+
+    Restrictions getCategoryRestrictions(Category category) {
+        return categoryRestrictions.computeIfAbsent(category, x -> new Restrictions(x.getRequiredRegex().orElse(null), x.getForbiddenRegex().orElse(null), x.getRequiredWords(), x.getForbiddenWords()));
+    }
+
+    static class Restrictions {
+        private final Pattern requiredRegex;
+        private final Pattern forbiddenRegex;
+        private final WordRules requiredWords;
+        private final WordRules forbiddenWords;
+
+        Restrictions(String requiredRegex, String forbiddenRegex, List<String> requiredWords, List<String> forbiddenWords) {
+            this.requiredRegex = compile(requiredRegex);
+            this.forbiddenRegex = compile(forbiddenRegex);
+            this.requiredWords = new WordRules(requiredWords);
+            this.forbiddenWords = new WordRules(forbiddenWords);
+        }
+
+        Pattern getRequiredRegex() {
+            return requiredRegex;
+        }
+
+        Pattern getForbiddenRegex() {
+            return forbiddenRegex;
+        }
+
+        WordRules getRequiredWords() {
+            return requiredWords;
+        }
+
+        WordRules getForbiddenWords() {
+            return forbiddenWords;
+        }
+
+        static Pattern compile(String regex) {
+            return regex == null || regex.isEmpty() ? null : Pattern.compile(regex);
+        }
+    }
+
+    /**
+     * Words containing a dot or a dash must be contained in the title, all others must match one of the title's words. Contained words
+     * are found with one pass over the title, title words by looking up every word of the title, so finding any of the words takes the
+     * same time no matter how many words there are.
+     */
+    static class WordRules {
+        private final List<String> containedWords = new ArrayList<>();
+        private final Set<String> titleWords = new HashSet<>();
+        private final AhoCorasickMatcher containedWordsMatcher;
+        private final AhoCorasickMatcher allWordsMatcher;
+
+        WordRules(List<String> words) {
+            List<String> allWords = new ArrayList<>();
+            for (String word : words) {
+                String lowerCaseWord = word.toLowerCase();
+                allWords.add(lowerCaseWord);
+                if (lowerCaseWord.contains(".") || lowerCaseWord.contains("-")) {
+                    containedWords.add(lowerCaseWord);
+                } else {
+                    titleWords.add(lowerCaseWord);
+                }
+            }
+            containedWordsMatcher = new AhoCorasickMatcher(containedWords);
+            allWordsMatcher = new AhoCorasickMatcher(allWords);
+        }
+
+        boolean isEmpty() {
+            return allWordsMatcher.isEmpty();
+        }
+
+        /**
+         * Returns the first word which is not found in the title or null if all are found.
+         */
+        String findMissing(Title title) {
+            for (String word : containedWords) {
+                if (!title.getLowerCaseTitle().contains(word)) {
+                    return word;
+                }
+            }
+            for (String word : titleWords) {
+                if (!title.getWords().contains(word)) {
+                    return word;
+                }
+            }
+            return null;
+        }
+
+        /**
+         * Returns a word found in the title or null if none is found.
+         *
+         * @param onlyContained if true all words only need to be contained in the title
+         */
+        String findAny(Title title, boolean onlyContained) {
+            if (onlyContained) {
+                return allWordsMatcher.findAny(title.getLowerCaseTitle());
+            }
+            String found = containedWordsMatcher.findAny(title.getLowerCaseTitle());
+            if (found != null || titleWords.isEmpty()) {
+                return found;
+            }
+            for (String word : title.getWords()) {
+                if (titleWords.contains(word)) {
+                    return word;
+                }
+            }
+            return null;
+        }
+    }
+
+    /**
+     * The title of one result in the forms needed for matching, computed once per result.
+     */
+    static class Title {
+        private final String title;
+        private final String lowerCaseTitle;
+        private Set<String> words;
+
+        Title(String title) {
+            this.title = title;
+            this.lowerCaseTitle = title.toLowerCase();
+        }
+
+        String getTitle() {
+            return title;
+        }
+
+        String getLowerCaseTitle() {
+            return lowerCaseTitle;
+        }
+
+        Set<String> getWords() {
+            if (words == null) {
+                Set<String> titleWords = new HashSet<>();
+                Matcher matcher = TITLE_PATTERN.matcher(lowerCaseTitle);
+                while (matcher.find()) {
+                    titleWords.add(matcher.group());
+                }
+                words = Collections.unmodifiableSet(titleWords);
+            }
+            return words;
+        }
+    }
+
+}
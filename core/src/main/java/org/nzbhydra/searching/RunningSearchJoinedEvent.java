@@ -0,0 +1,18 @@
+package org.nzbhydra.searching;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.nzbhydra.searching.searchrequests.SearchRequest;
+
+/**
+ * Published when a search waits for a running identical search and will use its results. Events of the running search (e.g.
+ * {@link IndexerSearchResultEvent}s) only contain the running search's request.
+ */
+@Data
+@AllArgsConstructor
+public class RunningSearchJoinedEvent {
+
+    private SearchRequest searchRequest;
+    private SearchRequest runningSearchRequest;
+
+}
@@ -0,0 +1,319 @@
+package org.nzbhydra.searching;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalCause;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.nzbhydra.config.ConfigChangedEvent;
+import org.nzbhydra.config.ConfigProvider;
+import org.nzbhydra.config.SearchingConfig;
+import org.nzbhydra.mapping.newznab.NewznabAttribute;
+import org.nzbhydra.mapping.newznab.RssItem;
+import org.nzbhydra.mapping.newznab.RssRoot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One cache for the results of internal and API searches, limited by the estimated memory its entries use instead of by their number.
+ * <p>
+ * Every entry is put with an estimate of its size in bytes. When the configured size is exceeded the least recently used entries are
+ * evicted. Additionally every entry expires when it wasn't accessed for the time given when it was put. Entries of different regions
+ * never collide, even if their keys are equal.
+ */
+@Component
+public class SearchCache implements InitializingBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchCache.class);
+
+    static final int DEFAULT_SIZE_MB = 32;
+    private static final long BYTES_PER_MB = 1024 * 1024;
+
+    //Rough sizes of the objects kept in the cache, see estimateSize(...)
+    private static final int OBJECT_OVERHEAD = 16;
+    private static final int REFERENCE_SIZE = 8;
+    private static final int SEARCH_RESULT_ITEM_SIZE = OBJECT_OVERHEAD + 30 * REFERENCE_SIZE + 120;
+    private static final int MAP_ENTRY_SIZE = 48;
+    private static final int SEARCH_CACHE_ENTRY_SIZE = 2048;
+    private static final int RSS_ITEM_SIZE = OBJECT_OVERHEAD + 12 * REFERENCE_SIZE + 100;
+    private static final int RSS_ROOT_SIZE = 512;
+
+    public enum Region {
+        SEARCHES,
+        API_SEARCHES
+    }
+
+    @Autowired
+    private ConfigProvider configProvider;
+    protected Clock clock = Clock.systemUTC();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+    private volatile long maximumBytes;
+    private volatile Cache<Key, CachedValue> cache;
+
+    public SearchCache() {
+        this(DEFAULT_SIZE_MB * BYTES_PER_MB);
+    }
+
+    public SearchCache(long maximumBytes) {
+        this.maximumBytes = maximumBytes;
+        cache = buildCache(maximumBytes);
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        configure(configProvider.getBaseConfig().getSearching());
+    }
+
+    @EventListener
+    public void handleNewConfig(ConfigChangedEvent configChangedEvent) {
+        configure(configChangedEvent.getNewConfig().getSearching());
+    }
+
+    private synchronized void configure(SearchingConfig searchingConfig) {
+        long newMaximumBytes = searchingConfig.getSearchCacheSizeMb() * BYTES_PER_MB;
+        if (newMaximumBytes == maximumBytes) {
+            return;
+        }
+        logger.info("Setting size of search cache to {}MB", searchingConfig.getSearchCacheSizeMb());
+        Cache<Key, CachedValue> newCache = buildCache(newMaximumBytes);
+        //Entries which don't fit anymore are evicted when they're transferred
+        newCache.putAll(cache.asMap());
+        maximumBytes = newMaximumBytes;
+        cache = newCache;
+    }
+
+    private Cache<Key, CachedValue> buildCache(long maximumBytes) {
+        return CacheBuilder.newBuilder()
+                //One segment so that the limit applies to the whole cache and the least recently used entries are evicted first
+                .concurrencyLevel(1)
+                .maximumWeight(maximumBytes)
+                .<Key, CachedValue>weigher((key, value) -> value.weight)
+                .removalListener(notification -> {
+                    if (notification.getCause() == RemovalCause.SIZE) {
+                        evictions.increment();
+                        logger.debug("Evicting search cache entry {} because the cache size is exceeded", notification.getKey());
+                    }
+                })
+                .build();
+    }
+
+    /**
+     * Returns the cached value if it's present and hasn't expired.
+     */
+    public <T> Optional<T> get(Region region, Object key, Class<T> type) {
+        Key cacheKey = new Key(region, key);
+        CachedValue cachedValue = cache.getIfPresent(cacheKey);
+        long now = clock.millis();
+        if (cachedValue == null || cachedValue.isExpired(now)) {
+            if (cachedValue != null) {
+                expire(cacheKey, cachedValue);
+            }
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        cachedValue.lastAccess = now;
+        return Optional.of(type.cast(cachedValue.value));
+    }
+
+    /**
+     * Puts the value into the cache or updates its size if it's already contained. The value expires when it wasn't accessed for the given time.
+     *
+     * @param estimatedBytes the memory used by the value, see the estimateSize(...) methods
+     */
+    public void put(Region region, Object key, Object value, long estimatedBytes, Duration expireAfterAccess) {
+        long now = clock.millis();
+        removeExpired(now);
+        int weight = (int) Math.max(1, Math.min(Integer.MAX_VALUE, estimatedBytes));
+        cache.put(new Key(region, key), new CachedValue(value, weight, expireAfterAccess.toMillis(), now));
+    }
+
+    public SearchCacheStatistics getStatistics() {
+        removeExpired(clock.millis());
+        long estimatedBytes = cache.asMap().values().stream().mapToLong(x -> x.weight).sum();
+        return new SearchCacheStatistics(maximumBytes, estimatedBytes, cache.size(), hits.sum(), misses.sum(), evictions.sum(), expirations.sum());
+    }
+
+    private void removeExpired(long now) {
+        cache.asMap().forEach((key, value) -> {
+            if (value.isExpired(now)) {
+                expire(key, value);
+            }
+        });
+    }
+
+    private void expire(Key key, CachedValue value) {
+        //Only remove the entry if it wasn't replaced in the meantime
+        if (cache.asMap().remove(key, value)) {
+            expirations.increment();
+            logger.debug("Removing expired search cache entry {}", key);
+        }
+    }
+
+    /**
+     * Estimates the memory used by the results of a search. Results contained in more than one list are only counted once.
+     */
+    public static long estimateSize(SearchCacheEntry searchCacheEntry) {
+        Set<SearchResultItem> items = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (List<IndexerSearchResult> indexerSearchResults : searchCacheEntry.getIndexerSearchResultsByIndexer().values()) {
+            for (IndexerSearchResult indexerSearchResult : indexerSearchResults) {
+                items.addAll(indexerSearchResult.getSearchResultItems());
+            }
+        }
+        for (IndexerSearchResult indexerSearchResult : searchCacheEntry.getLateIndexerSearchResults().values()) {
+            items.addAll(indexerSearchResult.getSearchResultItems());
+        }
+        items.addAll(searchCacheEntry.getSearchResultItems());
+
+        long size = SEARCH_CACHE_ENTRY_SIZE;
+        for (SearchResultItem item : items) {
+            size += estimateSize(item);
+        }
+        //The list of accepted results and the duplicate index
+        size += searchCacheEntry.getSearchResultItems().size() * (long) (2 * REFERENCE_SIZE + MAP_ENTRY_SIZE);
+        return size;
+    }
+
+    static long estimateSize(SearchResultItem item) {
+        long size = SEARCH_RESULT_ITEM_SIZE;
+        size += estimateSize(item.getTitle());
+        size += estimateSize(item.getLink());
+        size += estimateSize(item.getDescription());
+        size += estimateSize(item.getDetails());
+        size += estimateSize(item.getCommentsLink());
+        size += estimateSize(item.getGroup().orElse(null));
+        size += estimateSize(item.getPoster().orElse(null));
+        size += estimateSize(item.getIndexerGuid());
+        size += estimateSize(item.getOriginalCategory());
+        if (item.getAttributes() instanceof SearchResultAttributes) {
+            //Names and short values are shared with other results
+            size += 2 * OBJECT_OVERHEAD + (long) REFERENCE_SIZE * item.getAttributes().size();
+            for (String value : item.getAttributes().values()) {
+                size += value != null && value.length() > SearchResultAttributes.MAX_SHARED_VALUE_LENGTH ? estimateSize(value) : 0;
+            }
+        } else {
+            for (Map.Entry<String, String> attribute : item.getAttributes().entrySet()) {
+                size += MAP_ENTRY_SIZE + estimateSize(attribute.getKey()) + estimateSize(attribute.getValue());
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Estimates the memory used by a search response.
+     */
+    public static long estimateSize(RssRoot rssRoot) {
+        long size = RSS_ROOT_SIZE;
+        if (rssRoot.getRssChannel() == null) {
+            return size;
+        }
+        for (RssItem item : rssRoot.getRssChannel().getItems()) {
+            size += RSS_ITEM_SIZE;
+            size += estimateSize(item.getTitle());
+            size += estimateSize(item.getLink());
+            size += estimateSize(item.getDescription());
+            size += estimateSize(item.getComments());
+            size += estimateSize(item.getCategory());
+            if (item.getRssGuid() != null) {
+                size += OBJECT_OVERHEAD + estimateSize(item.getRssGuid().getGuid());
+            }
+            if (item.getEnclosure() != null) {
+                size += OBJECT_OVERHEAD + 3 * REFERENCE_SIZE + estimateSize(item.getEnclosure().getUrl());
+            }
+            for (NewznabAttribute attribute : item.getNewznabAttributes()) {
+                size += OBJECT_OVERHEAD + REFERENCE_SIZE + estimateSize(attribute.getName()) + estimateSize(attribute.getValue());
+            }
+            for (NewznabAttribute attribute : item.getTorznabAttributes()) {
+                size += OBJECT_OVERHEAD + REFERENCE_SIZE + estimateSize(attribute.getName()) + estimateSize(attribute.getValue());
+            }
+        }
+        return size;
+    }
+
+    private static long estimateSize(String string) {
+        //String object and its char array
+        return string == null ? 0 : 40 + 2L * string.length();
+    }
+
+    private static class Key {
+        private final Region region;
+        private final Object key;
+
+        Key(Region region, Object key) {
+            this.region = region;
+            this.key = key;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key other = (Key) o;
+            return region == other.region && Objects.equals(key, other.key);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(region, key);
+        }
+
+        @Override
+        public String toString() {
+            return region + ":" + key;
+        }
+    }
+
+    private static class CachedValue {
+        private final Object value;
+        private final int weight;
+        private final long expireAfterAccessMillis;
+        private volatile long lastAccess;
+
+        CachedValue(Object value, int weight, long expireAfterAccessMillis, long lastAccess) {
+            this.value = value;
+            this.weight = weight;
+            this.expireAfterAccessMillis = expireAfterAccessMillis;
+            this.lastAccess = lastAccess;
+        }
+
+        boolean isExpired(long now) {
+            return now - lastAccess > expireAfterAccessMillis;
+        }
+    }
+
+    @Data
+    @AllArgsConstructor
+    public static class SearchCacheStatistics {
+        private long maximumBytes;
+        private long estimatedBytes;
+        private long entries;
+        private long hits;
+        private long misses;
+        private long evictions;
+        private long expirations;
+    }
+
+}
@@ -16,6 +16,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Data
 public class SearchCacheEntry {
@@ -25,10 +26,15 @@ public class SearchCacheEntry {
     private Map<Indexer, List<IndexerSearchResult>> indexerSearchResultsByIndexer = new HashMap<>();
     private Map<IndexerEntity, IndexerSearchEntity> indexerSearchEntitiesByIndexer = new HashMap<>();
     private List<SearchResultItem> searchResultItems = new ArrayList<>();
+    private DuplicateGroupIndex duplicateGroupIndex = new DuplicateGroupIndex();
     private IndexerForSearchSelection pickingResult;
     private SearchEntity searchEntity;
     private Multiset<String> reasonsForRejection = HashMultiset.create();
     private Integer numberOfAvailableResults = null;
+    /**
+     * Results of indexers which didn't answer before the search deadline passed, to be used by the next search for the same request
+     */
+    private Map<Indexer, IndexerSearchResult> lateIndexerSearchResults = new ConcurrentHashMap<>();
 
     public SearchCacheEntry(SearchRequest searchRequest, IndexerForSearchSelection pickingResult, SearchEntity searchEntity) {
         this.searchRequest = searchRequest;
@@ -0,0 +1,14 @@
+package org.nzbhydra.searching;
+
+import org.nzbhydra.NzbHydraException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class SearchLimitReachedException extends NzbHydraException {
+
+    public SearchLimitReachedException(String message) {
+        super(message);
+    }
+
+}
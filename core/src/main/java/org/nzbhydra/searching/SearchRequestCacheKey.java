@@ -1,56 +1,145 @@
 package org.nzbhydra.searching;
 
+import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Ordering;
+import org.nzbhydra.mediainfo.InfoProvider.IdType;
 import org.nzbhydra.searching.searchrequests.SearchRequest;
+import org.nzbhydra.searching.searchrequests.SearchRequest.SearchSource;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Identifies the searches whose results can be shared, i.e. all parameters of a search request except offset and limit. The values are
+ * copied when the key is created so later changes to the request (e.g. when forbidden words are extracted from the query) don't change it.
+ */
 public class SearchRequestCacheKey {
 
-    private final SearchRequest searchRequest;
+    private final SearchSource source;
+    private final SearchType searchType;
+    private final String category;
+    private final Set<String> indexers;
+    private final DownloadType downloadType;
+    private final Integer minsize;
+    private final Integer maxsize;
+    private final Integer minage;
+    private final Integer maxage;
+    private final String query;
+    private final Map<IdType, String> identifiers;
+    private final String title;
+    private final Integer season;
+    private final String episode;
+    private final String author;
+    private final List<String> requiredWords;
+    private final List<String> forbiddenWords;
+    private final List<Integer> newznabCategories;
 
     public SearchRequestCacheKey(SearchRequest searchRequest) {
-        this.searchRequest = searchRequest;
+        source = searchRequest.getSource();
+        searchType = searchRequest.getSearchType();
+        category = searchRequest.getCategory() == null ? null : searchRequest.getCategory().getName();
+        indexers = searchRequest.getIndexers().map(ImmutableSet::copyOf).orElse(null);
+        downloadType = searchRequest.getDownloadType();
+        minsize = searchRequest.getMinsize().orElse(null);
+        maxsize = searchRequest.getMaxsize().orElse(null);
+        minage = searchRequest.getMinage().orElse(null);
+        maxage = searchRequest.getMaxage().orElse(null);
+        query = searchRequest.getQuery().orElse(null);
+        Map<IdType, String> identifiers = new EnumMap<>(IdType.class);
+        searchRequest.getIdentifiers().entrySet().stream().filter(x -> x.getValue() != null).forEach(x -> identifiers.put(x.getKey(), x.getValue()));
+        this.identifiers = Collections.unmodifiableMap(identifiers);
+        title = searchRequest.getTitle().orElse(null);
+        season = searchRequest.getSeason().orElse(null);
+        episode = searchRequest.getEpisode().orElse(null);
+        author = searchRequest.getAuthor().orElse(null);
+        //Results are filtered by these so requests which only differ in them may not share results
+        requiredWords = sortedCopy(searchRequest.getInternalData().getRequiredWords());
+        forbiddenWords = sortedCopy(searchRequest.getInternalData().getForbiddenWords());
+        newznabCategories = sortedCopy(searchRequest.getInternalData().getNewznabCategories());
     }
 
-    public SearchRequest getSearchRequest() {
-        return searchRequest;
+    private static <T extends Comparable<? super T>> List<T> sortedCopy(List<T> values) {
+        return values == null ? Collections.emptyList() : ImmutableList.copyOf(Ordering.natural().sortedCopy(values));
     }
 
+    @Override
     public boolean equals(Object obj) {
-        if (obj == null) {
-            return false;
+        if (this == obj) {
+            return true;
         }
-        if (getClass() != obj.getClass()) {
+        if (obj == null || getClass() != obj.getClass()) {
             return false;
         }
 
         final SearchRequestCacheKey other = (SearchRequestCacheKey) obj;
-        return
-                Objects.equal(searchRequest.getQuery(), other.getSearchRequest().getQuery())
-                        && Objects.equal(searchRequest.getSeason(), other.getSearchRequest().getSeason())
-                        && Objects.equal(searchRequest.getEpisode(), other.getSearchRequest().getEpisode())
-                        && Objects.equal(searchRequest.getIdentifiers(), other.getSearchRequest().getIdentifiers())
-                        && Objects.equal(searchRequest.getAuthor(), other.getSearchRequest().getAuthor())
-                        && Objects.equal(searchRequest.getTitle(), other.getSearchRequest().getTitle())
-                        && Objects.equal(searchRequest.getMinage(), other.getSearchRequest().getMinage())
-                        && Objects.equal(searchRequest.getMaxage(), other.getSearchRequest().getMaxage())
-                        && Objects.equal(searchRequest.getMinsize(), other.getSearchRequest().getMinsize())
-                        && Objects.equal(searchRequest.getMaxsize(), other.getSearchRequest().getMaxsize())
+        return source == other.source
+                && searchType == other.searchType
+                && downloadType == other.downloadType
+                && Objects.equal(category, other.category)
+                && Objects.equal(indexers, other.indexers)
+                && Objects.equal(query, other.query)
+                && Objects.equal(season, other.season)
+                && Objects.equal(episode, other.episode)
+                && Objects.equal(identifiers, other.identifiers)
+                && Objects.equal(author, other.author)
+                && Objects.equal(title, other.title)
+                && Objects.equal(minage, other.minage)
+                && Objects.equal(maxage, other.maxage)
+                && Objects.equal(minsize, other.minsize)
+                && Objects.equal(maxsize, other.maxsize)
+                && Objects.equal(requiredWords, other.requiredWords)
+                && Objects.equal(forbiddenWords, other.forbiddenWords)
+                && Objects.equal(newznabCategories, other.newznabCategories)
                 ;
     }
 
     @Override
     public int hashCode() {
         return Objects.hashCode(
-                searchRequest.getQuery(),
-                searchRequest.getSeason(),
-                searchRequest.getEpisode(),
-                searchRequest.getIdentifiers(),
-                searchRequest.getAuthor(),
-                searchRequest.getTitle(),
-                searchRequest.getMinage(),
-                searchRequest.getMaxage(),
-                searchRequest.getMinsize(),
-                searchRequest.getMaxsize()
+                source,
+                searchType,
+                downloadType,
+                category,
+                indexers,
+                query,
+                season,
+                episode,
+                identifiers,
+                author,
+                title,
+                minage,
+                maxage,
+                minsize,
+                maxsize,
+                requiredWords,
+                forbiddenWords,
+                newznabCategories
         );
     }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper(this)
+                .add("source", source)
+                .add("searchType", searchType)
+                .add("category", category)
+                .add("indexers", indexers)
+                .add("query", query)
+                .add("identifiers", identifiers)
+                .add("title", title)
+                .add("season", season)
+                .add("episode", episode)
+                .add("author", author)
+                .add("requiredWords", requiredWords.isEmpty() ? null : requiredWords)
+                .add("forbiddenWords", forbiddenWords.isEmpty() ? null : forbiddenWords)
+                .add("newznabCategories", newznabCategories.isEmpty() ? null : newznabCategories)
+                .omitNullValues()
+                .toString();
+    }
 }
@@ -0,0 +1,106 @@
+package org.nzbhydra.searching;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.nzbhydra.config.ConfigChangedEvent;
+import org.nzbhydra.config.ConfigProvider;
+import org.nzbhydra.config.SearchingConfig;
+import org.nzbhydra.logging.MdcThreadPoolExecutor;
+import org.nzbhydra.searching.ConcurrentSearchLimiter.Permit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes searches requested by the web UI or by API clients so that no servlet thread is blocked while searching. Uses its own threads
+ * so that a search never takes one of the {@link org.nzbhydra.indexers.IndexerCallExecutor}'s threads which its indexer calls need.
+ * <p>
+ * A search is only accepted if the {@link ConcurrentSearchLimiter} has a permit left and the queue isn't full. Otherwise it's rejected
+ * right away. The pool has as many threads as searches may run concurrently, so the queue is only used if the number of concurrent
+ * searches isn't limited.
+ */
+@Component
+public class SearchRequestExecutor implements InitializingBean, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(SearchRequestExecutor.class);
+
+    static final int DEFAULT_THREADS = 20;
+    static final int QUEUE_CAPACITY = 100;
+
+    @Autowired
+    private ConfigProvider configProvider;
+    @Autowired
+    private ConcurrentSearchLimiter concurrentSearchLimiter;
+
+    private final MdcThreadPoolExecutor executor;
+
+    public SearchRequestExecutor() {
+        executor = MdcThreadPoolExecutor.newWithInheritedMdc(DEFAULT_THREADS, DEFAULT_THREADS, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(QUEUE_CAPACITY));
+        executor.allowCoreThreadTimeOut(true);
+        executor.setThreadFactory(new ThreadFactoryBuilder().setNameFormat("search-request-%d").setDaemon(true).build());
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        configure(configProvider.getBaseConfig().getSearching());
+    }
+
+    @EventListener
+    public void handleNewConfig(ConfigChangedEvent configChangedEvent) {
+        configure(configChangedEvent.getNewConfig().getSearching());
+    }
+
+    protected void configure(SearchingConfig searchingConfig) {
+        int threads = searchingConfig.getMaxConcurrentSearches() == 0 ? DEFAULT_THREADS : searchingConfig.getMaxConcurrentSearches();
+        //Order matters: the core size may never be larger than the maximum size
+        if (threads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        } else {
+            executor.setCorePoolSize(threads);
+            executor.setMaximumPoolSize(threads);
+        }
+        logger.debug("Using {} threads for search requests", threads);
+    }
+
+    /**
+     * Submits a search. Never waits for running searches to finish.
+     *
+     * @throws SearchLimitReachedException If too many searches are running or waiting to be executed
+     */
+    public void submit(Callable<?> task) throws SearchLimitReachedException {
+        Permit permit = concurrentSearchLimiter.tryAcquire();
+        try {
+            executor.execute(() -> {
+                try {
+                    task.call();
+                } catch (Exception e) {
+                    logger.error("Unexpected error while executing search request", e);
+                } finally {
+                    permit.close();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            permit.close();
+            logger.warn("Rejecting search because {} searches are already waiting to be executed", executor.getQueue().size());
+            throw new SearchLimitReachedException("Too many searches are running. Please try again later");
+        }
+    }
+
+    @Override
+    public void destroy() {
+        logger.debug("Shutting down search request executor");
+        executor.shutdownNow();
+    }
+
+}
@@ -0,0 +1,210 @@
+package org.nzbhydra.searching;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Compact map for the newznab attributes of a search result. Results usually have the same attribute names as all other results of their
+ * indexer, so the sorted names are kept in a shared dictionary and every map only holds an array of its values. Short values (like
+ * categories or flags) are shared as well. Compared to a {@link java.util.HashMap} this needs no entry objects, no hash table and no copy
+ * of every name per result.
+ * <p>
+ * Not thread-safe, like the other fields of a search result.
+ */
+public class SearchResultAttributes extends AbstractMap<String, String> {
+
+    static final int MAX_SHARED_VALUE_LENGTH = 6;
+    private static final Interner<String> STRINGS = Interners.newWeakInterner();
+    private static final Interner<Names> NAMES = Interners.newWeakInterner();
+    private static final Names NO_NAMES = NAMES.intern(new Names(new String[0]));
+    private static final String[] NO_VALUES = new String[0];
+
+    private Names names = NO_NAMES;
+    private String[] values = NO_VALUES;
+
+    public SearchResultAttributes() {
+    }
+
+    public SearchResultAttributes(Map<String, String> attributes) {
+        if (attributes.isEmpty()) {
+            return;
+        }
+        String[] sortedNames = attributes.keySet().toArray(new String[0]);
+        Arrays.sort(sortedNames);
+        for (int i = 0; i < sortedNames.length; i++) {
+            sortedNames[i] = STRINGS.intern(sortedNames[i]);
+        }
+        names = NAMES.intern(new Names(sortedNames));
+        values = new String[sortedNames.length];
+        for (int i = 0; i < sortedNames.length; i++) {
+            values[i] = share(attributes.get(sortedNames[i]));
+        }
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public String get(Object key) {
+        int index = indexOf(key);
+        return index < 0 ? null : values[index];
+    }
+
+    @Override
+    public String put(String key, String value) {
+        int index = indexOf(key);
+        if (index >= 0) {
+            String previous = values[index];
+            values[index] = share(value);
+            return previous;
+        }
+        int insertAt = -(index + 1);
+        String[] newNames = new String[values.length + 1];
+        String[] newValues = new String[values.length + 1];
+        System.arraycopy(names.names, 0, newNames, 0, insertAt);
+        System.arraycopy(values, 0, newValues, 0, insertAt);
+        newNames[insertAt] = STRINGS.intern(key);
+        newValues[insertAt] = share(value);
+        System.arraycopy(names.names, insertAt, newNames, insertAt + 1, values.length - insertAt);
+        System.arraycopy(values, insertAt, newValues, insertAt + 1, values.length - insertAt);
+        names = NAMES.intern(new Names(newNames));
+        values = newValues;
+        return null;
+    }
+
+    @Override
+    public String remove(Object key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        String previous = values[index];
+        removeAt(index);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        names = NO_NAMES;
+        values = NO_VALUES;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        return new AbstractSet<Entry<String, String>>() {
+            @Override
+            public Iterator<Entry<String, String>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return values.length;
+            }
+        };
+    }
+
+    /**
+     * Returns true if both maps use the same shared instance for their attribute names.
+     */
+    boolean sharesNamesWith(SearchResultAttributes other) {
+        return names == other.names;
+    }
+
+    private int indexOf(Object key) {
+        if (!(key instanceof String)) {
+            return -1;
+        }
+        return Arrays.binarySearch(names.names, key);
+    }
+
+    private void removeAt(int index) {
+        String[] newNames = new String[values.length - 1];
+        String[] newValues = new String[values.length - 1];
+        System.arraycopy(names.names, 0, newNames, 0, index);
+        System.arraycopy(values, 0, newValues, 0, index);
+        System.arraycopy(names.names, index + 1, newNames, index, newNames.length - index);
+        System.arraycopy(values, index + 1, newValues, index, newValues.length - index);
+        names = NAMES.intern(new Names(newNames));
+        values = newValues;
+    }
+
+    private static String share(String value) {
+        return value != null && value.length() <= MAX_SHARED_VALUE_LENGTH ? STRINGS.intern(value) : value;
+    }
+
+    private class EntryIterator implements Iterator<Entry<String, String>> {
+        private int next = 0;
+        private int last = -1;
+
+        @Override
+        public boolean hasNext() {
+            return next < values.length;
+        }
+
+        @Override
+        public Entry<String, String> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            last = next++;
+            int index = last;
+            return new SimpleEntry<String, String>(names.names[index], values[index]) {
+                @Override
+                public String setValue(String value) {
+                    super.setValue(value);
+                    return SearchResultAttributes.this.put(getKey(), value);
+                }
+            };
+        }
+
+        @Override
+        public void remove() {
+            if (last < 0) {
+                throw new IllegalStateException();
+            }
+            removeAt(last);
+            next = last;
+            last = -1;
+        }
+    }
+
+    /**
+     * Sorted attribute names, shared by all maps with the same names.
+     */
+    private static class Names {
+        private final String[] names;
+        private final int hashCode;
+
+        Names(String[] names) {
+            this.names = names;
+            hashCode = Arrays.hashCode(names);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Names && Arrays.equals(names, ((Names) o).names);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+}
@@ -8,7 +8,6 @@ import org.nzbhydra.indexers.Indexer;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
@@ -27,7 +26,7 @@ public class SearchResultItem implements Comparable<SearchResultItem> {
     }
 
     private boolean agePrecise;
-    private Map<String, String> attributes = new HashMap<>();
+    private Map<String, String> attributes = new SearchResultAttributes();
     private Category category;
     private Integer commentsCount;
     private String commentsLink;
@@ -56,6 +55,13 @@ public class SearchResultItem implements Comparable<SearchResultItem> {
     private String title;
     private Instant usenetDate = null;
 
+    /**
+     * Copies the attributes into a compact map which shares the attribute names with other results.
+     */
+    public void setAttributes(Map<String, String> attributes) {
+        this.attributes = new SearchResultAttributes(attributes);
+    }
+
     public Optional<Instant> getUsenetDate() {
         return Optional.ofNullable(usenetDate);
     }
@@ -10,7 +10,7 @@ import java.time.Instant;
 import java.util.List;
 import java.util.Set;
 
-public interface SearchResultRepository extends JpaRepository<SearchResultEntity, Long> {
+public interface SearchResultRepository extends JpaRepository<SearchResultEntity, Long>, SearchResultRepositoryCustom {
 
     @Query("select x.id from SearchResultEntity x where x.id in :ids")
     Set<Long> findAllIdsByIdIn(@Param("ids") List<Long> ids);
@@ -0,0 +1,13 @@
+package org.nzbhydra.searching;
+
+import java.util.Collection;
+
+public interface SearchResultRepositoryCustom {
+
+    /**
+     * Writes the given search results to the database using one batched statement, bypassing JPA. Search results with an ID which
+     * already exists in the database are overwritten.
+     */
+    void mergeAll(Collection<SearchResultEntity> searchResultEntities);
+
+}
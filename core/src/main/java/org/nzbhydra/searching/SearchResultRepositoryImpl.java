@@ -0,0 +1,67 @@
+package org.nzbhydra.searching;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+@SuppressWarnings("unused")
+public class SearchResultRepositoryImpl implements SearchResultRepositoryCustom {
+
+    private static final String MERGE_STATEMENT = "MERGE INTO SEARCHRESULT (ID, DETAILS, DOWNLOAD_TYPE, FIRST_FOUND, INDEXERGUID, LINK, PUB_DATE, TITLE, INDEXER_ID) KEY (ID) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    public SearchResultRepositoryImpl() {
+    }
+
+    public SearchResultRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void mergeAll(Collection<SearchResultEntity> searchResultEntities) {
+        if (searchResultEntities.isEmpty()) {
+            return;
+        }
+        List<SearchResultEntity> entities = new ArrayList<>(searchResultEntities);
+        jdbcTemplate.batchUpdate(MERGE_STATEMENT, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                SearchResultEntity entity = entities.get(i);
+                ps.setLong(1, entity.getId());
+                ps.setString(2, entity.getDetails());
+                ps.setString(3, entity.getDownloadType() == null ? null : entity.getDownloadType().name());
+                setTimestamp(ps, 4, entity.getFirstFound());
+                ps.setString(5, entity.getIndexerGuid());
+                ps.setString(6, entity.getLink());
+                setTimestamp(ps, 7, entity.getPubDate());
+                ps.setString(8, entity.getTitle());
+                ps.setInt(9, entity.getIndexer().getId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entities.size();
+            }
+        });
+    }
+
+    private static void setTimestamp(PreparedStatement ps, int index, Instant instant) throws SQLException {
+        if (instant == null) {
+            ps.setNull(index, Types.TIMESTAMP);
+        } else {
+            ps.setTimestamp(index, Timestamp.from(instant));
+        }
+    }
+
+}
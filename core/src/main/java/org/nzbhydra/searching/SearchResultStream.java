@@ -0,0 +1,61 @@
+package org.nzbhydra.searching;
+
+import org.nzbhydra.searching.searchrequests.SearchRequest;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Collects the results of a running search indexer by indexer and determines which results need to be sent to the client.
+ * <p>
+ * The stream keeps its own duplicate groups: only the new results of an indexer are compared with the results already sent, so the
+ * duplicate identifier sent for a result never changes. The results are shared with the search itself and are therefore not changed.
+ */
+public class SearchResultStream {
+
+    private final SearchRequest searchRequest;
+    private final DuplicateDetector duplicateDetector;
+    private final InternalSearchResultProcessor searchResultProcessor;
+
+    private final DuplicateGroupIndex duplicateGroupIndex = new DuplicateGroupIndex(false);
+    private final Set<Long> knownSearchResultIds = new HashSet<>();
+
+    public SearchResultStream(SearchRequest searchRequest, DuplicateDetector duplicateDetector, InternalSearchResultProcessor searchResultProcessor) {
+        this.searchRequest = searchRequest;
+        this.duplicateDetector = duplicateDetector;
+        this.searchResultProcessor = searchResultProcessor;
+    }
+
+    public SearchRequest getSearchRequest() {
+        return searchRequest;
+    }
+
+    public synchronized StreamedSearchResults add(IndexerSearchResult indexerSearchResult) {
+        StreamedSearchResults streamedSearchResults = new StreamedSearchResults();
+        streamedSearchResults.setIndexerSearchMetaData(searchResultProcessor.createIndexerSearchMetaData(indexerSearchResult));
+        List<SearchResultItem> newItems = indexerSearchResult.isWasSuccessful() ? indexerSearchResult.getSearchResultItems().stream().filter(x -> knownSearchResultIds.add(x.getSearchResultId())).collect(Collectors.toList()) : new ArrayList<>();
+        streamedSearchResults.setNumberOfStreamedResults(knownSearchResultIds.size());
+        if (newItems.isEmpty()) {
+            return streamedSearchResults;
+        }
+
+        duplicateDetector.detectDuplicates(duplicateGroupIndex, newItems);
+        Map<String, Integer> duplicateIdentifiers = new HashMap<>();
+        for (SearchResultItem item : newItems) {
+            duplicateIdentifiers.put(item.getSearchResultId().toString(), duplicateGroupIndex.getDuplicateIdentifier(item));
+        }
+
+        List<SearchResultWebTO> transformedSearchResults = searchResultProcessor.transformSearchResults(newItems);
+        for (SearchResultWebTO searchResultWebTO : transformedSearchResults) {
+            searchResultWebTO.setHash(duplicateIdentifiers.get(searchResultWebTO.getSearchResultId()));
+        }
+        streamedSearchResults.setSearchResults(transformedSearchResults);
+        return streamedSearchResults;
+    }
+
+}
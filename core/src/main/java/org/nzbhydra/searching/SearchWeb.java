@@ -12,6 +12,7 @@ import org.nzbhydra.mediainfo.InfoProvider.IdType;
 import org.nzbhydra.searching.searchrequests.SearchRequest;
 import org.nzbhydra.searching.searchrequests.SearchRequest.SearchSource;
 import org.nzbhydra.searching.searchrequests.SearchRequestFactory;
+import org.nzbhydra.web.SessionStorage;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -23,10 +24,17 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
 
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
@@ -35,6 +43,7 @@ import java.util.concurrent.locks.ReentrantLock;
 public class SearchWeb {
 
     private static final Logger logger = LoggerFactory.getLogger(SearchWeb.class);
+    private static final long SEARCH_TIMEOUT = TimeUnit.MINUTES.toMillis(5);
 
     @Autowired
     private Searcher searcher;
@@ -44,6 +53,10 @@ public class SearchWeb {
     private SearchRequestFactory searchRequestFactory;
     @Autowired
     private InternalSearchResultProcessor searchResultProcessor;
+    @Autowired
+    private DuplicateDetector duplicateDetector;
+    @Autowired
+    private SearchRequestExecutor searchRequestExecutor;
 
     private Lock lock = new ReentrantLock();
 
@@ -53,24 +66,85 @@ public class SearchWeb {
             .expirationPolicy(ExpirationPolicy.ACCESSED)
             .build();
 
+    private Map<Long, StreamingSearch> streamingSearches = new ConcurrentHashMap<>();
 
+
+    /**
+     * Executes the search in the search request executor so that no servlet thread is blocked while searching.
+     */
     @Secured({"ROLE_USER"})
     @RequestMapping(value = "/internalapi/search", method = RequestMethod.POST, produces = MediaType.APPLICATION_JSON_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
-    public SearchResponse search(@RequestBody SearchRequestParameters parameters) {
+    public DeferredResult<SearchResponse> search(@RequestBody SearchRequestParameters parameters) throws SearchLimitReachedException {
         SearchRequest searchRequest = createSearchRequest(parameters);
-        Stopwatch stopwatch = Stopwatch.createStarted();
         logger.info("New search request: " + searchRequest);
-        org.nzbhydra.searching.SearchResult searchResult = searcher.search(searchRequest);
+        DeferredResult<SearchResponse> deferredResult = new DeferredResult<>(SEARCH_TIMEOUT);
+        searchRequestExecutor.submit(SessionStorage.withCurrentSessionData(() -> {
+            Stopwatch stopwatch = Stopwatch.createStarted();
+            try {
+                org.nzbhydra.searching.SearchResult searchResult = searcher.search(searchRequest);
+                SearchResponse searchResponse = searchResultProcessor.createSearchResponse(searchResult);
+                setSearchFinished(searchRequest);
+                deferredResult.setResult(searchResponse);
+                logger.info("Search took {}ms", stopwatch.elapsed(TimeUnit.MILLISECONDS));
+            } catch (Exception e) {
+                deferredResult.setErrorResult(e);
+            }
+            return null;
+        }));
+        return deferredResult;
+    }
+
+    /**
+     * Executes the search in the background and sends the results of every indexer as soon as it's finished (event "results", see
+     * {@link StreamedSearchResults}). When the search is completed the complete {@link SearchResponse} is sent (event "finished").
+     */
+    @Secured({"ROLE_USER"})
+    @RequestMapping(value = "/internalapi/search/stream", method = RequestMethod.POST, produces = MediaType.TEXT_EVENT_STREAM_VALUE, consumes = MediaType.APPLICATION_JSON_VALUE)
+    public SseEmitter searchStreaming(@RequestBody SearchRequestParameters parameters) throws SearchLimitReachedException {
+        SearchRequest searchRequest = createSearchRequest(parameters);
+        SseEmitter emitter = new SseEmitter(SEARCH_TIMEOUT);
+        StreamingSearch streamingSearch = new StreamingSearch(emitter, new SearchResultStream(searchRequest, duplicateDetector, searchResultProcessor));
+        streamingSearches.put(searchRequest.getSearchRequestId(), streamingSearch);
+        emitter.onTimeout(() -> streamingSearches.remove(searchRequest.getSearchRequestId()));
+        emitter.onCompletion(() -> streamingSearches.remove(searchRequest.getSearchRequestId()));
 
-        SearchResponse searchResponse = searchResultProcessor.createSearchResponse(searchResult);
+        logger.info("New streaming search request: " + searchRequest);
+        try {
+            submitStreamingSearch(searchRequest, emitter, streamingSearch);
+        } catch (SearchLimitReachedException e) {
+            streamingSearches.remove(searchRequest.getSearchRequestId());
+            throw e;
+        }
+        return emitter;
+    }
+
+    private void submitStreamingSearch(SearchRequest searchRequest, SseEmitter emitter, StreamingSearch streamingSearch) throws SearchLimitReachedException {
+        searchRequestExecutor.submit(SessionStorage.withCurrentSessionData(() -> {
+            Stopwatch stopwatch = Stopwatch.createStarted();
+            try {
+                org.nzbhydra.searching.SearchResult searchResult = searcher.search(searchRequest);
+                SearchResponse searchResponse = searchResultProcessor.createSearchResponse(searchResult);
+                setSearchFinished(searchRequest);
+                streamingSearch.send(SseEmitter.event().name("finished").data(searchResponse, MediaType.APPLICATION_JSON));
+                emitter.complete();
+                logger.info("Streaming search took {}ms", stopwatch.elapsed(TimeUnit.MILLISECONDS));
+            } catch (Exception e) {
+                logger.error("Error while executing streaming search", e);
+                emitter.completeWithError(e);
+            } finally {
+                streamingSearches.remove(searchRequest.getSearchRequestId());
+            }
+            return null;
+        }));
+    }
 
+    private void setSearchFinished(SearchRequest searchRequest) {
         lock.lock();
         SearchState searchState = searchStates.get(searchRequest.getSearchRequestId());
-        searchState.setSearchFinished(true);
+        if (searchState != null) {
+            searchState.setSearchFinished(true);
+        }
         lock.unlock();
-
-        logger.info("Search took {}ms", stopwatch.elapsed(TimeUnit.MILLISECONDS));
-        return searchResponse;
     }
 
     @Secured({"ROLE_USER"})
@@ -147,6 +221,28 @@ public class SearchWeb {
         }
     }
 
+    @EventListener
+    public void handleIndexerSearchResultEvent(IndexerSearchResultEvent event) {
+        long searchRequestId = event.getSearchRequest().getSearchRequestId();
+        //Searches waiting for this identical search get its results as well
+        for (Entry<Long, StreamingSearch> entry : streamingSearches.entrySet()) {
+            StreamingSearch streamingSearch = entry.getValue();
+            if (entry.getKey() == searchRequestId || Objects.equals(streamingSearch.joinedSearchRequestId, searchRequestId)) {
+                StreamedSearchResults streamedSearchResults = streamingSearch.searchResultStream.add(event.getIndexerSearchResult());
+                streamingSearch.send(SseEmitter.event().name("results").data(streamedSearchResults, MediaType.APPLICATION_JSON));
+            }
+        }
+    }
+
+    @EventListener
+    public void handleRunningSearchJoinedEvent(RunningSearchJoinedEvent event) {
+        StreamingSearch streamingSearch = streamingSearches.get(event.getSearchRequest().getSearchRequestId());
+        if (streamingSearch != null) {
+            //Results the running search found before aren't sent again. They're contained in the "finished" event
+            streamingSearch.joinedSearchRequestId = event.getRunningSearchRequest().getSearchRequestId();
+        }
+    }
+
     @EventListener
     public void handleIndexerSelectionEvent(IndexerSelectionEvent event) {
         if (searchStates.containsKey(event.getSearchRequest().getSearchRequestId())) {
@@ -179,6 +275,26 @@ public class SearchWeb {
         }
     }
 
+    private static class StreamingSearch {
+        private final SseEmitter emitter;
+        private final SearchResultStream searchResultStream;
+        private volatile Long joinedSearchRequestId;
+
+        StreamingSearch(SseEmitter emitter, SearchResultStream searchResultStream) {
+            this.emitter = emitter;
+            this.searchResultStream = searchResultStream;
+        }
+
+        synchronized void send(SseEventBuilder event) {
+            try {
+                emitter.send(event);
+            } catch (IOException | IllegalStateException e) {
+                //Client went away or the emitter timed out. The search will be finished anyway and its results cached
+                logger.debug("Unable to send streamed search results: {}", e.getMessage());
+            }
+        }
+    }
+
     @Data
     @NoArgsConstructor
     private class SearchState {
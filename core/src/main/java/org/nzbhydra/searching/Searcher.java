@@ -4,15 +4,14 @@ import com.google.common.base.Stopwatch;
 import com.google.common.collect.Iterables;
 import com.google.common.collect.Sets;
 import lombok.Getter;
-import net.jodah.expiringmap.ExpirationPolicy;
-import net.jodah.expiringmap.ExpiringMap;
 import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.indexers.Indexer;
+import org.nzbhydra.indexers.IndexerCallExecutor;
 import org.nzbhydra.indexers.IndexerSearchEntity;
 import org.nzbhydra.indexers.IndexerSearchRepository;
 import org.nzbhydra.logging.LoggingMarkers;
-import org.nzbhydra.logging.MdcThreadPoolExecutor;
 import org.nzbhydra.searching.IndexerForSearchSelector.IndexerForSearchSelection;
+import org.nzbhydra.searching.SearchCache.Region;
 import org.nzbhydra.searching.searchrequests.SearchRequest;
 import org.nzbhydra.searching.searchrequests.SearchRequest.SearchSource;
 import org.slf4j.Logger;
@@ -21,6 +20,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -31,17 +31,25 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Optional;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
 @Component
 public class Searcher {
 
     private static final Logger logger = LoggerFactory.getLogger(Searcher.class);
+    private static final Duration SEARCH_CACHE_EXPIRATION = Duration.ofMinutes(5);
 
     @Autowired
     protected DuplicateDetector duplicateDetector;
@@ -50,32 +58,62 @@ public class Searcher {
     @Autowired
     private SearchRepository searchRepository;
     @Autowired
+    private WriteBehindPersister writeBehindPersister;
+    @Autowired
     protected IndexerForSearchSelector indexerPicker;
     @Autowired
     private ApplicationEventPublisher eventPublisher;
     @Autowired
     private ConfigProvider configProvider;
+    @Autowired
+    protected IndexerCallExecutor indexerCallExecutor;
+    @Autowired
+    protected SearchCache searchCache;
 
 
     /**
-     * Maps a search request's hash to its cache entry
+     * Maps the keys of the searches currently being executed to the searches, which are completed when they're finished
      */
-    private final Map<Integer, SearchCacheEntry> searchRequestCache = ExpiringMap.builder()
-            .maxSize(20)
-            .expirationPolicy(ExpirationPolicy.ACCESSED)
-            .expiration(5, TimeUnit.MINUTES)
-            .expirationListener((k, v) -> logger.debug("Removing expired search cache entry {}", ((SearchCacheEntry) v).getSearchRequest()))
-            .build();
+    private final ConcurrentMap<SearchRequestCacheKey, RunningSearch> runningSearches = new ConcurrentHashMap<>();
 
     public SearchResult search(SearchRequest searchRequest) {
-        Stopwatch stopwatch = Stopwatch.createStarted();
         eventPublisher.publishEvent(new SearchEvent(searchRequest));
-        SearchCacheEntry searchCacheEntry = getSearchCacheEntry(searchRequest);
+        SearchRequestCacheKey cacheKey = new SearchRequestCacheKey(searchRequest);
+        //Only one search per key is executed at a time. Identical searches wait for it and then use the results from its cache entry
+        //instead of calling the indexers again. This also makes sure a cache entry is never updated by more than one search
+        boolean waitedForRunningSearch = false;
+        while (true) {
+            RunningSearch ownSearch = new RunningSearch(searchRequest);
+            RunningSearch runningSearch = runningSearches.putIfAbsent(cacheKey, ownSearch);
+            if (runningSearch == null) {
+                try {
+                    return search(searchRequest, cacheKey, waitedForRunningSearch);
+                } finally {
+                    runningSearches.remove(cacheKey, ownSearch);
+                    ownSearch.finished.complete(null);
+                }
+            }
+            logger.debug("Waiting for identical search to finish: {}", cacheKey);
+            waitedForRunningSearch = true;
+            eventPublisher.publishEvent(new RunningSearchJoinedEvent(searchRequest, runningSearch.searchRequest));
+            runningSearch.finished.join();
+        }
+    }
+
+    private SearchResult search(SearchRequest searchRequest, SearchRequestCacheKey cacheKey, boolean waitedForRunningSearch) {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        SearchCacheEntry searchCacheEntry = getSearchCacheEntry(searchRequest, cacheKey, waitedForRunningSearch);
 
         SearchResult searchResult = new SearchResult();
         int numberOfWantedResults = searchRequest.getOffset().orElse(0) + searchRequest.getLimit().orElse(100); //LATER default for limit
         searchResult.setPickingResult(searchCacheEntry.getPickingResult());
 
+        List<IndexerSearchResult> lateIndexerSearchResults = mergeLateIndexerSearchResults(searchCacheEntry);
+        if (!lateIndexerSearchResults.isEmpty()) {
+            DuplicateDetectionResult duplicateDetectionResult = updateSearchResultItems(searchRequest, searchResult, searchCacheEntry, getSearchResultItems(lateIndexerSearchResults));
+            createOrUpdateIndexerSearchEntity(searchCacheEntry, searchCacheEntry.getIndexerSearchResultsByIndexer(), duplicateDetectionResult);
+        }
+
         Map<Indexer, List<IndexerSearchResult>> indexersToSearchAndTheirResults = getIndexerSearchResultsToSearch(searchCacheEntry.getIndexerSearchResultsByIndexer());
         List<SearchResultItem> searchResultItems = searchCacheEntry.getSearchResultItems();
         while (indexersToSearchAndTheirResults.size() > 0 && (searchResultItems.size() < numberOfWantedResults || searchRequest.isLoadAll())) {
@@ -92,35 +130,25 @@ public class Searcher {
             }
 
             //Do the actual search
-            indexersToSearchAndTheirResults = callSearchModules(searchRequest, indexersToSearchAndTheirResults);
+            indexersToSearchAndTheirResults = callSearchModules(searchRequest, indexersToSearchAndTheirResults, searchCacheEntry);
 
             //Update cache
             searchCacheEntry.getIndexerSearchResultsByIndexer().putAll(indexersToSearchAndTheirResults);
-            searchRequestCache.put(searchRequest.hashCode(), searchCacheEntry);
+            searchCache.put(Region.SEARCHES, cacheKey, searchCacheEntry, SearchCache.estimateSize(searchCacheEntry), SEARCH_CACHE_EXPIRATION);
 
-
-            //Use search result items from the cache which contains *all* search searchResults, not just the latest. That allows finding duplicates over multiple searches
-            searchResultItems = searchCacheEntry.getIndexerSearchResultsByIndexer().values().stream().flatMap(Collection::stream).filter(IndexerSearchResult::isWasSuccessful).flatMap(x -> x.getSearchResultItems().stream()).distinct().collect(Collectors.toList());
-            DuplicateDetectionResult duplicateDetectionResult = duplicateDetector.detectDuplicates(searchResultItems);
+            List<IndexerSearchResult> newIndexerSearchResults = indexersToSearchAndTheirResults.values().stream().map(Iterables::getLast).collect(Collectors.toList());
+            DuplicateDetectionResult duplicateDetectionResult = updateSearchResultItems(searchRequest, searchResult, searchCacheEntry, getSearchResultItems(newIndexerSearchResults));
+            searchResultItems = searchCacheEntry.getSearchResultItems();
 
             //Save to database
             createOrUpdateIndexerSearchEntity(searchCacheEntry, indexersToSearchAndTheirResults, duplicateDetectionResult);
 
-            //Remove duplicates for external searches
-            if (searchRequest.getSource() == SearchSource.API) {
-                int beforeDuplicateRemoval = searchResultItems.size();
-                searchResultItems = getNewestSearchResultItemFromEachDuplicateGroup(duplicateDetectionResult.getDuplicateGroups());
-                searchResult.setNumberOfRemovedDuplicates(beforeDuplicateRemoval - searchResultItems.size());
-            }
-
             //Set the rejection counts from all searches, this and previous
             searchCacheEntry.getReasonsForRejection().clear();
             indexersToSearchAndTheirResults.values().forEach(x -> x.forEach(y -> y.getReasonsForRejection().entrySet().forEach(z -> searchCacheEntry.getReasonsForRejection().add(z.getElement(), z.getCount()))));
 
             //Update indexersToSearchAndTheirResults to remove indexers which threw an error or don't have any more results
             indexersToSearchAndTheirResults = getIndexerSearchResultsToSearch(indexersToSearchAndTheirResults);
-
-            searchCacheEntry.setSearchResultItems(searchResultItems);
         }
         searchResult.setNumberOfTotalAvailableResults(searchCacheEntry.getNumberOfTotalAvailableResults());
         searchResult.setIndexerSearchResults(searchCacheEntry.getIndexerSearchResultsByIndexer().entrySet().stream().map(x -> Iterables.getLast(x.getValue())).collect(Collectors.toList()));
@@ -134,6 +162,54 @@ public class Searcher {
         return searchResult;
     }
 
+    private List<SearchResultItem> getSearchResultItems(Collection<IndexerSearchResult> indexerSearchResults) {
+        return indexerSearchResults.stream().filter(IndexerSearchResult::isWasSuccessful).flatMap(x -> x.getSearchResultItems().stream()).collect(Collectors.toList());
+    }
+
+    private DuplicateDetectionResult updateSearchResultItems(SearchRequest searchRequest, SearchResult searchResult, SearchCacheEntry searchCacheEntry, List<SearchResultItem> newSearchResultItems) {
+        //The new search result items are added to the duplicate groups of *all* previous results for this search. That allows finding duplicates over multiple searches
+        DuplicateDetectionResult duplicateDetectionResult = duplicateDetector.detectDuplicates(searchCacheEntry.getDuplicateGroupIndex(), newSearchResultItems);
+        List<SearchResultItem> searchResultItems = duplicateDetectionResult.getDuplicateGroups().stream().flatMap(Collection::stream).collect(Collectors.toList());
+
+        //Remove duplicates for external searches
+        if (searchRequest.getSource() == SearchSource.API) {
+            int beforeDuplicateRemoval = searchResultItems.size();
+            searchResultItems = getNewestSearchResultItemFromEachDuplicateGroup(duplicateDetectionResult.getDuplicateGroups());
+            searchResult.setNumberOfRemovedDuplicates(beforeDuplicateRemoval - searchResultItems.size());
+        }
+        searchCacheEntry.setSearchResultItems(searchResultItems);
+        return duplicateDetectionResult;
+    }
+
+    /**
+     * Replaces the results of indexers which timed out in a previous search for the same request with their results if they have arrived since.
+     * For a new search the indexers' first results are used instead of calling them again.
+     *
+     * @return the late results which were merged
+     */
+    protected List<IndexerSearchResult> mergeLateIndexerSearchResults(SearchCacheEntry searchCacheEntry) {
+        List<IndexerSearchResult> mergedIndexerSearchResults = new ArrayList<>();
+        for (Indexer indexer : new ArrayList<>(searchCacheEntry.getLateIndexerSearchResults().keySet())) {
+            IndexerSearchResult lateIndexerSearchResult = searchCacheEntry.getLateIndexerSearchResults().remove(indexer);
+            List<IndexerSearchResult> indexerSearchResults = searchCacheEntry.getIndexerSearchResultsByIndexer().get(indexer);
+            if (lateIndexerSearchResult == null || indexerSearchResults == null) {
+                continue;
+            }
+            if (indexerSearchResults.isEmpty() && lateIndexerSearchResult.getOffset() == 0) {
+                logger.debug("Using results of indexer {} which arrived after the deadline of the previous identical search", indexer.getName());
+                indexerSearchResults.add(lateIndexerSearchResult);
+            } else if (!indexerSearchResults.isEmpty() && Iterables.getLast(indexerSearchResults).isTimedOut()) {
+                logger.debug("Using results of indexer {} which arrived after the deadline of the previous search", indexer.getName());
+                indexerSearchResults.set(indexerSearchResults.size() - 1, lateIndexerSearchResult);
+            } else {
+                continue;
+            }
+            lateIndexerSearchResult.getReasonsForRejection().entrySet().forEach(z -> searchCacheEntry.getReasonsForRejection().add(z.getElement(), z.getCount()));
+            mergedIndexerSearchResults.add(lateIndexerSearchResult);
+        }
+        return mergedIndexerSearchResults;
+    }
+
     private void spliceSearchResultItemsAccordingToOffsetAndLimit(SearchRequest searchRequest, SearchResult searchResult, List<SearchResultItem> searchResultItems) {
         int offset = searchRequest.getOffset().orElse(0);
         int limit = searchRequest.getLimit().orElse(100); //LATER configurable
@@ -145,7 +221,7 @@ public class Searcher {
 
         if (searchRequest.isLoadAll()) {
             logger.info("Returning all available search results");
-            searchResult.setSearchResultItems(searchResultItems);
+            searchResult.setSearchResultItems(new ArrayList<>(searchResultItems));
             return;
         }
 
@@ -167,7 +243,8 @@ public class Searcher {
                 andRemoved = " and " + searchResult.getNumberOfRemovedDuplicates() + " were removed as duplicates";
             }
             logger.info("Returning results {}-{} from {} results in cache. A total of {} results is available from indexers of which {} were already rejected" + andRemoved, offset + 1, offset + limit, searchResultItems.size(), searchResult.getNumberOfTotalAvailableResults(), searchResult.getNumberOfRejectedResults());
-            searchResult.setSearchResultItems(searchResultItems.subList(offset, offset + limit));
+            //Copy the page because the cached list is sorted again by other searches using the same cache entry
+            searchResult.setSearchResultItems(new ArrayList<>(searchResultItems.subList(offset, offset + limit)));
         }
     }
 
@@ -191,45 +268,64 @@ public class Searcher {
             }
             entity.setProcessedResults(indexerSearchResult.getSearchResultItems().size());
             entity.setUniqueResults(duplicateDetectionResult.getUniqueResultsPerIndexer().count(indexerSearchResult.getIndexer()));
-            entity = indexerSearchRepository.save(entity);
+            writeBehindPersister.save(indexerSearchRepository, entity);
             searchCacheEntry.getIndexerSearchEntitiesByIndexer().put(indexerSearchResult.getIndexer().getIndexerEntity(), entity);
             countEntities++;
         }
-        logger.debug(LoggingMarkers.PERFORMANCE, "Saving {} indexer search entities took {}ms", countEntities, stopwatch.elapsed(TimeUnit.MILLISECONDS));
+        logger.debug(LoggingMarkers.PERFORMANCE, "Queuing {} indexer search entities took {}ms", countEntities, stopwatch.elapsed(TimeUnit.MILLISECONDS));
     }
 
-    protected SearchCacheEntry getSearchCacheEntry(SearchRequest searchRequest) {
+    /**
+     * @param useCachedResults if true the cached results are used even if the search starts with the first result
+     */
+    protected SearchCacheEntry getSearchCacheEntry(SearchRequest searchRequest, SearchRequestCacheKey cacheKey, boolean useCachedResults) {
         SearchCacheEntry searchCacheEntry;
 
-        if (searchRequest.getOffset().orElse(0) == 0 || !searchRequestCache.containsKey(searchRequest.hashCode())) {
+        Optional<SearchCacheEntry> cachedEntry = searchRequest.getOffset().orElse(0) == 0 && !useCachedResults ? Optional.empty() : searchCache.get(Region.SEARCHES, cacheKey, SearchCacheEntry.class);
+        if (!cachedEntry.isPresent()) {
             //New search
-            SearchEntity searchEntity = new SearchEntity();
-            searchEntity.setSource(searchRequest.getSource());
-            searchEntity.setCategoryName(searchRequest.getCategory().getName());
-            searchEntity.setQuery(searchRequest.getQuery().orElse(null));
-            searchEntity.setIdentifiers(searchRequest.getIdentifiers().entrySet().stream().filter(x -> x.getValue() != null).map(x -> new IdentifierKeyValuePair(x.getKey().name(), x.getValue())).collect(Collectors.toSet()));
-            searchEntity.setSeason(searchRequest.getSeason().orElse(null));
-            searchEntity.setEpisode(searchRequest.getEpisode().orElse(null));
-            searchEntity.setSearchType(searchRequest.getSearchType());
-            searchEntity.setTitle(searchRequest.getTitle().orElse(null));
-            searchEntity.setAuthor(searchRequest.getAuthor().orElse(null));
+            SearchEntity searchEntity = saveSearchEntity(searchRequest);
 
             //Extend search request
             searchRequest.extractForbiddenWords();
 
-            searchRepository.save(searchEntity);
-
             IndexerForSearchSelection pickingResult = indexerPicker.pickIndexers(searchRequest);
             searchCacheEntry = new SearchCacheEntry(searchRequest, pickingResult, searchEntity);
+            //Indexers which answered after the deadline of the previous identical search (e.g. the last RSS poll) aren't called again
+            Optional<SearchCacheEntry> previousEntry = searchCache.get(Region.SEARCHES, cacheKey, SearchCacheEntry.class);
+            if (previousEntry.isPresent()) {
+                searchCacheEntry.getLateIndexerSearchResults().putAll(previousEntry.get().getLateIndexerSearchResults());
+            }
         } else {
-            searchCacheEntry = searchRequestCache.get(searchRequest.hashCode());
+            searchCacheEntry = cachedEntry.get();
+            if (useCachedResults && searchRequest.getOffset().orElse(0) == 0) {
+                //A new search which uses the results of an identical one which ran at the same time. It's still a search made by its user
+                saveSearchEntity(searchRequest);
+            }
             searchCacheEntry.setLastAccessed(Instant.now());
+            //Like the request of the original search so that indexers called for more results get the same query
+            searchRequest.extractForbiddenWords();
             searchCacheEntry.setSearchRequest(searchRequest); //Update to latest to keep offset and limit updated
         }
         return searchCacheEntry;
     }
 
 
+    private SearchEntity saveSearchEntity(SearchRequest searchRequest) {
+        SearchEntity searchEntity = new SearchEntity();
+        searchEntity.setSource(searchRequest.getSource());
+        searchEntity.setCategoryName(searchRequest.getCategory().getName());
+        searchEntity.setQuery(searchRequest.getQuery().orElse(null));
+        searchEntity.setIdentifiers(searchRequest.getIdentifiers().entrySet().stream().filter(x -> x.getValue() != null).map(x -> new IdentifierKeyValuePair(x.getKey().name(), x.getValue())).collect(Collectors.toSet()));
+        searchEntity.setSeason(searchRequest.getSeason().orElse(null));
+        searchEntity.setEpisode(searchRequest.getEpisode().orElse(null));
+        searchEntity.setSearchType(searchRequest.getSearchType());
+        searchEntity.setTitle(searchRequest.getTitle().orElse(null));
+        searchEntity.setAuthor(searchRequest.getAuthor().orElse(null));
+        writeBehindPersister.save(searchRepository, searchEntity);
+        return searchEntity;
+    }
+
     protected Map<Indexer, List<IndexerSearchResult>> getIndexerSearchResultsToSearch(Map<Indexer, List<IndexerSearchResult>> map) {
         return map.entrySet().stream().filter(x -> {
             if (x.getValue().isEmpty()) {
@@ -240,34 +336,98 @@ public class Searcher {
         }).collect(Collectors.toMap(Entry::getKey, Entry::getValue));
     }
 
-    protected Map<Indexer, List<IndexerSearchResult>> callSearchModules(SearchRequest searchRequest, Map<Indexer, List<IndexerSearchResult>> indexersToSearch) {
+    protected Map<Indexer, List<IndexerSearchResult>> callSearchModules(SearchRequest searchRequest, Map<Indexer, List<IndexerSearchResult>> indexersToSearch, SearchCacheEntry searchCacheEntry) {
+        if (searchRequest.getDeadline().isPresent()) {
+            return callSearchModulesWithDeadline(searchRequest, indexersToSearch, searchCacheEntry, searchRequest.getDeadline().get());
+        }
         Map<Indexer, List<IndexerSearchResult>> indexerSearchResults = new HashMap<>(indexersToSearch);
 
-        ExecutorService executor = MdcThreadPoolExecutor.newWithInheritedMdc(indexersToSearch.size());
+        Map<Indexer, Future<IndexerSearchResult>> futures = submitIndexerCalls(searchRequest, indexersToSearch, indexerSearchResults, (indexer, callable) -> callable);
+        for (Entry<Indexer, Future<IndexerSearchResult>> entry : futures.entrySet()) {
+            try {
+                IndexerSearchResult indexerSearchResult = entry.getValue().get();
+                indexerSearchResults.get(entry.getKey()).add(indexerSearchResult);
+            } catch (ExecutionException e) {
+                logger.error("Unexpected error while searching", e);
+            } catch (InterruptedException e) {
+                logger.error("Unexpected error while searching", e);
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        indexerSearchResults = handleIndexersWithFailedFutureExecutions(indexersToSearch, indexerSearchResults);
+        return indexerSearchResults;
+    }
 
-        List<Callable<IndexerSearchResult>> callables = getCallables(searchRequest, indexersToSearch);
+    /**
+     * Submits the calls to all indexers at once so that they're executed concurrently. An indexer whose call is rejected because the
+     * executor is saturated gets a failed result right away.
+     *
+     * @param wrapper Applied to every indexer call before it's submitted
+     */
+    private Map<Indexer, Future<IndexerSearchResult>> submitIndexerCalls(SearchRequest searchRequest, Map<Indexer, List<IndexerSearchResult>> indexersToSearch, Map<Indexer, List<IndexerSearchResult>> indexerSearchResults, BiFunction<Indexer, Callable<IndexerSearchResult>, Callable<IndexerSearchResult>> wrapper) {
+        Map<Indexer, Future<IndexerSearchResult>> futures = new HashMap<>();
+        for (Entry<Indexer, List<IndexerSearchResult>> entry : indexersToSearch.entrySet()) {
+            Indexer indexer = entry.getKey();
+            try {
+                futures.put(indexer, indexerCallExecutor.submit(wrapper.apply(indexer, getIndexerCallable(searchRequest, entry))));
+            } catch (RejectedExecutionException e) {
+                logger.warn("Not searching indexer {}: {}", indexer.getName(), e.getMessage());
+                indexerSearchResults.get(indexer).add(new IndexerSearchResult(indexer, "Too many indexer calls are running. Please try again later"));
+            }
+        }
+        return futures;
+    }
 
-        try {
-            List<Future<IndexerSearchResult>> futures = executor.invokeAll(callables);
-            for (Future<IndexerSearchResult> future : futures) {
+    /**
+     * Calls the indexers and waits at most until the deadline has passed. Indexers which haven't answered until then are marked as timed out
+     * but not cancelled. When they finish their results are kept in the cache entry so that they can be used when the search is continued
+     * (e.g. when the next page is requested) or repeated (e.g. by the next RSS poll of an API client).
+     */
+    private Map<Indexer, List<IndexerSearchResult>> callSearchModulesWithDeadline(SearchRequest searchRequest, Map<Indexer, List<IndexerSearchResult>> indexersToSearch, SearchCacheEntry searchCacheEntry, int deadlineSeconds) {
+        Map<Indexer, List<IndexerSearchResult>> indexerSearchResults = new HashMap<>(indexersToSearch);
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(deadlineSeconds);
+
+        Map<Indexer, AtomicBoolean> resultClaimed = new HashMap<>();
+        Map<Indexer, Future<IndexerSearchResult>> futures = submitIndexerCalls(searchRequest, indexersToSearch, indexerSearchResults, (indexer, callable) -> {
+            //Whoever comes first claims the result: the indexer call when it finishes in time, the search when the deadline passes
+            AtomicBoolean claimed = new AtomicBoolean();
+            resultClaimed.put(indexer, claimed);
+            return () -> {
+                IndexerSearchResult indexerSearchResult = callable.call();
+                if (!claimed.compareAndSet(false, true)) {
+                    logger.debug("Indexer {} answered after the search deadline. Keeping its results for further searches", indexer.getName());
+                    searchCacheEntry.getLateIndexerSearchResults().put(indexer, indexerSearchResult);
+                }
+                return indexerSearchResult;
+            };
+        });
+
+        for (Entry<Indexer, Future<IndexerSearchResult>> entry : futures.entrySet()) {
+            Indexer indexer = entry.getKey();
+            try {
+                IndexerSearchResult indexerSearchResult;
                 try {
-                    IndexerSearchResult indexerSearchResult = future.get();
-                    List<IndexerSearchResult> previousIndexerSearchResults = indexerSearchResults.get(indexerSearchResult.getIndexer());
-                    previousIndexerSearchResults.add(indexerSearchResult);
-                    indexerSearchResults.put(indexerSearchResult.getIndexer(), previousIndexerSearchResults);
-                } catch (ExecutionException e) {
-                    logger.error("Unexpected error while searching", e);
+                    indexerSearchResult = entry.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                } catch (TimeoutException e) {
+                    if (resultClaimed.get(indexer).compareAndSet(false, true)) {
+                        logger.info("Indexer {} did not answer within the search deadline of {} seconds", indexer.getName(), deadlineSeconds);
+                        indexerSearchResult = new IndexerSearchResult(indexer, "Indexer did not answer within " + deadlineSeconds + " seconds");
+                        indexerSearchResult.setTimedOut(true);
+                    } else {
+                        //Finished just now
+                        indexerSearchResult = entry.getValue().get();
+                    }
                 }
+                indexerSearchResults.get(indexer).add(indexerSearchResult);
+            } catch (ExecutionException | InterruptedException e) {
+                logger.error("Unexpected error while searching", e);
+                indexerSearchResults.get(indexer).add(new IndexerSearchResult(indexer, "Unexpected error. Please check the log."));
             }
-        } catch (InterruptedException e) {
-            logger.error("Unexpected error while searching", e);
         }
-        executor.shutdownNow(); //Need to explicitly shutdown executor for threads to be closed
-        indexerSearchResults = handleIndexersWithFailedFutureExecutions(indexersToSearch, indexerSearchResults);
         return indexerSearchResults;
     }
 
-
     private Map<Indexer, List<IndexerSearchResult>> handleIndexersWithFailedFutureExecutions(Map<Indexer, List<IndexerSearchResult>> indexersToSearch, Map<Indexer, List<IndexerSearchResult>> indexerSearchResults) {
         for (Entry<Indexer, List<IndexerSearchResult>> entry : indexersToSearch.entrySet()) {
             if (!indexerSearchResults.containsKey(entry.getKey())) {
@@ -283,16 +443,6 @@ public class Searcher {
         return indexerSearchResults;
     }
 
-    private List<Callable<IndexerSearchResult>> getCallables(SearchRequest searchRequest, Map<Indexer, List<IndexerSearchResult>> indexersToSearch) {
-        List<Callable<IndexerSearchResult>> callables = new ArrayList<>();
-
-        for (Entry<Indexer, List<IndexerSearchResult>> entry : indexersToSearch.entrySet()) {
-            Callable<IndexerSearchResult> callable = getIndexerCallable(searchRequest, entry);
-            callables.add(callable);
-        }
-        return callables;
-    }
-
     private Callable<IndexerSearchResult> getIndexerCallable(SearchRequest searchRequest, Entry<Indexer, List<IndexerSearchResult>> entry) {
         int offset;
         int limit;
@@ -304,7 +454,20 @@ public class Searcher {
             offset = indexerToSearch.getOffset() + indexerToSearch.getLimit();
             limit = indexerToSearch.getLimit();
         }
-        return () -> entry.getKey().search(searchRequest, offset, limit);
+        return () -> {
+            IndexerSearchResult indexerSearchResult = entry.getKey().search(searchRequest, offset, limit);
+            eventPublisher.publishEvent(new IndexerSearchResultEvent(searchRequest, indexerSearchResult));
+            return indexerSearchResult;
+        };
+    }
+
+    private static class RunningSearch {
+        private final SearchRequest searchRequest;
+        private final CompletableFuture<Void> finished = new CompletableFuture<>();
+
+        RunningSearch(SearchRequest searchRequest) {
+            this.searchRequest = searchRequest;
+        }
     }
 
     @Getter
@@ -0,0 +1,18 @@
+package org.nzbhydra.searching;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The results of one indexer search sent to the client while the search is still running.
+ */
+@Data
+public class StreamedSearchResults {
+
+    private IndexerSearchMetaData indexerSearchMetaData;
+    private List<SearchResultWebTO> searchResults = new ArrayList<>();
+    private int numberOfStreamedResults;
+
+}
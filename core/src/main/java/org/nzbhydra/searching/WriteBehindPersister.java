@@ -0,0 +1,201 @@
+package org.nzbhydra.searching;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.nzbhydra.logging.LoggingMarkers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Saves bookkeeping entities (searches, indexer searches, API accesses, indexer statuses) in the background so that writing them doesn't
+ * add to the time needed to answer a search.
+ * <p>
+ * Entities are put in a bounded queue which is drained by a single thread. Everything taken from the queue at once is saved in one
+ * transaction, in the order it was queued, so entities are always saved after the entities they reference. An entity instance queued
+ * several times is only saved once per batch because it already contains its latest state. When the queue is full the calling thread
+ * waits until there's room again. Queued entities are written before the application shuts down, entities queued after that are saved
+ * in the calling thread.
+ */
+@Component
+public class WriteBehindPersister implements InitializingBean, DisposableBean {
+
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindPersister.class);
+
+    static final int QUEUE_CAPACITY = 10_000;
+    static final int MAX_BATCH_SIZE = 500;
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final BlockingQueue<PendingWrite> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Object writtenMonitor = new Object();
+    private TransactionTemplate transactionTemplate;
+    private Thread writerThread;
+    private volatile boolean running;
+    private long queuedCount = 0;
+    private long writtenCount = 0;
+
+    @Override
+    public void afterPropertiesSet() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        running = true;
+        writerThread = new ThreadFactoryBuilder().setNameFormat("write-behind-%d").setDaemon(true).build().newThread(this::writeQueuedEntities);
+        writerThread.start();
+    }
+
+    /**
+     * Queues the entity to be saved by the given repository. Changes made to the entity after this call may or may not be saved, so
+     * queue the entity again after changing it.
+     */
+    public <T> void save(CrudRepository<T, ?> repository, T entity) {
+        queue(new PendingWrite(repository, entity, () -> entity));
+    }
+
+    /**
+     * Queues an entity which is only created when it's saved, e.g. because creating it is expensive and shouldn't be done in the calling
+     * thread. Nothing is saved if the supplier returns null.
+     */
+    public <T> void saveLazily(CrudRepository<T, ?> repository, Supplier<T> entitySupplier) {
+        queue(new PendingWrite(repository, entitySupplier, entitySupplier));
+    }
+
+    private void queue(PendingWrite pendingWrite) {
+        synchronized (writtenMonitor) {
+            try {
+                while (running) {
+                    if (queue.offer(pendingWrite)) {
+                        queuedCount++;
+                        return;
+                    }
+                    logger.debug("Write-behind queue is full. Waiting for queued entities to be written");
+                    writtenMonitor.wait(100);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        transactionTemplate.execute(status -> pendingWrite.save());
+    }
+
+    /**
+     * Blocks until all entities queued before this call have been saved (or saving them failed).
+     */
+    public void flush() throws InterruptedException {
+        synchronized (writtenMonitor) {
+            long target = queuedCount;
+            while (writtenCount < target && writerThread.isAlive()) {
+                writtenMonitor.wait(100);
+            }
+        }
+    }
+
+    public int getQueueSize() {
+        return queue.size();
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        logger.debug("Writing {} queued entities before shutdown", queue.size());
+        synchronized (writtenMonitor) {
+            running = false;
+        }
+        writerThread.join(TimeUnit.SECONDS.toMillis(SHUTDOWN_TIMEOUT_SECONDS));
+        if (writerThread.isAlive()) {
+            logger.warn("Unable to write {} queued entities within {} seconds", queue.size(), SHUTDOWN_TIMEOUT_SECONDS);
+        }
+    }
+
+    private void writeQueuedEntities() {
+        List<PendingWrite> batch = new ArrayList<>();
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, MAX_BATCH_SIZE - 1);
+                writeBatch(batch);
+            } catch (InterruptedException e) {
+                logger.warn("Write-behind thread was interrupted. {} queued entities will not be saved", queue.size());
+                return;
+            } catch (Exception e) {
+                logger.error("Unexpected error while writing queued entities", e);
+            } finally {
+                synchronized (writtenMonitor) {
+                    writtenCount += batch.size();
+                    writtenMonitor.notifyAll();
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private void writeBatch(List<PendingWrite> batch) {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        Set<Object> alreadyWritten = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<PendingWrite> uniqueWrites = new ArrayList<>();
+        for (PendingWrite pendingWrite : batch) {
+            if (alreadyWritten.add(pendingWrite.identity)) {
+                uniqueWrites.add(pendingWrite);
+            }
+        }
+        try {
+            transactionTemplate.execute(status -> {
+                uniqueWrites.forEach(PendingWrite::save);
+                return null;
+            });
+        } catch (Exception e) {
+            //Don't let one broken entity prevent all others from being saved
+            logger.warn("Error while saving batch of {} entities. Will try to save them one by one", uniqueWrites.size(), e);
+            for (PendingWrite pendingWrite : uniqueWrites) {
+                try {
+                    transactionTemplate.execute(status -> pendingWrite.save());
+                } catch (Exception e1) {
+                    logger.error("Unable to save entity {}", pendingWrite.identity, e1);
+                }
+            }
+        }
+        logger.debug(LoggingMarkers.PERFORMANCE, "Saving {} queued entities took {}ms", uniqueWrites.size(), stopwatch.elapsed(TimeUnit.MILLISECONDS));
+    }
+
+    private static class PendingWrite {
+        private final CrudRepository repository;
+        /**
+         * The entity or, if it's created lazily, its supplier
+         */
+        private final Object identity;
+        private final Supplier<?> entitySupplier;
+
+        PendingWrite(CrudRepository repository, Object identity, Supplier<?> entitySupplier) {
+            this.repository = repository;
+            this.identity = identity;
+            this.entitySupplier = entitySupplier;
+        }
+
+        @SuppressWarnings("unchecked")
+        Object save() {
+            Object entity = entitySupplier.get();
+            return entity == null ? null : repository.save(entity);
+        }
+    }
+
+}
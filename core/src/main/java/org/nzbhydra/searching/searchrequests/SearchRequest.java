@@ -51,6 +51,7 @@ public class SearchRequest {
     protected String episode;
     protected String author = null;
     protected long searchRequestId;
+    protected Integer deadline = null;
     private DownloadType downloadType = DownloadType.NZB;
 
     private InternalData internalData = new InternalData();
@@ -110,6 +111,13 @@ public class SearchRequest {
         return Optional.ofNullable(author);
     }
 
+    /**
+     * @return The number of seconds after which the search should return with the results of those indexers which answered until then
+     */
+    public Optional<Integer> getDeadline() {
+        return Optional.ofNullable(deadline);
+    }
+
 
     public SearchRequest extractForbiddenWords() {
         if (Strings.isNullOrEmpty(query)) {
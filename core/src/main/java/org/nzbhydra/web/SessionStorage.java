@@ -1,5 +1,7 @@
 package org.nzbhydra.web;
 
+import java.util.concurrent.Callable;
+
 public class SessionStorage {
 
     public static final ThreadLocal<String> username =
@@ -13,4 +15,37 @@ public class SessionStorage {
     public static final ThreadLocal<String> requestUrl =
             ThreadLocal.withInitial(() -> null);
 
+    /**
+     * Returns a callable which runs the given one with the session data of the calling thread, e.g. to keep the user info when a web
+     * request is handled asynchronously.
+     */
+    public static <T> Callable<T> withCurrentSessionData(Callable<T> callable) {
+        String currentUsername = username.get();
+        String currentUsernameOrIp = usernameOrIp.get();
+        String currentIp = IP.get();
+        String currentUserAgent = userAgent.get();
+        String currentRequestUrl = requestUrl.get();
+        return () -> {
+            String previousUsername = username.get();
+            String previousUsernameOrIp = usernameOrIp.get();
+            String previousIp = IP.get();
+            String previousUserAgent = userAgent.get();
+            String previousRequestUrl = requestUrl.get();
+            username.set(currentUsername);
+            usernameOrIp.set(currentUsernameOrIp);
+            IP.set(currentIp);
+            userAgent.set(currentUserAgent);
+            requestUrl.set(currentRequestUrl);
+            try {
+                return callable.call();
+            } finally {
+                username.set(previousUsername);
+                usernameOrIp.set(previousUsernameOrIp);
+                IP.set(previousIp);
+                userAgent.set(previousUserAgent);
+                requestUrl.set(previousRequestUrl);
+            }
+        };
+    }
+
 }
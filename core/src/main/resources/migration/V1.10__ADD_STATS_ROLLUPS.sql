@@ -0,0 +1,32 @@
+CREATE TABLE INDEXERAPIACCESS_DAILY
+(
+  DAY_DATE            DATE NOT NULL,
+  INDEXER_ID          INTEGER,
+  RESULT              VARCHAR(255),
+  ACCESS_COUNT        BIGINT NOT NULL,
+  RESPONSE_TIME_SUM   BIGINT,
+  RESPONSE_TIME_COUNT BIGINT NOT NULL
+);
+CREATE INDEX INDEXERAPIACCESS_DAILY_DAY_INDEX ON INDEXERAPIACCESS_DAILY (DAY_DATE);
+
+CREATE TABLE SEARCH_HOURLY
+(
+  DAY_DATE    DATE    NOT NULL,
+  HOUR_OF_DAY INTEGER NOT NULL,
+  ENTRY_COUNT BIGINT  NOT NULL
+);
+CREATE INDEX SEARCH_HOURLY_DAY_INDEX ON SEARCH_HOURLY (DAY_DATE);
+
+CREATE TABLE INDEXERNZBDOWNLOAD_HOURLY
+(
+  DAY_DATE    DATE    NOT NULL,
+  HOUR_OF_DAY INTEGER NOT NULL,
+  INDEXER_ID  INTEGER,
+  ENTRY_COUNT BIGINT  NOT NULL
+);
+CREATE INDEX INDEXERNZBDOWNLOAD_HOURLY_DAY_INDEX ON INDEXERNZBDOWNLOAD_HOURLY (DAY_DATE);
+
+CREATE TABLE STATSROLLUP
+(
+  ROLLED_UP_UNTIL DATE NOT NULL
+);
@@ -0,0 +1,13 @@
+ALTER TABLE SEARCH ADD QUERY_LOWER VARCHAR2(1000) AS LOWER(QUERY);
+ALTER TABLE SEARCH ADD USERNAME_LOWER VARCHAR(255) AS LOWER(USERNAME);
+ALTER TABLE SEARCH ADD IP_LOWER VARCHAR(255) AS LOWER(IP);
+CREATE INDEX SEARCH_QUERY_LOWER_INDEX ON SEARCH (QUERY_LOWER);
+CREATE INDEX SEARCH_USERNAME_LOWER_INDEX ON SEARCH (USERNAME_LOWER);
+CREATE INDEX SEARCH_IP_LOWER_INDEX ON SEARCH (IP_LOWER);
+CREATE INDEX SEARCH_TIME_ID_INDEX ON SEARCH (TIME DESC, ID DESC);
+
+ALTER TABLE INDEXERNZBDOWNLOAD ADD USERNAME_LOWER VARCHAR(255) AS LOWER(USERNAME);
+ALTER TABLE INDEXERNZBDOWNLOAD ADD IP_LOWER VARCHAR(255) AS LOWER(IP);
+CREATE INDEX INDEXERNZBDOWNLOAD_USERNAME_LOWER_INDEX ON INDEXERNZBDOWNLOAD (USERNAME_LOWER);
+CREATE INDEX INDEXERNZBDOWNLOAD_IP_LOWER_INDEX ON INDEXERNZBDOWNLOAD (IP_LOWER);
+CREATE INDEX INDEXERNZBDOWNLOAD_TIME_ID_INDEX ON INDEXERNZBDOWNLOAD (TIME DESC, ID DESC);
@@ -0,0 +1,9 @@
+CREATE TABLE INDEXERRESPONSECACHE
+(
+  CACHE_KEY     VARCHAR(64) PRIMARY KEY NOT NULL,
+  INDEXER_NAME  VARCHAR(255),
+  RESPONSE_TYPE VARCHAR(20),
+  RESPONSE      BLOB,
+  TIME          TIMESTAMP
+);
+CREATE INDEX INDEXERRESPONSECACHE_TIME_INDEX ON INDEXERRESPONSECACHE (TIME DESC);
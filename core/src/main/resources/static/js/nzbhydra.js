@@ -2785,8 +2785,8 @@ function StatsService($http) {
         });
     }
 
-    function getDownloadHistory(pageNumber, limit, filterModel, sortModel) {
-        var params = {page: pageNumber, limit: limit, filterModel: filterModel};
+    function getDownloadHistory(pageNumber, limit, filterModel, sortModel, lastId, firstId) {
+        var params = {page: pageNumber, limit: limit, filterModel: filterModel, lastId: lastId, firstId: firstId, approximateCount: true};
         if (angular.isUndefined(pageNumber)) {
             params.page = 1;
         }
@@ -2828,8 +2828,8 @@ function StatsController($scope, $filter, StatsService, blockUI, localStorageSer
     };
     var initializingAfter = true;
     var initializingBefore = true;
-    $scope.afterDate = moment().subtract(30, "days").toDate();
-    $scope.beforeDate = moment().add(1, "days").toDate();
+    $scope.afterDate = moment().subtract(30, "days").startOf("day").toDate();
+    $scope.beforeDate = moment().add(1, "days").startOf("day").toDate();
     var historyInfoTypeUserEnabled = ConfigService.getSafe().logging.historyUserInfoType === 'USERNAME' || ConfigService.getSafe().logging.historyUserInfoType === 'BOTH';
     var historyInfoTypeIpEnabled = ConfigService.getSafe().logging.historyUserInfoType === 'IP' || ConfigService.getSafe().logging.historyUserInfoType === 'BOTH';
     $scope.foo = {
@@ -3250,7 +3250,7 @@ angular
     .module('nzbhydraApp')
     .factory('SearchService', SearchService);
 
-function SearchService($http) {
+function SearchService($http, $q, $rootScope) {
 
 
     var lastExecutedQuery;
@@ -3306,7 +3306,80 @@ function SearchService($http) {
 
         lastExecutedQuery = uri;
         lastExecutedSearchRequestParameters = searchRequestParameters;
-        return $http.post(uri.toString(), searchRequestParameters).then(processData);
+        return searchStreaming(searchRequestParameters).then(processData, function () {
+            //Streaming didn't work (e.g. because a proxy doesn't support it) so the search is made the old way. An identical search which is
+            //still running will be joined and finished results will be taken from the cache
+            return $http.post(uri.toString(), searchRequestParameters).then(processData);
+        });
+    }
+
+    //Executes the search using the streaming endpoint. The results of every indexer are broadcast as "searchResultsStreamed" as soon as the
+    //indexer has answered. The promise is resolved with the complete response when the search is finished
+    function searchStreaming(searchRequestParameters) {
+        var deferred = $q.defer();
+        var xhr = new XMLHttpRequest();
+        var processedLength = 0;
+        var finished = false;
+        xhr.open("POST", "internalapi/search/stream");
+        xhr.setRequestHeader("Content-Type", "application/json");
+        xhr.setRequestHeader("Accept", "text/event-stream");
+        var xsrfToken = getCookie("XSRF-TOKEN");
+        if (xsrfToken) {
+            xhr.setRequestHeader("X-XSRF-TOKEN", xsrfToken);
+        }
+        xhr.onprogress = parseEvents;
+        xhr.onload = function () {
+            parseEvents();
+            if (!finished) {
+                deferred.reject(xhr);
+            }
+        };
+        xhr.onerror = function () {
+            deferred.reject(xhr);
+        };
+        xhr.send(angular.toJson(searchRequestParameters));
+        return deferred.promise;
+
+        function parseEvents() {
+            if (xhr.status !== 200) {
+                return;
+            }
+            //Events are separated by an empty line
+            var eventEnd = xhr.responseText.indexOf("\n\n", processedLength);
+            while (eventEnd > -1) {
+                var event = parseEvent(xhr.responseText.substring(processedLength, eventEnd));
+                processedLength = eventEnd + 2;
+                if (event.name === "results") {
+                    $rootScope.$evalAsync(function () {
+                        $rootScope.$broadcast("searchResultsStreamed", event.data);
+                    });
+                } else if (event.name === "finished") {
+                    finished = true;
+                    deferred.resolve({data: event.data});
+                }
+                eventEnd = xhr.responseText.indexOf("\n\n", processedLength);
+            }
+        }
+    }
+
+    function parseEvent(text) {
+        var name;
+        var data = "";
+        _.each(text.split("\n"), function (line) {
+            var separator = line.indexOf(":");
+            var value = line.substring(separator + 1).replace(/^ /, "");
+            if (line.indexOf("event:") === 0) {
+                name = value;
+            } else if (line.indexOf("data:") === 0) {
+                data += value;
+            }
+        });
+        return {name: name, data: data ? angular.fromJson(data) : undefined};
+    }
+
+    function getCookie(name) {
+        var match = document.cookie.match(new RegExp("(^|;\\s*)" + name + "=([^;]*)"));
+        return match ? decodeURIComponent(match[2]) : null;
     }
 
     function loadMore(offset, limit, loadAll) {
@@ -3350,7 +3423,7 @@ function SearchService($http) {
         return lastResults;
     }
 }
-SearchService.$inject = ["$http"];
+SearchService.$inject = ["$http", "$q", "$rootScope"];
 angular
     .module('nzbhydraApp')
     .controller('SearchResultsController', SearchResultsController);
@@ -4059,13 +4132,16 @@ function SearchHistoryService($filter, $http) {
         });
     }
 
-    function getSearchHistory(pageNumber, limit, filterModel, sortModel, distinct, onlyCurrentUser) {
+    function getSearchHistory(pageNumber, limit, filterModel, sortModel, distinct, onlyCurrentUser, lastId, firstId) {
         var params = {
             page: pageNumber,
             limit: limit,
             filterModel: filterModel,
             distinct: distinct,
-            onlyCurrentUser: onlyCurrentUser
+            onlyCurrentUser: onlyCurrentUser,
+            lastId: lastId,
+            firstId: firstId,
+            approximateCount: true
         };
         if (angular.isUndefined(pageNumber)) {
             params.page = 1;
@@ -4270,10 +4346,15 @@ function SearchHistoryController($scope, $state, SearchHistoryService, ConfigSer
         $scope.columnSizes.additionalParameters += 5;
     }
 
+    var shownPage = 1;
     $scope.update = function () {
-        SearchHistoryService.getSearchHistory($scope.pagination.current, $scope.limit, $scope.filterModel, sortModel).then(function (history) {
+        //When going to the next or previous page the server can seek to the last or first shown entry instead of skipping all previous ones
+        var lastId = $scope.pagination.current === shownPage + 1 && $scope.searchRequests.length > 0 ? $scope.searchRequests[$scope.searchRequests.length - 1].id : undefined;
+        var firstId = $scope.pagination.current === shownPage - 1 && $scope.searchRequests.length > 0 ? $scope.searchRequests[0].id : undefined;
+        SearchHistoryService.getSearchHistory($scope.pagination.current, $scope.limit, $scope.filterModel, sortModel, undefined, undefined, lastId, firstId).then(function (history) {
             $scope.searchRequests = history.data.content;
             $scope.totalRequests = history.data.totalElements;
+            shownPage = $scope.pagination.current;
         });
     };
 
@@ -4768,6 +4849,18 @@ function SearchUpdateModalInstanceCtrl($scope, $interval, SearchService, $uibMod
     $scope.indexerSelectionFinished = false;
     $scope.indexersSelected = 0;
     $scope.indexersFinished = 0;
+    $scope.numberOfStreamedResults = 0;
+    $scope.streamedIndexerResults = [];
+
+    //Only sent when the search is streamed. The messages and the progress are polled in any case
+    $scope.$on("searchResultsStreamed", function (event, streamedSearchResults) {
+        $scope.numberOfStreamedResults = streamedSearchResults.numberOfStreamedResults;
+        var metaData = streamedSearchResults.indexerSearchMetaData;
+        if (metaData) {
+            $scope.streamedIndexerResults.push(metaData.indexerName + ": " + (metaData.wasSuccessful ? metaData.numberOfFoundResults + " results" : "error"));
+        }
+    });
+
 
     updateSearchMessagesInterval = $interval(function () {
         SearchService.getSearchState(searchRequestId).then(function (data) {
@@ -6529,10 +6622,15 @@ function DownloadHistoryController($scope, StatsService, downloads, ConfigServic
     }
 
 
+    var shownPage = 1;
     $scope.update = function () {
-        StatsService.getDownloadHistory($scope.pagination.current, $scope.limit, $scope.filterModel, sortModel).then(function (downloads) {
+        //When going to the next or previous page the server can seek to the last or first shown entry instead of skipping all previous ones
+        var lastId = $scope.pagination.current === shownPage + 1 && $scope.nzbDownloads.length > 0 ? $scope.nzbDownloads[$scope.nzbDownloads.length - 1].id : undefined;
+        var firstId = $scope.pagination.current === shownPage - 1 && $scope.nzbDownloads.length > 0 ? $scope.nzbDownloads[0].id : undefined;
+        StatsService.getDownloadHistory($scope.pagination.current, $scope.limit, $scope.filterModel, sortModel, lastId, firstId).then(function (downloads) {
             $scope.nzbDownloads = downloads.data.content;
             $scope.totalDownloads = downloads.data.totalElements;
+            shownPage = $scope.pagination.current;
         });
     };
 
@@ -7187,6 +7285,72 @@ function ConfigFields($injector) {
                                 }
                             }
                         },
+                        {
+                            key: 'apiSearchDeadline',
+                            type: 'horizontalInput',
+                            templateOptions: {
+                                type: 'number',
+                                label: 'API search deadline',
+                                help: 'API searches return the results of all indexers which answered within this time. Indexers taking longer are marked as timed out and finish in the background. Leave empty to wait for all indexers.',
+                                addonRight: {
+                                    text: 'seconds'
+                                }
+                            }
+                        },
+                        {
+                            key: 'searchCacheSizeMb',
+                            type: 'horizontalInput',
+                            templateOptions: {
+                                type: 'number',
+                                label: 'Search cache size',
+                                help: 'Memory used to keep results of recent searches for paging and API caching. When exceeded the least recently used searches are removed.',
+                                addonRight: {
+                                    text: 'MB'
+                                }
+                            }
+                        },
+                        {
+                            key: 'indexerResponseCacheTime',
+                            type: 'horizontalInput',
+                            templateOptions: {
+                                type: 'number',
+                                label: 'Indexer response cache',
+                                help: 'Search responses of indexers are saved in the database and reused for identical searches within this time, also after a restart. Leave empty to disable.',
+                                addonRight: {
+                                    text: 'minutes'
+                                }
+                            }
+                        },
+                        {
+                            key: 'indexerCallThreads',
+                            type: 'horizontalInput',
+                            templateOptions: {
+                                type: 'number',
+                                label: 'Indexer threads',
+                                help: 'Maximum number of threads used for calls to indexers. When all are busy calls wait in a queue and are rejected when it is full. Set to 0 to create threads as needed.',
+                                required: true
+                            }
+                        },
+                        {
+                            key: 'maxConcurrentCallsPerIndexer',
+                            type: 'horizontalInput',
+                            templateOptions: {
+                                type: 'number',
+                                label: 'Concurrent calls per indexer',
+                                help: 'Further calls to the same indexer will wait until one of the running calls is finished.',
+                                required: true
+                            }
+                        },
+                        {
+                            key: 'maxConcurrentSearches',
+                            type: 'horizontalInput',
+                            templateOptions: {
+                                type: 'number',
+                                label: 'Concurrent searches',
+                                help: 'Further searches are rejected until a running one is finished. Set to 0 to allow any number.',
+                                required: true
+                            }
+                        },
                         {
                             key: 'ignoreTemporarilyDisabled',
                             type: 'horizontalSwitch',
@@ -11,7 +11,7 @@ $templateCache.put('static/html/restart-modal.html','<div class="modal-header">\
 $templateCache.put('static/html/results-pagination.html','<ul class="pagination" ng-if="1 < pages.length || !autoHide">\r\n    <li ng-if="boundaryLinks" ng-class="{ disabled : pagination.current == 1 }">\r\n        <a href="" ng-click="setCurrent(1)">&laquo;</a>\r\n    </li>\r\n    <li ng-if="directionLinks" ng-class="{ disabled : pagination.current == 1 }">\r\n        <a href="" ng-click="setCurrent(pagination.current - 1)">&lsaquo;</a>\r\n    </li>\r\n    <li ng-repeat="pageNumber in pages track by tracker(pageNumber, $index)" ng-class="{ active : pagination.current == pageNumber, disabled : pageNumber == \'...\' }">\r\n        <a href="" ng-click="setCurrent(pageNumber)">{{ pageNumber }}</a>\r\n    </li>\r\n\r\n    <li ng-if="directionLinks" ng-class="{ disabled : pagination.current == pagination.last }">\r\n        <a href="" ng-click="setCurrent(pagination.current + 1)">&rsaquo;</a>\r\n    </li>\r\n    <li ng-if="boundaryLinks" ng-class="{ disabled : pagination.current == pagination.last }">\r\n        <a href="" ng-click="setCurrent(pagination.last)">&raquo;</a>\r\n    </li>\r\n</ul>');
 $templateCache.put('static/html/search-history-details-modal.html','<!--\r\n  ~  (C) Copyright 2017 TheOtherP (theotherp@gmx.de)\r\n  ~\r\n  ~  Licensed under the Apache License, Version 2.0 (the "License");\r\n  ~  you may not use this file except in compliance with the License.\r\n  ~  You may obtain a copy of the License at\r\n  ~\r\n  ~      http://www.apache.org/licenses/LICENSE-2.0\r\n  ~\r\n  ~  Unless required by applicable law or agreed to in writing, software\r\n  ~  distributed under the License is distributed on an "AS IS" BASIS,\r\n  ~  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.\r\n  ~  See the License for the specific language governing permissions and\r\n  ~  limitations under the License.\r\n  -->\r\n\r\n<div class="modal-body" style="text-align: left">\r\n   <span ng-show="!details">\r\n   <img src="static/img/spinner.gif">\r\n      Loading...\r\n   </span>\r\n    <table class="table" ng-if="details">\r\n        <caption>Details</caption>\r\n        <thead>\r\n        <tr>\r\n            <th>IP</th>\r\n            <th>User agent</th>\r\n        </tr>\r\n        </thead>\r\n        <tbody>\r\n        <tr>\r\n            <td>{{details.ip}}</td>\r\n            <td>{{details.userAgent}}</td>\r\n        </tr>\r\n        </tbody>\r\n    </table>\r\n\r\n    <table class="table" ng-if="details">\r\n        <caption>Related indexer searches</caption>\r\n        <thead>\r\n        <tr>\r\n            <th>Indexer</th>\r\n            <th>Successful</th>\r\n            <th>Results</th>\r\n        </tr>\r\n        </thead>\r\n        <tbody>\r\n        <tr ng-repeat="entry in details.indexerSearches">\r\n            <td>{{entry.indexerName}}</td>\r\n            <td>{{entry.successful}}</td>\r\n            <td>{{entry.resultsCount}}</td>\r\n        </tr>\r\n        </tbody>\r\n    </table>\r\n</div>\r\n\r\n');
 $templateCache.put('static/html/search-searchhistory-dropdown.html','<ul class="dropdown-menu" role="menu" uib-dropdown-menu aria-labelledby="button-template-url">\r\n    <li role="menuitem" ng-repeat="request in searchHistory"><a href="#" ng-click="repeatSearch(request)" ng-bind-html="formatRequest(request)" class="search-history-dropdown-entry"></a></li>\r\n</ul>');
-$templateCache.put('static/html/search-state.html','<div class="modal-header">\r\n    <h3 class="modal-title">Searching... Please wait</h3>\r\n</div>\r\n<div class="modal-body" style="text-align: left;">\r\n    <img src="static/img/spinner.gif" ng-if="!messages && !indexerSelectionFinished"/>\r\n\r\n    <div ng-if="messages" style="text-align: left">\r\n\r\n        <ul style="padding-left: 0">\r\n            <li ng-repeat="message in messages" style="list-style-type: none">\r\n                {{message}}\r\n            </li>\r\n\r\n        </ul>\r\n        <img src="static/img/spinner.gif"/>\r\n\r\n    </div>\r\n    <div style="margin-top: 15px; margin-bottom: -20px">\r\n        <div ng-if="indexerSelectionFinished">\r\n            Indexers finished:\r\n            <uib-progressbar max="indexersSelected" class="progress-striped active" value="indexersFinished">{{indexersFinished}} / {{progressMax}}</uib-progressbar>\r\n        </div>\r\n    </div>\r\n</div>\r\n<div class="modal-footer">\r\n    <span style="float: left; margin-top: 5px">\r\n        This window will close automatically when searching is finished\r\n    </span>\r\n    <button class="btn btn-danger" type="button" ng-click="cancelSearch()"\r\n            uib-tooltip="Will not actually cancel the search but just go back to the search page. Any remaining indexer calls will be continued in the background"\r\n            tooltip-placement="top"\r\n            tooltip-trigger="mouseenter"\r\n    >Cancel\r\n    </button>\r\n</div>\r\n');
+$templateCache.put('static/html/search-state.html','<div class="modal-header">\r\n    <h3 class="modal-title">Searching... Please wait</h3>\r\n</div>\r\n<div class="modal-body" style="text-align: left;">\r\n    <img src="static/img/spinner.gif" ng-if="!messages && !indexerSelectionFinished"/>\r\n\r\n    <div ng-if="messages" style="text-align: left">\r\n\r\n        <ul style="padding-left: 0">\r\n            <li ng-repeat="message in messages" style="list-style-type: none">\r\n                {{message}}\r\n            </li>\r\n\r\n        </ul>\r\n        <img src="static/img/spinner.gif"/>\r\n\r\n    </div>\r\n    <div style="margin-top: 15px; margin-bottom: -20px">\r\n        <div ng-if="indexerSelectionFinished">\r\n            Indexers finished:\r\n            <uib-progressbar max="indexersSelected" class="progress-striped active" value="indexersFinished">{{indexersFinished}} / {{progressMax}}</uib-progressbar>\r\n        </div>\r\n        <div ng-if="streamedIndexerResults.length > 0">\r\n            Results found so far: {{numberOfStreamedResults}}\r\n            <ul style="padding-left: 0">\r\n                <li ng-repeat="indexerResult in streamedIndexerResults" style="list-style-type: none">\r\n                    {{indexerResult}}\r\n                </li>\r\n            </ul>\r\n        </div>\r\n    </div>\r\n</div>\r\n<div class="modal-footer">\r\n    <span style="float: left; margin-top: 5px">\r\n        This window will close automatically when searching is finished\r\n    </span>\r\n    <button class="btn btn-danger" type="button" ng-click="cancelSearch()"\r\n            uib-tooltip="Will not actually cancel the search but just go back to the search page. Any remaining indexer calls will be continued in the background"\r\n            tooltip-placement="top"\r\n            tooltip-trigger="mouseenter"\r\n    >Cancel\r\n    </button>\r\n</div>\r\n');
 $templateCache.put('static/html/searchtemplate.html','');
 $templateCache.put('static/html/welcome-modal.html','<div class="modal-header">\r\n    <h3 class="modal-title">Welcome to NZBHydra 2</h3>\r\n</div>\r\n<div class="modal-body" style="text-align: left">\r\n    This seems to be the first time that you started NZBHydra 2.\r\n    <br><br>\r\n    If you\'re already using NZBHydra 1 (python based) you can <a href="#" ng-click="startMigration()">migrate your data</a>.\r\n    <br><br>\r\n    If you\'re a new user (or don\'t want to migrate your data right now) you can start by <a href="#" ng-click="goToConfig()">configuring NZBHydra 2</a>.\r\n    <br>\r\n    You will not be able to use it until you\'ve added at least one indexer.\r\n    <br><br>\r\n    If you\'re stuck you can refer to <a href="https://github.com/theotherp/nzbhydra2/wiki">the wiki</a> or the online help (available from the config).<br>\r\n    If you haven\'t found an answer there you\'re welcome to <a href="https://github.com/theotherp/nzbhydra2/issues">raise a GitHub issue</a> or create a thread on reddit.\r\n\r\n</div>\r\n<div class="modal-footer">\r\n    <button class="btn btn-success" type="button" ng-click="close()">Close</button>\r\n</div>\r\n');
 $templateCache.put('static/html/dataTable/columnFilterBoolean.html','<div class="form-group column-filter-boolean" style="padding-left: 5px">\r\n    <div class="radio">\r\n        <label>\r\n            <input type="radio" name="chickenEgg" value="{{ options[0].value }}" ng-model="selected.value" ng-change="apply()">\r\n            {{ ::options[0].label }}\r\n        </label>\r\n    </div>\r\n    <div class="radio">\r\n        <label>\r\n            <input type="radio" name="chickenEgg" value="{{ options[1].value }}" ng-model="selected.value" ng-change="apply()">\r\n            {{ ::options[1].label }}\r\n        </label>\r\n    </div>\r\n    <div class="radio">\r\n        <label>\r\n            <input type="radio" name="chickenEgg" value="{{ options[2].value }}" ng-model="selected.value" ng-change="apply()">\r\n            {{ ::options[2].label }}\r\n        </label>\r\n    </div>\r\n</div>');
@@ -21,7 +21,9 @@ import org.springframework.test.context.ContextConfiguration;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.time.Instant;
 import java.util.ArrayList;
@@ -30,7 +32,9 @@ import java.util.List;
 
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 
 @RunWith(SpringRunner.class)
 @WebMvcTest(ExternalApi.class)
@@ -78,11 +82,13 @@ public class ExternalApiSpringTest {
         channel.setItems(Arrays.asList(item));
 
         rssRoot.setRssChannel(channel);
-        ResponseEntity x = new ResponseEntity<Object>(rssRoot, HttpStatus.OK);
+        DeferredResult<ResponseEntity<?>> x = new DeferredResult<>();
+        x.setResult(new ResponseEntity<Object>(rssRoot, HttpStatus.OK));
         when(externalApiMock.api(any(NewznabParameters.class))).thenReturn(x);
 
         String expectedContent = Resources.toString(Resources.getResource(ExternalApiSpringTest.class, "simplesearchresult.xml"), Charsets.UTF_8);
-        mockMvc.perform(MockMvcRequestBuilders.get("/api").accept(MediaType.ALL)).andExpect(content().xml(expectedContent));
+        MvcResult mvcResult = mockMvc.perform(MockMvcRequestBuilders.get("/api").accept(MediaType.ALL)).andExpect(request().asyncStarted()).andReturn();
+        mockMvc.perform(asyncDispatch(mvcResult)).andExpect(content().xml(expectedContent));
     }
 
 
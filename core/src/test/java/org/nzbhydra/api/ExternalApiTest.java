@@ -5,27 +5,40 @@ import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.nzbhydra.config.BaseConfig;
 import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.config.MainConfig;
 import org.nzbhydra.downloading.NzbHandler;
 import org.nzbhydra.mapping.newznab.ActionAttribute;
 import org.nzbhydra.mapping.newznab.NewznabParameters;
+import org.nzbhydra.mapping.newznab.RssError;
 import org.nzbhydra.misc.UserAgentMapper;
 import org.nzbhydra.searching.CategoryProvider;
+import org.nzbhydra.searching.SearchCache;
+import org.nzbhydra.searching.SearchLimitReachedException;
+import org.nzbhydra.searching.SearchRequestExecutor;
 import org.nzbhydra.searching.SearchResult;
 import org.nzbhydra.searching.SearchType;
 import org.nzbhydra.searching.Searcher;
 import org.nzbhydra.searching.searchrequests.SearchRequest;
 import org.nzbhydra.searching.searchrequests.SearchRequest.SearchSource;
 import org.nzbhydra.searching.searchrequests.SearchRequestFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.time.Clock;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
+import java.util.concurrent.Callable;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -52,10 +65,14 @@ public class ExternalApiTest {
     private SearchResult searchResult;
     @Mock
     private UserAgentMapper userAgentMapperMock;
+    @Spy
+    private SearchCache searchCache = new SearchCache();
+    @Mock
+    private SearchRequestExecutor searchRequestExecutorMock;
 
 
     @Before
-    public void setUp() {
+    public void setUp() throws Exception {
         MockitoAnnotations.initMocks(this);
         when(configProvider.getBaseConfig()).thenReturn(baseConfig);
         baseConfig.setMain(new MainConfig());
@@ -69,6 +86,7 @@ public class ExternalApiTest {
         when(searchResult.getNumberOfRejectedResults()).thenReturn(0);
         when(searchResult.getNumberOfRemovedDuplicates()).thenReturn(0);
         when(searchResult.getNumberOfTotalAvailableResults()).thenReturn(10);
+        doAnswer(x -> ((Callable) x.getArgument(0)).call()).when(searchRequestExecutorMock).submit(any());
     }
 
     @Test
@@ -86,6 +104,38 @@ public class ExternalApiTest {
         verify(searcher, times(1)).search(any());
     }
 
+    @Test
+    public void shouldReturnErrorWhenTooManySearchesAreRunning() throws Exception {
+        doThrow(new SearchLimitReachedException("Too many searches")).when(searchRequestExecutorMock).submit(any());
+
+        try {
+            testee.api(getNewznabParameters("q"));
+            fail("Search should've been rejected");
+        } catch (SearchLimitReachedException e) {
+            assertThat(((RssError) testee.handler(e)).getCode()).isEqualTo("500");
+        }
+        verify(searcher, never()).search(any());
+    }
+
+    @Test
+    public void shouldAnswerCachedSearchesAndCapsInRequestThread() throws Exception {
+        NewznabParameters parameters = getNewznabParameters("q");
+        testee.api(parameters);
+        verify(searchRequestExecutorMock).submit(any());
+
+        DeferredResult<ResponseEntity<?>> cachedResult = testee.api(parameters);
+        assertThat(cachedResult.hasResult()).isTrue();
+
+        NewznabParameters capsParameters = new NewznabParameters();
+        capsParameters.setApikey("apikey");
+        capsParameters.setT(ActionAttribute.CAPS);
+        DeferredResult<ResponseEntity<?>> capsResult = testee.api(capsParameters);
+        assertThat(capsResult.hasResult()).isTrue();
+
+        verify(searchRequestExecutorMock, times(1)).submit(any());
+        verify(searcher, times(1)).search(any());
+    }
+
     @Test
     public void shouldRepeatSearchWhenCacheTimeIsOver() throws Exception {
         NewznabParameters parameters = new NewznabParameters();
@@ -106,38 +156,28 @@ public class ExternalApiTest {
     }
 
     @Test
-    public void shouldCacheRemoveEntriesWhenLimitReached() throws Exception {
-        NewznabParameters parameters = getNewznabParameters("q1");
-
-        testee.api(parameters);
-        verify(searcher).search(any());
-
-        testee.api(parameters);
+    public void shouldCacheRemoveLeastRecentlyUsedEntriesWhenLimitReached() throws Exception {
+        //Enough for five empty responses
+        testee.searchCache = new SearchCache(5 * SearchCache.estimateSize(testee.search(getNewznabParameters("q"))));
         verify(searcher, times(1)).search(any());
 
-        parameters.setQ("q2");
-        testee.api(getNewznabParameters("q2"));
-        verify(searcher, times(2)).search(any());
-        parameters.setQ("q3");
-        testee.api(getNewznabParameters("q3"));
-        verify(searcher, times(3)).search(any());
-        parameters.setQ("q4");
-        testee.api(getNewznabParameters("q4"));
-        verify(searcher, times(4)).search(any());
-        parameters.setQ("q5");
-        testee.api(getNewznabParameters("q5"));
-        verify(searcher, times(5)).search(any());
-
-        //q1 is still cached
+        for (int i = 1; i <= 5; i++) {
+            testee.api(getNewznabParameters("q" + i));
+        }
+        verify(searcher, times(6)).search(any());
+
+        //q1 is still cached and now used more recently than q2
         testee.api(getNewznabParameters("q1"));
-        verify(searcher, times(5)).search(any());
+        verify(searcher, times(6)).search(any());
 
-        //now q1 is removed as oldest entry
+        //now q2 is removed as least recently used entry
         testee.api(getNewznabParameters("q6"));
-        verify(searcher, times(6)).search(any());
-        //Not cached anymore, will do another search
+        verify(searcher, times(7)).search(any());
         testee.api(getNewznabParameters("q1"));
         verify(searcher, times(7)).search(any());
+        //Not cached anymore, will do another search
+        testee.api(getNewznabParameters("q2"));
+        verify(searcher, times(8)).search(any());
     }
 
     protected NewznabParameters getNewznabParameters(String q1) {
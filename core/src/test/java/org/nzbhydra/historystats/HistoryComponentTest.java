@@ -0,0 +1,187 @@
+package org.nzbhydra.historystats;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.nzbhydra.NzbHydra;
+import org.nzbhydra.historystats.stats.HistoryRequestData;
+import org.nzbhydra.searching.SearchEntity;
+import org.nzbhydra.searching.SearchRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.test.context.junit4.SpringRunner;
+
+import javax.persistence.EntityManager;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertEquals;
+
+@SuppressWarnings("SpringJavaAutowiringInspection")
+@RunWith(SpringRunner.class)
+@SpringBootTest(classes = NzbHydra.class)
+@DataJpaTest
+public class HistoryComponentTest {
+
+    @Autowired
+    private History history;
+    @Autowired
+    private SearchRepository searchRepository;
+    @Autowired
+    private EntityManager entityManager;
+
+    private Instant now = Instant.now();
+
+    @Before
+    public void setUp() {
+        searchRepository.deleteAll();
+        List<SearchEntity> searches = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            SearchEntity searchEntity = new SearchEntity();
+            searchEntity.setQuery(i % 2 == 0 ? "Some Query " + i : "other " + i);
+            //Two searches per second so that the order depends on the ID
+            searchEntity.setTime(now.minus(i / 2, ChronoUnit.SECONDS));
+            searches.add(searchEntity);
+        }
+        searchRepository.save(searches);
+        entityManager.flush();
+    }
+
+    @Test
+    public void shouldSeekToPageAfterLastEntry() {
+        List<Integer> allIds = getIds(request(1, 10, null));
+        assertEquals(10, allIds.size());
+
+        HistoryRequestData requestData = request(2, 3, null);
+        List<Integer> secondPage = getIds(requestData);
+        assertEquals(allIds.subList(3, 6), secondPage);
+
+        requestData.setLastId(allIds.get(2));
+        Page<SearchEntity> page = history.getHistory(requestData, "SEARCH", SearchEntity.class);
+        assertEquals(secondPage, page.getContent().stream().map(SearchEntity::getId).collect(Collectors.toList()));
+        assertEquals(10, page.getTotalElements());
+
+        requestData.setApproximateCount(true);
+        assertEquals(10, history.getHistory(requestData, "SEARCH", SearchEntity.class).getTotalElements());
+    }
+
+    @Test
+    public void shouldSeekToPageBeforeFirstEntry() {
+        List<Integer> allIds = getIds(request(1, 10, null));
+
+        HistoryRequestData requestData = request(2, 3, null);
+        requestData.setFirstId(allIds.get(6));
+        Page<SearchEntity> page = history.getHistory(requestData, "SEARCH", SearchEntity.class);
+        assertEquals(allIds.subList(3, 6), page.getContent().stream().map(SearchEntity::getId).collect(Collectors.toList()));
+        assertEquals(10, page.getTotalElements());
+
+        requestData = request(1, 10, null);
+        requestData.setSortModel(new SortModel("time", 1));
+        List<Integer> ascendingIds = getIds(requestData);
+        requestData.setLimit(3);
+        requestData.setFirstId(ascendingIds.get(3));
+        page = history.getHistory(requestData, "SEARCH", SearchEntity.class);
+        assertEquals(ascendingIds.subList(0, 3), page.getContent().stream().map(SearchEntity::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void shouldFilterByLowerCaseColumn() {
+        FilterModel filterModel = new FilterModel();
+        filterModel.put("query", new FilterDefinition("some QUERY", "freetext", false));
+        HistoryRequestData requestData = request(1, 10, filterModel);
+
+        Page<SearchEntity> page = history.getHistory(requestData, "SEARCH", SearchEntity.class);
+        assertEquals(5, page.getContent().size());
+        assertEquals(5, page.getTotalElements());
+    }
+
+    @Test
+    public void shouldFilterUsingFullTextIndex() {
+        SearchEntity searchEntity = new SearchEntity();
+        searchEntity.setQuery("Another one");
+        searchEntity.setTitle("Some Movie Title");
+        searchEntity.setTime(now);
+        searchRepository.save(searchEntity);
+        entityManager.flush();
+
+        FilterModel filterModel = new FilterModel();
+        filterModel.put("query", new FilterDefinition("query 4", "freetext", false));
+        Page<SearchEntity> page = history.getHistory(request(1, 10, filterModel), "SEARCH", SearchEntity.class);
+        assertEquals(1, page.getContent().size());
+        assertEquals("Some Query 4", page.getContent().get(0).getQuery());
+
+        //Words from the other indexed column don't match
+        filterModel.put("query", new FilterDefinition("movie", "freetext", false));
+        assertEquals(0, history.getHistory(request(1, 10, filterModel), "SEARCH", SearchEntity.class).getTotalElements());
+
+        filterModel.clear();
+        filterModel.put("title", new FilterDefinition("some MOVIE title", "freetext", false));
+        page = history.getHistory(request(1, 10, filterModel), "SEARCH", SearchEntity.class);
+        assertEquals(1, page.getTotalElements());
+        assertEquals(searchEntity.getId(), page.getContent().get(0).getId());
+    }
+
+    @Test
+    public void shouldFindPartialWordsWithFullTextIndex() {
+        SearchEntity searchEntity = new SearchEntity();
+        searchEntity.setQuery("Avatar extended cut");
+        searchEntity.setTime(now);
+        searchRepository.save(searchEntity);
+        entityManager.flush();
+
+        FilterModel filterModel = new FilterModel();
+        filterModel.put("query", new FilterDefinition("avat", "freetext", false));
+        assertEquals(1, history.getHistory(request(1, 10, filterModel), "SEARCH", SearchEntity.class).getTotalElements());
+
+        filterModel.put("query", new FilterDefinition("vatar ext", "freetext", false));
+        assertEquals(1, history.getHistory(request(1, 10, filterModel), "SEARCH", SearchEntity.class).getTotalElements());
+
+        //The word in the middle is looked up in the index, the others are partial words
+        filterModel.put("query", new FilterDefinition("tar extended c", "freetext", false));
+        assertEquals(1, history.getHistory(request(1, 10, filterModel), "SEARCH", SearchEntity.class).getTotalElements());
+
+        filterModel.put("query", new FilterDefinition("tar extend c", "freetext", false));
+        assertEquals(0, history.getHistory(request(1, 10, filterModel), "SEARCH", SearchEntity.class).getTotalElements());
+    }
+
+    @Test
+    public void shouldLookUpSingleAndTwoWordFiltersInFullTextIndex() {
+        SearchEntity searchEntity = new SearchEntity();
+        searchEntity.setQuery("Avatar extended cut");
+        searchEntity.setTime(now);
+        searchRepository.save(searchEntity);
+        entityManager.flush();
+
+        FilterModel filterModel = new FilterModel();
+        filterModel.put("query", new FilterDefinition("vata", "freetext", false));
+        assertEquals(1, history.getHistory(request(1, 10, filterModel), "SEARCH", SearchEntity.class).getTotalElements());
+
+        //Remove the entry from the index. It's still found by the LIKE condition if the index isn't used
+        entityManager.createNativeQuery("DELETE FROM FT.MAP WHERE ROWID IN (SELECT ID FROM FT.ROWS WHERE KEY = :key)").setParameter("key", "\"ID\"=" + searchEntity.getId()).executeUpdate();
+        assertEquals(0, history.getHistory(request(1, 10, filterModel), "SEARCH", SearchEntity.class).getTotalElements());
+
+        filterModel.put("query", new FilterDefinition("avatar ext", "freetext", false));
+        assertEquals(0, history.getHistory(request(1, 10, filterModel), "SEARCH", SearchEntity.class).getTotalElements());
+    }
+
+    private HistoryRequestData request(int page, int limit, FilterModel filterModel) {
+        HistoryRequestData requestData = new HistoryRequestData();
+        requestData.setPage(page);
+        requestData.setLimit(limit);
+        requestData.setSortModel(new SortModel("time", 2));
+        if (filterModel != null) {
+            requestData.setFilterModel(filterModel);
+        }
+        return requestData;
+    }
+
+    private List<Integer> getIds(HistoryRequestData requestData) {
+        return history.getHistory(requestData, "SEARCH", SearchEntity.class).getContent().stream().map(SearchEntity::getId).collect(Collectors.toList());
+    }
+
+}
@@ -0,0 +1,71 @@
+package org.nzbhydra.historystats;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.nzbhydra.config.BaseConfig;
+import org.nzbhydra.config.ConfigChangedEvent;
+import org.nzbhydra.historystats.stats.StatsRequest;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StatsCacheTest {
+
+    private StatsCache testee = new StatsCache();
+    private AtomicInteger calculations = new AtomicInteger();
+    private Instant now = Instant.now();
+    private List<Long> watermark = Arrays.asList(10L, 20L, 30L);
+
+    @Before
+    public void setUp() {
+        testee.clock = Clock.fixed(now, ZoneId.of("UTC"));
+    }
+
+    @Test
+    public void shouldKeepStatsForClosedWindow() {
+        StatsRequest statsRequest = new StatsRequest(now.minus(30, ChronoUnit.DAYS), now.minus(2, ChronoUnit.DAYS), false);
+
+        assertThat(get("stat", statsRequest, true, watermark)).isEqualTo(1);
+        assertThat(get("stat", statsRequest, true, Arrays.asList(11L, 20L, 30L))).isEqualTo(1);
+        assertThat(get("otherStat", statsRequest, true, watermark)).isEqualTo(2);
+
+        statsRequest.setIncludeDisabled(true);
+        assertThat(get("stat", statsRequest, true, watermark)).isEqualTo(3);
+    }
+
+    @Test
+    public void shouldRecalculateStatsForOpenWindowWhenDataWasRecorded() {
+        StatsRequest statsRequest = new StatsRequest(now.minus(30, ChronoUnit.DAYS), now.plus(1, ChronoUnit.DAYS), false);
+
+        assertThat(get("stat", statsRequest, true, watermark)).isEqualTo(1);
+        assertThat(get("stat", statsRequest, true, watermark)).isEqualTo(1);
+        assertThat(get("stat", statsRequest, true, Arrays.asList(10L, 20L, 31L))).isEqualTo(2);
+
+        //Not limited to the window so always checked
+        StatsRequest closedRequest = new StatsRequest(now.minus(30, ChronoUnit.DAYS), now.minus(2, ChronoUnit.DAYS), false);
+        assertThat(get("allTimeStat", closedRequest, false, watermark)).isEqualTo(3);
+        assertThat(get("allTimeStat", closedRequest, false, watermark)).isEqualTo(3);
+        assertThat(get("allTimeStat", closedRequest, false, Arrays.asList(11L, 20L, 30L))).isEqualTo(4);
+    }
+
+    @Test
+    public void shouldInvalidateOnConfigChange() {
+        StatsRequest statsRequest = new StatsRequest(now.minus(30, ChronoUnit.DAYS), now.minus(2, ChronoUnit.DAYS), false);
+        assertThat(get("stat", statsRequest, true, watermark)).isEqualTo(1);
+
+        testee.handleNewConfig(new ConfigChangedEvent(this, new BaseConfig(), new BaseConfig()));
+        assertThat(get("stat", statsRequest, true, watermark)).isEqualTo(2);
+    }
+
+    private Integer get(String statName, StatsRequest statsRequest, boolean timeBound, List<Long> dataWatermark) {
+        return testee.get(statName, statsRequest, timeBound, dataWatermark, calculations::incrementAndGet);
+    }
+
+}
@@ -40,6 +40,7 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.Arrays;
 import java.util.List;
+import java.util.TreeSet;
 
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertEquals;
@@ -77,11 +78,14 @@ public class StatsComponentTest {
 
     @Autowired
     private Stats stats;
+    @Autowired
+    private StatsRollups statsRollups;
 
     @Before
     public void setUp() {
         indexerRepository.deleteAll();
         apiAccessRepository.deleteAll();
+        statsRollups.reset();
         indexerConfig1 = new IndexerConfig();
         indexerConfig1.setName("indexer1");
         indexerConfig1.setSearchModuleType(SearchModuleType.NEWZNAB);
@@ -319,6 +323,92 @@ public class StatsComponentTest {
         assertEquals(2, result.size());
     }
 
+    @Test
+    public void shouldCalculateIndexerApiAccessStatsFromRollups() throws Exception {
+        IndexerApiAccessEntity apiAccess1 = new IndexerApiAccessEntity(indexer1);
+        apiAccess1.setResult(IndexerAccessResult.CONNECTION_ERROR);
+        apiAccess1.setResponseTime(1000L);
+        apiAccess1.setTime(Instant.now().minus(3, ChronoUnit.DAYS));
+        apiAccessRepository.save(apiAccess1);
+
+        IndexerApiAccessEntity apiAccess2 = new IndexerApiAccessEntity(indexer1);
+        apiAccess2.setResult(IndexerAccessResult.SUCCESSFUL);
+        apiAccess2.setResponseTime(2000L);
+        apiAccess2.setTime(Instant.now().minus(3, ChronoUnit.DAYS));
+        apiAccessRepository.save(apiAccess2);
+
+        IndexerApiAccessEntity apiAccess3 = new IndexerApiAccessEntity(indexer1);
+        apiAccess3.setResult(IndexerAccessResult.SUCCESSFUL);
+        apiAccess3.setResponseTime(4000L);
+        apiAccess3.setTime(Instant.now().minus(14, ChronoUnit.DAYS));
+        apiAccessRepository.save(apiAccess3);
+
+        statsRollups.rollUp();
+        //Rolled up days are not read from the original table anymore
+        apiAccessRepository.delete(apiAccess2);
+
+        //Not rolled up yet
+        IndexerApiAccessEntity apiAccess4 = new IndexerApiAccessEntity(indexer1);
+        apiAccess4.setResult(IndexerAccessResult.HYDRA_ERROR);
+        apiAccess4.setResponseTime(3000L);
+        apiAccessRepository.save(apiAccess4);
+
+        List<IndexerApiAccessStatsEntry> result = stats.indexerApiAccesses(new StatsRequest(Instant.now().minus(10, ChronoUnit.DAYS), Instant.now().plus(10, ChronoUnit.DAYS), false));
+        assertEquals(1, result.size());
+        //Two three days ago, one today: 1.5 on average
+        assertEquals(1.5D, result.get(0).getAverageAccessesPerDay(), 0D);
+        assertEquals(33D, result.get(0).getPercentSuccessful(), 1D);
+        assertEquals(33D, result.get(0).getPercentConnectionError(), 1D);
+
+        List<AverageResponseTime> averageResponseTimes = stats.averageResponseTimes(new StatsRequest(Instant.now().minus(10, ChronoUnit.DAYS), Instant.now().plus(1, ChronoUnit.DAYS), true));
+        assertEquals(1, averageResponseTimes.size());
+        assertEquals(2000D, averageResponseTimes.get(0).getAvgResponseTime(), 0D);
+
+        averageResponseTimes = stats.averageResponseTimes(new StatsRequest(Instant.now().minus(20, ChronoUnit.DAYS), Instant.now().plus(1, ChronoUnit.DAYS), true));
+        assertEquals(2500D, averageResponseTimes.get(0).getAvgResponseTime(), 0D);
+
+        //Only partially covers the day of the first two accesses
+        averageResponseTimes = stats.averageResponseTimes(new StatsRequest(apiAccess1.getTime().plus(1, ChronoUnit.SECONDS), Instant.now().plus(1, ChronoUnit.DAYS), true));
+        assertEquals(3000D, averageResponseTimes.get(0).getAvgResponseTime(), 0D);
+    }
+
+    @Test
+    public void shouldCalculateSearchesPerDayOfWeekFromRollups() throws Exception {
+        SearchEntity searchFriday = new SearchEntity();
+        searchFriday.setTime(Instant.ofEpochSecond(1490945310L)); //Friday
+        SearchEntity searchThursday = new SearchEntity();
+        searchThursday.setTime(Instant.ofEpochSecond(1490858910L)); //Thursday
+        searchRepository.save(Arrays.asList(searchFriday, searchThursday));
+        statsRollups.rollUp();
+
+        SearchEntity searchToday = new SearchEntity();
+        searchToday.setTime(Instant.now());
+        searchRepository.save(searchToday);
+
+        List<CountPerDayOfWeek> result = stats.countPerDayOfWeek("SEARCH", new StatsRequest(searchFriday.getTime().minus(10, ChronoUnit.DAYS), Instant.now().plus(1, ChronoUnit.DAYS), true));
+        assertEquals(Integer.valueOf(1), result.get(3).getCount());
+        assertEquals(Integer.valueOf(1), result.get(4).getCount());
+        assertEquals(3, result.stream().mapToInt(CountPerDayOfWeek::getCount).sum());
+
+        List<CountPerHourOfDay> hourResult = stats.countPerHourOfDay("SEARCH", new StatsRequest(searchFriday.getTime().minus(10, ChronoUnit.DAYS), Instant.now().plus(1, ChronoUnit.DAYS), true));
+        assertEquals(3, hourResult.stream().mapToInt(CountPerHourOfDay::getCount).sum());
+    }
+
+    @Test
+    public void shouldCalculateAllRequestedStats() throws Exception {
+        StatsRequest statsRequest = new StatsRequest(Instant.now().minus(10, ChronoUnit.DAYS), Instant.now().plus(1, ChronoUnit.DAYS), true);
+        statsRequest.setAvgResponseTimes(true);
+        statsRequest.setSearchesPerDayOfWeek(true);
+        statsRequest.setDownloadsPerHourOfDay(true);
+        statsRequest.setSearchSharesPerUser(true);
+
+        StatsResponse response = stats.getAllStats(statsRequest);
+        assertNotNull(response.getAvgResponseTimes());
+        assertEquals(7, response.getSearchesPerDayOfWeek().size());
+        assertEquals(24, response.getDownloadsPerHourOfDay().size());
+        assertEquals(new TreeSet<>(Arrays.asList("avgResponseTimes", "downloadsPerHourOfDay", "searchSharesPerUser", "searchesPerDayOfWeek")), response.getCalculationTimes().keySet());
+    }
+
     @Test
     public void shouldCalculateSearchShares() {
         {
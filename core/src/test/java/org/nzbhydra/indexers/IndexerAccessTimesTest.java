@@ -0,0 +1,134 @@
+package org.nzbhydra.indexers;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.nzbhydra.downloading.NzbDownloadEntity;
+import org.nzbhydra.downloading.NzbDownloadRepository;
+import org.nzbhydra.downloading.NzbHandler.NzbDownloadEvent;
+import org.nzbhydra.indexers.IndexerAccessTimes.AccessTimes;
+import org.nzbhydra.searching.SearchResultEntity;
+import org.nzbhydra.searching.WriteBehindPersister;
+import org.springframework.data.domain.PageImpl;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class IndexerAccessTimesTest {
+
+    @InjectMocks
+    private IndexerAccessTimes testee = new IndexerAccessTimes();
+    @Mock
+    private NzbDownloadRepository nzbDownloadRepositoryMock;
+    @Mock
+    private WriteBehindPersister writeBehindPersisterMock;
+    @Mock
+    private EntityManager entityManagerMock;
+    @Mock
+    private Query queryMock;
+
+    private IndexerEntity indexerEntity = new IndexerEntity();
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        when(entityManagerMock.createNativeQuery(anyString())).thenReturn(queryMock);
+        indexerEntity.setId(1);
+        indexerEntity.setName("indexer");
+    }
+
+    @Test
+    public void shouldLoadApiHitsOnceAndRecordNewOnes() throws Exception {
+        when(queryMock.getResultList()).thenReturn(Arrays.asList(Timestamp.from(Instant.ofEpochSecond(200)), Timestamp.from(Instant.ofEpochSecond(100))));
+
+        assertThat(testee.getTimeOfNthLatestApiHit(indexerEntity, 2)).isEqualTo(Optional.of(Instant.ofEpochSecond(100)));
+        assertThat(testee.getTimeOfNthLatestApiHit(indexerEntity, 1)).isEqualTo(Optional.of(Instant.ofEpochSecond(200)));
+        testee.recordApiHit(indexerEntity, Instant.ofEpochSecond(300));
+        assertThat(testee.getTimeOfNthLatestApiHit(indexerEntity, 2)).isEqualTo(Optional.of(Instant.ofEpochSecond(200)));
+
+        verify(writeBehindPersisterMock).flush();
+        verify(queryMock, times(1)).getResultList();
+    }
+
+    @Test
+    public void shouldReloadApiHitsWhenLimitIsIncreased() throws Exception {
+        when(queryMock.getResultList()).thenReturn(Collections.singletonList(Timestamp.from(Instant.ofEpochSecond(100))));
+        assertThat(testee.getTimeOfNthLatestApiHit(indexerEntity, 1)).isEqualTo(Optional.of(Instant.ofEpochSecond(100)));
+
+        when(queryMock.getResultList()).thenReturn(Arrays.asList(Timestamp.from(Instant.ofEpochSecond(100)), Timestamp.from(Instant.ofEpochSecond(50))));
+        assertThat(testee.getTimeOfNthLatestApiHit(indexerEntity, 2)).isEqualTo(Optional.of(Instant.ofEpochSecond(50)));
+        assertThat(testee.getTimeOfNthLatestApiHit(indexerEntity, 3)).isEqualTo(Optional.empty());
+
+        verify(queryMock, times(3)).getResultList();
+    }
+
+    @Test
+    public void shouldRecordDownloadsFromEvents() throws Exception {
+        when(nzbDownloadRepositoryMock.findBySearchResultIndexerOrderByTimeDesc(any(), any())).thenReturn(new PageImpl<>(Collections.emptyList()));
+        assertThat(testee.getTimeOfNthLatestDownload(indexerEntity, 1)).isEqualTo(Optional.empty());
+
+        SearchResultEntity searchResultEntity = new SearchResultEntity();
+        searchResultEntity.setIndexer(indexerEntity);
+        NzbDownloadEntity downloadEntity = new NzbDownloadEntity();
+        downloadEntity.setSearchResult(searchResultEntity);
+        downloadEntity.setTime(Instant.ofEpochSecond(100));
+        testee.onNzbDownloadEvent(new NzbDownloadEvent(downloadEntity));
+
+        assertThat(testee.getTimeOfNthLatestDownload(indexerEntity, 1)).isEqualTo(Optional.of(Instant.ofEpochSecond(100)));
+        verify(nzbDownloadRepositoryMock, times(1)).findBySearchResultIndexerOrderByTimeDesc(any(), any());
+    }
+
+    @Test
+    public void shouldMergeHitsRecordedBeforeAndWhileLoading() throws Exception {
+        //Recorded before the times were loaded but not yet saved when the queue was flushed
+        testee.recordApiHit(indexerEntity, Instant.ofEpochSecond(300));
+        when(queryMock.getResultList()).thenAnswer(invocation -> {
+            testee.recordApiHit(indexerEntity, Instant.ofEpochSecond(400));
+            return Arrays.asList(Timestamp.from(Instant.ofEpochSecond(400)), Timestamp.from(Instant.ofEpochSecond(200)));
+        });
+
+        assertThat(testee.getTimeOfNthLatestApiHit(indexerEntity, 3)).isEqualTo(Optional.of(Instant.ofEpochSecond(200)));
+        assertThat(testee.getTimeOfNthLatestApiHit(indexerEntity, 2)).isEqualTo(Optional.of(Instant.ofEpochSecond(300)));
+        verify(queryMock, times(1)).getResultList();
+    }
+
+    @Test
+    public void shouldKeepLatestTimesInOrder() {
+        AccessTimes accessTimes = new AccessTimes(4, Collections.emptyList());
+        accessTimes.add(Instant.ofEpochSecond(10));
+        accessTimes.add(Instant.ofEpochSecond(30));
+        accessTimes.add(Instant.ofEpochSecond(20));
+        accessTimes.add(Instant.ofEpochSecond(20));
+        assertThat(accessTimes.getNthLatest(4)).isEqualTo(Optional.of(Instant.ofEpochSecond(10)));
+        assertThat(accessTimes.getNthLatest(3)).isEqualTo(Optional.of(Instant.ofEpochSecond(20)));
+
+        accessTimes.add(Instant.ofEpochSecond(40));
+        accessTimes.add(Instant.ofEpochSecond(5));
+        assertThat(accessTimes.getNthLatest(1)).isEqualTo(Optional.of(Instant.ofEpochSecond(40)));
+        assertThat(accessTimes.getNthLatest(2)).isEqualTo(Optional.of(Instant.ofEpochSecond(30)));
+        assertThat(accessTimes.getNthLatest(4)).isEqualTo(Optional.of(Instant.ofEpochSecond(20)));
+        assertThat(accessTimes.getNthLatest(5)).isEqualTo(Optional.empty());
+    }
+
+    @Test
+    public void shouldMergeTimesWithoutCountingThemTwice() {
+        AccessTimes accessTimes = new AccessTimes(10, Arrays.asList(Instant.ofEpochSecond(10), Instant.ofEpochSecond(20), Instant.ofEpochSecond(20)));
+        accessTimes.merge(Arrays.asList(Instant.ofEpochSecond(20), Instant.ofEpochSecond(30), Instant.ofEpochSecond(30)));
+        assertThat(accessTimes.getAll()).containsExactly(Instant.ofEpochSecond(10), Instant.ofEpochSecond(20), Instant.ofEpochSecond(20), Instant.ofEpochSecond(30), Instant.ofEpochSecond(30));
+    }
+
+}
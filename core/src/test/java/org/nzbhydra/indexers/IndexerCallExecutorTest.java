@@ -0,0 +1,149 @@
+package org.nzbhydra.indexers;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.nzbhydra.config.SearchingConfig;
+import org.slf4j.MDC;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class IndexerCallExecutorTest {
+
+    private IndexerCallExecutor testee = new IndexerCallExecutor();
+
+    @Before
+    public void setUp() {
+        SearchingConfig searchingConfig = new SearchingConfig();
+        searchingConfig.setIndexerCallThreads(10);
+        searchingConfig.setMaxConcurrentCallsPerIndexer(2);
+        testee.configure(searchingConfig);
+    }
+
+    @After
+    public void tearDown() {
+        testee.destroy();
+    }
+
+    @Test
+    public void shouldLimitConcurrentCallsPerIndexer() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            futures.add(testee.submit("indexer", 5, () -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                Thread.sleep(50);
+                running.decrementAndGet();
+                return 1;
+            }));
+        }
+        for (Future<Integer> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+
+        assertThat(maxRunning.get()).isEqualTo(2);
+        assertThat(testee.getStatistics().getIndexers().get("indexer").getCompleted()).isEqualTo(6);
+    }
+
+    @Test
+    public void shouldQueueTasksWhenAllThreadsAreBusyAndRejectThemWhenQueueIsFull() throws Exception {
+        SearchingConfig searchingConfig = new SearchingConfig();
+        searchingConfig.setIndexerCallThreads(1);
+        testee.configure(searchingConfig);
+        CountDownLatch latch = new CountDownLatch(1);
+        Future<Object> blocking = testee.submit(() -> latch.await(5, TimeUnit.SECONDS));
+
+        Thread callingThread = Thread.currentThread();
+        List<Future<Boolean>> queued = new ArrayList<>();
+        for (int i = 0; i < IndexerCallExecutor.QUEUE_CAPACITY; i++) {
+            queued.add(testee.submit(() -> Thread.currentThread() != callingThread));
+        }
+        try {
+            testee.submit(() -> true);
+            fail("Task should've been rejected");
+        } catch (RejectedExecutionException e) {
+            //Expected
+        }
+        assertThat(testee.getStatistics().getWaitingTasks()).isEqualTo(IndexerCallExecutor.QUEUE_CAPACITY);
+        latch.countDown();
+
+        assertThat(blocking.get()).isEqualTo(true);
+        for (Future<Boolean> future : queued) {
+            assertThat(future.get(5, TimeUnit.SECONDS)).isTrue();
+        }
+        assertThat(testee.getStatistics().getQueuedTasks()).isEqualTo(IndexerCallExecutor.QUEUE_CAPACITY);
+        assertThat(testee.getStatistics().getRejectedTasks()).isEqualTo(1);
+        assertThat(testee.getStatistics().getLargestPoolSize()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldGiveUpWaitingForPermitAfterTimeout() throws Exception {
+        CountDownLatch latch = new CountDownLatch(1);
+        List<Future<Object>> running = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            running.add(testee.submit("indexer", 5, () -> latch.await(5, TimeUnit.SECONDS)));
+        }
+        while (testee.getStatistics().getIndexers().get("indexer").getRunning() < 2) {
+            Thread.sleep(10);
+        }
+
+        try {
+            testee.call("indexer", 0, () -> true);
+            fail("Call should've timed out");
+        } catch (TimeoutException e) {
+            //Expected
+        }
+        assertThat(testee.getStatistics().getIndexers().get("indexer").getTimedOut()).isEqualTo(1);
+        latch.countDown();
+        for (Future<Object> future : running) {
+            assertThat(future.get(5, TimeUnit.SECONDS)).isEqualTo(true);
+        }
+        assertThat(testee.call("indexer", 0, () -> true)).isTrue();
+    }
+
+    @Test
+    public void shouldCreateThreadsAsNeededWhenUnbounded() throws Exception {
+        SearchingConfig searchingConfig = new SearchingConfig();
+        searchingConfig.setIndexerCallThreads(0);
+        testee.configure(searchingConfig);
+        CountDownLatch allStarted = new CountDownLatch(60);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            futures.add(testee.submit(() -> {
+                allStarted.countDown();
+                return allStarted.await(5, TimeUnit.SECONDS);
+            }));
+        }
+        for (Future<Object> future : futures) {
+            assertThat(future.get()).isEqualTo(true);
+        }
+
+        assertThat(testee.getStatistics().getLargestPoolSize()).isEqualTo(60);
+        assertThat(testee.getStatistics().getRejectedTasks()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldPropagateMdc() throws Exception {
+        MDC.put("key", "value");
+        try {
+            List<Callable<String>> callables = new ArrayList<>();
+            callables.add(() -> MDC.get("key"));
+            assertThat(testee.invokeAll(callables).get(0).get()).isEqualTo("value");
+        } finally {
+            MDC.remove("key");
+        }
+    }
+
+}
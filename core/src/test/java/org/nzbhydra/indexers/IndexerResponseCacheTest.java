@@ -0,0 +1,109 @@
+package org.nzbhydra.indexers;
+
+import com.google.common.io.Resources;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.nzbhydra.config.BaseConfig;
+import org.nzbhydra.config.ConfigProvider;
+import org.nzbhydra.config.IndexerConfig;
+import org.nzbhydra.mapping.newznab.RssRoot;
+import org.nzbhydra.searching.WriteBehindPersister;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyZeroInteractions;
+import static org.mockito.Mockito.when;
+
+public class IndexerResponseCacheTest {
+
+    @InjectMocks
+    private IndexerResponseCache testee = new IndexerResponseCache();
+    @Mock
+    private ConfigProvider configProviderMock;
+    @Mock
+    private IndexerResponseCacheRepository repositoryMock;
+    @Mock
+    private WriteBehindPersister writeBehindPersisterMock;
+    @Spy
+    private IndexerWebAccess indexerWebAccess = new IndexerWebAccess();
+
+    private BaseConfig baseConfig = new BaseConfig();
+    private IndexerConfig indexerConfig = new IndexerConfig();
+    private URI uri = URI.create("http://127.0.0.1:1234/api?t=search&apikey=secret&q=query&offset=0");
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        when(configProviderMock.getBaseConfig()).thenReturn(baseConfig);
+        baseConfig.getSearching().setIndexerResponseCacheTime(10);
+        indexerConfig.setName("indexer");
+        testee.clock = Clock.fixed(Instant.now(), ZoneId.of("UTC"));
+    }
+
+    @Test
+    public void shouldIgnoreApiKeyAndParameterOrder() {
+        String key = IndexerResponseCache.getCacheKey(uri, indexerConfig);
+        assertThat(IndexerResponseCache.getCacheKey(URI.create("http://127.0.0.1:1234/api?offset=0&q=query&apikey=other&t=search"), indexerConfig)).isEqualTo(key);
+        assertThat(IndexerResponseCache.getCacheKey(URI.create("http://127.0.0.1:1234/api?t=search&apikey=secret&q=query&offset=100"), indexerConfig)).isNotEqualTo(key);
+
+        IndexerConfig otherIndexer = new IndexerConfig();
+        otherIndexer.setName("other");
+        assertThat(IndexerResponseCache.getCacheKey(uri, otherIndexer)).isNotEqualTo(key);
+    }
+
+    @Test
+    public void shouldReturnSavedResponse() throws Exception {
+        byte[] bytes = Resources.toByteArray(Resources.getResource("org/nzbhydra/mapping/newznab_3results.xml"));
+        RssRoot rssRoot = (RssRoot) new NewznabStaxParser().parse(new ByteArrayInputStream(bytes));
+
+        IndexerResponseCacheEntity entity = put(rssRoot);
+        when(repositoryMock.findOne(entity.getCacheKey())).thenReturn(entity);
+        assertThat(testee.get(uri, indexerConfig)).isEqualTo(Optional.of(rssRoot));
+
+        entity = put("<html>some html</html>");
+        when(repositoryMock.findOne(entity.getCacheKey())).thenReturn(entity);
+        assertThat(testee.get(uri, indexerConfig)).isEqualTo(Optional.of("<html>some html</html>"));
+    }
+
+    @Test
+    public void shouldNotReturnExpiredResponse() throws Exception {
+        IndexerResponseCacheEntity entity = put("response");
+        when(repositoryMock.findOne(entity.getCacheKey())).thenReturn(entity);
+
+        testee.clock = Clock.fixed(testee.clock.instant().plus(11, ChronoUnit.MINUTES), ZoneId.of("UTC"));
+        assertThat(testee.get(uri, indexerConfig)).isEqualTo(Optional.empty());
+    }
+
+    @Test
+    public void shouldDoNothingWhenDisabled() throws Exception {
+        baseConfig.getSearching().setIndexerResponseCacheTime(null);
+
+        testee.put(uri, indexerConfig, "response");
+        assertThat(testee.get(uri, indexerConfig)).isEqualTo(Optional.empty());
+        verifyZeroInteractions(repositoryMock, writeBehindPersisterMock);
+    }
+
+    private IndexerResponseCacheEntity put(Object response) {
+        ArgumentCaptor<Supplier<IndexerResponseCacheEntity>> entitySupplierCaptor = ArgumentCaptor.forClass(Supplier.class);
+        testee.put(uri, indexerConfig, response);
+        verify(writeBehindPersisterMock, atLeastOnce()).saveLazily(any(), entitySupplierCaptor.capture());
+        return entitySupplierCaptor.getValue().get();
+    }
+
+}
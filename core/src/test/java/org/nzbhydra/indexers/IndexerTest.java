@@ -30,9 +30,11 @@ import org.nzbhydra.searching.IndexerSearchResult;
 import org.nzbhydra.searching.ResultAcceptor;
 import org.nzbhydra.searching.ResultAcceptor.AcceptorResult;
 import org.nzbhydra.searching.SearchResultEntity;
+import org.nzbhydra.searching.SearchResultIdCalculator;
 import org.nzbhydra.searching.SearchResultItem;
 import org.nzbhydra.searching.SearchResultRepository;
 import org.nzbhydra.searching.SearchType;
+import org.nzbhydra.searching.WriteBehindPersister;
 import org.nzbhydra.searching.searchrequests.SearchRequest;
 import org.nzbhydra.searching.searchrequests.SearchRequest.SearchSource;
 import org.slf4j.Logger;
@@ -78,11 +80,17 @@ public class IndexerTest {
     @Mock
     private IndexerWebAccess indexerWebAccessMock;
     @Mock
+    private IndexerResponseCache indexerResponseCacheMock;
+    @Mock
     private IndexerApiAccessRepository indexerApiAccessRepositoryMock;
     @Mock
     private IndexerApiAccessEntityShortRepository shortRepositoryMock;
     @Mock
     private SearchResultRepository searchResultRepositoryMock;
+    @Mock
+    private WriteBehindPersister writeBehindPersisterMock;
+    @Mock
+    private IndexerAccessTimes indexerAccessTimesMock;
     @Captor
     private ArgumentCaptor<List<SearchResultEntity>> searchResultEntitiesCaptor;
     @Captor
@@ -177,10 +185,11 @@ public class IndexerTest {
 
         testee.persistSearchResults(Collections.singletonList(item));
 
-        verify(searchResultRepositoryMock).save(searchResultEntitiesCaptor.capture());
+        verify(searchResultRepositoryMock).mergeAll(searchResultEntitiesCaptor.capture());
 
         List<SearchResultEntity> persistedEntities = searchResultEntitiesCaptor.getValue();
         assertThat(persistedEntities.size(), is(1));
+        assertThat(persistedEntities.get(0).getId(), is(SearchResultIdCalculator.calculateSearchResultId(item)));
         assertThat(persistedEntities.get(0).getTitle(), is("title"));
         assertThat(persistedEntities.get(0).getDetails(), is("details"));
         assertThat(persistedEntities.get(0).getIndexerGuid(), is("guid"));
@@ -196,7 +205,7 @@ public class IndexerTest {
 
         testee.persistSearchResults(Collections.singletonList(item));
 
-        verify(searchResultRepositoryMock).save(searchResultEntitiesCaptor.capture());
+        verify(searchResultRepositoryMock).mergeAll(searchResultEntitiesCaptor.capture());
 
         List<SearchResultEntity> persistedEntities = searchResultEntitiesCaptor.getValue();
         assertThat(persistedEntities.size(), is(0));
@@ -212,7 +221,8 @@ public class IndexerTest {
         verify(statusMock).setLevel(0);
         verify(statusMock).setDisabledUntil(null);
 
-        verify(indexerRepositoryMock).save(indexerEntityMock);
+        verify(writeBehindPersisterMock).save(indexerRepositoryMock, indexerEntityMock);
+        verify(indexerAccessTimesMock).recordApiHit(eq(indexerEntityMock), any());
     }
 
     @Test
@@ -228,7 +238,7 @@ public class IndexerTest {
         assertTrue(captor.getValue().minus(Indexer.DISABLE_PERIODS.get(1) - 1, ChronoUnit.MINUTES).isAfter(Instant.now()));
         assertTrue(captor.getValue().minus(Indexer.DISABLE_PERIODS.get(1) + 1, ChronoUnit.MINUTES).isBefore(Instant.now()));
 
-        verify(indexerRepositoryMock).save(indexerEntityMock);
+        verify(writeBehindPersisterMock).save(indexerRepositoryMock, indexerEntityMock);
     }
 
     @Test
@@ -7,11 +7,13 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.nzbhydra.config.BaseConfig;
 import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.config.IndexerConfig;
 import org.nzbhydra.config.SearchingConfig;
 import org.nzbhydra.mapping.newznab.RssRoot;
+import org.nzbhydra.mapping.newznab.Xml;
 import org.nzbhydra.okhttp.WebAccess;
 import org.springframework.oxm.Unmarshaller;
 
@@ -22,7 +24,11 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.data.MapEntry.entry;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 public class IndexerWebAccessTest {
@@ -36,6 +42,8 @@ public class IndexerWebAccessTest {
     private IndexerConfig indexerConfig = new IndexerConfig();
     @Mock
     private Unmarshaller unmarshallerMock;
+    @Spy
+    private IndexerCallExecutor indexerCallExecutor = new IndexerCallExecutor();
     @Captor
     ArgumentCaptor<Map<String, String>> headersCaptor;
     @Captor
@@ -93,6 +101,25 @@ public class IndexerWebAccessTest {
         assertThat(timeoutCaptor.getValue()).isEqualTo(100);
     }
 
+    @Test
+    public void shouldParseSearchResponseWithStreamingParser() throws Exception {
+        doReturn("<rss><channel><title>title</title></channel></rss>".getBytes()).when(webAccessMock).callUrl(anyString(), any(), anyInt(), any());
+
+        RssRoot rssRoot = testee.get(new URI("http://127.0.0.1"), indexerConfig, Xml.class);
+
+        assertThat(rssRoot.getRssChannel().getTitle()).isEqualTo("title");
+        verify(unmarshallerMock, never()).unmarshal(any());
+    }
+
+    @Test
+    public void shouldUseUnmarshallerIfStreamingParserFails() throws Exception {
+        doReturn("<metadata></metadata>".getBytes()).when(webAccessMock).callUrl(anyString(), any(), anyInt(), any());
+
+        testee.get(new URI("http://127.0.0.1"), indexerConfig, Xml.class);
+
+        verify(unmarshallerMock).unmarshal(any());
+    }
+
 
 
 
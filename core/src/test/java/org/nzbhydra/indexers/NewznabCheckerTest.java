@@ -7,6 +7,7 @@ import org.junit.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
 import org.nzbhydra.config.BaseConfig;
 import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.config.IndexerCategoryConfig;
@@ -62,6 +63,8 @@ public class NewznabCheckerTest {
     private ConfigProvider configProviderMock;
     @Mock
     private ApplicationEventPublisher publisherMock;
+    @Spy
+    private IndexerCallExecutor indexerCallExecutor = new IndexerCallExecutor();
     @InjectMocks
     private NewznabChecker testee = new NewznabChecker();
     private Unmarshaller unmarshaller = new WebConfiguration().marshaller();
@@ -197,5 +200,23 @@ public class NewznabCheckerTest {
         verify(indexerWebAccess, times(7)).get(any(), eq(indexerConfig));
     }
 
+    @Test
+    public void shouldStopCheckingCapsWhenTimeoutIsReached() throws Exception {
+        NewznabResponseBuilder builder = new NewznabResponseBuilder();
+        indexerConfig.setTimeout(0);
+        when(indexerWebAccess.get(any(), eq(indexerConfig))).thenAnswer(invocation -> {
+            Thread.sleep(10000);
+            return builder.getTestResult(1, 100, "Thrones", 0, 100);
+        });
+        when(indexerWebAccess.get(new URI("http://127.0.0.1:1234/api?apikey=apikey&t=caps"), indexerConfig)).thenReturn(capsRoot);
+
+        long before = System.currentTimeMillis();
+        CheckCapsRespone checkCapsRespone = testee.checkCaps(indexerConfig);
+        assertThat(System.currentTimeMillis() - before < 9000, is(true));
+        assertFalse(checkCapsRespone.isAllCapsChecked());
+        //Only one call per connection was made
+        verify(indexerWebAccess, times(NewznabChecker.MAX_CONNECTIONS + 1)).get(any(), eq(indexerConfig));
+    }
+
 
 }
\ No newline at end of file
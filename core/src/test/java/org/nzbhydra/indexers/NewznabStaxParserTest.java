@@ -0,0 +1,63 @@
+package org.nzbhydra.indexers;
+
+import com.google.common.io.Resources;
+import org.junit.Test;
+import org.nzbhydra.mapping.newznab.NewznabResponse;
+import org.nzbhydra.mapping.newznab.RssError;
+import org.nzbhydra.mapping.newznab.RssItem;
+import org.nzbhydra.mapping.newznab.RssRoot;
+import org.nzbhydra.mapping.newznab.Xml;
+import org.nzbhydra.web.WebConfiguration;
+import org.springframework.oxm.Unmarshaller;
+
+import javax.xml.stream.XMLStreamException;
+import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NewznabStaxParserTest {
+
+    private NewznabStaxParser testee = new NewznabStaxParser();
+    private Unmarshaller unmarshaller = new WebConfiguration().marshaller();
+
+    @Test
+    public void shouldParseRecordedResponsesLikeUnmarshaller() throws Exception {
+        String[] responses = {"newznab_3results.xml", "nzbsOrgResponse.xml", "drunkenSlugResponse.xml", "newztownResponse.xml", "nzbAgResponse.xml", "nzbCatResponse.xml",
+                "nzbFinderResponse.xml", "nzbIndexResponse.xml", "nzbSuResponse.xml", "omgwtfResponse.xml", "tabulaRasaResponse.xml", "anizbResponse.xml", "btnJackettResponse.xml",
+                "cardigann.xml", "nfo.xml", "invalidResponseWeirdDateFormat.xml"};
+        for (String response : responses) {
+            byte[] bytes = Resources.toByteArray(Resources.getResource("org/nzbhydra/mapping/" + response));
+            Xml expected = (Xml) unmarshaller.unmarshal(new StreamSource(new ByteArrayInputStream(bytes)));
+            assertThat(testee.parse(new ByteArrayInputStream(bytes))).as(response).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void shouldParseErrorResponse() throws Exception {
+        Xml xml = parse("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<error code=\"100\" description=\"Incorrect user credentials\"/>");
+        assertThat(xml).isEqualTo(new RssError("100", "Incorrect user credentials"));
+    }
+
+    @Test
+    public void shouldIgnoreValuesWhichCannotBeConverted() throws Exception {
+        RssRoot rssRoot = (RssRoot) parse("<rss xmlns:newznab=\"http://www.newznab.com/DTD/2010/feeds/attributes/\"><channel><newznab:response offset=\"a\" total=\" 10 \"/>" +
+                "<item><title><![CDATA[some]]> title</title><grabs>many</grabs><pubDate>yesterday</pubDate><unknown><title>nested</title></unknown></item></channel></rss>");
+        assertThat(rssRoot.getRssChannel().getNewznabResponse()).isEqualTo(new NewznabResponse(null, 10));
+        RssItem item = rssRoot.getRssChannel().getItems().get(0);
+        assertThat(item.getTitle()).isEqualTo("some title");
+        assertThat(item.getGrabs()).isNull();
+        assertThat(item.getPubDate()).isNull();
+    }
+
+    @Test(expected = XMLStreamException.class)
+    public void shouldFailOnUnexpectedRootElement() throws Exception {
+        parse("<metadata></metadata>");
+    }
+
+    private Xml parse(String xml) throws XMLStreamException {
+        return testee.parse(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+    }
+
+}
@@ -50,6 +50,7 @@ import org.nzbhydra.searching.SearchResultItem.DownloadType;
 import org.nzbhydra.searching.SearchResultItem.HasNfo;
 import org.nzbhydra.searching.SearchResultRepository;
 import org.nzbhydra.searching.SearchType;
+import org.nzbhydra.searching.WriteBehindPersister;
 import org.nzbhydra.searching.searchrequests.InternalData.FallbackState;
 import org.nzbhydra.searching.searchrequests.SearchRequest;
 import org.nzbhydra.searching.searchrequests.SearchRequest.SearchSource;
@@ -93,6 +94,8 @@ public class NewznabTest {
     @Mock
     private IndexerWebAccess indexerWebAccessMock;
     @Mock
+    private IndexerResponseCache indexerResponseCacheMock;
+    @Mock
     private IndexerEntity indexerEntityMock;
     @Mock
     private IndexerStatusEntity indexerStatusEntityMock;
@@ -105,6 +108,10 @@ public class NewznabTest {
     @Mock
     private SearchResultRepository searchResultRepositoryMock;
     @Mock
+    private WriteBehindPersister writeBehindPersisterMock;
+    @Mock
+    private IndexerAccessTimes indexerAccessTimesMock;
+    @Mock
     private IndexerRepository indexerRepositoryMock;
     @Mock
     private IndexerApiAccessRepository indexerApiAccessRepositoryMock;
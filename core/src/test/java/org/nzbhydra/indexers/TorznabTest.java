@@ -24,6 +24,7 @@ import org.nzbhydra.searching.CategoryProvider;
 import org.nzbhydra.searching.SearchResultItem;
 import org.nzbhydra.searching.SearchResultItem.DownloadType;
 import org.nzbhydra.searching.SearchType;
+import org.nzbhydra.searching.WriteBehindPersister;
 import org.nzbhydra.searching.searchrequests.SearchRequest;
 import org.nzbhydra.searching.searchrequests.SearchRequest.SearchSource;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -61,6 +62,10 @@ public class TorznabTest {
     @Mock
     private IndexerApiAccessRepository indexerApiAccessRepositoryMock;
     @Mock
+    private WriteBehindPersister writeBehindPersisterMock;
+    @Mock
+    private IndexerAccessTimes indexerAccessTimesMock;
+    @Mock
     private UriComponentsBuilder uriComponentsBuilderMock;
     @Captor
     private ArgumentCaptor<String> errorMessageCaptor;
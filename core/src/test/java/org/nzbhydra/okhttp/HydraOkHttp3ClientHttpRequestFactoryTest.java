@@ -7,6 +7,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.nzbhydra.config.BaseConfig;
+import org.nzbhydra.config.ConfigChangedEvent;
 import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.config.ProxyType;
 import org.nzbhydra.okhttp.HydraOkHttp3ClientHttpRequestFactory.SockProxySocketFactory;
@@ -17,7 +18,9 @@ import java.net.URISyntaxException;
 import java.util.Arrays;
 
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.when;
@@ -95,5 +98,41 @@ public class HydraOkHttp3ClientHttpRequestFactoryTest {
         assertThat(((SockProxySocketFactory) client.socketFactory()).password, is("pass"));
     }
 
+    @Test
+    public void shouldReuseClientsUntilConfigChanges() throws URISyntaxException {
+        baseConfig.getMain().setProxyType(ProxyType.NONE);
+        OkHttpClient client = testee.getOkHttpClient(new URI("http://www.google.de/api?t=search"), 10);
+        assertThat(testee.getOkHttpClient(new URI("http://www.google.de/getnzb"), 10), is(sameInstance(client)));
+        assertThat(client.readTimeoutMillis(), is(10000));
+
+        assertThat(testee.getOkHttpClient(new URI("http://www.google.de"), 20), is(not(sameInstance(client))));
+        assertThat(testee.getOkHttpClient(new URI("http://www.google.com"), 10), is(not(sameInstance(client))));
+
+        testee.handleNewConfig(new ConfigChangedEvent(this, baseConfig, baseConfig));
+        assertThat(testee.getOkHttpClient(new URI("http://www.google.de"), 10), is(not(sameInstance(client))));
+    }
+
+    @Test
+    public void shouldUseSameTimeoutsAsClientsBuiltByCallers() throws URISyntaxException {
+        baseConfig.getMain().setProxyType(ProxyType.NONE);
+        testee.timeout = 30;
+
+        //Webhooks, Sabnzbd and other calls only change the read timeout
+        OkHttpClient client = testee.getOkHttpClient(new URI("http://www.google.de"));
+        assertThat(client.readTimeoutMillis(), is(30000));
+        assertThat(client.connectTimeoutMillis(), is(10000));
+        assertThat(client.writeTimeoutMillis(), is(10000));
+
+        //Indexer calls use the indexer's timeout for everything
+        client = testee.getOkHttpClient(new URI("http://www.google.de"), 20);
+        assertThat(client.readTimeoutMillis(), is(20000));
+        assertThat(client.connectTimeoutMillis(), is(20000));
+        assertThat(client.writeTimeoutMillis(), is(20000));
+
+        //NZB downloads don't change the write timeout
+        client = testee.getOkHttpClient(new URI("http://www.google.de"), 20, 20, HydraOkHttp3ClientHttpRequestFactory.OKHTTP_DEFAULT_TIMEOUT_SECONDS);
+        assertThat(client.connectTimeoutMillis(), is(20000));
+        assertThat(client.writeTimeoutMillis(), is(10000));
+    }
 
-}
\ No newline at end of file
+}
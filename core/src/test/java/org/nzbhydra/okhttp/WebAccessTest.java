@@ -0,0 +1,85 @@
+package org.nzbhydra.okhttp;
+
+import okhttp3.OkHttpClient;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.env.ConfigurableEnvironment;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+public class WebAccessTest {
+
+    @InjectMocks
+    private WebAccess testee = new WebAccess();
+    @Mock
+    private HydraOkHttp3ClientHttpRequestFactory requestFactoryMock;
+    @Mock
+    private ConfigurableEnvironment environmentMock;
+
+    private ServerSocket serverSocket;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        when(requestFactoryMock.getOkHttpClient(any(), anyInt())).thenReturn(new OkHttpClient.Builder().readTimeout(1, TimeUnit.SECONDS).build());
+        serverSocket = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        serverSocket.close();
+    }
+
+    @Test
+    public void shouldCancelCallNotCompletingWithinTimeout() throws Exception {
+        //Sends a byte every 200ms so that the read timeout is never reached
+        Thread server = new Thread(() -> {
+            try (Socket socket = serverSocket.accept()) {
+                BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII));
+                String line;
+                while ((line = reader.readLine()) != null && !line.isEmpty()) {
+                    //Skip request
+                }
+                OutputStream outputStream = socket.getOutputStream();
+                outputStream.write("HTTP/1.1 200 OK\r\nContent-Length: 100\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                for (int i = 0; i < 100; i++) {
+                    outputStream.write('a');
+                    outputStream.flush();
+                    Thread.sleep(200);
+                }
+            } catch (Exception ignored) {
+            }
+        });
+        server.setDaemon(true);
+        server.start();
+
+        long start = System.nanoTime();
+        try {
+            testee.callUrl("http://127.0.0.1:" + serverSocket.getLocalPort(), new HashMap<>(), 1);
+            fail("Call should've timed out");
+        } catch (SocketTimeoutException e) {
+            assertThat(e.getMessage()).contains("did not complete within 1 seconds");
+        }
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(5000);
+    }
+
+}
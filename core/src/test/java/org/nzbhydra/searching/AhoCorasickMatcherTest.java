@@ -0,0 +1,60 @@
+package org.nzbhydra.searching;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AhoCorasickMatcherTest {
+
+    @Test
+    public void shouldFindContainedPatterns() {
+        AhoCorasickMatcher testee = new AhoCorasickMatcher(Arrays.asList("he", "she", "his", "hers"));
+        assertThat(testee.findAny("ushers")).isIn("she", "he", "hers");
+        assertThat(testee.findAny("this")).isEqualTo("his");
+        assertThat(testee.findAny("hxs")).isNull();
+        assertThat(testee.findAny("")).isNull();
+
+        //Pattern only found via failure link
+        testee = new AhoCorasickMatcher(Arrays.asList("abcd", "bc"));
+        assertThat(testee.findAny("xabcx")).isEqualTo("bc");
+
+        assertThat(new AhoCorasickMatcher(Collections.emptyList()).findAny("abc")).isNull();
+        assertThat(new AhoCorasickMatcher(Collections.emptyList()).isEmpty()).isTrue();
+    }
+
+    @Test
+    public void shouldMatchLikeStringContains() {
+        Random random = new Random(1);
+        for (int round = 0; round < 200; round++) {
+            List<String> patterns = new ArrayList<>();
+            for (int i = 0; i < random.nextInt(20) + 1; i++) {
+                patterns.add(randomString(random, 1 + random.nextInt(4)));
+            }
+            AhoCorasickMatcher testee = new AhoCorasickMatcher(patterns);
+            for (int i = 0; i < 50; i++) {
+                String text = randomString(random, random.nextInt(30));
+                boolean expected = patterns.stream().anyMatch(text::contains);
+                String found = testee.findAny(text);
+                assertThat(found != null).as("Patterns %s in %s", patterns, text).isEqualTo(expected);
+                if (found != null) {
+                    assertThat(text).contains(found);
+                }
+            }
+        }
+    }
+
+    private String randomString(Random random, int length) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < length; i++) {
+            builder.append((char) ('a' + random.nextInt(3)));
+        }
+        return builder.toString();
+    }
+
+}
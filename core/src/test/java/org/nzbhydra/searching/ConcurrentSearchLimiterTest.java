@@ -0,0 +1,65 @@
+package org.nzbhydra.searching;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.nzbhydra.config.SearchingConfig;
+import org.nzbhydra.searching.ConcurrentSearchLimiter.Permit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class ConcurrentSearchLimiterTest {
+
+    private ConcurrentSearchLimiter testee = new ConcurrentSearchLimiter();
+    private SearchingConfig searchingConfig = new SearchingConfig();
+
+    @Before
+    public void setUp() {
+        searchingConfig.setMaxConcurrentSearches(1);
+        testee.configure(searchingConfig);
+    }
+
+    @Test
+    public void shouldRejectSearchWhenLimitIsReached() throws Exception {
+        Permit permit = testee.tryAcquire();
+        long start = System.nanoTime();
+        try {
+            testee.tryAcquire();
+            fail("Search should've been rejected");
+        } catch (SearchLimitReachedException e) {
+            //Rejected without waiting for the running search
+            assertThat(System.nanoTime() - start).isLessThan(1_000_000_000L);
+        }
+
+        permit.close();
+        testee.tryAcquire().close();
+    }
+
+    @Test
+    public void shouldAllowAnyNumberOfSearchesWhenUnlimited() throws Exception {
+        searchingConfig.setMaxConcurrentSearches(0);
+        testee.configure(searchingConfig);
+
+        List<Permit> permits = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            permits.add(testee.tryAcquire());
+        }
+        permits.forEach(Permit::close);
+    }
+
+    @Test
+    public void shouldUseNewLimitWhenConfigChanged() throws Exception {
+        Permit permit = testee.tryAcquire();
+        searchingConfig.setMaxConcurrentSearches(2);
+        testee.configure(searchingConfig);
+
+        testee.tryAcquire();
+        testee.tryAcquire();
+        //Releasing a permit of the old limit doesn't affect the new one
+        permit.close();
+    }
+
+}
@@ -16,7 +16,9 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.when;
@@ -136,6 +138,57 @@ public class DuplicateDetectorTest {
     }
 
 
+    @Test
+    public void shouldFindSameDuplicatesAsLegacyImplementation() throws Exception {
+        LegacyDuplicateDetector legacyDuplicateDetector = new LegacyDuplicateDetector();
+        legacyDuplicateDetector.configProvider = configProviderMock;
+        for (float threshold : new float[]{0.5F, 1F, 5F, 150F}) {
+            configProviderMock.getBaseConfig().getSearching().setDuplicateSizeThresholdInPercent(threshold);
+            configProviderMock.getBaseConfig().getSearching().setDuplicateAgeThreshold(threshold);
+            for (long seed = 0; seed < 2; seed++) {
+                List<SearchResultItem> items = SyntheticSearchResults.create(1000, seed);
+
+                List<List<Long>> expected = toSearchResultIds(legacyDuplicateDetector.detectDuplicates(items));
+                List<List<Long>> actual = toSearchResultIds(testee.detectDuplicates(items));
+
+                assertThat(expected.stream().anyMatch(x -> x.size() > 1)).isTrue();
+                assertThat(actual).as("Duplicate groups with threshold %s and seed %s", threshold, seed).isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    public void shouldKeepDuplicateIdentifiersWhenAddingResults() throws Exception {
+        DuplicateGroupIndex duplicateGroupIndex = new DuplicateGroupIndex();
+        SearchResultItem item1 = new SearchResultItem();
+        setValues(item1, "1", "poster1", "group", Instant.now());
+        SearchResultItem item2 = new SearchResultItem();
+        setValues(item2, "2", "poster2", "group", Instant.now());
+
+        DuplicateDetectionResult result = testee.detectDuplicates(duplicateGroupIndex, Arrays.asList(item1, item2));
+        assertThat(result.getDuplicateGroups().size()).isEqualTo(2);
+        int identifier1 = item1.getDuplicateIdentifier();
+        int identifier2 = item2.getDuplicateIdentifier();
+        assertThat(identifier1).isNotEqualTo(identifier2);
+
+        SearchResultItem item3 = new SearchResultItem();
+        setValues(item3, "3", "poster2", "group", Instant.now());
+        SearchResultItem item4 = new SearchResultItem();
+        setValues(item4, "4", "poster3", "group", Instant.now());
+        result = testee.detectDuplicates(duplicateGroupIndex, Arrays.asList(item3, item4));
+
+        assertThat(result.getDuplicateGroups().size()).isEqualTo(3);
+        assertThat(result.getDuplicateGroups().stream().mapToInt(LinkedHashSet::size).sum()).isEqualTo(4);
+        assertThat(item1.getDuplicateIdentifier()).isEqualTo(identifier1);
+        assertThat(item2.getDuplicateIdentifier()).isEqualTo(identifier2);
+        assertThat(item3.getDuplicateIdentifier()).isEqualTo(identifier2);
+        assertThat(item4.getDuplicateIdentifier()).isNotIn(identifier1, identifier2);
+    }
+
+    private List<List<Long>> toSearchResultIds(DuplicateDetectionResult result) {
+        return result.getDuplicateGroups().stream().map(x -> x.stream().map(SearchResultItem::getSearchResultId).collect(Collectors.toList())).collect(Collectors.toList());
+    }
+
     protected void setValues(SearchResultItem item, String indexerName, String poster, String group, Instant pubDate) {
         item.setAgePrecise(true);
         item.setTitle("title");
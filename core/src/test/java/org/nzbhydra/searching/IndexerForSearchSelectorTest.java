@@ -16,6 +16,7 @@ import org.nzbhydra.config.SearchSourceRestriction;
 import org.nzbhydra.config.SearchingConfig;
 import org.nzbhydra.downloading.NzbDownloadRepository;
 import org.nzbhydra.indexers.Indexer;
+import org.nzbhydra.indexers.IndexerAccessTimes;
 import org.nzbhydra.indexers.IndexerApiAccessRepository;
 import org.nzbhydra.indexers.IndexerEntity;
 import org.nzbhydra.indexers.IndexerStatusEntity;
@@ -90,6 +91,10 @@ public class IndexerForSearchSelectorTest {
     private EntityManager entityManagerMock;
     @Mock
     private Query queryMock;
+    @Mock
+    private WriteBehindPersister writeBehindPersisterMock;
+    @InjectMocks
+    private IndexerAccessTimes indexerAccessTimes = new IndexerAccessTimes();
 
     private Map<Indexer, String> count;
 
@@ -100,6 +105,7 @@ public class IndexerForSearchSelectorTest {
     @Before
     public void setUp() throws Exception {
         MockitoAnnotations.initMocks(this);
+        outerClass.indexerAccessTimes = indexerAccessTimes;
         count = new HashMap<>();
         when(searchModuleProviderMock.getIndexers()).thenReturn(Arrays.asList(indexer));
         when(configProvider.getBaseConfig()).thenReturn(baseConfig);
@@ -0,0 +1,130 @@
+package org.nzbhydra.searching;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.Iterables;
+import com.google.common.collect.Multiset;
+import org.nzbhydra.indexers.Indexer;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import static com.google.common.collect.Lists.newArrayList;
+
+/**
+ * The duplicate detection as it was before the results were indexed by size and age. Used to make sure the results are still the same and
+ * for comparison in the benchmark.
+ */
+public class LegacyDuplicateDetector extends DuplicateDetector {
+
+    private float configuredAgeThreshold;
+    private float configuredSizeThreshold;
+
+    @Override
+    public DuplicateDetectionResult detectDuplicates(List<SearchResultItem> results) {
+        //Read once instead of for every comparison so that the comparison isn't skewed by a mocked config provider
+        configuredAgeThreshold = configProvider.getBaseConfig().getSearching().getDuplicateAgeThreshold();
+        configuredSizeThreshold = configProvider.getBaseConfig().getSearching().getDuplicateSizeThresholdInPercent();
+        Map<String, List<SearchResultItem>> groupedByTitle = results.stream().collect(Collectors.groupingBy(x -> x.getTitle().replaceFirst("[ .\\-_]", "")));
+        Multiset<Indexer> countUniqueResultsPerIndexer = HashMultiset.create();
+        List<LinkedHashSet<SearchResultItem>> duplicateGroups = new ArrayList<>();
+
+        //In each list of searchResults with the same title we want to find the duplicates
+        int countDetectedDuplicates = 0;
+        for (List<SearchResultItem> titleGroup : groupedByTitle.values()) {
+            titleGroup = titleGroup.stream().sorted(Comparator.comparing(SearchResultItem::getPubDate).reversed()).collect(Collectors.toList());
+            //So we start with a bucket with the first (later we have a list of buckets where all searchResults in a bucket are duplicates)
+            List<LinkedHashSet<SearchResultItem>> listOfBuckets = new ArrayList<>();
+            listOfBuckets.add(new LinkedHashSet<>(newArrayList(titleGroup.get(0))));
+            //And iterate over every other item in the list
+            for (int i = 1; i < titleGroup.size(); i++) {
+                SearchResultItem searchResultItem = titleGroup.get(i);
+                boolean foundBucket = false;
+                //Iterate over already existing buckets
+                for (LinkedHashSet<SearchResultItem> bucket : listOfBuckets) {
+                    if (bucket.stream().map(SearchResultItem::getIndexer).collect(Collectors.toList()).contains(searchResultItem.getIndexer())) {
+                        continue;
+                    }
+                    //And all searchResults in those buckets
+                    for (SearchResultItem other : bucket) {
+                        //Now we can check if the two searchResults are duplicates
+                        boolean same = testForSameness(searchResultItem, other);
+                        if (same) {
+                            //If they are the same we found a bucket for the result. We add it and continue
+                            foundBucket = true;
+                            bucket.add(searchResultItem);
+                            countDetectedDuplicates++;
+                            break;
+                        }
+                    }
+                    //If we already found a bucket for the result we can go on with the next
+                    if (foundBucket) {
+                        break;
+                    }
+                }
+                //If we didn't find a bucket for the result we start a new one
+                if (!foundBucket) {
+                    listOfBuckets.add(new LinkedHashSet<>(newArrayList(searchResultItem)));
+                }
+            }
+            LinkedHashSet<SearchResultItem> lastBucket = Iterables.getLast(listOfBuckets);
+            if (lastBucket.size() == 1) {
+                countUniqueResultsPerIndexer.add(lastBucket.iterator().next().getIndexer());
+            }
+            duplicateGroups.addAll(listOfBuckets);
+        }
+        int duplicateIdentifier = 0;
+        for (LinkedHashSet<SearchResultItem> group : duplicateGroups) {
+            for (SearchResultItem x : group) {
+                x.setDuplicateIdentifier(duplicateIdentifier);
+            }
+            duplicateIdentifier++;
+        }
+
+        return new DuplicateDetectionResult(duplicateGroups, countUniqueResultsPerIndexer);
+    }
+
+    private boolean testForSameness(SearchResultItem result1, SearchResultItem result2) {
+        if (result1.getIndexer().equals(result2.getIndexer())) {
+            return false;
+        }
+
+        boolean groupKnown = result1.getGroup().isPresent() && result2.getGroup().isPresent();
+        boolean sameGroup = groupKnown && Objects.equals(result1.getGroup().get(), result2.getGroup().get());
+        boolean posterKnown = result1.getPoster().isPresent() && result2.getPoster().isPresent();
+        boolean samePoster = posterKnown && Objects.equals(result1.getPoster().get(), result2.getPoster().get());
+
+        float duplicateAgeThreshold = configuredAgeThreshold;
+        float duplicateSizeThreshold = configuredSizeThreshold;
+
+        if (groupKnown && !sameGroup) {
+            return false;
+        }
+        if (posterKnown && !samePoster) {
+            return false;
+        }
+
+        if ((sameGroup && !posterKnown) || (samePoster && !groupKnown)) {
+            duplicateAgeThreshold *= 2;
+            duplicateSizeThreshold *= 2;
+        }
+
+        return testForDuplicateAge(result1, result2, duplicateAgeThreshold) && testForDuplicateSize(result1, result2, duplicateSizeThreshold);
+    }
+
+    private boolean testForDuplicateSize(SearchResultItem result1, SearchResultItem result2, float duplicateSizeDifference) {
+        if (result1.getSize() == null || result2.getSize() == null) {
+            return false;
+        }
+        long sizeDifference = Math.abs(result1.getSize() - result2.getSize());
+        float sizeAverage = (result1.getSize() + result2.getSize()) / 2;
+        float sizeDiffPercent = Math.abs(sizeDifference / sizeAverage) * 100;
+        boolean sameSize = sizeDiffPercent < duplicateSizeDifference;
+        return sameSize;
+    }
+
+}
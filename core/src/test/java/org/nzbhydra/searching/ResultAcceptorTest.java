@@ -8,6 +8,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.nzbhydra.config.BaseConfig;
 import org.nzbhydra.config.Category;
+import org.nzbhydra.config.ConfigChangedEvent;
 import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.config.IndexerConfig;
 import org.nzbhydra.config.SearchSourceRestriction;
@@ -15,17 +16,25 @@ import org.nzbhydra.config.SearchingConfig;
 import org.nzbhydra.indexers.Indexer;
 import org.nzbhydra.indexers.IndexerEntity;
 import org.nzbhydra.indexers.Newznab;
+import org.nzbhydra.searching.ResultAcceptor.AcceptorResult;
+import org.nzbhydra.searching.ResultAcceptorRules.Restrictions;
+import org.nzbhydra.searching.ResultAcceptorRules.Title;
+import org.nzbhydra.searching.ResultAcceptorRules.WordRules;
 import org.nzbhydra.searching.searchrequests.InternalData;
 import org.nzbhydra.searching.searchrequests.SearchRequest;
 import org.nzbhydra.searching.searchrequests.SearchRequest.SearchSource;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
+import static junit.framework.TestCase.assertEquals;
 import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertSame;
 import static junit.framework.TestCase.assertTrue;
 import static org.mockito.Mockito.when;
 
@@ -66,40 +75,40 @@ public class ResultAcceptorTest {
         internalData.getRequiredWords().clear();
         internalData.getRequiredWords().add("abc.def");
         item.setTitle("abc.def ghi");
-        assertTrue(testee.checkRequiredWords(HashMultiset.create(), internalData.getRequiredWords(), item));
+        assertTrue(testee.checkRequiredWords(HashMultiset.create(), new WordRules(internalData.getRequiredWords()), new Title(item.getTitle())));
         item.setTitle("abc.DEF ghi");
-        assertTrue(testee.checkRequiredWords(HashMultiset.create(), internalData.getRequiredWords(), item));
+        assertTrue(testee.checkRequiredWords(HashMultiset.create(), new WordRules(internalData.getRequiredWords()), new Title(item.getTitle())));
         item.setTitle("abc.dEF ghi");
-        assertTrue(testee.checkRequiredWords(HashMultiset.create(), internalData.getRequiredWords(), item));
+        assertTrue(testee.checkRequiredWords(HashMultiset.create(), new WordRules(internalData.getRequiredWords()), new Title(item.getTitle())));
         item.setTitle("abcdef ghi");
-        assertFalse(testee.checkRequiredWords(HashMultiset.create(), internalData.getRequiredWords(), item));
+        assertFalse(testee.checkRequiredWords(HashMultiset.create(), new WordRules(internalData.getRequiredWords()), new Title(item.getTitle())));
         item.setTitle("abc def ghi");
-        assertFalse(testee.checkRequiredWords(HashMultiset.create(), internalData.getRequiredWords(), item));
+        assertFalse(testee.checkRequiredWords(HashMultiset.create(), new WordRules(internalData.getRequiredWords()), new Title(item.getTitle())));
 
         internalData.getRequiredWords().clear();
         internalData.getRequiredWords().add("abc");
         item.setTitle("abc def ghi");
-        assertTrue(testee.checkRequiredWords(HashMultiset.create(), internalData.getRequiredWords(), item));
+        assertTrue(testee.checkRequiredWords(HashMultiset.create(), new WordRules(internalData.getRequiredWords()), new Title(item.getTitle())));
         item.setTitle("abc.def ghi");
-        assertTrue(testee.checkRequiredWords(HashMultiset.create(), internalData.getRequiredWords(), item));
+        assertTrue(testee.checkRequiredWords(HashMultiset.create(), new WordRules(internalData.getRequiredWords()), new Title(item.getTitle())));
         item.setTitle("abcdef ghi");
-        assertFalse(testee.checkRequiredWords(HashMultiset.create(), internalData.getRequiredWords(), item));
+        assertFalse(testee.checkRequiredWords(HashMultiset.create(), new WordRules(internalData.getRequiredWords()), new Title(item.getTitle())));
         item.setTitle("def ghi");
-        assertFalse(testee.checkRequiredWords(HashMultiset.create(), internalData.getRequiredWords(), item));
+        assertFalse(testee.checkRequiredWords(HashMultiset.create(), new WordRules(internalData.getRequiredWords()), new Title(item.getTitle())));
 
         internalData.getRequiredWords().add("def");
         item.setTitle("abc def ghi");
-        assertTrue(testee.checkRequiredWords(HashMultiset.create(), internalData.getRequiredWords(), item));
+        assertTrue(testee.checkRequiredWords(HashMultiset.create(), new WordRules(internalData.getRequiredWords()), new Title(item.getTitle())));
         item.setTitle("abc de");
-        assertFalse(testee.checkRequiredWords(HashMultiset.create(), internalData.getRequiredWords(), item));
+        assertFalse(testee.checkRequiredWords(HashMultiset.create(), new WordRules(internalData.getRequiredWords()), new Title(item.getTitle())));
 
         internalData.getRequiredWords().add("def");
         item.setTitle("abc def ghi");
-        assertTrue(testee.checkRequiredWords(HashMultiset.create(), internalData.getRequiredWords(), item));
+        assertTrue(testee.checkRequiredWords(HashMultiset.create(), new WordRules(internalData.getRequiredWords()), new Title(item.getTitle())));
         item.setTitle("abc DEF ghi");
-        assertTrue(testee.checkRequiredWords(HashMultiset.create(), internalData.getRequiredWords(), item));
+        assertTrue(testee.checkRequiredWords(HashMultiset.create(), new WordRules(internalData.getRequiredWords()), new Title(item.getTitle())));
         item.setTitle("abc dEF ghi");
-        assertTrue(testee.checkRequiredWords(HashMultiset.create(), internalData.getRequiredWords(), item));
+        assertTrue(testee.checkRequiredWords(HashMultiset.create(), new WordRules(internalData.getRequiredWords()), new Title(item.getTitle())));
     }
 
 
@@ -108,30 +117,30 @@ public class ResultAcceptorTest {
         internalData.getForbiddenWords().clear();
         internalData.getForbiddenWords().add("abc.def");
         item.setTitle("abc.def ghi");
-        assertFalse(testee.checkForForbiddenWords(indexerConfig, HashMultiset.create(), internalData.getForbiddenWords(), item));
+        assertFalse(testee.checkForForbiddenWords(indexerConfig, HashMultiset.create(), new WordRules(internalData.getForbiddenWords()), new Title(item.getTitle())));
         item.setTitle("abc.DEF ghi");
-        assertFalse(testee.checkForForbiddenWords(indexerConfig, HashMultiset.create(), internalData.getForbiddenWords(), item));
+        assertFalse(testee.checkForForbiddenWords(indexerConfig, HashMultiset.create(), new WordRules(internalData.getForbiddenWords()), new Title(item.getTitle())));
         item.setTitle("abc.dEF ghi");
-        assertFalse(testee.checkForForbiddenWords(indexerConfig, HashMultiset.create(), internalData.getForbiddenWords(), item));
+        assertFalse(testee.checkForForbiddenWords(indexerConfig, HashMultiset.create(), new WordRules(internalData.getForbiddenWords()), new Title(item.getTitle())));
 
         item.setTitle("abcdef ghi");
-        assertTrue(testee.checkForForbiddenWords(indexerConfig, HashMultiset.create(), internalData.getForbiddenWords(), item));
+        assertTrue(testee.checkForForbiddenWords(indexerConfig, HashMultiset.create(), new WordRules(internalData.getForbiddenWords()), new Title(item.getTitle())));
         item.setTitle("abc def ghi");
-        assertTrue(testee.checkForForbiddenWords(indexerConfig, HashMultiset.create(), internalData.getForbiddenWords(), item));
+        assertTrue(testee.checkForForbiddenWords(indexerConfig, HashMultiset.create(), new WordRules(internalData.getForbiddenWords()), new Title(item.getTitle())));
 
 
         internalData.getForbiddenWords().clear();
         internalData.getForbiddenWords().add("abc");
         item.setTitle("abc def ghi");
-        assertFalse(testee.checkForForbiddenWords(indexerConfig, HashMultiset.create(), internalData.getForbiddenWords(), item));
+        assertFalse(testee.checkForForbiddenWords(indexerConfig, HashMultiset.create(), new WordRules(internalData.getForbiddenWords()), new Title(item.getTitle())));
         item.setTitle("ABC def ghi");
-        assertFalse(testee.checkForForbiddenWords(indexerConfig, HashMultiset.create(), internalData.getForbiddenWords(), item));
+        assertFalse(testee.checkForForbiddenWords(indexerConfig, HashMultiset.create(), new WordRules(internalData.getForbiddenWords()), new Title(item.getTitle())));
         item.setTitle("aBC def ghi");
-        assertFalse(testee.checkForForbiddenWords(indexerConfig, HashMultiset.create(), internalData.getForbiddenWords(), item));
+        assertFalse(testee.checkForForbiddenWords(indexerConfig, HashMultiset.create(), new WordRules(internalData.getForbiddenWords()), new Title(item.getTitle())));
         item.setTitle("abcdef ghi");
-        assertTrue(testee.checkForForbiddenWords(indexerConfig, HashMultiset.create(), internalData.getForbiddenWords(), item));
+        assertTrue(testee.checkForForbiddenWords(indexerConfig, HashMultiset.create(), new WordRules(internalData.getForbiddenWords()), new Title(item.getTitle())));
         item.setTitle("def ghi");
-        assertTrue(testee.checkForForbiddenWords(indexerConfig, HashMultiset.create(), internalData.getForbiddenWords(), item));
+        assertTrue(testee.checkForForbiddenWords(indexerConfig, HashMultiset.create(), new WordRules(internalData.getForbiddenWords()), new Title(item.getTitle())));
     }
 
     @Test
@@ -210,16 +219,65 @@ public class ResultAcceptorTest {
         when(searchingConfig.getForbiddenPosters()).thenReturn(Arrays.asList("spammer"));
 
         item.setPoster("niceGuy");
-        assertTrue(testee.checkForForbiddenPoster(HashMultiset.create(), item));
+        assertTrue(testee.checkForForbiddenPoster(HashMultiset.create(), new ResultAcceptorRules(baseConfig), item));
 
         item.setPoster(null);
-        assertTrue(testee.checkForForbiddenPoster(HashMultiset.create(), item));
+        assertTrue(testee.checkForForbiddenPoster(HashMultiset.create(), new ResultAcceptorRules(baseConfig), item));
 
         item.setPoster("spammer");
-        assertFalse(testee.checkForForbiddenPoster(HashMultiset.create(), item));
+        assertFalse(testee.checkForForbiddenPoster(HashMultiset.create(), new ResultAcceptorRules(baseConfig), item));
 
         when(searchingConfig.getForbiddenPosters()).thenReturn(Arrays.asList());
-        assertTrue(testee.checkForForbiddenPoster(HashMultiset.create(), item));
+        assertTrue(testee.checkForForbiddenPoster(HashMultiset.create(), new ResultAcceptorRules(baseConfig), item));
+    }
+
+    @Test
+    public void shouldCompileRulesOnceUntilConfigChanges() {
+        when(searchingConfig.getForbiddenPosters()).thenReturn(Arrays.asList("spammer"));
+        item.setPoster("spammer");
+        ResultAcceptorRules rules = testee.getRules();
+        assertSame(rules, testee.getRules());
+        assertFalse(testee.checkForForbiddenPoster(HashMultiset.create(), testee.getRules(), item));
+
+        BaseConfig newConfig = new BaseConfig();
+        newConfig.setSearching(new SearchingConfig());
+        testee.handleNewConfig(new ConfigChangedEvent(this, baseConfig, newConfig));
+        assertTrue(testee.checkForForbiddenPoster(HashMultiset.create(), testee.getRules(), item));
+    }
+
+    @Test
+    public void shouldAcceptLargeResultPagesInParallelLikeSequentially() {
+        when(searchRequest.getSource()).thenReturn(SearchSource.INTERNAL);
+        when(searchingConfig.getApplyRestrictions()).thenReturn(SearchSourceRestriction.BOTH);
+        when(searchingConfig.getForbiddenWords()).thenReturn(Arrays.asList("forbidden", "bad.word"));
+        when(searchingConfig.getForbiddenPosters()).thenReturn(Arrays.asList("spammer"));
+        category.setApplyRestrictionsType(SearchSourceRestriction.BOTH);
+        category.setIgnoreResultsFrom(SearchSourceRestriction.NONE);
+        Indexer indexer = new Newznab();
+        indexer.initialize(indexerConfig, new IndexerEntity());
+        List<SearchResultItem> items = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            SearchResultItem item = new SearchResultItem();
+            item.setTitle(i % 7 == 0 ? "title forbidden " + i : (i % 11 == 0 ? "title.bad.word." + i : "title " + i));
+            item.setPoster(i % 13 == 0 ? "spammer" : "poster");
+            item.setIndexerGuid("guid" + i);
+            item.setLink("link" + i);
+            item.setPubDate(Instant.now());
+            item.setCategory(category);
+            item.setIndexer(indexer);
+            items.add(item);
+        }
+
+        testee.parallelAcceptanceThreshold = Integer.MAX_VALUE;
+        AcceptorResult sequentialResult = testee.acceptResults(items, searchRequest, indexerConfig);
+        testee.parallelAcceptanceThreshold = 10;
+        AcceptorResult parallelResult = testee.acceptResults(items, searchRequest, indexerConfig);
+
+        assertEquals(sequentialResult.getAcceptedResults(), parallelResult.getAcceptedResults());
+        assertEquals(sequentialResult.getReasonsForRejection(), parallelResult.getReasonsForRejection());
+        long expectedRejected = items.stream().filter(x -> x.getTitle().contains("forbidden") || x.getTitle().contains("bad.word") || x.getPoster().get().equals("spammer")).count();
+        assertEquals(expectedRejected, sequentialResult.getNumberOfRejectedResults());
+        assertEquals(1000 - expectedRejected, sequentialResult.getAcceptedResults().size());
     }
 
     @Test
@@ -227,16 +285,16 @@ public class ResultAcceptorTest {
         when(searchingConfig.getForbiddenGroups()).thenReturn(Arrays.asList("spammergroup"));
 
         item.setGroup("niceGroup");
-        assertTrue(testee.checkForForbiddenGroup(HashMultiset.create(), item));
+        assertTrue(testee.checkForForbiddenGroup(HashMultiset.create(), new ResultAcceptorRules(baseConfig), item));
 
         item.setGroup(null);
-        assertTrue(testee.checkForForbiddenGroup(HashMultiset.create(), item));
+        assertTrue(testee.checkForForbiddenGroup(HashMultiset.create(), new ResultAcceptorRules(baseConfig), item));
 
         item.setGroup("spammergroup");
-        assertFalse(testee.checkForForbiddenGroup(HashMultiset.create(), item));
+        assertFalse(testee.checkForForbiddenGroup(HashMultiset.create(), new ResultAcceptorRules(baseConfig), item));
 
         when(searchingConfig.getForbiddenGroups()).thenReturn(Collections.emptyList());
-        assertTrue(testee.checkForForbiddenGroup(HashMultiset.create(), item));
+        assertTrue(testee.checkForForbiddenGroup(HashMultiset.create(), new ResultAcceptorRules(baseConfig), item));
     }
 
     @Test
@@ -285,11 +343,11 @@ public class ResultAcceptorTest {
     @Test
     public void shouldCheckRegexes() {
         item.setTitle("aabccd");
-        assertTrue(testee.checkRegexes(item, HashMultiset.create(), "", ""));
-        assertTrue(testee.checkRegexes(item, HashMultiset.create(), "a+b", ""));
-        assertTrue(testee.checkRegexes(item, HashMultiset.create(), "", ""));
-        assertFalse(testee.checkRegexes(item, HashMultiset.create(), "a+b", "c+d"));
-        assertFalse(testee.checkRegexes(item, HashMultiset.create(), "", "c+d"));
+        assertTrue(testee.checkRegexes(new Title(item.getTitle()), HashMultiset.create(), Restrictions.compile(""), Restrictions.compile("")));
+        assertTrue(testee.checkRegexes(new Title(item.getTitle()), HashMultiset.create(), Restrictions.compile("a+b"), Restrictions.compile("")));
+        assertTrue(testee.checkRegexes(new Title(item.getTitle()), HashMultiset.create(), Restrictions.compile(""), Restrictions.compile("")));
+        assertFalse(testee.checkRegexes(new Title(item.getTitle()), HashMultiset.create(), Restrictions.compile("a+b"), Restrictions.compile("c+d")));
+        assertFalse(testee.checkRegexes(new Title(item.getTitle()), HashMultiset.create(), Restrictions.compile(""), Restrictions.compile("c+d")));
     }
 
 
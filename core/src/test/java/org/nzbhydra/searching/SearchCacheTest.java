@@ -0,0 +1,125 @@
+package org.nzbhydra.searching;
+
+import org.junit.Test;
+import org.nzbhydra.config.BaseConfig;
+import org.nzbhydra.config.ConfigChangedEvent;
+import org.nzbhydra.searching.IndexerForSearchSelector.IndexerForSearchSelection;
+import org.nzbhydra.searching.SearchCache.Region;
+import org.nzbhydra.searching.SearchCache.SearchCacheStatistics;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SearchCacheTest {
+
+    private static final Duration EXPIRATION = Duration.ofMinutes(5);
+
+    @Test
+    public void shouldSeparateRegions() {
+        SearchCache testee = new SearchCache(1000);
+        testee.put(Region.SEARCHES, 1, "search", 10, EXPIRATION);
+        testee.put(Region.API_SEARCHES, 1, "api", 10, EXPIRATION);
+
+        assertThat(testee.get(Region.SEARCHES, 1, String.class)).isEqualTo(Optional.of("search"));
+        assertThat(testee.get(Region.API_SEARCHES, 1, String.class)).isEqualTo(Optional.of("api"));
+        assertThat(testee.get(Region.SEARCHES, 2, String.class)).isEqualTo(Optional.empty());
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedWhenSizeIsExceeded() {
+        SearchCache testee = new SearchCache(1000);
+        testee.put(Region.SEARCHES, 1, "a", 400, EXPIRATION);
+        testee.put(Region.SEARCHES, 2, "b", 400, EXPIRATION);
+        testee.get(Region.SEARCHES, 1, String.class);
+        testee.put(Region.SEARCHES, 3, "c", 400, EXPIRATION);
+
+        assertThat(testee.get(Region.SEARCHES, 1, String.class).isPresent()).isTrue();
+        assertThat(testee.get(Region.SEARCHES, 2, String.class).isPresent()).isFalse();
+        assertThat(testee.get(Region.SEARCHES, 3, String.class).isPresent()).isTrue();
+
+        SearchCacheStatistics statistics = testee.getStatistics();
+        assertThat(statistics.getEntries()).isEqualTo(2);
+        assertThat(statistics.getEstimatedBytes()).isEqualTo(800);
+        assertThat(statistics.getHits()).isEqualTo(3);
+        assertThat(statistics.getMisses()).isEqualTo(1);
+        assertThat(statistics.getEvictions()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldUpdateSizeWhenPutAgain() {
+        SearchCache testee = new SearchCache(1000);
+        testee.put(Region.SEARCHES, 1, "a", 400, EXPIRATION);
+        testee.put(Region.SEARCHES, 2, "b", 400, EXPIRATION);
+        //Entry grew so the other one must make room
+        testee.put(Region.SEARCHES, 2, "b", 700, EXPIRATION);
+
+        assertThat(testee.get(Region.SEARCHES, 1, String.class).isPresent()).isFalse();
+        assertThat(testee.getStatistics().getEstimatedBytes()).isEqualTo(700);
+    }
+
+    @Test
+    public void shouldExpireEntriesNotAccessedInTime() {
+        SearchCache testee = new SearchCache(1000);
+        Instant now = Instant.now();
+        testee.clock = Clock.fixed(now, ZoneId.of("UTC"));
+        testee.put(Region.SEARCHES, 1, "a", 10, EXPIRATION);
+        testee.put(Region.API_SEARCHES, 1, "b", 10, Duration.ofHours(1));
+
+        testee.clock = Clock.fixed(now.plus(Duration.ofMinutes(4)), ZoneId.of("UTC"));
+        assertThat(testee.get(Region.SEARCHES, 1, String.class).isPresent()).isTrue();
+        //Accessing resets the expiration
+        testee.clock = Clock.fixed(now.plus(Duration.ofMinutes(8)), ZoneId.of("UTC"));
+        assertThat(testee.get(Region.SEARCHES, 1, String.class).isPresent()).isTrue();
+
+        testee.clock = Clock.fixed(now.plus(Duration.ofMinutes(14)), ZoneId.of("UTC"));
+        assertThat(testee.get(Region.SEARCHES, 1, String.class).isPresent()).isFalse();
+        assertThat(testee.get(Region.API_SEARCHES, 1, String.class).isPresent()).isTrue();
+        assertThat(testee.getStatistics().getExpirations()).isEqualTo(1);
+    }
+
+    @Test
+    public void shouldKeepEntriesWhenSizeIsChanged() {
+        SearchCache testee = new SearchCache(SearchCache.DEFAULT_SIZE_MB * 1024 * 1024);
+        testee.put(Region.SEARCHES, 1, "a", 400, EXPIRATION);
+        BaseConfig baseConfig = new BaseConfig();
+        baseConfig.getSearching().setSearchCacheSizeMb(1);
+        testee.handleNewConfig(new ConfigChangedEvent(this, new BaseConfig(), baseConfig));
+
+        assertThat(testee.getStatistics().getMaximumBytes()).isEqualTo(1024 * 1024);
+        assertThat(testee.get(Region.SEARCHES, 1, String.class)).isEqualTo(Optional.of("a"));
+    }
+
+    @Test
+    public void shouldCountSharedResultsOnce() {
+        IndexerForSearchSelection pickingResult = new IndexerForSearchSelection();
+        SearchCacheEntry searchCacheEntry = new SearchCacheEntry(null, pickingResult, null);
+        long emptySize = SearchCache.estimateSize(searchCacheEntry);
+
+        List<SearchResultItem> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            SearchResultItem item = new SearchResultItem();
+            item.setTitle("title" + i);
+            item.getAttributes().put("size", "1000");
+            items.add(item);
+        }
+        IndexerSearchResult indexerSearchResult = new IndexerSearchResult();
+        indexerSearchResult.setSearchResultItems(items);
+        searchCacheEntry.getIndexerSearchResultsByIndexer().put(null, Collections.singletonList(indexerSearchResult));
+        long sizeWithIndexerResults = SearchCache.estimateSize(searchCacheEntry);
+        assertThat(sizeWithIndexerResults).isGreaterThan(emptySize + 10 * SearchCache.estimateSize(items.get(0)) - 1);
+
+        searchCacheEntry.getSearchResultItems().addAll(items);
+        long sizeWithAcceptedResults = SearchCache.estimateSize(searchCacheEntry);
+        //Only the references are added, not the results again
+        assertThat(sizeWithAcceptedResults - sizeWithIndexerResults).isLessThan(SearchCache.estimateSize(items.get(0)) * 10);
+    }
+
+}
@@ -0,0 +1,92 @@
+package org.nzbhydra.searching;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.nzbhydra.config.SearchingConfig;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.Assert.fail;
+
+public class SearchRequestExecutorTest {
+
+    @Spy
+    private ConcurrentSearchLimiter concurrentSearchLimiter = new ConcurrentSearchLimiter();
+    @InjectMocks
+    private SearchRequestExecutor testee = new SearchRequestExecutor();
+
+    private SearchingConfig searchingConfig = new SearchingConfig();
+    private CountDownLatch runningSearchesLatch = new CountDownLatch(1);
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+        searchingConfig.setMaxConcurrentSearches(1);
+        concurrentSearchLimiter.configure(searchingConfig);
+        testee.configure(searchingConfig);
+    }
+
+    @After
+    public void tearDown() {
+        runningSearchesLatch.countDown();
+        testee.destroy();
+    }
+
+    @Test
+    public void shouldRejectSearchWhenLimitIsReachedAndReleasePermitWhenFinished() throws Exception {
+        testee.submit(() -> {
+            runningSearchesLatch.await();
+            return null;
+        });
+        try {
+            testee.submit(() -> null);
+            fail("Search should've been rejected");
+        } catch (SearchLimitReachedException e) {
+            //Expected
+        }
+
+        runningSearchesLatch.countDown();
+        CountDownLatch nextSearchLatch = new CountDownLatch(1);
+        long giveUp = System.currentTimeMillis() + 5000;
+        while (System.currentTimeMillis() < giveUp) {
+            try {
+                testee.submit(() -> {
+                    nextSearchLatch.countDown();
+                    return null;
+                });
+                break;
+            } catch (SearchLimitReachedException e) {
+                //The running search hasn't released its permit yet
+                Thread.sleep(10);
+            }
+        }
+        assertThat(nextSearchLatch.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void shouldRejectSearchWhenQueueIsFull() throws Exception {
+        searchingConfig.setMaxConcurrentSearches(0);
+        concurrentSearchLimiter.configure(searchingConfig);
+        testee.configure(searchingConfig);
+
+        for (int i = 0; i < SearchRequestExecutor.DEFAULT_THREADS + SearchRequestExecutor.QUEUE_CAPACITY; i++) {
+            testee.submit(() -> {
+                runningSearchesLatch.await();
+                return null;
+            });
+        }
+        try {
+            testee.submit(() -> null);
+            fail("Search should've been rejected");
+        } catch (SearchLimitReachedException e) {
+            //Expected
+        }
+    }
+
+}
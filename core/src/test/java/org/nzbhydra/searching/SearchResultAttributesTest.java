@@ -0,0 +1,68 @@
+package org.nzbhydra.searching;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SearchResultAttributesTest {
+
+    @Test
+    public void shouldBehaveLikeHashMap() {
+        Random random = new Random(1);
+        Map<String, String> expected = new HashMap<>();
+        SearchResultAttributes testee = new SearchResultAttributes();
+        for (int i = 0; i < 1000; i++) {
+            String key = "key" + random.nextInt(20);
+            String value = random.nextInt(10) == 0 ? null : "value" + random.nextInt(1000);
+            switch (random.nextInt(4)) {
+                case 0:
+                    assertThat(testee.remove(key)).isEqualTo(expected.remove(key));
+                    break;
+                case 1:
+                    assertThat(testee.get(key)).isEqualTo(expected.get(key));
+                    assertThat(testee.containsKey(key)).isEqualTo(expected.containsKey(key));
+                    break;
+                default:
+                    assertThat(testee.put(key, value)).isEqualTo(expected.put(key, value));
+            }
+            assertThat(testee).isEqualTo(expected);
+            assertThat(testee.hashCode()).isEqualTo(expected.hashCode());
+        }
+        assertThat(new SearchResultAttributes(expected)).isEqualTo(expected);
+    }
+
+    @Test
+    public void shouldRemoveAndUpdateUsingEntries() {
+        SearchResultAttributes testee = new SearchResultAttributes(ImmutableMap.of("a", "1", "b", "2", "c", "3"));
+        Iterator<Map.Entry<String, String>> iterator = testee.entrySet().iterator();
+        iterator.next();
+        iterator.remove();
+        iterator.next().setValue("4");
+
+        assertThat(testee).isEqualTo(ImmutableMap.of("b", "4", "c", "3"));
+        testee.clear();
+        assertThat(testee).isEmpty();
+    }
+
+    @Test
+    public void shouldShareNamesOfResultsWithSameAttributes() {
+        SearchResultAttributes first = new SearchResultAttributes(ImmutableMap.of("size", "1000", "category", "5000"));
+        SearchResultAttributes second = new SearchResultAttributes();
+        second.put(new String("category"), "2000");
+        second.put(new String("size"), "2000");
+
+        assertThat(first.sharesNamesWith(second)).isTrue();
+        assertThat(first.keySet().iterator().next()).isSameAs(second.keySet().iterator().next());
+        assertThat(first.get("category")).isNotEqualTo(second.get("category"));
+
+        second.put("grabs", "1");
+        assertThat(first.sharesNamesWith(second)).isFalse();
+    }
+
+}
@@ -0,0 +1,55 @@
+package org.nzbhydra.searching;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.Before;
+import org.junit.Test;
+import org.nzbhydra.indexers.IndexerEntity;
+import org.nzbhydra.searching.SearchResultItem.DownloadType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SearchResultRepositoryImplTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private SearchResultRepositoryImpl testee;
+    private IndexerEntity indexerEntity = new IndexerEntity();
+
+    @Before
+    public void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:searchResultRepositoryImplTest;DB_CLOSE_DELAY=-1");
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS SEARCHRESULT");
+        jdbcTemplate.execute("CREATE TABLE SEARCHRESULT (ID BIGINT PRIMARY KEY NOT NULL, DETAILS VARCHAR(4000), DOWNLOAD_TYPE VARCHAR(255), FIRST_FOUND TIMESTAMP, INDEXERGUID VARCHAR(255) NOT NULL, LINK VARCHAR(4000), PUB_DATE TIMESTAMP, TITLE VARCHAR(4000) NOT NULL, INDEXER_ID INTEGER NOT NULL)");
+        testee = new SearchResultRepositoryImpl(jdbcTemplate);
+        indexerEntity.setId(3);
+    }
+
+    @Test
+    public void shouldInsertNewAndOverwriteExistingResults() {
+        Instant pubDate = Instant.ofEpochSecond(1500000000);
+        testee.mergeAll(Arrays.asList(createEntity(1, "title1", pubDate), createEntity(2, "title2", null)));
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM SEARCHRESULT", Integer.class)).isEqualTo(2);
+
+        testee.mergeAll(Arrays.asList(createEntity(2, "title2 updated", null), createEntity(3, "title3", null)));
+        testee.mergeAll(Collections.emptyList());
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM SEARCHRESULT", Integer.class)).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT TITLE FROM SEARCHRESULT WHERE ID = 2", String.class)).isEqualTo("title2 updated");
+        assertThat(jdbcTemplate.queryForObject("SELECT INDEXER_ID FROM SEARCHRESULT WHERE ID = 1", Integer.class)).isEqualTo(3);
+        assertThat(jdbcTemplate.queryForObject("SELECT DOWNLOAD_TYPE FROM SEARCHRESULT WHERE ID = 1", String.class)).isEqualTo("NZB");
+        assertThat(jdbcTemplate.queryForObject("SELECT PUB_DATE FROM SEARCHRESULT WHERE ID = 1", java.sql.Timestamp.class).toInstant()).isEqualTo(pubDate);
+    }
+
+    private SearchResultEntity createEntity(long id, String title, Instant pubDate) {
+        SearchResultEntity entity = new SearchResultEntity(indexerEntity, Instant.now(), title, "guid" + id, "link", "details", DownloadType.NZB, pubDate);
+        entity.setId(id);
+        return entity;
+    }
+
+}
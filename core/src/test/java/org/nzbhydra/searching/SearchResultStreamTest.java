@@ -0,0 +1,108 @@
+package org.nzbhydra.searching;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.nzbhydra.config.BaseConfig;
+import org.nzbhydra.config.ConfigProvider;
+import org.nzbhydra.config.IndexerConfig;
+import org.nzbhydra.config.SearchingConfig;
+import org.nzbhydra.indexers.IndexerEntity;
+import org.nzbhydra.indexers.Newznab;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+public class SearchResultStreamTest {
+
+    @InjectMocks
+    private DuplicateDetector duplicateDetector = new DuplicateDetector();
+    @Mock
+    private ConfigProvider configProviderMock;
+    @Mock
+    private InternalSearchResultProcessor searchResultProcessorMock;
+
+    private SearchResultStream testee;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        BaseConfig baseConfig = new BaseConfig();
+        baseConfig.setSearching(new SearchingConfig());
+        when(configProviderMock.getBaseConfig()).thenReturn(baseConfig);
+        when(searchResultProcessorMock.createIndexerSearchMetaData(any())).thenReturn(new IndexerSearchMetaData());
+        when(searchResultProcessorMock.transformSearchResults(any())).thenAnswer(invocation -> {
+            List<SearchResultItem> items = invocation.getArgument(0);
+            return items.stream().map(x -> SearchResultWebTO.builder().searchResultId(x.getSearchResultId().toString()).title(x.getTitle()).build()).collect(Collectors.toList());
+        });
+        testee = new SearchResultStream(null, duplicateDetector, searchResultProcessorMock);
+    }
+
+    @Test
+    public void shouldOnlySendNewResultsWithStableDuplicateIdentifiers() {
+        Instant now = Instant.now();
+        SearchResultItem item1 = createItem(1L, "indexer1", "title", now);
+        SearchResultItem item2 = createItem(2L, "indexer1", "another title", now);
+        SearchResultItem item3 = createItem(3L, "indexer2", "title", now);
+        SearchResultItem item4 = createItem(4L, "indexer2", "third title", now);
+
+        StreamedSearchResults first = testee.add(createIndexerSearchResult(item1, item2));
+        assertThat(first.getSearchResults()).hasSize(2);
+        assertThat(first.getNumberOfStreamedResults()).isEqualTo(2);
+        Integer hashOfItem1 = first.getSearchResults().stream().filter(x -> x.getSearchResultId().equals("1")).findFirst().get().getHash();
+        Integer hashOfItem2 = first.getSearchResults().stream().filter(x -> x.getSearchResultId().equals("2")).findFirst().get().getHash();
+        assertThat(hashOfItem1).isNotEqualTo(hashOfItem2);
+
+        StreamedSearchResults second = testee.add(createIndexerSearchResult(item3, item4, item1));
+        assertThat(second.getSearchResults()).hasSize(2);
+        assertThat(second.getNumberOfStreamedResults()).isEqualTo(4);
+        SearchResultWebTO duplicateOfItem1 = second.getSearchResults().stream().filter(x -> x.getSearchResultId().equals("3")).findFirst().get();
+        assertThat(duplicateOfItem1.getHash()).isEqualTo(hashOfItem1);
+        SearchResultWebTO newItem = second.getSearchResults().stream().filter(x -> x.getSearchResultId().equals("4")).findFirst().get();
+        assertThat(newItem.getHash()).isNotIn(hashOfItem1, hashOfItem2);
+
+        //The results are shared with the search and must keep the identifiers it assigned
+        assertThat(item1.getDuplicateIdentifier()).isEqualTo(-1);
+        assertThat(item3.getDuplicateIdentifier()).isEqualTo(-1);
+    }
+
+    @Test
+    public void shouldSendMetaDataForFailedSearch() {
+        StreamedSearchResults results = testee.add(new IndexerSearchResult(null, "error"));
+
+        assertThat(results.getIndexerSearchMetaData()).isNotNull();
+        assertThat(results.getSearchResults()).isEmpty();
+    }
+
+    private IndexerSearchResult createIndexerSearchResult(SearchResultItem... items) {
+        IndexerSearchResult indexerSearchResult = new IndexerSearchResult(items[0].getIndexer(), true);
+        indexerSearchResult.setSearchResultItems(Arrays.asList(items));
+        return indexerSearchResult;
+    }
+
+    private SearchResultItem createItem(long id, String indexerName, String title, Instant pubDate) {
+        SearchResultItem item = new SearchResultItem();
+        item.setSearchResultId(id);
+        item.setTitle(title);
+        item.setPubDate(pubDate);
+        item.setSize(10000L);
+        item.setDuplicateIdentifier(-1);
+        Newznab indexer = new Newznab();
+        IndexerConfig config = new IndexerConfig();
+        config.setName(indexerName);
+        IndexerEntity indexerEntity = new IndexerEntity();
+        indexerEntity.setName(indexerName);
+        indexer.initialize(config, indexerEntity);
+        item.setIndexer(indexer);
+        return item;
+    }
+
+}
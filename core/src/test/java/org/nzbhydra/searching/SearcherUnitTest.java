@@ -2,7 +2,6 @@ package org.nzbhydra.searching;
 
 import com.google.common.collect.HashMultiset;
 import com.google.common.collect.Multiset;
-import com.google.common.collect.Sets;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
@@ -10,11 +9,15 @@ import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
-import org.mockito.invocation.InvocationOnMock;
-import org.mockito.stubbing.Answer;
+import org.mockito.Spy;
+import org.nzbhydra.config.BaseConfig;
 import org.nzbhydra.config.Category;
+import org.nzbhydra.config.ConfigChangedEvent;
+import org.nzbhydra.config.ConfigProvider;
 import org.nzbhydra.config.IndexerConfig;
+import org.nzbhydra.config.SearchingConfig;
 import org.nzbhydra.indexers.Indexer;
+import org.nzbhydra.indexers.IndexerCallExecutor;
 import org.nzbhydra.indexers.IndexerEntity;
 import org.nzbhydra.indexers.IndexerSearchEntity;
 import org.nzbhydra.indexers.IndexerSearchRepository;
@@ -29,16 +32,24 @@ import java.time.Instant;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Random;
-import java.util.stream.Collectors;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -52,8 +63,9 @@ public class SearcherUnitTest {
 
     @Mock
     private SearchModuleProvider searchModuleProviderMock;
+    private DuplicateDetector duplicateDetector = new DuplicateDetector();
     @Mock
-    private DuplicateDetector duplicateDetector;
+    private ConfigProvider configProviderMock;
     @Mock
     private Indexer indexer1;
     @Mock
@@ -75,6 +87,8 @@ public class SearcherUnitTest {
     @Mock
     private IndexerSearchRepository indexerSearchRepository;
     @Mock
+    private WriteBehindPersister writeBehindPersisterMock;
+    @Mock
     private SearchRequest searchRequestMock;
     @Mock
     private IndexerConfig indexerConfigMock;
@@ -86,6 +100,10 @@ public class SearcherUnitTest {
     private IndexerSearchEntity indexerSearchEntityMock;
     @Mock
     private ApplicationEventPublisher applicationEventPublisherMock;
+    @Spy
+    private IndexerCallExecutor indexerCallExecutor = new IndexerCallExecutor();
+    @Spy
+    private SearchCache searchCache = new SearchCache();
     private Random random = new Random();
 
 
@@ -93,6 +111,10 @@ public class SearcherUnitTest {
     public void setUp() {
         MockitoAnnotations.initMocks(this);
         when(searchResultEntityMock.getIndexer()).thenReturn(indexerEntity);
+        BaseConfig baseConfig = new BaseConfig();
+        baseConfig.setSearching(new SearchingConfig());
+        when(configProviderMock.getBaseConfig()).thenReturn(baseConfig);
+        duplicateDetector.configProvider = configProviderMock;
         searcher.duplicateDetector = duplicateDetector;
 
         when(indexer1.getName()).thenReturn("indexer1");
@@ -108,17 +130,6 @@ public class SearcherUnitTest {
         when(indexerSearchRepository.findByIndexerEntityAndSearchEntity(any(), any())).thenReturn(indexerSearchEntityMock);
 
         when(pickingResultMock.getSelectedIndexers()).thenReturn(Arrays.asList(indexer1));
-        when(duplicateDetector.detectDuplicates(any())).thenAnswer(new Answer<DuplicateDetectionResult>() {
-            @Override
-            public DuplicateDetectionResult answer(InvocationOnMock invocation) throws Throwable {
-                List<SearchResultItem> items = invocation.getArgument(0);
-                List<LinkedHashSet<SearchResultItem>> sets = items.stream().map(x -> {
-                    return Sets.newLinkedHashSet(Arrays.asList(x));
-                }).collect(Collectors.toList());
-
-                return new DuplicateDetectionResult(sets, HashMultiset.create());
-            }
-        });
     }
 
 
@@ -192,6 +203,168 @@ public class SearcherUnitTest {
         verify(indexer1, times(2)).search(any(), anyInt(), any());
     }
 
+    @Test
+    public void shouldReportIndexerAsFailedWhenItsCallIsRejected() throws Exception {
+        when(pickingResultMock.getSelectedIndexers()).thenReturn(Arrays.asList(indexer1));
+        doThrow(new RejectedExecutionException("All threads are busy")).when(indexerCallExecutor).submit(any(Callable.class));
+
+        SearchRequest searchRequest = new SearchRequest(SearchSource.API, SearchType.SEARCH, 0, 2);
+        SearchResult result = searcher.search(searchRequest);
+
+        assertThat(result.getSearchResultItems().size(), is(0));
+        assertThat(result.getIndexerSearchResults().size(), is(1));
+        assertThat(result.getIndexerSearchResults().get(0).isWasSuccessful(), is(false));
+        verify(indexer1, never()).search(any(), anyInt(), any());
+    }
+
+    @Test
+    public void shouldReturnPartialResultsWhenDeadlineHasPassed() throws Exception {
+        SearchRequest searchRequest = new SearchRequest(SearchSource.API, SearchType.SEARCH, 0, 2);
+        searchRequest.setTitle("some title so it will be found in the search request cache");
+        searchRequest.setDeadline(1);
+        searchWithIndexer2AnsweringLate(searchRequest);
+
+        //The late results are used when the search is continued
+        searchRequest.setOffset(2);
+        SearchResult result = searcher.search(searchRequest);
+        assertThat(result.getSearchResultItems().size(), is(2));
+        assertThat(result.getSearchResultItems().stream().allMatch(x -> x.getIndexer() == indexer2), is(true));
+        verify(indexer2, times(1)).search(any(), anyInt(), any());
+    }
+
+    @Test
+    public void shouldUseLateResultsWhenSearchIsRepeated() throws Exception {
+        SearchRequest searchRequest = new SearchRequest(SearchSource.API, SearchType.SEARCH, 0, 4);
+        searchRequest.setTitle("some title so it will be found in the search request cache");
+        searchRequest.setDeadline(1);
+        searchWithIndexer2AnsweringLate(searchRequest);
+
+        //A new search for the same request (e.g. the next RSS poll) gets the late results without calling the indexer again
+        SearchResult result = searcher.search(searchRequest);
+        assertThat(result.getSearchResultItems().size(), is(4));
+        assertThat(result.getSearchResultItems().stream().filter(x -> x.getIndexer() == indexer2).count(), is(2L));
+        verify(indexer1, times(2)).search(any(), anyInt(), any());
+        verify(indexer2, times(1)).search(any(), anyInt(), any());
+    }
+
+    @Test
+    public void shouldKeepDeadlineWhenAllIndexerThreadsAreBusy() throws Exception {
+        BaseConfig newConfig = new BaseConfig();
+        newConfig.getSearching().setIndexerCallThreads(1);
+        indexerCallExecutor.handleNewConfig(new ConfigChangedEvent(this, new BaseConfig(), newConfig));
+        CountDownLatch threadMayFinish = new CountDownLatch(1);
+        Future<Object> blockingCall = indexerCallExecutor.submit(() -> threadMayFinish.await(5, TimeUnit.SECONDS));
+        when(indexer1.search(any(), anyInt(), anyInt())).thenReturn(mockIndexerSearchResult(0, 2, false, 2, indexer1));
+
+        SearchRequest searchRequest = new SearchRequest(SearchSource.API, SearchType.SEARCH, 0, 2);
+        searchRequest.setDeadline(1);
+        SearchResult result = searcher.search(searchRequest);
+
+        //The queued call isn't executed in the search thread, so the search returns when the deadline has passed
+        assertThat(result.getSearchResultItems().size(), is(0));
+        assertThat(result.getIndexerSearchResults().get(0).isTimedOut(), is(true));
+        threadMayFinish.countDown();
+        blockingCall.get(5, TimeUnit.SECONDS);
+        verify(indexer1, timeout(5000)).search(any(), anyInt(), any());
+    }
+
+    /**
+     * Executes the search with indexer2 answering only after the deadline has passed and waits until its late results are kept
+     */
+    private void searchWithIndexer2AnsweringLate(SearchRequest searchRequest) throws Exception {
+        when(pickingResultMock.getSelectedIndexers()).thenReturn(Arrays.asList(indexer1, indexer2));
+        when(indexer1.search(any(), anyInt(), anyInt())).thenReturn(mockIndexerSearchResult(0, 2, false, 2, indexer1));
+        CountDownLatch indexer2MayAnswer = new CountDownLatch(1);
+        when(indexer2.search(any(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            indexer2MayAnswer.await(5, TimeUnit.SECONDS);
+            //Other items than indexer1's but also from the first call to the indexer
+            IndexerSearchResult indexerSearchResult = mockIndexerSearchResult(2, 2, false, 2, indexer2);
+            indexerSearchResult.setOffset(0);
+            return indexerSearchResult;
+        });
+        List<Future<?>> indexerCalls = new ArrayList<>();
+        doAnswer(invocation -> {
+            Future<?> future = (Future<?>) invocation.callRealMethod();
+            indexerCalls.add(future);
+            return future;
+        }).when(indexerCallExecutor).submit(any(Callable.class));
+
+        SearchResult result = searcher.search(searchRequest);
+        assertThat(result.getSearchResultItems().size(), is(2));
+        assertThat(result.getSearchResultItems().stream().allMatch(x -> x.getIndexer() == indexer1), is(true));
+        IndexerSearchResult indexer2Result = result.getIndexerSearchResults().stream().filter(x -> x.getIndexer() == indexer2).findFirst().get();
+        assertThat(indexer2Result.isTimedOut(), is(true));
+        assertThat(indexer2Result.isWasSuccessful(), is(false));
+
+        //The calls' futures complete after the late results were kept in the cache entry
+        indexer2MayAnswer.countDown();
+        for (Future<?> indexerCall : new ArrayList<>(indexerCalls)) {
+            indexerCall.get(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    public void shouldShareResultsOfRunningIdenticalSearch() throws Exception {
+        CountDownLatch indexerCalled = new CountDownLatch(1);
+        CountDownLatch indexerMayAnswer = new CountDownLatch(1);
+        when(indexer1.search(any(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            indexerCalled.countDown();
+            indexerMayAnswer.await(5, TimeUnit.SECONDS);
+            return mockIndexerSearchResult(0, 2, false, 2, indexer1);
+        });
+
+        SearchRequest firstRequest = new SearchRequest(SearchSource.API, SearchType.SEARCH, 0, 2);
+        firstRequest.setTitle("title");
+        CompletableFuture<SearchResult> firstResult = CompletableFuture.supplyAsync(() -> searcher.search(firstRequest));
+        assertThat(indexerCalled.await(5, TimeUnit.SECONDS), is(true));
+
+        SearchRequest identicalRequest = new SearchRequest(SearchSource.API, SearchType.SEARCH, 0, 1);
+        identicalRequest.setTitle("title");
+        CompletableFuture<SearchResult> identicalResult = CompletableFuture.supplyAsync(() -> searcher.search(identicalRequest));
+        verify(applicationEventPublisherMock, timeout(5000)).publishEvent(new RunningSearchJoinedEvent(identicalRequest, firstRequest));
+        assertThat(identicalResult.isDone(), is(false));
+        indexerMayAnswer.countDown();
+
+        assertThat(firstResult.get(5, TimeUnit.SECONDS).getSearchResultItems().size(), is(2));
+        assertThat(identicalResult.get(5, TimeUnit.SECONDS).getSearchResultItems().size(), is(1));
+        verify(indexer1, times(1)).search(any(), anyInt(), any());
+        //Both searches are recorded in the history
+        verify(writeBehindPersisterMock, times(2)).save(eq(searchRepositoryMock), any(SearchEntity.class));
+
+        //A later search is executed again
+        searcher.search(identicalRequest);
+        verify(indexer1, times(2)).search(any(), anyInt(), any());
+    }
+
+    @Test
+    public void shouldNotShareResultsOfSearchWithOtherRequiredWords() throws Exception {
+        CountDownLatch indexerCalled = new CountDownLatch(1);
+        CountDownLatch indexerMayAnswer = new CountDownLatch(1);
+        when(indexer1.search(any(), anyInt(), anyInt())).thenAnswer(invocation -> {
+            indexerCalled.countDown();
+            indexerMayAnswer.await(5, TimeUnit.SECONDS);
+            return mockIndexerSearchResult(0, 2, false, 2, indexer1);
+        });
+
+        SearchRequest firstRequest = new SearchRequest(SearchSource.INTERNAL, SearchType.MOVIE, 0, 2);
+        firstRequest.getIdentifiers().put(InfoProvider.IdType.IMDB, "tt0499549");
+        firstRequest.getInternalData().getRequiredWords().add("bluray");
+        CompletableFuture<SearchResult> firstResult = CompletableFuture.supplyAsync(() -> searcher.search(firstRequest));
+        assertThat(indexerCalled.await(5, TimeUnit.SECONDS), is(true));
+
+        SearchRequest otherRequest = new SearchRequest(SearchSource.INTERNAL, SearchType.MOVIE, 0, 2);
+        otherRequest.getIdentifiers().put(InfoProvider.IdType.IMDB, "tt0499549");
+        otherRequest.getInternalData().getRequiredWords().add("web");
+        assertThat(new SearchRequestCacheKey(otherRequest).equals(new SearchRequestCacheKey(firstRequest)), is(false));
+        //Doesn't wait for the running search but calls the indexer itself
+        CompletableFuture<SearchResult> otherResult = CompletableFuture.supplyAsync(() -> searcher.search(otherRequest));
+        verify(indexer1, timeout(5000).times(2)).search(any(), anyInt(), any());
+        indexerMayAnswer.countDown();
+
+        firstResult.get(5, TimeUnit.SECONDS);
+        otherResult.get(5, TimeUnit.SECONDS);
+    }
+
     private IndexerSearchResult mockIndexerSearchResult(int offset, int limit, boolean hasMoreResults, int totalAvailableResults, Indexer indexer) {
 
         List<SearchResultItem> items = new ArrayList<>();
@@ -0,0 +1,58 @@
+package org.nzbhydra.searching;
+
+import org.nzbhydra.config.IndexerConfig;
+import org.nzbhydra.indexers.Indexer;
+import org.nzbhydra.indexers.IndexerEntity;
+import org.nzbhydra.indexers.Newznab;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Creates search results like they're returned when searching many indexers for a popular show: few titles, many releases of every
+ * title and many duplicates between the indexers.
+ */
+public class SyntheticSearchResults {
+
+    public static List<SearchResultItem> create(int count, long seed) {
+        Random random = new Random(seed);
+        List<Indexer> indexers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            Newznab indexer = new Newznab();
+            IndexerConfig config = new IndexerConfig();
+            config.setName("indexer" + i);
+            IndexerEntity indexerEntity = new IndexerEntity();
+            indexerEntity.setName("indexer" + i);
+            indexer.initialize(config, indexerEntity);
+            indexers.add(indexer);
+        }
+        Instant now = Instant.now();
+        int numberOfReleases = Math.max(1, count / 4);
+        int numberOfTitles = Math.max(1, count / 200);
+        List<SearchResultItem> items = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            //Releases are found on several indexers with slightly different sizes and dates
+            Random releaseRandom = new Random(seed + random.nextInt(numberOfReleases));
+            int title = releaseRandom.nextInt(numberOfTitles);
+            long size = 100_000_000L + (long) (releaseRandom.nextDouble() * 10_000_000_000L);
+            Instant date = now.minus(releaseRandom.nextInt(1000 * 24), ChronoUnit.HOURS);
+            String poster = releaseRandom.nextBoolean() ? "poster" + releaseRandom.nextInt(10) : null;
+            String group = releaseRandom.nextBoolean() ? "alt.binaries.group" + releaseRandom.nextInt(10) : null;
+
+            SearchResultItem item = new SearchResultItem();
+            item.setSearchResultId((long) i);
+            item.setTitle((random.nextBoolean() ? "Show.Title." : "Show Title ") + title + ".720p");
+            item.setSize(size + (long) (random.nextGaussian() * size / 500));
+            item.setPubDate(date.plusSeconds((long) (random.nextGaussian() * 60 * 60)));
+            item.setPoster(random.nextInt(10) > 0 ? poster : null);
+            item.setGroup(random.nextInt(10) > 0 ? group : null);
+            item.setIndexer(indexers.get(random.nextInt(indexers.size())));
+            items.add(item);
+        }
+        return items;
+    }
+
+}
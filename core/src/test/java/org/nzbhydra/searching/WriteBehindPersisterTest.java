@@ -0,0 +1,114 @@
+package org.nzbhydra.searching;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class WriteBehindPersisterTest {
+
+    @InjectMocks
+    private WriteBehindPersister testee = new WriteBehindPersister();
+    @Mock
+    private PlatformTransactionManager transactionManagerMock;
+    @Mock
+    private SearchRepository searchRepositoryMock;
+
+    @Before
+    public void setUp() throws Exception {
+        MockitoAnnotations.initMocks(this);
+        testee.afterPropertiesSet();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        testee.destroy();
+    }
+
+    @Test
+    public void shouldSaveQueuedEntitiesInOrder() throws Exception {
+        SearchEntity entity1 = createSearchEntity("query1");
+        SearchEntity entity2 = createSearchEntity("query2");
+        testee.save(searchRepositoryMock, entity1);
+        testee.save(searchRepositoryMock, entity2);
+        testee.flush();
+
+        InOrder inOrder = inOrder(searchRepositoryMock);
+        inOrder.verify(searchRepositoryMock).save(entity1);
+        inOrder.verify(searchRepositoryMock).save(entity2);
+        assertThat(testee.getQueueSize()).isEqualTo(0);
+    }
+
+    @Test
+    public void shouldSaveEntityQueuedMultipleTimesOncePerBatch() throws Exception {
+        CountDownLatch writerBlocked = new CountDownLatch(1);
+        CountDownLatch continueWriting = new CountDownLatch(1);
+        SearchEntity blockingEntity = createSearchEntity("blocking");
+        when(searchRepositoryMock.save(any(SearchEntity.class))).thenAnswer(invocation -> {
+            if (invocation.getArgument(0) == blockingEntity) {
+                writerBlocked.countDown();
+                continueWriting.await(5, TimeUnit.SECONDS);
+            }
+            return invocation.getArgument(0);
+        });
+        testee.save(searchRepositoryMock, blockingEntity);
+        assertThat(writerBlocked.await(5, TimeUnit.SECONDS)).isTrue();
+
+        //Will be written in the same batch
+        SearchEntity entity = createSearchEntity("query");
+        testee.save(searchRepositoryMock, entity);
+        testee.save(searchRepositoryMock, entity);
+        continueWriting.countDown();
+        testee.flush();
+
+        verify(searchRepositoryMock, times(1)).save(entity);
+    }
+
+    @Test
+    public void shouldCreateLazilySavedEntityInWriterThread() throws Exception {
+        SearchEntity entity = createSearchEntity("lazy");
+        Thread callingThread = Thread.currentThread();
+        testee.saveLazily(searchRepositoryMock, () -> {
+            assertThat(Thread.currentThread()).isNotSameAs(callingThread);
+            return entity;
+        });
+        testee.saveLazily(searchRepositoryMock, () -> null);
+        testee.flush();
+
+        verify(searchRepositoryMock, times(1)).save(any(SearchEntity.class));
+        verify(searchRepositoryMock).save(entity);
+    }
+
+    @Test
+    public void shouldWriteQueuedEntitiesOnShutdownAndSaveLaterEntitiesDirectly() throws Exception {
+        SearchEntity queuedEntity = createSearchEntity("queued");
+        testee.save(searchRepositoryMock, queuedEntity);
+        testee.destroy();
+        verify(searchRepositoryMock).save(queuedEntity);
+
+        SearchEntity lateEntity = createSearchEntity("late");
+        testee.save(searchRepositoryMock, lateEntity);
+        verify(searchRepositoryMock).save(lateEntity);
+    }
+
+    private SearchEntity createSearchEntity(String query) {
+        SearchEntity searchEntity = new SearchEntity();
+        searchEntity.setQuery(query);
+        return searchEntity;
+    }
+
+}
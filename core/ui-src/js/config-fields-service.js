@@ -440,6 +440,72 @@ function ConfigFields($injector) {
                                 }
                             }
                         },
+                        {
+                            key: 'apiSearchDeadline',
+                            type: 'horizontalInput',
+                            templateOptions: {
+                                type: 'number',
+                                label: 'API search deadline',
+                                help: 'API searches return the results of all indexers which answered within this time. Indexers taking longer are marked as timed out and finish in the background. Leave empty to wait for all indexers.',
+                                addonRight: {
+                                    text: 'seconds'
+                                }
+                            }
+                        },
+                        {
+                            key: 'searchCacheSizeMb',
+                            type: 'horizontalInput',
+                            templateOptions: {
+                                type: 'number',
+                                label: 'Search cache size',
+                                help: 'Memory used to keep results of recent searches for paging and API caching. When exceeded the least recently used searches are removed.',
+                                addonRight: {
+                                    text: 'MB'
+                                }
+                            }
+                        },
+                        {
+                            key: 'indexerResponseCacheTime',
+                            type: 'horizontalInput',
+                            templateOptions: {
+                                type: 'number',
+                                label: 'Indexer response cache',
+                                help: 'Search responses of indexers are saved in the database and reused for identical searches within this time, also after a restart. Leave empty to disable.',
+                                addonRight: {
+                                    text: 'minutes'
+                                }
+                            }
+                        },
+                        {
+                            key: 'indexerCallThreads',
+                            type: 'horizontalInput',
+                            templateOptions: {
+                                type: 'number',
+                                label: 'Indexer threads',
+                                help: 'Maximum number of threads used for calls to indexers. When all are busy calls wait in a queue and are rejected when it is full. Set to 0 to create threads as needed.',
+                                required: true
+                            }
+                        },
+                        {
+                            key: 'maxConcurrentCallsPerIndexer',
+                            type: 'horizontalInput',
+                            templateOptions: {
+                                type: 'number',
+                                label: 'Concurrent calls per indexer',
+                                help: 'Further calls to the same indexer will wait until one of the running calls is finished.',
+                                required: true
+                            }
+                        },
+                        {
+                            key: 'maxConcurrentSearches',
+                            type: 'horizontalInput',
+                            templateOptions: {
+                                type: 'number',
+                                label: 'Concurrent searches',
+                                help: 'Further searches are rejected until a running one is finished. Set to 0 to allow any number.',
+                                required: true
+                            }
+                        },
                         {
                             key: 'ignoreTemporarilyDisabled',
                             type: 'horizontalSwitch',
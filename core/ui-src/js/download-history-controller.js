@@ -81,10 +81,15 @@ function DownloadHistoryController($scope, StatsService, downloads, ConfigServic
     }
 
 
+    var shownPage = 1;
     $scope.update = function () {
-        StatsService.getDownloadHistory($scope.pagination.current, $scope.limit, $scope.filterModel, sortModel).then(function (downloads) {
+        //When going to the next or previous page the server can seek to the last or first shown entry instead of skipping all previous ones
+        var lastId = $scope.pagination.current === shownPage + 1 && $scope.nzbDownloads.length > 0 ? $scope.nzbDownloads[$scope.nzbDownloads.length - 1].id : undefined;
+        var firstId = $scope.pagination.current === shownPage - 1 && $scope.nzbDownloads.length > 0 ? $scope.nzbDownloads[0].id : undefined;
+        StatsService.getDownloadHistory($scope.pagination.current, $scope.limit, $scope.filterModel, sortModel, lastId, firstId).then(function (downloads) {
             $scope.nzbDownloads = downloads.data.content;
             $scope.totalDownloads = downloads.data.totalElements;
+            shownPage = $scope.pagination.current;
         });
     };
 
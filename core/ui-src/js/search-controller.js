@@ -362,6 +362,17 @@ function SearchUpdateModalInstanceCtrl($scope, $interval, SearchService, $uibMod
     $scope.indexerSelectionFinished = false;
     $scope.indexersSelected = 0;
     $scope.indexersFinished = 0;
+    $scope.numberOfStreamedResults = 0;
+    $scope.streamedIndexerResults = [];
+
+    //Only sent when the search is streamed. The messages and the progress are polled in any case
+    $scope.$on("searchResultsStreamed", function (event, streamedSearchResults) {
+        $scope.numberOfStreamedResults = streamedSearchResults.numberOfStreamedResults;
+        var metaData = streamedSearchResults.indexerSearchMetaData;
+        if (metaData) {
+            $scope.streamedIndexerResults.push(metaData.indexerName + ": " + (metaData.wasSuccessful ? metaData.numberOfFoundResults + " results" : "error"));
+        }
+    });
 
     updateSearchMessagesInterval = $interval(function () {
         SearchService.getSearchState(searchRequestId).then(function (data) {
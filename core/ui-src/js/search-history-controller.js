@@ -66,10 +66,15 @@ function SearchHistoryController($scope, $state, SearchHistoryService, ConfigSer
         $scope.columnSizes.additionalParameters += 5;
     }
 
+    var shownPage = 1;
     $scope.update = function () {
-        SearchHistoryService.getSearchHistory($scope.pagination.current, $scope.limit, $scope.filterModel, sortModel).then(function (history) {
+        //When going to the next or previous page the server can seek to the last or first shown entry instead of skipping all previous ones
+        var lastId = $scope.pagination.current === shownPage + 1 && $scope.searchRequests.length > 0 ? $scope.searchRequests[$scope.searchRequests.length - 1].id : undefined;
+        var firstId = $scope.pagination.current === shownPage - 1 && $scope.searchRequests.length > 0 ? $scope.searchRequests[0].id : undefined;
+        SearchHistoryService.getSearchHistory($scope.pagination.current, $scope.limit, $scope.filterModel, sortModel, undefined, undefined, lastId, firstId).then(function (history) {
             $scope.searchRequests = history.data.content;
             $scope.totalRequests = history.data.totalElements;
+            shownPage = $scope.pagination.current;
         });
     };
 
@@ -19,13 +19,16 @@ function SearchHistoryService($filter, $http) {
         });
     }
 
-    function getSearchHistory(pageNumber, limit, filterModel, sortModel, distinct, onlyCurrentUser) {
+    function getSearchHistory(pageNumber, limit, filterModel, sortModel, distinct, onlyCurrentUser, lastId, firstId) {
         var params = {
             page: pageNumber,
             limit: limit,
             filterModel: filterModel,
             distinct: distinct,
-            onlyCurrentUser: onlyCurrentUser
+            onlyCurrentUser: onlyCurrentUser,
+            lastId: lastId,
+            firstId: firstId,
+            approximateCount: true
         };
         if (angular.isUndefined(pageNumber)) {
             params.page = 1;
@@ -3,7 +3,7 @@ angular
     .module('nzbhydraApp')
     .factory('SearchService', SearchService);
 
-function SearchService($http) {
+function SearchService($http, $q, $rootScope) {
 
 
     var lastExecutedQuery;
@@ -59,7 +59,80 @@ function SearchService($http) {
 
         lastExecutedQuery = uri;
         lastExecutedSearchRequestParameters = searchRequestParameters;
-        return $http.post(uri.toString(), searchRequestParameters).then(processData);
+        return searchStreaming(searchRequestParameters).then(processData, function () {
+            //Streaming didn't work (e.g. because a proxy doesn't support it) so the search is made the old way. An identical search which is
+            //still running will be joined and finished results will be taken from the cache
+            return $http.post(uri.toString(), searchRequestParameters).then(processData);
+        });
+    }
+
+    //Executes the search using the streaming endpoint. The results of every indexer are broadcast as "searchResultsStreamed" as soon as the
+    //indexer has answered. The promise is resolved with the complete response when the search is finished
+    function searchStreaming(searchRequestParameters) {
+        var deferred = $q.defer();
+        var xhr = new XMLHttpRequest();
+        var processedLength = 0;
+        var finished = false;
+        xhr.open("POST", "internalapi/search/stream");
+        xhr.setRequestHeader("Content-Type", "application/json");
+        xhr.setRequestHeader("Accept", "text/event-stream");
+        var xsrfToken = getCookie("XSRF-TOKEN");
+        if (xsrfToken) {
+            xhr.setRequestHeader("X-XSRF-TOKEN", xsrfToken);
+        }
+        xhr.onprogress = parseEvents;
+        xhr.onload = function () {
+            parseEvents();
+            if (!finished) {
+                deferred.reject(xhr);
+            }
+        };
+        xhr.onerror = function () {
+            deferred.reject(xhr);
+        };
+        xhr.send(angular.toJson(searchRequestParameters));
+        return deferred.promise;
+
+        function parseEvents() {
+            if (xhr.status !== 200) {
+                return;
+            }
+            //Events are separated by an empty line
+            var eventEnd = xhr.responseText.indexOf("\n\n", processedLength);
+            while (eventEnd > -1) {
+                var event = parseEvent(xhr.responseText.substring(processedLength, eventEnd));
+                processedLength = eventEnd + 2;
+                if (event.name === "results") {
+                    $rootScope.$evalAsync(function () {
+                        $rootScope.$broadcast("searchResultsStreamed", event.data);
+                    });
+                } else if (event.name === "finished") {
+                    finished = true;
+                    deferred.resolve({data: event.data});
+                }
+                eventEnd = xhr.responseText.indexOf("\n\n", processedLength);
+            }
+        }
+    }
+
+    function parseEvent(text) {
+        var name;
+        var data = "";
+        _.each(text.split("\n"), function (line) {
+            var separator = line.indexOf(":");
+            var value = line.substring(separator + 1).replace(/^ /, "");
+            if (line.indexOf("event:") === 0) {
+                name = value;
+            } else if (line.indexOf("data:") === 0) {
+                data += value;
+            }
+        });
+        return {name: name, data: data ? angular.fromJson(data) : undefined};
+    }
+
+    function getCookie(name) {
+        var match = document.cookie.match(new RegExp("(^|;\\s*)" + name + "=([^;]*)"));
+        return match ? decodeURIComponent(match[2]) : null;
     }
 
     function loadMore(offset, limit, loadAll) {
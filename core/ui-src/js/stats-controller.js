@@ -11,8 +11,8 @@ function StatsController($scope, $filter, StatsService, blockUI, localStorageSer
     };
     var initializingAfter = true;
     var initializingBefore = true;
-    $scope.afterDate = moment().subtract(30, "days").toDate();
-    $scope.beforeDate = moment().add(1, "days").toDate();
+    $scope.afterDate = moment().subtract(30, "days").startOf("day").toDate();
+    $scope.beforeDate = moment().add(1, "days").startOf("day").toDate();
     var historyInfoTypeUserEnabled = ConfigService.getSafe().logging.historyUserInfoType === 'USERNAME' || ConfigService.getSafe().logging.historyUserInfoType === 'BOTH';
     var historyInfoTypeIpEnabled = ConfigService.getSafe().logging.historyUserInfoType === 'IP' || ConfigService.getSafe().logging.historyUserInfoType === 'BOTH';
     $scope.foo = {
@@ -17,8 +17,8 @@ function StatsService($http) {
         });
     }
 
-    function getDownloadHistory(pageNumber, limit, filterModel, sortModel) {
-        var params = {page: pageNumber, limit: limit, filterModel: filterModel};
+    function getDownloadHistory(pageNumber, limit, filterModel, sortModel, lastId, firstId) {
+        var params = {page: pageNumber, limit: limit, filterModel: filterModel, lastId: lastId, firstId: firstId, approximateCount: true};
         if (angular.isUndefined(pageNumber)) {
             params.page = 1;
         }